@@ -0,0 +1,206 @@
+/*
+ * Copyright 2008-2021 Async-IO.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atmosphere.annotation.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.NoSuchFileException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * An annotation processor that writes the index of the classes annotated with Atmosphere's annotations to
+ * <code>META-INF/atmosphere/annotations.idx</code>. When the index is present on the classpath,
+ * {@link org.atmosphere.cpr.DefaultAnnotationProcessor} reads it instead of scanning the classes and the jars of the
+ * application, see {@link org.atmosphere.cpr.ApplicationConfig#USE_ANNOTATION_INDEX}.
+ * <p/>
+ * The index contains the classes annotated with the annotations of <code>org.atmosphere.config.service</code>, the
+ * {@link org.atmosphere.config.AtmosphereAnnotation} {@link org.atmosphere.annotation.Processor}s and the classes
+ * annotated with the annotation handled by such a Processor, if the Processor is compiled with the classes. Custom
+ * annotations whose Processor is defined in another jar can be added with
+ * <code>-Aorg.atmosphere.annotations=com.acme.Foo,com.acme.Bar</code>.
+ * <p/>
+ * The processor is registered as a service, hence javac discovers it on the compile classpath. Since JDK 23, javac
+ * no longer runs the processors it discovers unless <code>-proc:full</code> is set, or the processor is named with
+ * <code>-processor</code> or put on the <code>--processor-path</code>.
+ * <p/>
+ * An incremental compilation only sees the recompiled classes, so the entries of the existing index are kept if their
+ * class hasn't been recompiled and still exists. Each line of the index is an annotation and an annotated class,
+ * separated by a space.
+ */
+@SupportedAnnotationTypes("*")
+@SupportedOptions(AnnotationIndexProcessor.ANNOTATIONS_OPTION)
+public class AnnotationIndexProcessor extends AbstractProcessor {
+
+    /**
+     * The location of the index, read by {@link org.atmosphere.cpr.DefaultAnnotationProcessor#ANNOTATION_INDEX}.
+     */
+    public static final String INDEX = "META-INF/atmosphere/annotations.idx";
+
+    /**
+     * A list, separated by comma, of custom annotations to index.
+     */
+    public static final String ANNOTATIONS_OPTION = "org.atmosphere.annotations";
+
+    private static final String SERVICE_PACKAGE = "org.atmosphere.config.service.";
+    private static final String ATMOSPHERE_ANNOTATION = "org.atmosphere.config.AtmosphereAnnotation";
+
+    private final Set<String> custom = new HashSet<>();
+    private final Set<String> found = new TreeSet<>();
+    // The classes compiled by this compilation, whose entries of the existing index are replaced
+    private final Set<String> compiled = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            write();
+        } else {
+            for (Element e : roundEnv.getRootElements()) {
+                collect(e);
+            }
+        }
+        // Never claim the annotations.
+        return false;
+    }
+
+    private void collect(Element e) {
+        if (!(e instanceof TypeElement)) return;
+
+        TypeElement type = (TypeElement) e;
+        String className = processingEnv.getElementUtils().getBinaryName(type).toString();
+        compiled.add(className);
+        for (AnnotationMirror m : type.getAnnotationMirrors()) {
+            String annotation = binaryName(m.getAnnotationType());
+            found.add(annotation + " " + className);
+
+            if (ATMOSPHERE_ANNOTATION.equals(annotation)) {
+                for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> v : m.getElementValues().entrySet()) {
+                    if (v.getKey().getSimpleName().contentEquals("value") && v.getValue().getValue() instanceof TypeMirror) {
+                        custom.add(binaryName((TypeMirror) v.getValue().getValue()));
+                    }
+                }
+            }
+        }
+
+        for (Element enclosed : type.getEnclosedElements()) {
+            collect(enclosed);
+        }
+    }
+
+    private String binaryName(TypeMirror t) {
+        if (t instanceof DeclaredType) {
+            Element e = ((DeclaredType) t).asElement();
+            if (e instanceof TypeElement) {
+                return processingEnv.getElementUtils().getBinaryName((TypeElement) e).toString();
+            }
+        }
+        return t.toString();
+    }
+
+    private void write() {
+        String option = processingEnv.getOptions().get(ANNOTATIONS_OPTION);
+        if (option != null) {
+            for (String s : option.split(",")) {
+                if (!s.trim().isEmpty()) custom.add(s.trim());
+            }
+        }
+
+        Set<String> lines = new TreeSet<>();
+        boolean exists = readIndex(lines);
+        for (String f : found) {
+            String annotation = f.substring(0, f.indexOf(' '));
+            if (annotation.startsWith(SERVICE_PACKAGE) || ATMOSPHERE_ANNOTATION.equals(annotation) || custom.contains(annotation)) {
+                lines.add(f);
+            }
+        }
+        if (lines.isEmpty() && !exists) return;
+
+        try {
+            FileObject index = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", INDEX);
+            try (Writer w = new OutputStreamWriter(index.openOutputStream(), StandardCharsets.UTF_8)) {
+                w.write("# Generated by " + getClass().getName() + "\n");
+                for (String l : lines) {
+                    w.write(l);
+                    w.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "Unable to write " + INDEX + ": " + e);
+        }
+    }
+
+    /**
+     * Add the entries of the index written by a previous compilation whose class hasn't been compiled again and still exists.
+     *
+     * @return true if there is an index
+     */
+    private boolean readIndex(Set<String> lines) {
+        try {
+            FileObject index = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", INDEX);
+            try (Reader r = new InputStreamReader(index.openInputStream(), StandardCharsets.UTF_8);
+                 BufferedReader reader = new BufferedReader(r)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    int space = line.indexOf(' ');
+                    if (line.startsWith("#") || space < 0) continue;
+
+                    String className = line.substring(space + 1).trim();
+                    if (!compiled.contains(className) && exists(className)) {
+                        lines.add(line.trim());
+                    }
+                }
+            }
+            return true;
+        } catch (FileNotFoundException | NoSuchFileException e) {
+            return false;
+        } catch (IOException | IllegalArgumentException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, "Unable to read " + INDEX + ": " + e);
+            return false;
+        }
+    }
+
+    private boolean exists(String className) {
+        return processingEnv.getElementUtils().getTypeElement(className.replace('$', '.')) != null;
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2008-2021 Async-IO.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atmosphere.annotation.processor;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class AnnotationIndexProcessorTest {
+
+    private Path output;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        output = Files.createTempDirectory("annotation-index");
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(output)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void testIndex() throws IOException {
+        compile(Collections.<String>emptyList(),
+                source("com.acme.Chat",
+                        "package com.acme;",
+                        "@org.atmosphere.config.service.ManagedService(path = \"/chat\")",
+                        "public class Chat {",
+                        "    @org.atmosphere.config.service.Singleton",
+                        "    public static class Inner {}",
+                        "}"),
+                source("com.acme.Plain",
+                        "package com.acme;",
+                        "@Deprecated",
+                        "public class Plain {}"));
+
+        assertEquals(index(), Arrays.asList(
+                "# Generated by " + AnnotationIndexProcessor.class.getName(),
+                "org.atmosphere.config.service.ManagedService com.acme.Chat",
+                "org.atmosphere.config.service.Singleton com.acme.Chat$Inner"));
+    }
+
+    @Test
+    public void testCustomAnnotation() throws IOException {
+        compile(Collections.<String>emptyList(),
+                source("com.acme.Custom",
+                        "package com.acme;",
+                        "@java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME)",
+                        "public @interface Custom {}"),
+                source("com.acme.CustomProcessor",
+                        "package com.acme;",
+                        "@org.atmosphere.config.AtmosphereAnnotation(Custom.class)",
+                        "public class CustomProcessor {}"),
+                source("com.acme.Annotated",
+                        "package com.acme;",
+                        "@Custom",
+                        "public class Annotated {}"));
+
+        assertEquals(index(), Arrays.asList(
+                "# Generated by " + AnnotationIndexProcessor.class.getName(),
+                "com.acme.Custom com.acme.Annotated",
+                "org.atmosphere.config.AtmosphereAnnotation com.acme.CustomProcessor"));
+    }
+
+    @Test
+    public void testAnnotationsOption() throws IOException {
+        compile(Collections.singletonList("-A" + AnnotationIndexProcessor.ANNOTATIONS_OPTION + "=java.lang.Deprecated"),
+                source("com.acme.Plain",
+                        "package com.acme;",
+                        "@Deprecated",
+                        "public class Plain {}"));
+
+        assertEquals(index(), Arrays.asList(
+                "# Generated by " + AnnotationIndexProcessor.class.getName(),
+                "java.lang.Deprecated com.acme.Plain"));
+    }
+
+    @Test
+    public void testNoIndexWithoutAnnotatedClasses() throws IOException {
+        compile(Collections.<String>emptyList(),
+                source("com.acme.Plain",
+                        "package com.acme;",
+                        "public class Plain {}"));
+
+        assertFalse(output.resolve(AnnotationIndexProcessor.INDEX).toFile().exists());
+    }
+
+    @Test
+    public void testIncrementalCompilation() throws IOException {
+        compile(Collections.<String>emptyList(),
+                source("com.acme.Chat",
+                        "package com.acme;",
+                        "@org.atmosphere.config.service.ManagedService(path = \"/chat\")",
+                        "public class Chat {}"));
+        compile(Collections.<String>emptyList(),
+                source("com.acme.Room",
+                        "package com.acme;",
+                        "@org.atmosphere.config.service.Singleton",
+                        "public class Room {}"));
+
+        assertEquals(index(), Arrays.asList(
+                "# Generated by " + AnnotationIndexProcessor.class.getName(),
+                "org.atmosphere.config.service.ManagedService com.acme.Chat",
+                "org.atmosphere.config.service.Singleton com.acme.Room"));
+
+        // The annotation has been removed from a recompiled class, and a class has been deleted.
+        Files.delete(output.resolve("com/acme/Room.class"));
+        compile(Collections.<String>emptyList(),
+                source("com.acme.Chat",
+                        "package com.acme;",
+                        "public class Chat {}"));
+
+        assertEquals(index(), Collections.singletonList("# Generated by " + AnnotationIndexProcessor.class.getName()));
+    }
+
+    private void compile(List<String> options, JavaFileObject... sources) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fm = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+            List<String> args = new ArrayList<String>(options);
+            // The classes of a previous compilation are on the classpath, as with an incremental compilation
+            args.addAll(Arrays.asList("-d", output.toString(),
+                    "-classpath", System.getProperty("java.class.path") + File.pathSeparator + output));
+
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fm, null, args, null, Arrays.asList(sources));
+            task.setProcessors(Collections.singletonList(new AnnotationIndexProcessor()));
+            assertTrue(task.call());
+        }
+    }
+
+    private List<String> index() throws IOException {
+        return Files.readAllLines(output.resolve(AnnotationIndexProcessor.INDEX), StandardCharsets.UTF_8);
+    }
+
+    private static JavaFileObject source(String className, String... lines) {
+        final String content = String.join("\n", lines);
+        return new SimpleJavaFileObject(URI.create("string:///" + className.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension),
+                JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return content;
+            }
+        };
+    }
+}
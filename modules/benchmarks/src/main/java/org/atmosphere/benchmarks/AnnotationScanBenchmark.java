@@ -0,0 +1,203 @@
+/*
+ * Copyright 2008-2021 Async-IO.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atmosphere.benchmarks;
+
+import org.atmosphere.config.service.AtmosphereHandlerService;
+import org.atmosphere.config.service.ManagedService;
+import org.atmosphere.util.annotation.AnnotationDetector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Measure the time {@link AnnotationDetector} takes to scan a synthetic classpath of {@link #CLASSES} class files for
+ * the annotations of <code>org.atmosphere.config.service</code>, as {@link org.atmosphere.cpr.DefaultAnnotationProcessor}
+ * does at startup. The classpath is a <code>WEB-INF/classes</code> like directory and {@link #JARS} jars; one class in a
+ * hundred is annotated with {@link ManagedService}, the others with {@link Deprecated} or nothing.
+ * <p/>
+ * Every fork measures a single, cold, scan, like a deployment does.
+ * For example: <code>java -jar target/benchmarks.jar AnnotationScanBenchmark -p parallelism=1,4</code>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(10)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+public class AnnotationScanBenchmark {
+
+    static final int CLASSES = 5000;
+    static final int JARS = 6;
+    private static final int FILLER_CONSTANTS = 100;
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    private File root;
+    private File[] classPath;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("atmosphere-scan").toFile();
+        File classes = new File(root, "classes");
+
+        int perJar = CLASSES / (JARS + 1);
+        int i = 0;
+        classPath = new File[JARS + 1];
+        for (int j = 0; j < JARS; j++) {
+            classPath[j] = new File(root, "lib-" + j + ".jar");
+            try (ZipOutputStream jar = new ZipOutputStream(new FileOutputStream(classPath[j]))) {
+                for (int n = 0; n < perJar; n++, i++) {
+                    jar.putNextEntry(new ZipEntry(className(i) + ".class"));
+                    jar.write(classFile(i));
+                    jar.closeEntry();
+                }
+            }
+        }
+
+        for (; i < CLASSES; i++) {
+            File f = new File(classes, className(i) + ".class");
+            f.getParentFile().mkdirs();
+            try (OutputStream out = new FileOutputStream(f)) {
+                out.write(classFile(i));
+            }
+        }
+        classPath[JARS] = classes;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        delete(root);
+    }
+
+    @Benchmark
+    public int scan() throws IOException {
+        Reporter reporter = new Reporter();
+        AnnotationDetector detector = new AnnotationDetector(reporter).parallelism(parallelism);
+        try {
+            detector.detect(classPath);
+        } finally {
+            detector.destroy();
+        }
+
+        if (reporter.found != CLASSES / 100) {
+            throw new IllegalStateException("Found " + reporter.found + " annotated classes");
+        }
+        return reporter.found;
+    }
+
+    private static String className(int i) {
+        return "com/acme/p" + (i % 50) + "/Class" + i;
+    }
+
+    /**
+     * A minimal class file: a class, extending Object, with some constants and maybe an annotation.
+     */
+    private static byte[] classFile(int i) throws IOException {
+        String annotation = i % 100 == 0 ? "Lorg/atmosphere/config/service/ManagedService;"
+                : i % 2 == 0 ? "Ljava/lang/Deprecated;" : null;
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0xCAFEBABE);
+        out.writeShort(0);
+        out.writeShort(52);
+
+        out.writeShort(7 + FILLER_CONSTANTS);
+        utf8(out, className(i));                   // 1
+        out.writeByte(7);                          // 2, Class #1
+        out.writeShort(1);
+        utf8(out, "java/lang/Object");             // 3
+        out.writeByte(7);                          // 4, Class #3
+        out.writeShort(3);
+        utf8(out, "RuntimeVisibleAnnotations");    // 5
+        utf8(out, annotation == null ? "Lcom/acme/None;" : annotation); // 6
+        for (int c = 0; c < FILLER_CONSTANTS; c++) {
+            utf8(out, "com/acme/Constant" + c + "_" + i);
+        }
+
+        out.writeShort(0x0021);
+        out.writeShort(2);
+        out.writeShort(4);
+        out.writeShort(0); // interfaces
+        out.writeShort(0); // fields
+        out.writeShort(0); // methods
+        if (annotation == null) {
+            out.writeShort(0);
+        } else {
+            out.writeShort(1);
+            out.writeShort(5);
+            out.writeInt(6);
+            out.writeShort(1);
+            out.writeShort(6);
+            out.writeShort(0);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static void utf8(DataOutputStream out, String s) throws IOException {
+        out.writeByte(1);
+        out.writeUTF(s);
+    }
+
+    private static void delete(File f) {
+        File[] children = f.listFiles();
+        if (children != null) {
+            for (File c : children) {
+                delete(c);
+            }
+        }
+        f.delete();
+    }
+
+    private static final class Reporter implements AnnotationDetector.TypeReporter {
+        int found;
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public Class<? extends Annotation>[] annotations() {
+            return new Class[]{ManagedService.class, AtmosphereHandlerService.class};
+        }
+
+        @Override
+        public void reportTypeAnnotation(Class<? extends Annotation> annotation, String className) {
+            found++;
+        }
+    }
+}
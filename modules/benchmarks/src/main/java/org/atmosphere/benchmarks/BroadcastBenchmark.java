@@ -0,0 +1,100 @@
+/*
+ * Copyright 2008-2021 Async-IO.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atmosphere.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure the fan-out of a message to all the {@link org.atmosphere.cpr.AtmosphereResource}s of a
+ * {@link org.atmosphere.cpr.Broadcaster}, using {@link org.atmosphere.cpr.Broadcaster#broadcast(Object)} and
+ * {@link org.atmosphere.cpr.Broadcaster#broadcast(Object, java.util.Set)}. An operation completes once the message
+ * has been written to every resource.
+ * <ul>
+ * <li>The throughput benchmarks report the broadcasts per second, and the delivered messages per second as
+ * <code>messages</code>.</li>
+ * <li>The latency benchmarks report the fan-out latency percentiles, including p0.99.</li>
+ * <li>With <code>-prof gc</code>, <code>gc.alloc.rate.norm</code> is the number of bytes allocated per broadcast, by all
+ * threads. Divide it by <code>resources</code> to get the bytes allocated per delivered message.</li>
+ * </ul>
+ * For example: <code>java -jar target/benchmarks.jar BroadcastBenchmark -p resources=1,1000,100000 -prof gc</code>
+ */
+@Threads(1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class BroadcastBenchmark {
+
+    private static final String MESSAGE = "{\"author\":\"atmosphere\",\"message\":\"benchmark\"}";
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Deliveries {
+        public long messages;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            messages = 0;
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void broadcast(FanOut fanOut, Deliveries deliveries) {
+        fanOut.broadcaster().broadcast(MESSAGE);
+        fanOut.await(fanOut.resources);
+        deliveries.messages += fanOut.resources;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void broadcastToSet(FanOut fanOut, Deliveries deliveries) {
+        fanOut.broadcaster().broadcast(MESSAGE, fanOut.subset());
+        fanOut.await(fanOut.resources);
+        deliveries.messages += fanOut.resources;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void broadcastLatency(FanOut fanOut) {
+        fanOut.broadcaster().broadcast(MESSAGE);
+        fanOut.await(fanOut.resources);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void broadcastToSetLatency(FanOut fanOut) {
+        fanOut.broadcaster().broadcast(MESSAGE, fanOut.subset());
+        fanOut.await(fanOut.resources);
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2008-2021 Async-IO.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atmosphere.benchmarks;
+
+import org.atmosphere.cpr.ApplicationConfig;
+import org.atmosphere.cpr.AsyncIOWriterAdapter;
+import org.atmosphere.cpr.AtmosphereConfig;
+import org.atmosphere.cpr.AtmosphereFramework;
+import org.atmosphere.cpr.AtmosphereRequest;
+import org.atmosphere.cpr.AtmosphereRequestImpl;
+import org.atmosphere.cpr.AtmosphereResource;
+import org.atmosphere.cpr.AtmosphereResourceEvent;
+import org.atmosphere.cpr.AtmosphereResponse;
+import org.atmosphere.cpr.AtmosphereResponseImpl;
+import org.atmosphere.cpr.Broadcaster;
+import org.atmosphere.cpr.DefaultBroadcaster;
+import org.atmosphere.handler.AbstractReflectorAtmosphereHandler;
+import org.atmosphere.util.SimpleBroadcaster;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link Broadcaster} with {@link #resources} suspended WebSocket {@link AtmosphereResource}s. Messages go through the
+ * {@link AbstractReflectorAtmosphereHandler} and the {@link AtmosphereResponse} of every resource, down to an
+ * {@link org.atmosphere.cpr.AsyncIOWriter} that discards them, hence only the cost of the fan-out is measured.
+ */
+@State(Scope.Benchmark)
+public class FanOut {
+
+    private static final long DELIVERY_TIMEOUT = TimeUnit.SECONDS.toNanos(60);
+
+    @Param({"1", "100", "1000", "10000", "100000"})
+    public int resources;
+
+    @Param({"DefaultBroadcaster", "SimpleBroadcaster"})
+    public String broadcaster;
+
+    private final AtomicLong delivered = new AtomicLong();
+    private AtmosphereFramework framework;
+    private Broadcaster b;
+    private Set<AtmosphereResource> subset;
+    private long expected;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        framework = new AtmosphereFramework()
+                .addInitParameter(ApplicationConfig.WEBSOCKET_SUPPRESS_JSR356, "true")
+                .init();
+        AtmosphereConfig config = framework.getAtmosphereConfig();
+
+        Class<? extends Broadcaster> clazz = SimpleBroadcaster.class.getSimpleName().equals(broadcaster)
+                ? SimpleBroadcaster.class : DefaultBroadcaster.class;
+        b = config.getBroadcasterFactory().lookup(clazz, "/benchmark", true);
+
+        Handler handler = new Handler();
+        handler.init(config);
+        AsyncIOWriterAdapter writer = new AsyncIOWriterAdapter();
+        for (int i = 0; i < resources; i++) {
+            AtmosphereRequest request = AtmosphereRequestImpl.newInstance();
+            AtmosphereResponse response = new AtmosphereResponseImpl.Builder()
+                    .request(request)
+                    .asyncIOWriter(writer)
+                    .build();
+
+            config.resourcesFactory().create(config, b, request, response, framework.getAsyncSupport(), handler,
+                    AtmosphereResource.TRANSPORT.WEBSOCKET).suspend();
+        }
+
+        subset = new HashSet<AtmosphereResource>(b.getAtmosphereResources());
+        if (subset.size() != resources) {
+            throw new IllegalStateException("Expected " + resources + " AtmosphereResources, got " + subset.size());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        framework.destroy();
+    }
+
+    public Broadcaster broadcaster() {
+        return b;
+    }
+
+    public Set<AtmosphereResource> subset() {
+        return subset;
+    }
+
+    /**
+     * Wait until the last broadcast message has been delivered to every {@link AtmosphereResource}. Must be called by
+     * a single benchmark thread.
+     *
+     * @param deliveries the number of deliveries expected for the last message
+     */
+    public void await(int deliveries) {
+        expected += deliveries;
+        long start = System.nanoTime();
+        while (delivered.get() < expected) {
+            if (System.nanoTime() - start > DELIVERY_TIMEOUT) {
+                throw new IllegalStateException("Only " + delivered.get() + " of " + expected + " messages delivered");
+            }
+            Thread.yield();
+        }
+    }
+
+    private final class Handler extends AbstractReflectorAtmosphereHandler {
+
+        @Override
+        public void onRequest(AtmosphereResource resource) throws IOException {
+        }
+
+        @Override
+        public void onStateChange(AtmosphereResourceEvent event) throws IOException {
+            super.onStateChange(event);
+            delivered.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2008-2021 Async-IO.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atmosphere.benchmarks;
+
+import org.atmosphere.container.BlockingIOCometSupport;
+import org.atmosphere.cpr.ApplicationConfig;
+import org.atmosphere.cpr.AsyncIOWriterAdapter;
+import org.atmosphere.cpr.AtmosphereFramework;
+import org.atmosphere.cpr.AtmosphereRequest;
+import org.atmosphere.cpr.AtmosphereRequestImpl;
+import org.atmosphere.cpr.AtmosphereResource;
+import org.atmosphere.cpr.AtmosphereResponse;
+import org.atmosphere.cpr.AtmosphereResponseImpl;
+import org.atmosphere.cpr.Broadcaster;
+import org.atmosphere.cpr.HeaderConfig;
+import org.atmosphere.handler.AbstractReflectorAtmosphereHandler;
+import org.atmosphere.util.ExecutorsFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure a round of {@link #connections} blocking long-polling connections served by the {@link BlockingIOCometSupport}:
+ * every connection is suspended by a request thread waiting on the {@link BlockingIOCometSupport} latch, then a single
+ * message is broadcasted and written with a blocking write of {@link #writeLatency} microseconds, which resumes the
+ * connection and releases its request thread. An operation completes once every request thread has returned.
+ * <p/>
+ * With <code>threads=platform</code> the request threads are platform threads and the Broadcaster uses the default
+ * thread pools. With <code>threads=virtual</code>, both the request threads and the Broadcaster's executors use virtual
+ * threads, see {@link ApplicationConfig#USE_VIRTUAL_THREADS}; it requires Java 21 or newer.
+ * <p/>
+ * For example: <code>java -jar target/benchmarks.jar LongPollingBenchmark -p threads=platform,virtual</code>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g", "-Xss256k"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@State(Scope.Benchmark)
+public class LongPollingBenchmark {
+
+    private static final String MESSAGE = "{\"author\":\"atmosphere\",\"message\":\"benchmark\"}";
+    private static final long SUSPEND_TIMEOUT = TimeUnit.SECONDS.toNanos(60);
+
+    @Param({"50000"})
+    public int connections;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"100"})
+    public int writeLatency;
+
+    private AtmosphereFramework framework;
+    private Broadcaster b;
+    private ExecutorService requestThreads;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        boolean virtual = "virtual".equals(threads);
+        if (virtual && !ExecutorsFactory.virtualThreadsSupported()) {
+            throw new IllegalStateException("Virtual threads require Java 21 or newer");
+        }
+
+        framework = new AtmosphereFramework()
+                .addInitParameter(ApplicationConfig.WEBSOCKET_SUPPRESS_JSR356, "true")
+                .addInitParameter(ApplicationConfig.DISABLE_ATMOSPHEREINTERCEPTOR, "true")
+                .addInitParameter(ApplicationConfig.USE_VIRTUAL_THREADS, String.valueOf(virtual))
+                .init();
+        framework.setAsyncSupport(new BlockingIOCometSupport(framework.getAtmosphereConfig()));
+        framework.addAtmosphereHandler("/benchmark", new Handler());
+        b = framework.getAtmosphereHandlers().get(framework.normalizePath("/benchmark")).broadcaster;
+
+        // One request thread per connection, as a blocking servlet container would do.
+        requestThreads = virtual ? ExecutorsFactory.newVirtualThreadExecutor(false, "LongPolling-")
+                : Executors.newCachedThreadPool(new ExecutorsFactory.AtmosphereThreadFactory(false, "LongPolling-"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        requestThreads.shutdownNow();
+        framework.destroy();
+    }
+
+    @Benchmark
+    public void longPolling() throws Exception {
+        CountDownLatch done = new CountDownLatch(connections);
+        BlockingWriter writer = new BlockingWriter(writeLatency);
+        for (int i = 0; i < connections; i++) {
+            requestThreads.execute(() -> {
+                try {
+                    AtmosphereRequest request = new AtmosphereRequestImpl.Builder()
+                            .pathInfo("/benchmark")
+                            .headers(Collections.singletonMap(HeaderConfig.X_ATMOSPHERE_TRANSPORT, HeaderConfig.LONG_POLLING_TRANSPORT))
+                            .build();
+                    AtmosphereResponse response = new AtmosphereResponseImpl.Builder()
+                            .request(request)
+                            .asyncIOWriter(writer)
+                            .build();
+                    framework.doCometSupport(request, response);
+                } catch (Exception ex) {
+                    throw new IllegalStateException(ex);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        long start = System.nanoTime();
+        while (b.getAtmosphereResources().size() < connections) {
+            if (System.nanoTime() - start > SUSPEND_TIMEOUT) {
+                throw new IllegalStateException("Only " + b.getAtmosphereResources().size() + " of " + connections + " connections suspended");
+            }
+            Thread.sleep(1);
+        }
+
+        b.broadcast(MESSAGE);
+        if (!done.await(60, TimeUnit.SECONDS)) {
+            throw new IllegalStateException(done.getCount() + " connections not resumed");
+        }
+    }
+
+    private static final class BlockingWriter extends AsyncIOWriterAdapter {
+        private final long latency;
+
+        BlockingWriter(long latency) {
+            this.latency = latency;
+        }
+
+        @Override
+        public BlockingWriter write(AtmosphereResponse r, String data) throws IOException {
+            block();
+            return this;
+        }
+
+        @Override
+        public BlockingWriter write(AtmosphereResponse r, byte[] data) throws IOException {
+            block();
+            return this;
+        }
+
+        @Override
+        public BlockingWriter write(AtmosphereResponse r, byte[] data, int offset, int length) throws IOException {
+            block();
+            return this;
+        }
+
+        private void block() throws IOException {
+            try {
+                TimeUnit.MICROSECONDS.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+        }
+    }
+
+    private static final class Handler extends AbstractReflectorAtmosphereHandler {
+
+        @Override
+        public void onRequest(AtmosphereResource resource) throws IOException {
+            resource.suspend();
+        }
+    }
+}
@@ -16,6 +16,8 @@
 package org.atmosphere.cache;
 
 import org.atmosphere.cpr.AtmosphereConfig;
+import org.atmosphere.cpr.AtmosphereMetrics;
+import org.atmosphere.cpr.AtmosphereMetricsAdapter;
 import org.atmosphere.cpr.AtmosphereResource;
 import org.atmosphere.cpr.BroadcasterCache;
 import org.atmosphere.cpr.BroadcasterCacheListener;
@@ -25,9 +27,11 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -58,6 +62,7 @@ public abstract class AbstractBroadcasterCache implements BroadcasterCache {
     protected final List<Object> emptyList = Collections.emptyList();
     protected final List<BroadcasterCacheListener> listeners = new LinkedList<>();
     protected AtmosphereConfig config;
+    protected AtmosphereMetrics metrics = new AtmosphereMetricsAdapter();
 
     @Override
     public void start() {
@@ -73,9 +78,14 @@ public abstract class AbstractBroadcasterCache implements BroadcasterCache {
                     }
                 }
 
+                Map<String, Integer> evicted = new HashMap<>();
                 for (CacheMessage expiredMessage : expiredMessages) {
                     messages.remove(expiredMessage);
                     messagesIds.remove(expiredMessage.getId());
+                    evicted.merge(expiredMessage.broadcasterId(), 1, Integer::sum);
+                }
+                for (Map.Entry<String, Integer> entry : evicted.entrySet()) {
+                    metrics.onCacheEviction(entry.getKey(), entry.getValue());
                 }
             } finally {
                 readWriteLock.writeLock().unlock();
@@ -100,6 +110,10 @@ public abstract class AbstractBroadcasterCache implements BroadcasterCache {
     }
 
     protected CacheMessage put(BroadcastMessage message, Long now, String uuid) {
+        return put(message, now, uuid, null);
+    }
+
+    protected CacheMessage put(BroadcastMessage message, Long now, String uuid, String broadcasterId) {
         if (!inspect(message)) return null;
 
         logger.trace("Caching message {} for Broadcaster {}", message.message(), uuid);
@@ -109,7 +123,7 @@ public abstract class AbstractBroadcasterCache implements BroadcasterCache {
         try {
             boolean hasMessageWithSameId = messagesIds.contains(message.id());
             if (!hasMessageWithSameId) {
-                cacheMessage = new CacheMessage(message.id(), now, message.message(), uuid);
+                cacheMessage = new CacheMessage(message.id(), now, message.message(), uuid, broadcasterId);
                 messages.add(cacheMessage);
                 messagesIds.add(message.id());
             }
@@ -137,6 +151,20 @@ public abstract class AbstractBroadcasterCache implements BroadcasterCache {
         return result;
     }
 
+    /**
+     * Return the number of cached messages.
+     *
+     * @return the number of cached messages
+     */
+    public int size() {
+        readWriteLock.readLock().lock();
+        try {
+            return messages.size();
+        } finally {
+            readWriteLock.readLock().unlock();
+        }
+    }
+
     /**
      * Set the delay between cache purges.
      *
@@ -185,6 +213,7 @@ public abstract class AbstractBroadcasterCache implements BroadcasterCache {
             reaper = Executors.newSingleThreadScheduledExecutor();
         }
         this.config = config;
+        this.metrics = config.framework().metrics();
     }
 
     @Override
@@ -25,19 +25,22 @@ public class CacheMessage implements Serializable {
     private final String id;
     private final long createTime;
     private final String uuid;
+    private final String broadcasterId;
 
     public CacheMessage(String id, Object message, String uuid) {
-        this.id = id;
-        this.message = message;
-        this.createTime = System.nanoTime();
-        this.uuid = uuid;
+        this(id, System.nanoTime(), message, uuid, null);
     }
 
     public CacheMessage(String id, Long now, Object message, String uuid) {
+        this(id, now, message, uuid, null);
+    }
+
+    public CacheMessage(String id, long now, Object message, String uuid, String broadcasterId) {
         this.id = id;
         this.message = message;
         this.createTime = now;
         this.uuid = uuid;
+        this.broadcasterId = broadcasterId;
     }
 
     public Object getMessage() {
@@ -63,4 +66,12 @@ public class CacheMessage implements Serializable {
     public String uuid(){
         return uuid;
     }
+
+    /**
+     * Return the {@link org.atmosphere.cpr.Broadcaster#getID()} the message was cached for, or null if unknown.
+     * @return the {@link org.atmosphere.cpr.Broadcaster#getID()}
+     */
+    public String broadcasterId() {
+        return broadcasterId;
+    }
 }
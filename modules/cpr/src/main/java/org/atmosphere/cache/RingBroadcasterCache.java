@@ -0,0 +1,587 @@
+/*
+ * Copyright 2008-2021 Async-IO.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atmosphere.cache;
+
+import org.atmosphere.cpr.AtmosphereConfig;
+import org.atmosphere.cpr.AtmosphereMetrics;
+import org.atmosphere.cpr.AtmosphereMetricsAdapter;
+import org.atmosphere.cpr.AtmosphereResource;
+import org.atmosphere.cpr.BroadcasterCache;
+import org.atmosphere.cpr.BroadcasterCacheListener;
+import org.atmosphere.util.ExecutorsFactory;
+import org.atmosphere.util.UUIDProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.atmosphere.cpr.ApplicationConfig.RING_BROADCASTERCACHE_CLIENT_IDLETIME;
+import static org.atmosphere.cpr.ApplicationConfig.RING_BROADCASTERCACHE_IDLE_CACHE_INTERVAL;
+import static org.atmosphere.cpr.ApplicationConfig.RING_BROADCASTERCACHE_SIZE;
+
+/**
+ * A {@link BroadcasterCache} that stores messages once per {@link org.atmosphere.cpr.Broadcaster}, in a bounded
+ * append-only log, instead of copying them for every {@link AtmosphereResource} like the {@link UUIDBroadcasterCache}.
+ * <p/>
+ * Every cached message gets a monotonic sequence number. Each client only tracks the sequence number of the last message
+ * it has received (its cursor), so retrieving cached messages is a slice of the log starting at the client's cursor and memory
+ * stays proportional to the number of messages plus the number of clients. When the log is full, the oldest messages are
+ * evicted, even if some clients haven't received them.
+ * <p/>
+ * Messages cached for a single {@link AtmosphereResource}, e.g messages lost because of an I/O exception, are stored in
+ * the same log and only returned to that {@link AtmosphereResource}.
+ */
+public class RingBroadcasterCache implements BroadcasterCache {
+
+    private final static Logger logger = LoggerFactory.getLogger(RingBroadcasterCache.class);
+
+    public final static int DEFAULT_SIZE = 1024;
+
+    private final Map<String, Log> logs = new ConcurrentHashMap<>();
+
+    protected final List<BroadcasterCacheInspector> inspectors = new LinkedList<>();
+    protected final List<BroadcasterCacheListener> listeners = new LinkedList<>();
+    private ScheduledFuture<?> scheduledFuture;
+    protected ScheduledExecutorService taskScheduler;
+    private long clientIdleTime = TimeUnit.SECONDS.toMillis(60); // 1 minutes
+    private long invalidateCacheInterval = TimeUnit.SECONDS.toMillis(30); // 30 seconds
+    private int size = DEFAULT_SIZE;
+    private boolean shared = true;
+    private UUIDProvider uuidProvider;
+    private AtmosphereMetrics metrics = new AtmosphereMetricsAdapter();
+
+    public RingBroadcasterCache() {
+    }
+
+    @Override
+    public void configure(AtmosphereConfig config) {
+        Object o = config.properties().get("shared");
+        if (o != null) {
+            shared = Boolean.parseBoolean(o.toString());
+        }
+
+        if (shared) {
+            taskScheduler = ExecutorsFactory.getScheduler(config);
+        } else {
+            taskScheduler = Executors.newSingleThreadScheduledExecutor();
+        }
+
+        size = config.getInitParameter(RING_BROADCASTERCACHE_SIZE, DEFAULT_SIZE);
+
+        clientIdleTime = TimeUnit.SECONDS.toMillis(
+                Long.parseLong(config.getInitParameter(RING_BROADCASTERCACHE_CLIENT_IDLETIME, "60")));
+
+        invalidateCacheInterval = TimeUnit.SECONDS.toMillis(
+                Long.parseLong(config.getInitParameter(RING_BROADCASTERCACHE_IDLE_CACHE_INTERVAL, "30")));
+
+        uuidProvider = config.uuidProvider();
+        metrics = config.framework().metrics();
+    }
+
+    @Override
+    public void start() {
+        scheduledFuture = taskScheduler.scheduleWithFixedDelay(this::invalidateExpiredEntries, 0, invalidateCacheInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        cleanup();
+
+        if (taskScheduler != null) {
+            taskScheduler.shutdown();
+        }
+    }
+
+    @Override
+    public void cleanup() {
+        logs.clear();
+        inspectors.clear();
+
+        if (scheduledFuture != null) {
+            scheduledFuture.cancel(false);
+            scheduledFuture = null;
+        }
+    }
+
+    @Override
+    public CacheMessage addToCache(String broadcasterId, String uuid, BroadcastMessage message) {
+        if (logger.isTraceEnabled()) {
+            logger.trace("Adding for AtmosphereResource {} cached messages {}", uuid, message.message());
+        }
+
+        String messageId = uuidProvider.generateUuid();
+        String target = uuid.equals(NULL) ? null : uuid;
+        if (!inspect(message)) {
+            return new CacheMessage(messageId, message.message(), uuid);
+        }
+
+        Log log = log(broadcasterId);
+        if (target != null) {
+            log.candidate(target, System.currentTimeMillis());
+        }
+
+        Entry entry = log.append(messageId, message.message(), uuid, target);
+        if (entry.sequence() > 0) {
+            notifyAddCache(broadcasterId, entry);
+        }
+        return entry;
+    }
+
+    @Override
+    public List<Object> retrieveFromCache(String broadcasterId, String uuid) {
+        return retrieveFromCache(broadcasterId, uuid, -1);
+    }
+
+    /**
+     * Retrieve the messages cached for the {@link AtmosphereResource}. If lastSequence is greater than zero, it is used as the
+     * client's cursor instead of the tracked one, e.g the client tells which message it has received last.
+     *
+     * @param broadcasterId the {@link org.atmosphere.cpr.Broadcaster#getID()}
+     * @param uuid          the {@link AtmosphereResource#uuid()}
+     * @param lastSequence  the sequence of the last message received by the client, or -1.
+     * @return a {@link List} of messages
+     */
+    public List<Object> retrieveFromCache(String broadcasterId, String uuid, long lastSequence) {
+        List<Entry> entries = retrieveEntries(broadcasterId, uuid, lastSequence);
+        if (entries.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Object> l = new ArrayList<>(entries.size());
+        for (Entry e : entries) {
+            l.add(e.getMessage());
+        }
+        return l;
+    }
+
+    /**
+     * Same as {@link #retrieveFromCache(String, String, long)}, but return the {@link Entry}s, which give access to the sequence
+     * number of every message.
+     *
+     * @param broadcasterId the {@link org.atmosphere.cpr.Broadcaster#getID()}
+     * @param uuid          the {@link AtmosphereResource#uuid()}
+     * @param lastSequence  the sequence of the last message received by the client, or -1.
+     * @return a {@link List} of {@link Entry}
+     */
+    public List<Entry> retrieveEntries(String broadcasterId, String uuid, long lastSequence) {
+        Log log = log(broadcasterId);
+        List<Entry> l = log.slice(uuid, lastSequence, System.currentTimeMillis());
+        metrics.onCacheRetrieve(broadcasterId, l.size());
+        if (logger.isTraceEnabled()) {
+            logger.trace("Retrieved for AtmosphereResource {} cached messages {}", uuid, l.size());
+        }
+        return l;
+    }
+
+    @Override
+    public BroadcasterCache clearCache(String broadcasterId, String uuid, CacheMessage message) {
+        if (!(message instanceof Entry) || ((Entry) message).sequence() <= 0) {
+            return this;
+        }
+
+        Log log = logs.get(broadcasterId);
+        if (log != null && log.delivered(uuid, ((Entry) message).sequence())) {
+            logger.trace("Removing for AtmosphereResource {} cached message {}", uuid, message.getMessage());
+            notifyRemoveCache(broadcasterId, new CacheMessage(message.getId(), message.getCreateTime(), message.getMessage(), uuid));
+        }
+        return this;
+    }
+
+    @Override
+    public BroadcasterCache excludeFromCache(String broadcasterId, AtmosphereResource r) {
+        Log log = logs.get(broadcasterId);
+        if (log != null) {
+            log.exclude(r.uuid());
+        }
+        return this;
+    }
+
+    @Override
+    public BroadcasterCache cacheCandidate(String broadcasterId, String uuid) {
+        log(broadcasterId).candidate(uuid, System.currentTimeMillis());
+        return this;
+    }
+
+    @Override
+    public BroadcasterCache inspector(BroadcasterCacheInspector b) {
+        inspectors.add(b);
+        return this;
+    }
+
+    @Override
+    public BroadcasterCache addBroadcasterCacheListener(BroadcasterCacheListener l) {
+        listeners.add(l);
+        return this;
+    }
+
+    @Override
+    public BroadcasterCache removeBroadcasterCacheListener(BroadcasterCacheListener l) {
+        listeners.remove(l);
+        return this;
+    }
+
+    /**
+     * Return the sequence number of the last message cached for the {@link org.atmosphere.cpr.Broadcaster}.
+     *
+     * @param broadcasterId the {@link org.atmosphere.cpr.Broadcaster#getID()}
+     * @return the sequence number of the last message cached, or 0
+     */
+    public long lastSequence(String broadcasterId) {
+        Log log = logs.get(broadcasterId);
+        return log == null ? 0 : log.lastSequence();
+    }
+
+    /**
+     * Return the number of messages currently cached for the {@link org.atmosphere.cpr.Broadcaster}.
+     *
+     * @param broadcasterId the {@link org.atmosphere.cpr.Broadcaster#getID()}
+     * @return the number of cached messages
+     */
+    public int size(String broadcasterId) {
+        Log log = logs.get(broadcasterId);
+        return log == null ? 0 : log.size();
+    }
+
+    /**
+     * Return the number of clients tracked for the {@link org.atmosphere.cpr.Broadcaster}.
+     *
+     * @param broadcasterId the {@link org.atmosphere.cpr.Broadcaster#getID()}
+     * @return the number of clients
+     */
+    public int clients(String broadcasterId) {
+        Log log = logs.get(broadcasterId);
+        return log == null ? 0 : log.clients.size();
+    }
+
+    protected boolean inspect(BroadcastMessage m) {
+        for (BroadcasterCacheInspector b : inspectors) {
+            if (!b.inspect(m)) return false;
+        }
+        return true;
+    }
+
+    public void setInvalidateCacheInterval(long invalidateCacheInterval) {
+        this.invalidateCacheInterval = invalidateCacheInterval;
+        scheduledFuture.cancel(true);
+        start();
+    }
+
+    public void setClientIdleTime(long clientIdleTime) {
+        this.clientIdleTime = clientIdleTime;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    protected void invalidateExpiredEntries() {
+        long now = System.currentTimeMillis();
+        for (Log log : logs.values()) {
+            log.invalidate(now, clientIdleTime);
+        }
+    }
+
+    private Log log(String broadcasterId) {
+        Log log = logs.get(broadcasterId);
+        if (log == null) {
+            Log newLog = new Log(broadcasterId, size, metrics);
+            log = logs.putIfAbsent(broadcasterId, newLog);
+            if (log == null) {
+                log = newLog;
+            }
+        }
+        return log;
+    }
+
+    private void notifyAddCache(String broadcasterId, CacheMessage message) {
+        for (BroadcasterCacheListener l : listeners) {
+            try {
+                l.onAddCache(broadcasterId, message);
+            } catch (Exception ex) {
+                logger.warn("Listener exception", ex);
+            }
+        }
+    }
+
+    private void notifyRemoveCache(String broadcasterId, CacheMessage message) {
+        for (BroadcasterCacheListener l : listeners) {
+            try {
+                l.onRemoveCache(broadcasterId, message);
+            } catch (Exception ex) {
+                logger.warn("Listener exception", ex);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getName();
+    }
+
+    public List<BroadcasterCacheListener> listeners() {
+        return listeners;
+    }
+
+    public List<BroadcasterCacheInspector> inspectors() {
+        return inspectors;
+    }
+
+    /**
+     * A cached message and its sequence number. Entries not stored in the log, because no client was tracked, have a sequence of 0.
+     */
+    public final static class Entry extends CacheMessage {
+        private static final long serialVersionUID = -126253550299206646L;
+
+        private final long sequence;
+        private final String target;
+        private final long timestamp;
+
+        Entry(String id, Object message, String uuid, long sequence, String target, long timestamp) {
+            super(id, message, uuid);
+            this.sequence = sequence;
+            this.target = target;
+            this.timestamp = timestamp;
+        }
+
+        /**
+         * Return the sequence number of this message, unique and increasing per {@link org.atmosphere.cpr.Broadcaster}.
+         *
+         * @return the sequence number
+         */
+        public long sequence() {
+            return sequence;
+        }
+
+        boolean isFor(String uuid) {
+            return target == null || target.equals(uuid);
+        }
+    }
+
+    /**
+     * The cursor of a client.
+     */
+    private final static class Cursor {
+        // Every message up to this sequence has been delivered.
+        long delivered;
+        // Messages delivered after a gap, writes may complete out of order.
+        TreeSet<Long> ahead;
+        // Messages (excludedAt, resumedAt] must not be delivered, the client was excluded from the cache.
+        long excludedAt = Long.MAX_VALUE;
+        long resumedAt = Long.MAX_VALUE;
+        volatile long lastSeen;
+
+        Cursor(long delivered, long now) {
+            this.delivered = delivered;
+            this.lastSeen = now;
+        }
+
+        boolean accept(Entry e) {
+            return e.sequence > delivered && (ahead == null || !ahead.contains(e.sequence)) && !excluded(e);
+        }
+
+        boolean excluded(Entry e) {
+            return e.sequence > excludedAt && e.sequence <= resumedAt;
+        }
+    }
+
+    /**
+     * The bounded log of a {@link org.atmosphere.cpr.Broadcaster}. All mutations are guarded by the log's monitor.
+     */
+    private final static class Log {
+        private final String broadcasterId;
+        private final AtmosphereMetrics metrics;
+        private final Entry[] ring;
+        private final Map<String, Cursor> clients = new ConcurrentHashMap<>();
+        // Sequence of the oldest entry in the ring.
+        private long head = 1;
+        // Sequence of the next entry.
+        private long tail = 1;
+
+        Log(String broadcasterId, int size, AtmosphereMetrics metrics) {
+            this.broadcasterId = broadcasterId;
+            this.metrics = metrics;
+            ring = new Entry[Math.max(1, size)];
+        }
+
+        synchronized Entry append(String id, Object message, String uuid, String target) {
+            long now = System.currentTimeMillis();
+            if (clients.isEmpty()) {
+                // Nobody will ever read it.
+                return new Entry(id, message, uuid, 0, target, now);
+            }
+
+            Entry e = new Entry(id, message, uuid, tail, target, now);
+            if (tail - head == ring.length) {
+                Entry overwritten = ring[index(head)];
+                ring[index(head)] = null;
+                head++;
+                if (overwritten != null && pending(overwritten)) {
+                    metrics.onCacheEviction(broadcasterId, 1);
+                }
+            }
+            ring[index(tail)] = e;
+            tail++;
+            return e;
+        }
+
+        synchronized List<Entry> slice(String uuid, long lastSequence, long now) {
+            Cursor c = candidate(uuid, now);
+            if (lastSequence > 0) {
+                c.delivered = lastSequence;
+            }
+
+            List<Entry> l = null;
+            for (long s = Math.max(head, c.delivered + 1); s < tail; s++) {
+                Entry e = ring[index(s)];
+                if (e != null && e.isFor(uuid) && c.accept(e)) {
+                    if (l == null) {
+                        l = new ArrayList<>();
+                    }
+                    l.add(e);
+                }
+            }
+            c.delivered = tail - 1;
+            c.ahead = null;
+            c.excludedAt = Long.MAX_VALUE;
+            c.resumedAt = Long.MAX_VALUE;
+            return l == null ? Collections.<Entry>emptyList() : l;
+        }
+
+        synchronized Cursor candidate(String uuid, long now) {
+            Cursor c = clients.get(uuid);
+            if (c == null) {
+                // Only messages cached from now on are candidates.
+                c = new Cursor(tail - 1, now);
+                clients.put(uuid, c);
+            } else {
+                if (c.excludedAt != Long.MAX_VALUE && c.resumedAt == Long.MAX_VALUE) {
+                    c.resumedAt = tail - 1;
+                }
+                c.lastSeen = now;
+            }
+            return c;
+        }
+
+        synchronized boolean delivered(String uuid, long sequence) {
+            Cursor c = clients.get(uuid);
+            if (c == null || sequence <= c.delivered) {
+                return false;
+            }
+            if (c.ahead == null) {
+                c.ahead = new TreeSet<>();
+            }
+            if (!c.ahead.add(sequence)) {
+                return false;
+            }
+
+            // Only move the cursor over messages delivered, evicted or not meant for the client.
+            if (c.delivered < head - 1) {
+                c.delivered = head - 1;
+                c.ahead.headSet(head).clear();
+            }
+            long next;
+            while ((next = c.delivered + 1) < tail) {
+                Entry e = ring[index(next)];
+                if (c.ahead.remove(next) || e == null || !e.isFor(uuid) || c.excluded(e)) {
+                    c.delivered = next;
+                } else {
+                    break;
+                }
+            }
+            if (c.ahead.isEmpty()) {
+                c.ahead = null;
+            }
+            c.lastSeen = System.currentTimeMillis();
+            return true;
+        }
+
+        synchronized void exclude(String uuid) {
+            Cursor c = clients.get(uuid);
+            if (c != null) {
+                c.excludedAt = tail - 1;
+                c.resumedAt = Long.MAX_VALUE;
+            }
+        }
+
+        synchronized void invalidate(long now, long clientIdleTime) {
+            long minDelivered = Long.MAX_VALUE;
+            Iterator<Map.Entry<String, Cursor>> i = clients.entrySet().iterator();
+            while (i.hasNext()) {
+                Map.Entry<String, Cursor> entry = i.next();
+                Cursor c = entry.getValue();
+                if (now - c.lastSeen > clientIdleTime) {
+                    logger.trace("Invalidate client {}", entry.getKey());
+                    i.remove();
+                } else {
+                    minDelivered = Math.min(minDelivered, c.delivered);
+                }
+            }
+
+            // Evict what everybody has received, and messages older than what a client may wait for.
+            int evicted = 0;
+            while (head < tail) {
+                Entry e = ring[index(head)];
+                if (e == null || e.sequence <= minDelivered || now - e.timestamp > clientIdleTime) {
+                    if (e != null && e.sequence > minDelivered) {
+                        evicted++;
+                    }
+                    ring[index(head)] = null;
+                    head++;
+                } else {
+                    break;
+                }
+            }
+            if (evicted > 0) {
+                metrics.onCacheEviction(broadcasterId, evicted);
+            }
+        }
+
+        /**
+         * Return true if a client has not received the entry yet.
+         */
+        private boolean pending(Entry e) {
+            for (Map.Entry<String, Cursor> c : clients.entrySet()) {
+                if (e.isFor(c.getKey()) && c.getValue().accept(e)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        synchronized long lastSequence() {
+            return tail - 1;
+        }
+
+        synchronized int size() {
+            return (int) (tail - head);
+        }
+
+        private int index(long sequence) {
+            return (int) (sequence % ring.length);
+        }
+    }
+}
@@ -43,7 +43,7 @@ public class SessionBroadcasterCache extends AbstractBroadcasterCache {
     @Override
     public CacheMessage addToCache(String broadcasterId, String uuid, BroadcastMessage message) {
         long now = System.nanoTime();
-        CacheMessage cacheMessage = put(message, now, uuid);
+        CacheMessage cacheMessage = put(message, now, uuid, broadcasterId);
 
         if (uuid.equals(NULL)) return cacheMessage;
 
@@ -87,7 +87,9 @@ public class SessionBroadcasterCache extends AbstractBroadcasterCache {
             if (cacheHeaderTimeStr == null) return result;
             long cacheHeaderTime = Long.parseLong(cacheHeaderTimeStr);
 
-            return get(cacheHeaderTime);
+            result = get(cacheHeaderTime);
+            metrics.onCacheRetrieve(broadcasterId, result.size());
+            return result;
         } catch (IllegalStateException ex) {
             logger.trace("", ex);
             logger.warn("The Session has been invalidated. Unable to retrieve cached messages");
@@ -16,6 +16,8 @@
 package org.atmosphere.cache;
 
 import org.atmosphere.cpr.AtmosphereConfig;
+import org.atmosphere.cpr.AtmosphereMetrics;
+import org.atmosphere.cpr.AtmosphereMetricsAdapter;
 import org.atmosphere.cpr.AtmosphereResource;
 import org.atmosphere.cpr.BroadcasterCache;
 import org.atmosphere.cpr.BroadcasterCacheListener;
@@ -25,6 +27,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -68,6 +71,7 @@ public class UUIDBroadcasterCache implements BroadcasterCache {
     protected final List<Object> emptyList = Collections.emptyList();
     protected final List<BroadcasterCacheListener> listeners = new LinkedList<>();
     private UUIDProvider uuidProvider;
+    private AtmosphereMetrics metrics = new AtmosphereMetricsAdapter();
 
     public UUIDBroadcasterCache() {
     }
@@ -92,6 +96,7 @@ public class UUIDBroadcasterCache implements BroadcasterCache {
                 Long.parseLong(config.getInitParameter(UUIDBROADCASTERCACHE_IDLE_CACHE_INTERVAL, "30")));
 
         uuidProvider = config.uuidProvider();
+        metrics = config.framework().metrics();
     }
 
     @Override
@@ -134,7 +139,7 @@ public class UUIDBroadcasterCache implements BroadcasterCache {
             cache = false;
         }
 
-        CacheMessage cacheMessage = new CacheMessage(messageId, message.message(), uuid);
+        CacheMessage cacheMessage = new CacheMessage(messageId, System.nanoTime(), message.message(), uuid, broadcasterId);
         if (cache) {
             if (uuid.equals(NULL)) {
                 //no clients are connected right now, caching message for all active clients
@@ -161,8 +166,10 @@ public class UUIDBroadcasterCache implements BroadcasterCache {
                     logger.trace("Retrieved for AtmosphereResource {} cached messages {}", uuid, (long) clientQueue.size());
                     logger.trace("Available cached message {}", messages);
                 }
+                metrics.onCacheRetrieve(broadcasterId, clientQueue.size());
                 return clientQueue.parallelStream().map(CacheMessage::getMessage).collect(Collectors.toList());
             } else {
+                metrics.onCacheRetrieve(broadcasterId, 0);
                 return Collections.emptyList();
             }
         } finally {
@@ -295,16 +302,43 @@ public class UUIDBroadcasterCache implements BroadcasterCache {
             }
         }
 
+        Map<String, Integer> evicted = new HashMap<>();
         for (String clientId : inactiveClients) {
             activeClients.remove(clientId);
-            messages.remove(clientId);
+            evict(clientId, evicted);
         }
 
         for (String msg : messages().keySet()) {
             if (!activeClients().containsKey(msg)) {
-                messages().remove(msg);
+                evict(msg, evicted);
             }
         }
+
+        for (Map.Entry<String, Integer> entry : evicted.entrySet()) {
+            metrics.onCacheEviction(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void evict(String clientId, Map<String, Integer> evicted) {
+        ConcurrentLinkedQueue<CacheMessage> clientQueue = messages.remove(clientId);
+        if (clientQueue != null) {
+            for (CacheMessage m : clientQueue) {
+                evicted.merge(m.broadcasterId(), 1, Integer::sum);
+            }
+        }
+    }
+
+    /**
+     * Return the number of cached messages, for all the clients.
+     *
+     * @return the number of cached messages
+     */
+    public int size() {
+        int size = 0;
+        for (ConcurrentLinkedQueue<CacheMessage> clientQueue : messages.values()) {
+            size += clientQueue.size();
+        }
+        return size;
     }
 
     @Override
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2008-2021 Async-IO.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atmosphere.config.managed;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The {@link Encoder}s or {@link Decoder}s of a method, with their type argument resolved once. The codecs applicable to
+ * a message are computed once per runtime class of the message and cached in a {@link ClassValue}, hence encoding or
+ * decoding a message doesn't resolve any type and doesn't lock.
+ * <p/>
+ * The codecs are fixed when the table is created.
+ *
+ * @param <C> {@link Encoder} or {@link Decoder}
+ */
+public final class CodecTable<C> {
+
+    private final List<C> codecs;
+    private final Class<?>[] types;
+    private final ClassValue<List<C>> applicable = new ClassValue<List<C>>() {
+        @Override
+        protected List<C> computeValue(Class<?> type) {
+            List<C> l = new ArrayList<C>(codecs.size());
+            for (int i = 0; i < types.length; i++) {
+                if (types[i] != null && types[i].isAssignableFrom(type)) {
+                    l.add(codecs.get(i));
+                }
+            }
+            return l.isEmpty() ? Collections.<C>emptyList() : Collections.unmodifiableList(l);
+        }
+    };
+
+    private CodecTable(List<? extends C> codecs, Class<?> codecType) {
+        this.codecs = Collections.unmodifiableList(new ArrayList<C>(codecs));
+        this.types = new Class<?>[codecs.size()];
+        for (int i = 0; i < types.length; i++) {
+            Class<?>[] typeArguments = TypeResolver.resolveArguments(cast(this.codecs.get(i).getClass()), cast(codecType));
+            types[i] = typeArguments != null && typeArguments.length > 0 ? typeArguments[0] : null;
+        }
+    }
+
+    public static CodecTable<Encoder<?, ?>> encoders(List<Encoder<?, ?>> encoders) {
+        return new CodecTable<Encoder<?, ?>>(encoders, Encoder.class);
+    }
+
+    public static CodecTable<Decoder<?, ?>> decoders(List<Decoder<?, ?>> decoders) {
+        return new CodecTable<Decoder<?, ?>>(decoders, Decoder.class);
+    }
+
+    /**
+     * Return all the codecs, in their declaration order.
+     *
+     * @return all the codecs
+     */
+    public List<C> all() {
+        return codecs;
+    }
+
+    public boolean isEmpty() {
+        return codecs.isEmpty();
+    }
+
+    /**
+     * Return the codecs whose type argument is assignable from a class, in their declaration order.
+     *
+     * @param type the runtime class of a message
+     * @return the applicable codecs
+     */
+    public List<C> applicable(Class<?> type) {
+        return applicable.get(type);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Class<Object> cast(Class<?> c) {
+        return (Class<Object>) c;
+    }
+}
@@ -15,6 +15,7 @@
  */
 package org.atmosphere.config.managed;
 
+import org.atmosphere.util.CompiledMethod;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,6 +42,17 @@ public class Invoker {
         return decodedObject;
     }
 
+    public static Object decode(
+            CodecTable<Decoder<?, ?>> decoders,
+            Object instanceType) {
+
+        Object decodedObject = matchDecoder(instanceType, decoders);
+        if (instanceType == null) {
+            logger.trace("No Encoder matching {}", instanceType);
+        }
+        return decodedObject;
+    }
+
     public static Object invokeMethod(Method method, Object objectToInvoke, Object ... parameters) {
         Object objectToEncode = null;
         boolean hasMatch = false;
@@ -59,6 +71,48 @@ public class Invoker {
         return objectToEncode;
     }
 
+    /**
+     * Invoke a {@link CompiledMethod} with one parameter, ignored if the method takes none.
+     */
+    public static Object invokeMethod(CompiledMethod method, Object objectToInvoke, Object parameter) {
+        Object objectToEncode = null;
+        boolean hasMatch = false;
+        try {
+            objectToEncode = method.arity() == 0 ? method.invoke(objectToInvoke) : method.invoke(objectToInvoke, parameter);
+            hasMatch = true;
+        } catch (IllegalAccessException | IllegalArgumentException e) {
+            logger.trace("", e);
+        } catch (Throwable e) {
+            logger.error("", e);
+        }
+
+        if (!hasMatch) {
+            logger.trace("No Method's Arguments {} matching {}", method.method().getName(), objectToInvoke);
+        }
+        return objectToEncode;
+    }
+
+    /**
+     * Invoke a {@link CompiledMethod} with two parameters, ignored if the method takes none.
+     */
+    public static Object invokeMethod(CompiledMethod method, Object objectToInvoke, Object parameter1, Object parameter2) {
+        Object objectToEncode = null;
+        boolean hasMatch = false;
+        try {
+            objectToEncode = method.arity() == 0 ? method.invoke(objectToInvoke) : method.invoke(objectToInvoke, parameter1, parameter2);
+            hasMatch = true;
+        } catch (IllegalAccessException | IllegalArgumentException e) {
+            logger.trace("", e);
+        } catch (Throwable e) {
+            logger.error("", e);
+        }
+
+        if (!hasMatch) {
+            logger.trace("No Method's Arguments {} matching {}", method.method().getName(), objectToInvoke);
+        }
+        return objectToEncode;
+    }
+
     public static Object encode(List<Encoder<?, ?>> encoders, Object objectToEncode) {
         Object encodedObject = matchEncoder(objectToEncode, encoders);
         if (encodedObject == null) {
@@ -67,6 +121,14 @@ public class Invoker {
         return encodedObject;
     }
 
+    public static Object encode(CodecTable<Encoder<?, ?>> encoders, Object objectToEncode) {
+        Object encodedObject = matchEncoder(objectToEncode, encoders);
+        if (encodedObject == null) {
+            logger.trace("No Encoder matching {}", objectToEncode);
+        }
+        return encodedObject;
+    }
+
     public static Object all(
             List<Encoder<?, ?>> encoders,
             List<Decoder<?, ?>> decoders,
@@ -90,6 +152,26 @@ public class Invoker {
         return encodedObject == null ? objectToEncode : encodedObject;
     }
 
+    public static Object all(
+            CodecTable<Encoder<?, ?>> encoders,
+            CodecTable<Decoder<?, ?>> decoders,
+            Object instanceType,
+            Object objectToInvoke,
+            CompiledMethod method) {
+
+        Object decodedObject = decode(decoders, instanceType);
+        decodedObject = decodedObject == null ? instanceType : decodedObject;
+
+        logger.trace("{} .on {}", method.method().getName(), decodedObject);
+        Object objectToEncode = invokeMethod(method, objectToInvoke, decodedObject);
+
+        Object encodedObject = null;
+        if (objectToEncode != null) {
+            encodedObject = encode(encoders, objectToEncode);
+        }
+        return encodedObject == null ? objectToEncode : encodedObject;
+    }
+
     public static Object matchDecoder(Object instanceType, List<Decoder<?, ?>> decoders) {
         Object decodedObject = decoders.isEmpty() ? instanceType : null;
         for (Decoder d : decoders) {
@@ -120,4 +202,36 @@ public class Invoker {
         }
         return encodedObject;
     }
+
+    /**
+     * Same as {@link #matchDecoder(Object, List)}, using the {@link Decoder}s applicable to the class of the message.
+     */
+    public static Object matchDecoder(Object instanceType, CodecTable<Decoder<?, ?>> decoders) {
+        Object decodedObject = decoders.isEmpty() ? instanceType : null;
+        if (instanceType == null) return decodedObject;
+
+        for (Decoder d : decoders.applicable(instanceType.getClass())) {
+            logger.trace("{} is trying to decode {}", d, instanceType);
+            try {
+                decodedObject = d.decode(instanceType);
+            } catch (Exception e) {
+                logger.trace("", e);
+            }
+        }
+        return decodedObject;
+    }
+
+    /**
+     * Same as {@link #matchEncoder(Object, List)}, using the {@link Encoder}s applicable to the class of the message.
+     */
+    public static Object matchEncoder(Object instanceType, CodecTable<Encoder<?, ?>> encoders) {
+        if (instanceType == null) return null;
+
+        Object encodedObject = encoders.isEmpty() ? instanceType : null;
+        for (Encoder d : encoders.applicable(instanceType.getClass())) {
+            logger.trace("{} is trying to encode {}", d, instanceType);
+            encodedObject = d.encode(instanceType);
+        }
+        return encodedObject;
+    }
 }
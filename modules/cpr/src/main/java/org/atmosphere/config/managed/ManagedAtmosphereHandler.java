@@ -32,11 +32,14 @@ import org.atmosphere.cpr.AtmosphereHandler;
 import org.atmosphere.cpr.AtmosphereRequest;
 import org.atmosphere.cpr.AtmosphereResource;
 import org.atmosphere.cpr.AtmosphereResourceEvent;
+import org.atmosphere.cpr.AtmosphereResourceEventImpl;
 import org.atmosphere.cpr.AtmosphereResourceFactory;
 import org.atmosphere.cpr.AtmosphereResourceHeartbeatEventListener;
 import org.atmosphere.cpr.AtmosphereResourceImpl;
+import org.atmosphere.cpr.BroadcastPayload;
 import org.atmosphere.handler.AbstractReflectorAtmosphereHandler;
 import org.atmosphere.handler.AnnotatedProxy;
+import org.atmosphere.util.CompiledMethod;
 import org.atmosphere.util.IOUtils;
 import org.atmosphere.util.Utils;
 import org.slf4j.Logger;
@@ -50,11 +53,11 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 import static org.atmosphere.cpr.AtmosphereResourceEventListenerAdapter.OnClose;
 import static org.atmosphere.cpr.AtmosphereResourceEventListenerAdapter.OnResume;
@@ -72,24 +75,25 @@ public class ManagedAtmosphereHandler extends AbstractReflectorAtmosphereHandler
 
     private static IllegalArgumentException IAE;
     private final static Logger logger = LoggerFactory.getLogger(ManagedAtmosphereHandler.class);
-    private final static List<Decoder<?, ?>> EMPTY = Collections.emptyList();
+    private final static CodecTable<Decoder<?, ?>> EMPTY = CodecTable.decoders(Collections.<Decoder<?, ?>>emptyList());
     private Object proxiedInstance;
     protected List<MethodInfo> onRuntimeMethod;
-    private Method onHeartbeatMethod;
-    private Method onDisconnectMethod;
-    private Method onTimeoutMethod;
-    private Method onGetMethod;
-    private Method onPostMethod;
-    private Method onPutMethod;
-    private Method onDeleteMethod;
-    private Method onReadyMethod;
-    private Method onResumeMethod;
+    private CompiledMethod onHeartbeatMethod;
+    private CompiledMethod onDisconnectMethod;
+    private CompiledMethod onTimeoutMethod;
+    private CompiledMethod onGetMethod;
+    private CompiledMethod onPostMethod;
+    private CompiledMethod onPutMethod;
+    private CompiledMethod onDeleteMethod;
+    private CompiledMethod onReadyMethod;
+    private CompiledMethod onResumeMethod;
     private AtmosphereConfig config;
     protected boolean pathParams;
+    protected boolean encodeOnce;
     protected AtmosphereResourceFactory resourcesFactory;
 
-    private final Map<Method, List<Encoder<?, ?>>> encoders = new HashMap<>();
-    private final Map<Method, List<Decoder<?, ?>>> decoders = new HashMap<>();
+    private final Map<Method, CodecTable<Encoder<?, ?>>> encoders = new HashMap<>();
+    private final Map<Method, CodecTable<Decoder<?, ?>>> decoders = new HashMap<>();
 
     public ManagedAtmosphereHandler() {
     }
@@ -98,20 +102,21 @@ public class ManagedAtmosphereHandler extends AbstractReflectorAtmosphereHandler
     public AnnotatedProxy configure(AtmosphereConfig config, Object c) {
         this.proxiedInstance = c;
         this.onRuntimeMethod = populateMessage(c);
-        this.onHeartbeatMethod = populate(c, Heartbeat.class);
-        this.onDisconnectMethod = populate(c, Disconnect.class);
-        this.onTimeoutMethod = populate(c, Resume.class);
-        this.onGetMethod = populate(c, Get.class);
-        this.onPostMethod = populate(c, Post.class);
-        this.onPutMethod = populate(c, Put.class);
-        this.onDeleteMethod = populate(c, Delete.class);
-        this.onReadyMethod = populate(c, Ready.class);
-        this.onResumeMethod = populate(c, Resume.class);
+        this.onHeartbeatMethod = CompiledMethod.compile(populate(c, Heartbeat.class));
+        this.onDisconnectMethod = CompiledMethod.compile(populate(c, Disconnect.class));
+        this.onTimeoutMethod = CompiledMethod.compile(populate(c, Resume.class));
+        this.onGetMethod = CompiledMethod.compile(populate(c, Get.class));
+        this.onPostMethod = CompiledMethod.compile(populate(c, Post.class));
+        this.onPutMethod = CompiledMethod.compile(populate(c, Put.class));
+        this.onDeleteMethod = CompiledMethod.compile(populate(c, Delete.class));
+        this.onReadyMethod = CompiledMethod.compile(populate(c, Ready.class));
+        this.onResumeMethod = CompiledMethod.compile(populate(c, Resume.class));
         this.config = config;
         this.pathParams = pathParams(c);
         this.resourcesFactory = config.resourcesFactory();
 
         scanForReaderOrInputStream();
+        this.encodeOnce = encodeOnce();
 
         populateEncoders();
         populateDecoders();
@@ -217,28 +222,31 @@ public class ManagedAtmosphereHandler extends AbstractReflectorAtmosphereHandler
         } else {
             Object o;
             if (msg != null) {
-                if (Managed.class.isAssignableFrom(msg.getClass())) {
-                    Object newMsg = ((Managed) msg).o;
-                    event.setMessage(newMsg);
-                    // encoding might be needed again since BroadcasterFilter might have modified message body
-                    // This makes application development more simpler.
-                    // Chaining of encoder is not supported.
-                    // TODO: This could be problematic with String + method
-                    if (r.getBroadcaster().getBroadcasterConfig().hasFilters()) {
-                        for (MethodInfo m : onRuntimeMethod) {
-                            o = Invoker.encode(encoders.get(m.method), newMsg);
-                            if (o != null) {
-                                event.setMessage(o);
-                                break;
-                            }
-                        }
+                // The message shared by all resources of the broadcast, if not modified by a PerRequestBroadcastFilter
+                BroadcastPayload payload = sharedPayload(event, msg);
+                if (coalesced(event, msg)) {
+                    event.setMessage(encodeAll(r, (AtmosphereResourceEventImpl) event, (List<?>) msg));
+                } else if (Managed.class.isAssignableFrom(msg.getClass())) {
+                    if (payload != null) {
+                        BroadcastPayload p = payload.derive(this, m -> unwrap(r, (Managed) m));
+                        event.setMessage(p == null ? null : p.message());
+                        ((AtmosphereResourceEventImpl) event).payload(p);
+                    } else {
+                        event.setMessage(unwrap(r, (Managed) msg));
                     }
                 } else {
                     logger.trace("BroadcasterFactory has been used, this may produce recursion if encoder/decoder match the broadcasted message");
-                    final MethodInfo.EncoderObject e = message(r, msg);
-                    o = e == null ? null : e.encodedObject;
-                    if (o != null) {
-                        event.setMessage(o);
+                    if (payload != null && encodeOnce) {
+                        BroadcastPayload p = payload.derive(this, m -> encode(r, m));
+                        if (p != null) {
+                            event.setMessage(p.message());
+                            ((AtmosphereResourceEventImpl) event).payload(p);
+                        }
+                    } else {
+                        o = encode(r, msg);
+                        if (o != null) {
+                            event.setMessage(o);
+                        }
                     }
                 }
             }
@@ -250,6 +258,97 @@ public class ManagedAtmosphereHandler extends AbstractReflectorAtmosphereHandler
         }
     }
 
+    private BroadcastPayload sharedPayload(AtmosphereResourceEvent event, Object msg) {
+        if (event instanceof AtmosphereResourceEventImpl) {
+            BroadcastPayload payload = ((AtmosphereResourceEventImpl) event).payload();
+            if (payload != null && payload.matches(msg)) {
+                return payload;
+            }
+        }
+        return null;
+    }
+
+    private boolean coalesced(AtmosphereResourceEvent event, Object msg) {
+        return msg instanceof List && event instanceof AtmosphereResourceEventImpl && ((AtmosphereResourceEventImpl) event).isCoalesced();
+    }
+
+    /**
+     * Encode, one by one, the messages the {@link org.atmosphere.cpr.Broadcaster} coalesced into a single event. The
+     * sequence numbers of the dropped messages are dropped as well, so the others keep their own.
+     */
+    private List<Object> encodeAll(AtmosphereResourceImpl r, AtmosphereResourceEventImpl event, List<?> messages) {
+        long[] sequences = event.sequences();
+        if (sequences != null && sequences.length != messages.size()) {
+            sequences = null;
+        }
+
+        List<Object> encoded = new ArrayList<>(messages.size());
+        long[] encodedSequences = sequences != null ? new long[sequences.length] : null;
+        for (int i = 0; i < messages.size(); i++) {
+            Object m = messages.get(i);
+            if (m == null) continue;
+
+            Object o;
+            if (Managed.class.isAssignableFrom(m.getClass())) {
+                o = unwrap(r, (Managed) m);
+                if (o == null) continue;
+            } else {
+                o = encode(r, m);
+                if (o == null) o = m;
+            }
+            if (encodedSequences != null) {
+                encodedSequences[encoded.size()] = sequences[i];
+            }
+            encoded.add(o);
+        }
+
+        if (sequences != null && encoded.size() != sequences.length) {
+            event.sequences(Arrays.copyOf(encodedSequences, encoded.size()));
+        }
+        return encoded;
+    }
+
+    private Object unwrap(AtmosphereResourceImpl r, Managed msg) {
+        Object newMsg = msg.o;
+        // encoding might be needed again since BroadcasterFilter might have modified message body
+        // This makes application development more simpler.
+        // Chaining of encoder is not supported.
+        // TODO: This could be problematic with String + method
+        if (r.getBroadcaster().getBroadcasterConfig().hasFilters()) {
+            for (MethodInfo m : onRuntimeMethod) {
+                Object o = Invoker.encode(encoders.get(m.method), newMsg);
+                if (o != null) {
+                    return o;
+                }
+            }
+        }
+        return newMsg;
+    }
+
+    private Object encode(AtmosphereResourceImpl r, Object msg) {
+        final MethodInfo.EncoderObject e = message(r, msg);
+        return e == null ? null : e.encodedObject;
+    }
+
+    /**
+     * Return true if the {@link Message} methods can be invoked once per broadcast and their result shared by all
+     * {@link AtmosphereResource}s, e.g they don't take the {@link AtmosphereResource} as parameter and don't read the request.
+     *
+     * @return true if the result of the {@link Message} methods can be shared.
+     */
+    protected boolean encodeOnce() {
+        if (!config.getInitParameter(ApplicationConfig.MANAGED_ENCODE_ONCE, false)) {
+            return false;
+        }
+
+        for (MethodInfo m : onRuntimeMethod) {
+            if (m.useReader || m.useStream || m.invoker.arity() != 1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public boolean pathParams() {
         return pathParams;
@@ -298,7 +397,7 @@ public class ManagedAtmosphereHandler extends AbstractReflectorAtmosphereHandler
 
     private void populateEncoders() {
         for (MethodInfo m : onRuntimeMethod) {
-            List<Encoder<?, ?>> l = new CopyOnWriteArrayList<>();
+            List<Encoder<?, ?>> l = new ArrayList<>();
             for (Class<? extends Encoder<?, ?>> s : m.method.getAnnotation(Message.class).encoders()) {
                 try {
                     l.add(config.framework().newClassInstance(Encoder.class, s));
@@ -306,25 +405,25 @@ public class ManagedAtmosphereHandler extends AbstractReflectorAtmosphereHandler
                     logger.error("Unable to load encoder {}", s);
                 }
             }
-            encoders.put(m.method, l);
+            encoders.put(m.method, CodecTable.encoders(l));
         }
 
         if (onReadyMethod != null) {
-            List<Encoder<?, ?>> l = new CopyOnWriteArrayList<>();
-            for (Class<? extends Encoder<?, ?>> s : onReadyMethod.getAnnotation(Ready.class).encoders()) {
+            List<Encoder<?, ?>> l = new ArrayList<>();
+            for (Class<? extends Encoder<?, ?>> s : onReadyMethod.method().getAnnotation(Ready.class).encoders()) {
                 try {
                     l.add(config.framework().newClassInstance(Encoder.class, s));
                 } catch (Exception e) {
                     logger.error("Unable to load encoder {}", s);
                 }
             }
-            encoders.put(onReadyMethod, l);
+            encoders.put(onReadyMethod.method(), CodecTable.encoders(l));
         }
     }
 
     private void populateDecoders() {
         for (MethodInfo m : onRuntimeMethod) {
-            List<Decoder<?, ?>> l = new CopyOnWriteArrayList<>();
+            List<Decoder<?, ?>> l = new ArrayList<>();
             for (Class<? extends Decoder<?, ?>> s : m.method.getAnnotation(Message.class).decoders()) {
                 try {
                     l.add(config.framework().newClassInstance(Decoder.class, s));
@@ -332,11 +431,11 @@ public class ManagedAtmosphereHandler extends AbstractReflectorAtmosphereHandler
                     logger.error("Unable to load encoder {}", s);
                 }
             }
-            decoders.put(m.method, l);
+            decoders.put(m.method, CodecTable.decoders(l));
         }
     }
 
-    private void invoke(Method m, Object o) {
+    private void invoke(CompiledMethod m, Object o) {
         Utils.invoke(proxiedInstance, m, o);
     }
 
@@ -362,18 +461,18 @@ public class ManagedAtmosphereHandler extends AbstractReflectorAtmosphereHandler
                 }
                 Object objectToEncode;
 
-                if (m.method.getParameterTypes().length > 2) {
+                if (m.invoker.arity() > 2) {
                     logger.warn("Injection of more than 2 parameters not supported {}", m);
                 }
 
-                if (m.method.getParameterTypes().length == 2) {
-                    objectToEncode = Invoker.invokeMethod(m.method, proxiedInstance, resource, decoded);
+                if (m.invoker.arity() == 2) {
+                    objectToEncode = Invoker.invokeMethod(m.invoker, proxiedInstance, resource, decoded);
                 } else {
-                    objectToEncode = Invoker.invokeMethod(m.method, proxiedInstance, decoded);
+                    objectToEncode = Invoker.invokeMethod(m.invoker, proxiedInstance, decoded);
                 }
 
                 if (objectToEncode != null) {
-                    return m.encode(encoders, objectToEncode);
+                    return m.encode(encoders.get(m.method), objectToEncode);
                 }
             }
         } catch (Throwable t) {
@@ -382,9 +481,9 @@ public class ManagedAtmosphereHandler extends AbstractReflectorAtmosphereHandler
         return null;
     }
 
-    private Object message(Method m, Object o) {
+    private Object message(CompiledMethod m, Object o) {
         if (m != null) {
-            return Invoker.all(encoders.get(m), EMPTY, o, proxiedInstance, m);
+            return Invoker.all(encoders.get(m.method()), EMPTY, o, proxiedInstance, m);
         }
         return null;
     }
@@ -396,7 +495,7 @@ public class ManagedAtmosphereHandler extends AbstractReflectorAtmosphereHandler
 
     protected void processReady(AtmosphereResource r) {
         final DeliverTo deliverTo;
-        final Ready ready = onReadyMethod.getAnnotation(Ready.class);
+        final Ready ready = onReadyMethod.method().getAnnotation(Ready.class);
 
         // Keep backward compatibility
         if (ready.value() != Ready.DELIVER_TO.RESOURCE) {
@@ -426,7 +525,7 @@ public class ManagedAtmosphereHandler extends AbstractReflectorAtmosphereHandler
                 }
             };
         } else {
-            deliverTo = onReadyMethod.getAnnotation(DeliverTo.class);
+            deliverTo = onReadyMethod.method().getAnnotation(DeliverTo.class);
         }
 
         IOUtils.deliver(message(onReadyMethod, r), deliverTo, DeliverTo.DELIVER_TO.RESOURCE, r);
@@ -454,12 +553,14 @@ public class ManagedAtmosphereHandler extends AbstractReflectorAtmosphereHandler
     public final static class MethodInfo {
 
         final Method method;
+        final CompiledMethod invoker;
         final DeliverTo.DELIVER_TO deliverTo;
         boolean useStream;
         boolean useReader;
 
         public MethodInfo(Method method) {
             this.method = method;
+            this.invoker = CompiledMethod.compile(method);
 
             if (method.isAnnotationPresent(DeliverTo.class)) {
                 this.deliverTo = method.getAnnotation(DeliverTo.class).value();
@@ -481,6 +582,17 @@ public class ManagedAtmosphereHandler extends AbstractReflectorAtmosphereHandler
             return new EncoderObject(encoders, objectToEncode);
         }
 
+        /**
+         * Same as {@link #encode(Map, Object)}, with the {@link CodecTable} of this method's encoders.
+         *
+         * @param encoders       the encoders
+         * @param objectToEncode the object to encode and wrap
+         * @return the resulting object encoder
+         */
+        EncoderObject encode(final CodecTable<Encoder<?, ?>> encoders, final Object objectToEncode) {
+            return new EncoderObject(encoders, objectToEncode);
+        }
+
         /**
          * <p>
          * Inner class that wraps an object to encode and exposes access to the enclosing {@link MethodInfo}.
@@ -512,6 +624,19 @@ public class ManagedAtmosphereHandler extends AbstractReflectorAtmosphereHandler
                 encodedObject = Invoker.encode(encoders.get(method), objectToEncode);
                 methodInfo = MethodInfo.this;
             }
+
+            /**
+             * <p>
+             * Builds a new instance.
+             * </p>
+             *
+             * @param encoders       the {@link CodecTable} of the method's encoders
+             * @param objectToEncode the object to encode
+             */
+            public EncoderObject(final CodecTable<Encoder<?, ?>> encoders, final Object objectToEncode) {
+                encodedObject = Invoker.encode(encoders, objectToEncode);
+                methodInfo = MethodInfo.this;
+            }
         }
     }
 
@@ -21,6 +21,9 @@ import org.atmosphere.cpr.AtmosphereConfig;
 import org.atmosphere.cpr.AtmosphereResource;
 import org.atmosphere.cpr.Broadcaster;
 import org.atmosphere.cpr.WebSocketProcessorFactory;
+import org.atmosphere.util.ExecutorsFactory;
+import org.atmosphere.util.HashedTimerWheel;
+import org.atmosphere.util.IOUtils;
 import org.atmosphere.websocket.WebSocket;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,12 +33,20 @@ import javax.websocket.SendResult;
 import javax.websocket.Session;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Asynchronous based {@link Session} websocket
+ * Asynchronous based {@link Session} websocket. By default, a write blocks until the previous message has been sent.
+ * When {@link ApplicationConfig#WEBSOCKET_NON_BLOCKING_WRITE} is set, messages are queued and sent one after the other
+ * by the {@link SendHandler}, and the writing thread never blocks. The queue is bounded by
+ * {@link ApplicationConfig#WEBSOCKET_NON_BLOCKING_WRITE_MAX_MESSAGES} and {@link ApplicationConfig#WEBSOCKET_NON_BLOCKING_WRITE_MAX_BYTES},
+ * the {@link Broadcaster.OVERFLOW_POLICY} being applied when it is full.
  *
  * @author Jeanfrancois Arcand
  */
@@ -47,10 +58,32 @@ public class JSR356WebSocket extends WebSocket {
     private final int writeTimeout;
     private final AtomicBoolean closed = new AtomicBoolean();
 
+    // Non blocking mode
+    private final boolean nonBlocking;
+    private final ConcurrentLinkedQueue<Object> outbound = new ConcurrentLinkedQueue<Object>();
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicLong queuedBytes = new AtomicLong();
+    private final int maxMessages;
+    private final long maxBytes;
+    private final Broadcaster.OVERFLOW_POLICY overflowPolicy;
+    private final AtomicInteger drainRequests = new AtomicInteger();
+    private final AtomicBoolean sending = new AtomicBoolean();
+    private volatile long lastCompletion = System.currentTimeMillis();
+    private HashedTimerWheel timer;
+
     public JSR356WebSocket(Session session, AtmosphereConfig config) {
         super(config);
         this.session = session;
         this.writeTimeout = config.getInitParameter(ApplicationConfig.WEBSOCKET_WRITE_TIMEOUT, 60 * 1000);
+        this.nonBlocking = config.getInitParameter(ApplicationConfig.WEBSOCKET_NON_BLOCKING_WRITE, false);
+        this.maxMessages = config.getInitParameter(ApplicationConfig.WEBSOCKET_NON_BLOCKING_WRITE_MAX_MESSAGES, 1024);
+        String s = config.getInitParameter(ApplicationConfig.WEBSOCKET_NON_BLOCKING_WRITE_MAX_BYTES);
+        this.maxBytes = s == null ? -1 : Long.parseLong(s.trim());
+        s = config.getInitParameter(ApplicationConfig.BROADCASTER_WRITE_QUEUE_OVERFLOW_POLICY);
+        this.overflowPolicy = s == null ? Broadcaster.OVERFLOW_POLICY.DROP_OLDEST : Broadcaster.OVERFLOW_POLICY.valueOf(s.trim().toUpperCase());
+        if (nonBlocking) {
+            timer = ExecutorsFactory.getTimerWheel(config);
+        }
         session.getAsyncRemote().setSendTimeout(writeTimeout);
     }
 
@@ -66,6 +99,11 @@ public class JSR356WebSocket extends WebSocket {
             throw new IOException("Socket closed {}");
         }
 
+        if (nonBlocking) {
+            enqueue(s);
+            return this;
+        }
+
         boolean acquired = false;
         try {
             acquired = semaphore.tryAcquire(writeTimeout, TimeUnit.MILLISECONDS);
@@ -90,6 +128,12 @@ public class JSR356WebSocket extends WebSocket {
             throw new IOException("Socket closed {}");
         }
 
+        if (nonBlocking) {
+            // The caller may reuse the array once write returns
+            enqueue(ByteBuffer.wrap(Arrays.copyOfRange(data, offset, offset + length)));
+            return this;
+        }
+
         boolean acquired = false;
         try {
             acquired = semaphore.tryAcquire(writeTimeout, TimeUnit.MILLISECONDS);
@@ -109,6 +153,164 @@ public class JSR356WebSocket extends WebSocket {
         return this;
     }
 
+    /**
+     * Return the number of messages queued, including the one being sent, when {@link ApplicationConfig#WEBSOCKET_NON_BLOCKING_WRITE} is set.
+     *
+     * @return the number of queued messages
+     */
+    public int queueDepth() {
+        return queueDepth.get();
+    }
+
+    /**
+     * Return the time, in milliseconds, the last send completed when {@link ApplicationConfig#WEBSOCKET_NON_BLOCKING_WRITE} is set.
+     *
+     * @return the time the last send completed
+     */
+    public long lastCompletionTimeStampInMilliseconds() {
+        return lastCompletion;
+    }
+
+    private void enqueue(Object message) throws IOException {
+        if (!reserve(message) && !overflow(message)) {
+            return;
+        }
+        outbound.offer(message);
+        drain();
+    }
+
+    /**
+     * Reserve room for the message in the queue. Nothing is reserved if the queue is full. An empty queue accepts a
+     * message whatever its size.
+     *
+     * @return true if the room has been reserved
+     */
+    private boolean reserve(Object message) {
+        long size = size(message);
+        int depth = queueDepth.incrementAndGet();
+        long bytes = size > 0 ? queuedBytes.addAndGet(size) : queuedBytes.get();
+        if (depth > 1 && ((maxMessages > 0 && depth > maxMessages) || (maxBytes > 0 && bytes > maxBytes))) {
+            release(size);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Apply the {@link Broadcaster.OVERFLOW_POLICY} and reserve room for the message whatever the limits.
+     *
+     * @return false if the message must be dropped
+     */
+    private boolean overflow(Object message) throws IOException {
+        AtmosphereResource r = resource();
+        logger.debug("Write queue of WebSocket {} is full, applying {}", r != null ? r.uuid() : "", overflowPolicy);
+
+        Object dropped;
+        switch (overflowPolicy) {
+            case DROP_NEWEST:
+                return false;
+            case DROP_OLDEST:
+                while (!reserve(message)) {
+                    if ((dropped = outbound.poll()) == null) {
+                        // Other writers reserved the room, the message is queued anyway.
+                        forceReserve(message);
+                        return true;
+                    }
+                    release(size(dropped));
+                }
+                return true;
+            case CONFLATE:
+                while ((dropped = outbound.poll()) != null) {
+                    release(size(dropped));
+                }
+                forceReserve(message);
+                return true;
+            default:
+                // Leave the messages in the BroadcasterCache, the client will retrieve them when reconnecting.
+                close();
+                throw new IOException("Write queue is full for WebSocket " + (r != null ? r.uuid() : ""));
+        }
+    }
+
+    private void forceReserve(Object message) {
+        queueDepth.incrementAndGet();
+        long size = size(message);
+        if (size > 0) queuedBytes.addAndGet(size);
+    }
+
+    private void release(long size) {
+        queueDepth.decrementAndGet();
+        if (size > 0) queuedBytes.addAndGet(-size);
+    }
+
+    private long size(Object message) {
+        if (maxBytes <= 0) {
+            return 0;
+        } else if (message instanceof ByteBuffer) {
+            return ((ByteBuffer) message).remaining();
+        }
+        return IOUtils.utf8Length((String) message);
+    }
+
+    /**
+     * Send the next message unless a send is in progress. A send completing inline, on the thread draining the queue,
+     * loops instead of recursing.
+     */
+    private void drain() {
+        if (drainRequests.getAndIncrement() != 0) return;
+
+        do {
+            if (sending.compareAndSet(false, true)) {
+                Object message = outbound.poll();
+                if (message == null) {
+                    sending.set(false);
+                } else {
+                    send(message);
+                }
+            }
+        } while (drainRequests.decrementAndGet() != 0);
+    }
+
+    private void send(Object message) {
+        AsyncSendResult handler = new AsyncSendResult(resource(), message);
+        handler.timeout = timer.schedule(handler, writeTimeout, TimeUnit.MILLISECONDS);
+        try {
+            if (message instanceof String) {
+                session.getAsyncRemote().sendText((String) message, handler);
+            } else {
+                session.getAsyncRemote().sendBinary((ByteBuffer) message, handler);
+            }
+        } catch (NullPointerException e) {
+            handler.complete(false);
+            patchGlassFish(e);
+        } catch (Throwable e) {
+            logger.trace("WebSocket {} failed to write {}", resource(), message, e);
+            handler.complete(false);
+        }
+    }
+
+    private void cache(AtmosphereResource r, Object message) {
+        if (r == null) return;
+
+        if (message instanceof ByteBuffer) {
+            ByteBuffer b = (ByteBuffer) message;
+            byte[] bytes = new byte[b.remaining()];
+            b.duplicate().get(bytes);
+            message = bytes;
+        }
+
+        Broadcaster b = r.getBroadcaster();
+        b.getBroadcasterConfig().getBroadcasterCache().addToCache(b.getID(), r.uuid(), new BroadcastMessage(message));
+    }
+
+    private void cacheQueued() {
+        Object message;
+        while ((message = outbound.poll()) != null) {
+            release(size(message));
+            cache(resource(), message);
+        }
+    }
+
     private void handleError(Throwable e, boolean acquired) throws IOException {
         if (acquired) {
             semaphore.release();
@@ -137,6 +339,10 @@ public class JSR356WebSocket extends WebSocket {
 
         if (!session.isOpen() || closed.getAndSet(true)) return;
 
+        if (nonBlocking) {
+            cacheQueued();
+        }
+
         logger.trace("WebSocket.close() for AtmosphereResource {}", resource() != null ? resource().uuid() : "null");
         try {
             session.close();
@@ -146,6 +352,72 @@ public class JSR356WebSocket extends WebSocket {
         }
     }
 
+    /**
+     * Completes a non blocking send, either when the container invokes the {@link SendHandler} or when the write timeout
+     * expires, and triggers the next send.
+     */
+    private final class AsyncSendResult implements SendHandler, Runnable {
+
+        private final AtmosphereResource r;
+        private final Object message;
+        // Measured before sending, the container consumes the ByteBuffer
+        private final long size;
+        private final AtomicBoolean completed = new AtomicBoolean();
+        private volatile HashedTimerWheel.Timeout timeout;
+
+        private AsyncSendResult(AtmosphereResource r, Object message) {
+            this.r = r;
+            this.message = message;
+            this.size = size(message);
+        }
+
+        @Override
+        public void onResult(SendResult result) {
+            complete(result.isOK() && result.getException() == null);
+        }
+
+        @Override
+        public void run() {
+            if (completed.getAndSet(true)) return;
+
+            logger.debug("WebSocket {} write timeout after {} ms", r != null ? r.uuid() : "", writeTimeout);
+            // The in-flight message is cached before close() caches the queued ones, so a replay keeps their order.
+            done(false);
+            close();
+            next();
+        }
+
+        boolean complete(boolean ok) {
+            if (completed.getAndSet(true)) return false;
+
+            done(ok);
+            next();
+            return true;
+        }
+
+        private void done(boolean ok) {
+            if (timeout != null) {
+                timeout.cancel();
+            }
+            lastCompletion = System.currentTimeMillis();
+            release(size);
+
+            if (!ok) {
+                logger.trace("WebSocket {} failed to write {}", r, message);
+                cache(r, message);
+            }
+        }
+
+        private void next() {
+            if (!isOpen()) {
+                cacheQueued();
+            }
+
+            sending.set(false);
+            drain();
+        }
+    }
+
     private final class WriteResult implements SendHandler {
 
         private final AtmosphereResource r;
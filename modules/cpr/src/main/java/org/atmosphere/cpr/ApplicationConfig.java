@@ -213,6 +213,33 @@ public interface ApplicationConfig {
      * Value: org.atmosphere.websocket.writeTimeout
      */
     String WEBSOCKET_WRITE_TIMEOUT = "org.atmosphere.websocket.writeTimeout";
+    /**
+     * Set to true to make the JSR356 {@link org.atmosphere.websocket.WebSocket} queue outgoing messages instead of blocking the
+     * writing thread until the previous message has been sent. Messages are sent one after the other, the completion of
+     * a send triggering the next one. The {@link #WEBSOCKET_WRITE_TIMEOUT} is enforced by a timer.
+     * <p/>
+     * Default: false<br>
+     * Value: org.atmosphere.websocket.nonBlockingWrite
+     */
+    String WEBSOCKET_NON_BLOCKING_WRITE = "org.atmosphere.websocket.nonBlockingWrite";
+    /**
+     * The maximum number of messages, including the one being sent, queued by a JSR356 {@link org.atmosphere.websocket.WebSocket}
+     * when {@link #WEBSOCKET_NON_BLOCKING_WRITE} is set. When the limit is reached, the {@link #BROADCASTER_WRITE_QUEUE_OVERFLOW_POLICY}
+     * is applied.
+     * <p/>
+     * Default: 1024<br>
+     * Value: org.atmosphere.websocket.nonBlockingWriteMaxMessages
+     */
+    String WEBSOCKET_NON_BLOCKING_WRITE_MAX_MESSAGES = "org.atmosphere.websocket.nonBlockingWriteMaxMessages";
+    /**
+     * The maximum number of bytes, including the message being sent, queued by a JSR356 {@link org.atmosphere.websocket.WebSocket}
+     * when {@link #WEBSOCKET_NON_BLOCKING_WRITE} is set. Text messages are measured by their UTF-8 encoding. When the limit
+     * is reached, the {@link #BROADCASTER_WRITE_QUEUE_OVERFLOW_POLICY} is applied.
+     * <p/>
+     * Default: -1 (unlimited)<br>
+     * Value: org.atmosphere.websocket.nonBlockingWriteMaxBytes
+     */
+    String WEBSOCKET_NON_BLOCKING_WRITE_MAX_BYTES = "org.atmosphere.websocket.nonBlockingWriteMaxBytes";
     /**
      * Tell Atmosphere the WebSocket write buffer size.
      * <p/>
@@ -295,6 +322,15 @@ public interface ApplicationConfig {
      * Value: org.atmosphere.cpr.CometSupport.maxInactiveActivity
      */
     String MAX_INACTIVE = "org.atmosphere.cpr.CometSupport.maxInactiveActivity";
+    /**
+     * The minimum time, in milliseconds, between two idle checks of the same connection by the
+     * {@link org.atmosphere.interceptor.IdleResourceInterceptor}. A connection is checked once its {@link #MAX_INACTIVE}
+     * deadline is reached, hence an idle connection is closed at most that time after its deadline.
+     * <p/>
+     * Default: 2000<br>
+     * Value: org.atmosphere.interceptor.IdleResourceInterceptor.checkInterval
+     */
+    String IDLE_RESOURCE_CHECK_INTERVAL = "org.atmosphere.interceptor.IdleResourceInterceptor.checkInterval";
     /**
      * Allow query string as set as request's header.
      * <p/>
@@ -349,6 +385,21 @@ public interface ApplicationConfig {
      * Value: org.atmosphere.cpr.maxSchedulerThread
      */
     String SCHEDULER_THREADPOOL_MAXSIZE = "org.atmosphere.cpr.maxSchedulerThread";
+    /**
+     * The duration, in milliseconds, of a tick of the {@link org.atmosphere.util.HashedTimerWheel} used for heartbeats, idle and write timeouts.
+     * Timeouts are approximated to this value.
+     * <p/>
+     * Default: 100<br>
+     * Value: org.atmosphere.cpr.timerWheelTickDuration
+     */
+    String TIMER_WHEEL_TICK_DURATION = "org.atmosphere.cpr.timerWheelTickDuration";
+    /**
+     * The number of buckets of the {@link org.atmosphere.util.HashedTimerWheel}.
+     * <p/>
+     * Default: 512<br>
+     * Value: org.atmosphere.cpr.timerWheelSize
+     */
+    String TIMER_WHEEL_SIZE = "org.atmosphere.cpr.timerWheelSize";
     /**
      * BroadcasterLifecycle max idle time before executing.
      * <p/>
@@ -450,6 +501,17 @@ public interface ApplicationConfig {
      * Value: org.atmosphere.cpr.recycleAtmosphereRequestResponse
      */
     String RECYCLE_ATMOSPHERE_REQUEST_RESPONSE = "org.atmosphere.cpr.recycleAtmosphereRequestResponse";
+    /**
+     * Reuse, per WebSocket connection, the AtmosphereRequest/Response wrapping a WebSocket message once it has been
+     * dispatched, instead of creating new ones for every message. The headers, attributes and body are reset between
+     * messages. A request or response is only reused if it hasn't been suspended, and any use of it after its
+     * message has been dispatched throws an {@link IllegalStateException}, so an application mustn't keep a reference
+     * to them, or to their {@link AtmosphereResource}, once the message has been processed.
+     * <p/>
+     * Default: false<br>
+     * Value: org.atmosphere.websocket.poolRequestResponse
+     */
+    String WEBSOCKET_POOL_REQUEST_RESPONSE = "org.atmosphere.websocket.poolRequestResponse";
     /**
      * The location of classes implementing the {@link AtmosphereHandler} interface.
      * <p/>
@@ -575,6 +637,61 @@ public interface ApplicationConfig {
      * Value: org.atmosphere.cpr.Broadcaster.threadWaitTime
      */
     String BROADCASTER_WAIT_TIME = "org.atmosphere.cpr.Broadcaster.threadWaitTime";
+    /**
+     * Set to true to make the {@link DefaultBroadcaster} drain each {@link AtmosphereResource}'s write queue like a mailbox:
+     * a write task is only scheduled when the queue goes from empty to non-empty, and the thread is released as soon
+     * as the queue is drained instead of waiting {@link #BROADCASTER_WAIT_TIME} for more messages. Per-resource ordering is preserved.
+     * This property is ignored when {@link #OUT_OF_ORDER_BROADCAST} is set to true.
+     * <p/>
+     * Default: false<br>
+     * Value: org.atmosphere.cpr.Broadcaster.mailboxWrite
+     */
+    String BROADCASTER_MAILBOX_WRITE = "org.atmosphere.cpr.Broadcaster.mailboxWrite";
+    /**
+     * The maximum number of messages a mailbox write task (see {@link #BROADCASTER_MAILBOX_WRITE}) delivers to an
+     * {@link AtmosphereResource} before rescheduling itself, giving other resources a chance to use the thread.
+     * <p/>
+     * Default: 64<br>
+     * Value: org.atmosphere.cpr.Broadcaster.mailboxThroughput
+     */
+    String BROADCASTER_MAILBOX_THROUGHPUT = "org.atmosphere.cpr.Broadcaster.mailboxThroughput";
+    /**
+     * Set to true to make the {@link DefaultBroadcaster} write all the messages queued for an {@link AtmosphereResource} at once.
+     * The {@link AtmosphereHandler} receives a single event whose message is the {@link java.util.List} of messages, writes each
+     * of them, then flushes once. At most {@link #BROADCASTER_MAILBOX_THROUGHPUT} messages are coalesced.
+     * This property is ignored when {@link #OUT_OF_ORDER_BROADCAST} is set to true.
+     * <p/>
+     * Default: false<br>
+     * Value: org.atmosphere.cpr.Broadcaster.writeCoalescing
+     */
+    String BROADCASTER_WRITE_COALESCING = "org.atmosphere.cpr.Broadcaster.writeCoalescing";
+    /**
+     * The maximum number of messages queued for a single {@link AtmosphereResource} by the {@link DefaultBroadcaster}. When the
+     * limit is reached, the {@link #BROADCASTER_WRITE_QUEUE_OVERFLOW_POLICY} is applied. This property is ignored when
+     * {@link #OUT_OF_ORDER_BROADCAST} is set to true.
+     * <p/>
+     * Default: -1 (unlimited)<br>
+     * Value: org.atmosphere.cpr.Broadcaster.writeQueueMaxMessages
+     */
+    String BROADCASTER_WRITE_QUEUE_MAX_MESSAGES = "org.atmosphere.cpr.Broadcaster.writeQueueMaxMessages";
+    /**
+     * The maximum number of bytes queued for a single {@link AtmosphereResource} by the {@link DefaultBroadcaster}. Only
+     * String messages, measured by their UTF-8 encoding, and byte[] messages are measured. When the limit is reached, the
+     * {@link #BROADCASTER_WRITE_QUEUE_OVERFLOW_POLICY} is applied. This property is ignored when {@link #OUT_OF_ORDER_BROADCAST}
+     * is set to true.
+     * <p/>
+     * Default: -1 (unlimited)<br>
+     * Value: org.atmosphere.cpr.Broadcaster.writeQueueMaxBytes
+     */
+    String BROADCASTER_WRITE_QUEUE_MAX_BYTES = "org.atmosphere.cpr.Broadcaster.writeQueueMaxBytes";
+    /**
+     * The {@link Broadcaster.OVERFLOW_POLICY} applied when an {@link AtmosphereResource}'s write queue is full:
+     * DROP_OLDEST, DROP_NEWEST, CONFLATE or DISCONNECT.
+     * <p/>
+     * Default: DROP_OLDEST<br>
+     * Value: org.atmosphere.cpr.Broadcaster.writeQueueOverflowPolicy
+     */
+    String BROADCASTER_WRITE_QUEUE_OVERFLOW_POLICY = "org.atmosphere.cpr.Broadcaster.writeQueueOverflowPolicy";
     /**
      * Before 1.0.12, WebSocket's AtmosphereResource manually added to {@link Broadcaster} were added without checking
      * if the parent, e.g the AtmosphereResource's created on the first request was already added to the Broadcaster. That caused
@@ -599,7 +716,8 @@ public interface ApplicationConfig {
      */
     String ANNOTATION_PROCESSOR = "org.atmosphere.cpr.AnnotationProcessor";
     /**
-     * Define an implementation of the {@link org.atmosphere.util.EndpointMapper}.
+     * Define an implementation of the {@link org.atmosphere.util.EndpointMapper}. Applications with many mappings should use
+     * {@link org.atmosphere.util.CompiledEndpointMapper}, which compiles the mappings once instead of parsing them on every request.
      * <p/>
      * Default: org.atmosphere.cpr.DefaultEndpointMapper<br>
      * Value: org.atmosphere.cpr.EndpointMapper
@@ -666,6 +784,41 @@ public interface ApplicationConfig {
      * Value: org.atmosphere.cpr.scanClassPath
      */
     String SCAN_CLASSPATH = "org.atmosphere.cpr.scanClassPath";
+    /**
+     * Set to false to scan the classes and the jars for annotations even when an index generated at build time by the
+     * atmosphere-annotations' AnnotationIndexProcessor, <code>META-INF/atmosphere/annotations.idx</code>, is on the classpath.
+     * The index only contains the classes compiled with the processor.
+     * <p/>
+     * Default: true<br>
+     * Value: org.atmosphere.cpr.useAnnotationIndex
+     */
+    String USE_ANNOTATION_INDEX = "org.atmosphere.cpr.useAnnotationIndex";
+    /**
+     * The number of threads reading the classes and the jars when scanning for annotations, e.g the number of CPUs.
+     * The annotations are reported in the same order, whatever the number of threads.
+     * <p/>
+     * Default: 1<br>
+     * Value: org.atmosphere.cpr.annotationScanParallelism
+     */
+    String ANNOTATION_SCAN_PARALLELISM = "org.atmosphere.cpr.annotationScanParallelism";
+    /**
+     * Define an implementation of the {@link org.atmosphere.cpr.AtmosphereMetrics} used to collect the metrics of the
+     * Broadcasters, the BroadcasterCaches and the connections. Use {@link org.atmosphere.metrics.DefaultAtmosphereMetrics}
+     * to export them as JMX MBeans.
+     * <p/>
+     * Default: org.atmosphere.cpr.AtmosphereMetricsAdapter, nothing is collected<br>
+     * Value: org.atmosphere.cpr.AtmosphereMetrics
+     */
+    String METRICS = "org.atmosphere.cpr.AtmosphereMetrics";
+    /**
+     * Record the time spent by every {@link org.atmosphere.cpr.AtmosphereInterceptor#inspect} and
+     * {@link org.atmosphere.cpr.AtmosphereInterceptor#postInspect}, per mapping and transport, and export them using
+     * the {@link org.atmosphere.metrics.InterceptorProfiler} JMX MBean.
+     * <p/>
+     * Default: false<br>
+     * Value: org.atmosphere.cpr.AtmosphereInterceptor.profiling
+     */
+    String INTERCEPTOR_PROFILING = "org.atmosphere.cpr.AtmosphereInterceptor.profiling";
     /**
      * Use a build in {@link javax.servlet.http.HttpSession} when using native WebSocket implementation.
      * <p/>
@@ -695,6 +848,15 @@ public interface ApplicationConfig {
      * Value: org.atmosphere.websocket.webSocketBufferingMaxSize
      */
     String IN_MEMORY_STREAMING_BUFFER_SIZE = "org.atmosphere.websocket.webSocketBufferingMaxSize";
+    /**
+     * The maximum number of bytes kept by the pool of buffers used to read the WebSocket messages delivered as a
+     * stream, see {@link org.atmosphere.websocket.WebSocketBufferPool}. The buffers are borrowed from the pool while
+     * a message is read, 0 to allocate a new buffer for every message.
+     * <p/>
+     * Default: 16777216 (16 MB)<br>
+     * Value: org.atmosphere.websocket.bufferPoolSize
+     */
+    String WEBSOCKET_BUFFER_POOL_SIZE = "org.atmosphere.websocket.bufferPoolSize";
     /**
      * Scan the classpath to find {@link Broadcaster}
      * <p/>
@@ -746,6 +908,29 @@ public interface ApplicationConfig {
      * Value: org.atmosphere.cache.UUIDBroadcasterCache.invalidateCacheInterval
      */
     String UUIDBROADCASTERCACHE_IDLE_CACHE_INTERVAL = "org.atmosphere.cache.UUIDBroadcasterCache.invalidateCacheInterval";
+    /**
+     * The maximum number of messages, per {@link Broadcaster}, kept by the {@link org.atmosphere.cache.RingBroadcasterCache}.
+     * When the limit is reached, the oldest messages are evicted.
+     * <p/>
+     * Default: 1024<br>
+     * Value: org.atmosphere.cache.RingBroadcasterCache.size
+     */
+    String RING_BROADCASTERCACHE_SIZE = "org.atmosphere.cache.RingBroadcasterCache.size";
+    /**
+     * The maximum time, in seconds, for a message to stay cached and for an idle client to be tracked when using
+     * the {@link org.atmosphere.cache.RingBroadcasterCache}
+     * <p/>
+     * Default: 60<br>
+     * Value: org.atmosphere.cache.RingBroadcasterCache.clientIdleTime
+     */
+    String RING_BROADCASTERCACHE_CLIENT_IDLETIME = "org.atmosphere.cache.RingBroadcasterCache.clientIdleTime";
+    /**
+     * The frequency, in seconds, for the {@link org.atmosphere.cache.RingBroadcasterCache} is pruning cached messages.
+     * <p/>
+     * Default: 30<br>
+     * Value: org.atmosphere.cache.RingBroadcasterCache.invalidateCacheInterval
+     */
+    String RING_BROADCASTERCACHE_IDLE_CACHE_INTERVAL = "org.atmosphere.cache.RingBroadcasterCache.invalidateCacheInterval";
     /**
      * Invoke Atmosphere interceptor for on every websocket message.
      * <p/>
@@ -922,6 +1107,16 @@ public interface ApplicationConfig {
      * Value: org.atmosphere.useForkJoinPool
      */
     String USE_FORJOINPOOL = "org.atmosphere.useForkJoinPool";
+    /**
+     * Use a virtual thread per task for dispatching messages and executing async I/O operations instead of a pool of
+     * platform threads. Requires Java 21 or newer, ignored otherwise. When enabled, {@link #USE_FORJOINPOOL},
+     * {@link #BROADCASTER_MESSAGE_PROCESSING_THREADPOOL_MAXSIZE} and {@link #BROADCASTER_ASYNC_WRITE_THREADPOOL_MAXSIZE}
+     * are ignored.
+     * <p/>
+     * Default: false<br>
+     * Value: org.atmosphere.useVirtualThreads
+     */
+    String USE_VIRTUAL_THREADS = "org.atmosphere.useVirtualThreads";
     /**
      * The completion of response writing is reported to AtmosphereResponse. An interceptor can use the completion
      * status of AtmosphereResponse to change the behavior of its transform method.
@@ -936,6 +1131,17 @@ public interface ApplicationConfig {
      * Default: false
      */
     String RESPONSE_COMPLETION_RESET = "org.atmosphere.cpr.ResponseCompletionReset";
+    /**
+     * Set to true to invoke the {@link org.atmosphere.config.service.Message} methods and their {@link org.atmosphere.config.managed.Encoder}s
+     * once per broadcast instead of once per {@link AtmosphereResource} when a message is broadcasted using a {@link Broadcaster} directly.
+     * The result, and its byte representation, are shared by all {@link AtmosphereResource}s not affected by a {@link PerRequestBroadcastFilter}.
+     * Ignored when a {@link org.atmosphere.config.service.Message} method takes the {@link AtmosphereResource}, a {@link java.io.Reader}
+     * or an {@link java.io.InputStream} as parameter.
+     * <p/>
+     * Default: false<br>
+     * Value: org.atmosphere.config.managed.ManagedAtmosphereHandler.encodeOnce
+     */
+    String MANAGED_ENCODE_ONCE = "org.atmosphere.config.managed.ManagedAtmosphereHandler.encodeOnce";
     /**
      * Writes the given data to the given outputstream in two steps with extra flushes to make servers notice if the connection has been closed.
      * This  enables caching the message instead of losing it, if the client is in the progress of reconnecting via a Proxy where
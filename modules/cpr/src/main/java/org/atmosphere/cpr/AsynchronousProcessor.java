@@ -16,6 +16,7 @@
 package org.atmosphere.cpr;
 
 import org.atmosphere.container.Servlet30CometSupport;
+import org.atmosphere.metrics.InterceptorProfiler;
 import org.atmosphere.util.EndpointMapper;
 import org.atmosphere.util.ExecutorsFactory;
 import org.atmosphere.util.Utils;
@@ -55,12 +56,16 @@ public abstract class AsynchronousProcessor implements AsyncSupport<AtmosphereRe
     private EndpointMapper<AtmosphereHandlerWrapper> mapper;
     private final long closingTime;
     private boolean closeOnCancel;
+    private InterceptorProfiler profiler;
 
     public AsynchronousProcessor(AtmosphereConfig config) {
         this.config = config;
         closingTime = Long.parseLong(config.getInitParameter(ApplicationConfig.CLOSED_ATMOSPHERE_THINK_TIME, "0"));
         closeOnCancel = config.getInitParameter(ApplicationConfig.CLOSE_STREAM_ON_CANCEL, false);
-        config.startupHook(framework -> mapper = framework.endPointMapper());
+        config.startupHook(framework -> {
+            mapper = framework.endPointMapper();
+            profiler = framework.interceptorProfiler();
+        });
     }
 
     @Override
@@ -191,7 +196,7 @@ public abstract class AsynchronousProcessor implements AsyncSupport<AtmosphereRe
         // handler interceptor lists
         LinkedList<AtmosphereInterceptor> invokedInterceptors = handlerWrapper.interceptors;
 
-        Action a = invokeInterceptors(invokedInterceptors, resource, tracing);
+        Action a = invokeInterceptors(invokedInterceptors, resource, tracing, handlerWrapper.mapping);
         if (a.type() != Action.TYPE.CONTINUE && a.type() != Action.TYPE.SKIP_ATMOSPHEREHANDLER) {
             return a;
         }
@@ -223,10 +228,17 @@ public abstract class AsynchronousProcessor implements AsyncSupport<AtmosphereRe
                 }
             }
         } finally {
-            postInterceptors(handlerWrapper != null ? handlerWrapper.interceptors : invokedInterceptors, resource);
+            if (handlerWrapper != null) {
+                postInterceptors(handlerWrapper.interceptors, resource, handlerWrapper.mapping);
+            } else {
+                postInterceptors(invokedInterceptors, resource);
+            }
         }
 
         Action action = resource.action();
+        if (action.type() == Action.TYPE.SUSPEND) {
+            config.framework().metrics().onSuspend(resource);
+        }
         if (supportSession() && allowSessionTimeoutRemoval() && action.type().equals(Action.TYPE.SUSPEND)) {
             // Do not allow times out.
             SessionTimeoutSupport.setupTimeout(config, req.getSession(config.getInitParameter(ApplicationConfig.PROPERTY_SESSION_CREATE, true)));
@@ -295,6 +307,9 @@ public abstract class AsynchronousProcessor implements AsyncSupport<AtmosphereRe
 
     @Override
     public void action(AtmosphereResourceImpl r) {
+        if (r.action().type() == Action.TYPE.RESUME) {
+            config.framework().metrics().onResume(r);
+        }
     }
 
     @Override
@@ -324,6 +339,21 @@ public abstract class AsynchronousProcessor implements AsyncSupport<AtmosphereRe
     }
 
     public Action invokeInterceptors(List<AtmosphereInterceptor> c, AtmosphereResource r, int tracing) {
+        return invokeInterceptors(c, r, tracing, null);
+    }
+
+    /**
+     * Invoke the {@link AtmosphereInterceptor#inspect}. When {@link ApplicationConfig#INTERCEPTOR_PROFILING} is enabled,
+     * the time spent by each interceptor is recorded for the mapping.
+     *
+     * @param c       the {@link AtmosphereInterceptor}s
+     * @param r       the {@link AtmosphereResource}
+     * @param tracing the index used for tracing
+     * @param mapping the mapping of the {@link AtmosphereHandler}, or null
+     * @return the {@link Action}
+     */
+    public Action invokeInterceptors(List<AtmosphereInterceptor> c, AtmosphereResource r, int tracing, String mapping) {
+        InterceptorProfiler p = profiler;
         Action a = Action.CONTINUE;
         try {
             for (AtmosphereInterceptor arc : c) {
@@ -334,7 +364,16 @@ public abstract class AsynchronousProcessor implements AsyncSupport<AtmosphereRe
                 }
 
                 try {
-                    a = arc.inspect(r);
+                    if (p == null) {
+                        a = arc.inspect(r);
+                    } else {
+                        long start = System.nanoTime();
+                        try {
+                            a = arc.inspect(r);
+                        } finally {
+                            p.inspect(mapping, arc, r, System.nanoTime() - start);
+                        }
+                    }
                 } catch (Exception ex) {
                     logger.error("Interceptor " + arc + " crashed. Processing will continue with other interceptor.", ex);
                     continue;
@@ -368,11 +407,34 @@ public abstract class AsynchronousProcessor implements AsyncSupport<AtmosphereRe
     }
 
     public void postInterceptors(List<AtmosphereInterceptor> c, AtmosphereResource r) {
+        postInterceptors(c, r, null);
+    }
+
+    /**
+     * Invoke the {@link AtmosphereInterceptor#postInspect} in reverse order. When
+     * {@link ApplicationConfig#INTERCEPTOR_PROFILING} is enabled, the time spent by each interceptor is recorded for
+     * the mapping.
+     *
+     * @param c       the {@link AtmosphereInterceptor}s
+     * @param r       the {@link AtmosphereResource}
+     * @param mapping the mapping of the {@link AtmosphereHandler}, or null
+     */
+    public void postInterceptors(List<AtmosphereInterceptor> c, AtmosphereResource r, String mapping) {
+        InterceptorProfiler p = profiler;
         AtmosphereInterceptor arc = null;
         for (int i = c.size() - 1; i > -1; i--) {
             try {
                 arc = c.get(i);
-                arc.postInspect(r);
+                if (p == null) {
+                    arc.postInspect(r);
+                } else {
+                    long start = System.nanoTime();
+                    try {
+                        arc.postInspect(r);
+                    } finally {
+                        p.postInspect(mapping, arc, r, System.nanoTime() - start);
+                    }
+                }
             } catch (Exception ex) {
                 logger.error("Interceptor " + arc + " crashed. Processing will continue with other interceptor.", ex);
                 continue;
@@ -470,6 +532,7 @@ public abstract class AsynchronousProcessor implements AsyncSupport<AtmosphereRe
                         e.setCancelled(cancelled);
                     } else {
                         e.setIsResumedOnTimeout(true);
+                        config.framework().metrics().onTimeout(r);
                         Broadcaster b = r.getBroadcaster();
                         if (b instanceof DefaultBroadcaster) {
                             ((DefaultBroadcaster) b).broadcastOnResume(r);
@@ -41,7 +41,9 @@ import org.atmosphere.interceptor.OnDisconnectInterceptor;
 import org.atmosphere.interceptor.PaddingAtmosphereInterceptor;
 import org.atmosphere.interceptor.SSEAtmosphereInterceptor;
 import org.atmosphere.interceptor.WebSocketMessageSuspendInterceptor;
+import org.atmosphere.metrics.InterceptorProfiler;
 import org.atmosphere.util.AtmosphereConfigReader;
+import org.atmosphere.util.CompiledEndpointMapper;
 import org.atmosphere.util.DefaultEndpointMapper;
 import org.atmosphere.util.DefaultUUIDProvider;
 import org.atmosphere.util.EndpointMapper;
@@ -241,6 +243,8 @@ public class AtmosphereFramework {
     protected Class<Serializer> defaultSerializerClass;
     protected final List<AtmosphereFrameworkListener> frameworkListeners = new LinkedList<>();
     private UUIDProvider uuidProvider = new DefaultUUIDProvider();
+    protected AtmosphereMetrics metrics = new AtmosphereMetricsAdapter();
+    protected InterceptorProfiler interceptorProfiler;
     protected Thread shutdownHook;
     public static final List<Class<? extends AtmosphereInterceptor>> DEFAULT_ATMOSPHERE_INTERCEPTORS = new LinkedList<Class<? extends AtmosphereInterceptor>>() {
         {
@@ -688,7 +692,11 @@ public class AtmosphereFramework {
     }
 
     private AtmosphereFramework addMapping(String path, AtmosphereHandlerWrapper w) {
+        if (w.mapping == null) {
+            w.mapping = path;
+        }
         atmosphereHandlers.put(normalizePath(path), w);
+        invalidateEndpointMapper();
         return this;
     }
 
@@ -756,6 +764,7 @@ public class AtmosphereFramework {
         }
 
         atmosphereHandlers.remove(mapping);
+        invalidateEndpointMapper();
         return this;
     }
 
@@ -764,9 +773,16 @@ public class AtmosphereFramework {
      */
     public AtmosphereFramework removeAllAtmosphereHandler() {
         atmosphereHandlers.clear();
+        invalidateEndpointMapper();
         return this;
     }
 
+    private void invalidateEndpointMapper() {
+        if (endpointMapper instanceof CompiledEndpointMapper) {
+            ((CompiledEndpointMapper) endpointMapper).invalidate();
+        }
+    }
+
     /**
      * Remove all init parameters.
      */
@@ -879,6 +895,8 @@ public class AtmosphereFramework {
             }
 
             configureObjectFactory();
+            initMetrics();
+            initInterceptorProfiler();
             configureAnnotationPackages();
 
             configureBroadcasterFactory();
@@ -1782,6 +1800,26 @@ public class AtmosphereFramework {
         endpointMapper.configure(config);
     }
 
+    public void initMetrics() {
+        String s = servletConfig.getInitParameter(ApplicationConfig.METRICS);
+        if (s != null) {
+            try {
+                metrics = newClassInstance(AtmosphereMetrics.class, (Class<AtmosphereMetrics>) IOUtils.loadClass(this.getClass(), s));
+                logger.info("Installed AtmosphereMetrics {} ", s);
+            } catch (Exception ex) {
+                logger.error("Cannot load the AtmosphereMetrics {}", s, ex);
+            }
+        }
+        metrics.configure(config);
+    }
+
+    public void initInterceptorProfiler() {
+        if (interceptorProfiler == null && config.getInitParameter(ApplicationConfig.INTERCEPTOR_PROFILING, false)) {
+            interceptorProfiler = new InterceptorProfiler(config);
+            logger.info("AtmosphereInterceptor profiling enabled");
+        }
+    }
+
     protected void closeAtmosphereResource() {
         for (AtmosphereResource r : config.resourcesFactory().findAll()) {
             try {
@@ -1826,6 +1864,11 @@ public class AtmosphereFramework {
         if (metaBroadcaster != null) metaBroadcaster.destroy();
         if (arFactory != null) arFactory.destroy();
         if (sessionFactory != null) sessionFactory.destroy();
+        metrics.destroy();
+        if (interceptorProfiler != null) {
+            interceptorProfiler.destroy();
+            interceptorProfiler = null;
+        }
 
         WebSocketProcessorFactory.getDefault().destroy();
 
@@ -3448,6 +3491,35 @@ public class AtmosphereFramework {
         return uuidProvider;
     }
 
+    /**
+     * Set the {@link AtmosphereMetrics}. Must be invoked before {@link #init()}.
+     *
+     * @param metrics {@link AtmosphereMetrics}
+     * @return this
+     */
+    public AtmosphereFramework metrics(AtmosphereMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * Return the {@link AtmosphereMetrics}
+     *
+     * @return {@link AtmosphereMetrics}
+     */
+    public AtmosphereMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * Return the {@link InterceptorProfiler}, or null if {@link ApplicationConfig#INTERCEPTOR_PROFILING} isn't enabled.
+     *
+     * @return {@link InterceptorProfiler}
+     */
+    public InterceptorProfiler interceptorProfiler() {
+        return interceptorProfiler;
+    }
+
     /**
      * Return the {@link WebSocketFactory}
      *
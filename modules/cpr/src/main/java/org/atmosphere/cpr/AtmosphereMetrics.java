@@ -0,0 +1,110 @@
+/*
+ * Copyright 2008-2021 Async-IO.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atmosphere.cpr;
+
+import org.atmosphere.inject.AtmosphereConfigAware;
+import org.atmosphere.websocket.WebSocket;
+
+/**
+ * Collect the metrics of the {@link Broadcaster}s, the {@link BroadcasterCache}s and the connections. The
+ * {@link DefaultBroadcaster}, the {@link BroadcasterCache}s, the {@link AsynchronousProcessor} and the
+ * {@link org.atmosphere.websocket.DefaultWebSocketProcessor} invoke an AtmosphereMetrics from their I/O and
+ * dispatching threads, hence an implementation must be thread safe, cheap and must never block.
+ * <p/>
+ * An implementation is defined using {@link ApplicationConfig#METRICS}. By default, an {@link AtmosphereMetricsAdapter}
+ * is used and nothing is collected. {@link org.atmosphere.metrics.DefaultAtmosphereMetrics} exports the metrics as JMX MBeans.
+ */
+public interface AtmosphereMetrics extends AtmosphereConfigAware {
+
+    /**
+     * Invoked when a message is broadcasted, before it gets delivered.
+     *
+     * @param b the {@link Broadcaster}
+     */
+    void onBroadcast(Broadcaster b);
+
+    /**
+     * Invoked when a message has been delivered to an {@link AtmosphereResource}.
+     *
+     * @param b            the {@link Broadcaster}
+     * @param r            the {@link AtmosphereResource}
+     * @param latencyNanos the time, in nanoseconds, between the broadcast and the delivery
+     */
+    void onDeliver(Broadcaster b, AtmosphereResource r, long latencyNanos);
+
+    /**
+     * Invoked when messages are retrieved from a {@link BroadcasterCache}.
+     *
+     * @param broadcasterId the {@link Broadcaster#getID()}
+     * @param messages      the number of messages retrieved, 0 when nothing was cached
+     */
+    void onCacheRetrieve(String broadcasterId, int messages);
+
+    /**
+     * Invoked when messages are evicted from a {@link BroadcasterCache} before being retrieved.
+     *
+     * @param broadcasterId the {@link Broadcaster#getID()}, or null if the {@link BroadcasterCache} doesn't know it
+     * @param messages      the number of evicted messages
+     */
+    void onCacheEviction(String broadcasterId, int messages);
+
+    /**
+     * Invoked when an {@link AtmosphereResource} gets suspended.
+     *
+     * @param r the {@link AtmosphereResource}
+     */
+    void onSuspend(AtmosphereResource r);
+
+    /**
+     * Invoked when an {@link AtmosphereResource} gets resumed.
+     *
+     * @param r the {@link AtmosphereResource}
+     */
+    void onResume(AtmosphereResource r);
+
+    /**
+     * Invoked when an {@link AtmosphereResource} times out.
+     *
+     * @param r the {@link AtmosphereResource}
+     */
+    void onTimeout(AtmosphereResource r);
+
+    /**
+     * Invoked when a {@link WebSocket} has been opened.
+     *
+     * @param webSocket the {@link WebSocket}
+     */
+    void onWebSocketOpen(WebSocket webSocket);
+
+    /**
+     * Invoked when a {@link WebSocket} gets closed.
+     *
+     * @param webSocket the {@link WebSocket}
+     */
+    void onWebSocketClose(WebSocket webSocket);
+
+    /**
+     * Invoked when a message has been received from a {@link WebSocket}.
+     *
+     * @param webSocket the {@link WebSocket}
+     */
+    void onWebSocketMessage(WebSocket webSocket);
+
+    /**
+     * Release the resources associated with this object, invoked when the {@link AtmosphereFramework} is destroyed.
+     */
+    void destroy();
+}
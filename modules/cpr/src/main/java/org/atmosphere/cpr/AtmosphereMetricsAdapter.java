@@ -0,0 +1,72 @@
+/*
+ * Copyright 2008-2021 Async-IO.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atmosphere.cpr;
+
+import org.atmosphere.websocket.WebSocket;
+
+/**
+ * An implementation of {@link AtmosphereMetrics} that collects nothing.
+ */
+public class AtmosphereMetricsAdapter implements AtmosphereMetrics {
+
+    @Override
+    public void configure(AtmosphereConfig config) {
+    }
+
+    @Override
+    public void onBroadcast(Broadcaster b) {
+    }
+
+    @Override
+    public void onDeliver(Broadcaster b, AtmosphereResource r, long latencyNanos) {
+    }
+
+    @Override
+    public void onCacheRetrieve(String broadcasterId, int messages) {
+    }
+
+    @Override
+    public void onCacheEviction(String broadcasterId, int messages) {
+    }
+
+    @Override
+    public void onSuspend(AtmosphereResource r) {
+    }
+
+    @Override
+    public void onResume(AtmosphereResource r) {
+    }
+
+    @Override
+    public void onTimeout(AtmosphereResource r) {
+    }
+
+    @Override
+    public void onWebSocketOpen(WebSocket webSocket) {
+    }
+
+    @Override
+    public void onWebSocketClose(WebSocket webSocket) {
+    }
+
+    @Override
+    public void onWebSocketMessage(WebSocket webSocket) {
+    }
+
+    @Override
+    public void destroy() {
+    }
+}
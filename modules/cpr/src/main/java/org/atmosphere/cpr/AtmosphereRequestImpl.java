@@ -15,6 +15,7 @@
  */
 package org.atmosphere.cpr;
 
+import org.atmosphere.interceptor.HeartbeatInterceptor;
 import org.atmosphere.util.FakeHttpSession;
 import org.atmosphere.util.QueryStringDecoder;
 import org.atmosphere.util.ReaderInputStream;
@@ -61,6 +62,7 @@ import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import static org.atmosphere.cpr.ApplicationConfig.MAX_INACTIVE;
 import static org.atmosphere.cpr.HeaderConfig.X_ATMOSPHERE;
 
 /**
@@ -75,6 +77,12 @@ import static org.atmosphere.cpr.HeaderConfig.X_ATMOSPHERE;
 public class AtmosphereRequestImpl extends HttpServletRequestWrapper implements AtmosphereRequest {
 
     private final static Logger logger = LoggerFactory.getLogger(AtmosphereRequestImpl.class);
+
+    /**
+     * The value of {@link #lastActivity()} when {@link ApplicationConfig#MAX_INACTIVE} isn't set.
+     */
+    public static final long NO_ACTIVITY = Long.MIN_VALUE;
+
     private ServletInputStream bis;
     private BufferedReader br;
     private final Builder b;
@@ -87,6 +95,10 @@ public class AtmosphereRequestImpl extends HttpServletRequestWrapper implements
     private AtomicBoolean readerSet = new AtomicBoolean();
     private String uuid;
     private boolean noopsAsyncContextStarted;
+    private volatile boolean recycled;
+    // The framework attributes set on every write, kept in typed slots instead of the attributes map.
+    private volatile long lastActivity = NO_ACTIVITY;
+    private volatile Object heartbeatFuture;
 
     private AtmosphereRequestImpl(Builder b) {
         super(b.request == null ? new NoOpsRequest() : b.request);
@@ -96,6 +108,46 @@ public class AtmosphereRequestImpl extends HttpServletRequestWrapper implements
         this.uuid = resource() != null ? resource().uuid() : "0";
     }
 
+    /**
+     * Reset this request so it can be reused for another WebSocket message, see
+     * {@link ApplicationConfig#WEBSOCKET_POOL_REQUEST_RESPONSE}. Until {@link Builder#build()} is invoked on the
+     * returned {@link Builder}, which returns this instance, any attempt to read or write its headers, attributes
+     * or body throws an {@link IllegalStateException}.
+     *
+     * @return the {@link Builder} of this request, reset to its default values
+     */
+    public Builder recycle() {
+        recycled = true;
+        bis = null;
+        br = null;
+        queryComputed = false;
+        cookieComputed = false;
+        streamSet.set(false);
+        readerSet.set(false);
+        uuid = "0";
+        noopsAsyncContextStarted = false;
+        lastActivity = NO_ACTIVITY;
+        heartbeatFuture = null;
+        b.reset();
+        b.recycled = this;
+        return b;
+    }
+
+    private AtmosphereRequestImpl reuse() {
+        if (b.request == null) b.request(new NoOpsRequest());
+        super.setRequest(b.request);
+        destroyed.set(false);
+        recycled = false;
+        uuid = resource() != null ? resource().uuid() : "0";
+        return this;
+    }
+
+    private void checkRecycled() {
+        if (recycled) {
+            throw new IllegalStateException("AtmosphereRequest has been recycled and can't be used outside the dispatch of its WebSocket message");
+        }
+    }
+
     private BufferedReader getVoidReader() {
         if (voidReader == null) {
             voidReader = new BufferedReader(new StringReader(""), 5);
@@ -159,6 +211,7 @@ public class AtmosphereRequestImpl extends HttpServletRequestWrapper implements
 
     @Override
     public String getPathInfo() {
+        checkRecycled();
         return b.pathInfo != "" ? b.pathInfo : isNotNoOps() ? b.request.getPathInfo() : "";
     }
 
@@ -195,6 +248,7 @@ public class AtmosphereRequestImpl extends HttpServletRequestWrapper implements
 
     @Override
     public String getMethod() {
+        checkRecycled();
         return b.methodType != null ? b.methodType : b.request.getMethod();
     }
 
@@ -225,6 +279,7 @@ public class AtmosphereRequestImpl extends HttpServletRequestWrapper implements
 
     @Override
     public String getRequestURI() {
+        checkRecycled();
         return b.requestURI != null ? b.requestURI : (isNotNoOps() ? b.request.getRequestURI() : "");
     }
 
@@ -235,6 +290,7 @@ public class AtmosphereRequestImpl extends HttpServletRequestWrapper implements
 
     @Override
     public Enumeration getHeaders(String name) {
+        checkRecycled();
 
         ArrayList list = new ArrayList<>();
         // Never override the parent Request
@@ -270,6 +326,7 @@ public class AtmosphereRequestImpl extends HttpServletRequestWrapper implements
 
     @Override
     public Enumeration<String> getHeaderNames() {
+        checkRecycled();
         Set<String> list = new HashSet<>();
         list.addAll(b.headers.keySet());
 
@@ -343,6 +400,7 @@ public class AtmosphereRequestImpl extends HttpServletRequestWrapper implements
 
     @Override
     public String getHeader(String s, boolean checkCase) {
+        checkRecycled();
 
         if ("content-type".equalsIgnoreCase(s)) {
             return getContentType();
@@ -393,6 +451,7 @@ public class AtmosphereRequestImpl extends HttpServletRequestWrapper implements
 
     @Override
     public String getParameter(String s) {
+        checkRecycled();
         String name = isNotNoOps() ? b.request.getParameter(s) : null;
         if (name == null) {
             if (b.queryStrings.get(s) != null) {
@@ -444,6 +503,7 @@ public class AtmosphereRequestImpl extends HttpServletRequestWrapper implements
 
     @Override
     public ServletInputStream getInputStream() throws IOException {
+        checkRecycled();
         if (b.body.isEmpty()) {
             configureStream();
             return bis == null ? (isNotNoOps() ? b.request.getInputStream() : voidStream) : bis;
@@ -457,6 +517,7 @@ public class AtmosphereRequestImpl extends HttpServletRequestWrapper implements
 
     @Override
     public BufferedReader getReader() throws IOException {
+        checkRecycled();
         if (b.body.isEmpty()) {
             configureReader();
             return br == null ? (isNotNoOps() ? b.request.getReader() : getVoidReader()) : br;
@@ -553,6 +614,7 @@ public class AtmosphereRequestImpl extends HttpServletRequestWrapper implements
 
     @Override
     public Body body() {
+        checkRecycled();
         return b.body;
     }
 
@@ -590,11 +652,22 @@ public class AtmosphereRequestImpl extends HttpServletRequestWrapper implements
 
     @Override
     public void setAttribute(String s, Object o) {
+        checkRecycled();
         if (o == null) {
             removeAttribute(s);
             return;
         }
-        b.localAttributes.put(s, o);
+        if (MAX_INACTIVE.equals(s) && o instanceof Number) {
+            lastActivity = ((Number) o).longValue();
+            b.localAttributes.remove(s);
+        } else if (HeartbeatInterceptor.HEARTBEAT_FUTURE.equals(s)) {
+            heartbeatFuture = o;
+        } else {
+            if (MAX_INACTIVE.equals(s)) {
+                lastActivity = NO_ACTIVITY;
+            }
+            b.localAttributes.put(s, o);
+        }
         if (isNotNoOps() && !destroyed.get()) {
             try {
                 synchronized (b.request) {
@@ -653,12 +726,23 @@ public class AtmosphereRequestImpl extends HttpServletRequestWrapper implements
 
     @Override
     public Object getAttribute(String s) {
+        checkRecycled();
+        Object o = slot(s);
+        if (o != null) {
+            return o;
+        }
         return b.localAttributes.get(s) != null ? b.localAttributes.get(s) : (isNotNoOps() ? attributeWithoutException(b.request, s) : null);
     }
 
     @Override
     public void removeAttribute(String name) {
+        checkRecycled();
 
+        if (MAX_INACTIVE.equals(name)) {
+            lastActivity = NO_ACTIVITY;
+        } else if (HeartbeatInterceptor.HEARTBEAT_FUTURE.equals(name)) {
+            heartbeatFuture = null;
+        }
         b.localAttributes.remove(name);
         if (isNotNoOps() && !destroyed.get()) {
             synchronized (b.request) {
@@ -672,6 +756,38 @@ public class AtmosphereRequestImpl extends HttpServletRequestWrapper implements
         return b.localAttributes;
     }
 
+    /**
+     * Return the time, in milliseconds, a message was last written to the {@link AtmosphereResource}, -1 if
+     * the resource has been marked as idle, or {@link #NO_ACTIVITY}. This is the {@link ApplicationConfig#MAX_INACTIVE}
+     * attribute, without boxing.
+     *
+     * @return the time of the last write
+     */
+    public long lastActivity() {
+        return lastActivity;
+    }
+
+    /**
+     * Set the {@link ApplicationConfig#MAX_INACTIVE} attribute, without boxing.
+     *
+     * @param lastActivity the time of the last write, in milliseconds
+     * @return this
+     */
+    public AtmosphereRequestImpl lastActivity(long lastActivity) {
+        this.lastActivity = lastActivity;
+        return this;
+    }
+
+    private Object slot(String s) {
+        if (MAX_INACTIVE.equals(s)) {
+            long l = lastActivity;
+            return l == NO_ACTIVITY ? null : l;
+        } else if (HeartbeatInterceptor.HEARTBEAT_FUTURE.equals(s)) {
+            return heartbeatFuture;
+        }
+        return null;
+    }
+
     @Override
     public HttpSession getSession() {
         return getSession(true);
@@ -894,7 +1010,14 @@ public class AtmosphereRequestImpl extends HttpServletRequestWrapper implements
 
     @Override
     public Enumeration<String> getAttributeNames() {
+        checkRecycled();
         Set<String> l = new HashSet<>(b.localAttributes.unmodifiableMap().keySet());
+        if (lastActivity != NO_ACTIVITY) {
+            l.add(MAX_INACTIVE);
+        }
+        if (heartbeatFuture != null) {
+            l.add(HeartbeatInterceptor.HEARTBEAT_FUTURE);
+        }
 
         if (isNotNoOps()) {
             synchronized (b.request) {
@@ -951,6 +1074,8 @@ public class AtmosphereRequestImpl extends HttpServletRequestWrapper implements
         if (!force) return;
         destroyed.set(true);
         b.localAttributes.clear();
+        lastActivity = NO_ACTIVITY;
+        heartbeatFuture = null;
         if (bis != null) {
             try {
                 bis.close();
@@ -986,8 +1111,13 @@ public class AtmosphereRequestImpl extends HttpServletRequestWrapper implements
         private String contentType;
         private boolean noContentType;
         private Long contentLength;
-        private Map<String, String> headers = Collections.synchronizedMap(new HashMap<>());
-        private Map<String, String[]> queryStrings = Collections.synchronizedMap(new HashMap<>());
+        private final Map<String, String> ownHeaders = Collections.synchronizedMap(new HashMap<>());
+        private Map<String, String> headers = ownHeaders;
+        // The last map passed to headers(Map) and its synchronized view, reused when the same map is passed again.
+        private Map<String, String> headersSource;
+        private Map<String, String> synchronizedHeaders;
+        private final Map<String, String[]> ownQueryStrings = Collections.synchronizedMap(new HashMap<>());
+        private Map<String, String[]> queryStrings = ownQueryStrings;
         private String servletPath = "";
         private String requestURI;
         private String requestURL;
@@ -1001,7 +1131,8 @@ public class AtmosphereRequestImpl extends HttpServletRequestWrapper implements
         private int localPort;
         private boolean dispatchRequestAsynchronously;
         private boolean destroyable = true;
-        private Set<Cookie> cookies = Collections.synchronizedSet(new HashSet<>());
+        private final Set<Cookie> ownCookies = Collections.synchronizedSet(new HashSet<>());
+        private Set<Cookie> cookies = ownCookies;
         private final Set<Locale> locales = Collections.synchronizedSet(new HashSet<>());
         private Principal principal;
         private String authType;
@@ -1016,10 +1147,54 @@ public class AtmosphereRequestImpl extends HttpServletRequestWrapper implements
         private LazyComputation lazyLocal;
         public Body body;
         private LocalAttributes localAttributes = new LocalAttributes();
+        // The recycled request returned by build(), if any.
+        private AtmosphereRequestImpl recycled;
 
         public Builder() {
         }
 
+        private void reset() {
+            request = null;
+            pathInfo = "";
+            encoding = "UTF-8";
+            methodType = null;
+            contentType = null;
+            noContentType = false;
+            contentLength = null;
+            ownHeaders.clear();
+            headers = ownHeaders;
+            ownQueryStrings.clear();
+            queryStrings = ownQueryStrings;
+            servletPath = "";
+            requestURI = null;
+            requestURL = null;
+            inputStream = null;
+            reader = null;
+            remoteAddr = "";
+            remoteHost = "";
+            remotePort = 0;
+            localAddr = "";
+            localName = "";
+            localPort = 0;
+            dispatchRequestAsynchronously = false;
+            destroyable = true;
+            ownCookies.clear();
+            cookies = ownCookies;
+            locales.clear();
+            principal = null;
+            authType = null;
+            contextPath = "";
+            serverName = "";
+            serverPort = 0;
+            webSocketFakeSession = null;
+            queryString = "";
+            isSecure = false;
+            lazyRemote = null;
+            lazyLocal = null;
+            body = null;
+            localAttributes.clear();
+        }
+
         @Override
         public Builder destroyable(boolean destroyable) {
             this.destroyable = destroyable;
@@ -1028,7 +1203,11 @@ public class AtmosphereRequestImpl extends HttpServletRequestWrapper implements
 
         @Override
         public Builder headers(Map<String, String> headers) {
-            this.headers = Collections.synchronizedMap(headers);
+            if (headers != headersSource) {
+                synchronizedHeaders = Collections.synchronizedMap(headers);
+                headersSource = headers;
+            }
+            this.headers = synchronizedHeaders;
             return this;
         }
 
@@ -1195,6 +1374,11 @@ public class AtmosphereRequestImpl extends HttpServletRequestWrapper implements
             if (body == null) {
                 body = NULL_BODY;
             }
+            if (recycled != null) {
+                AtmosphereRequestImpl r = recycled;
+                recycled = null;
+                return r.reuse();
+            }
             return new AtmosphereRequestImpl(this);
         }
 
@@ -2078,6 +2262,9 @@ public class AtmosphereRequestImpl extends HttpServletRequestWrapper implements
 
     @Override
     public String toString() {
+        if (recycled) {
+            return "AtmosphereRequest{ recycled }";
+        }
         try {
             return "AtmosphereRequest{" +
                     " method=" + getMethod() +
@@ -17,7 +17,6 @@
 package org.atmosphere.cpr;
 
 import java.util.Objects;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * {@link AtmosphereResourceEvent} implementation.
@@ -27,16 +26,24 @@ import java.util.concurrent.atomic.AtomicBoolean;
 public class AtmosphereResourceEventImpl implements AtmosphereResourceEvent {
 
     // Was the remote connection closed.
-    private final AtomicBoolean isCancelled = new AtomicBoolean(false);
+    private volatile boolean isCancelled;
     // Is Resumed on Timeout?
-    private final AtomicBoolean isResumedOnTimeout = new AtomicBoolean(false);
+    private volatile boolean isResumedOnTimeout;
     private Throwable throwable;
     // The current message
     protected Object message;
+    // The message shared by all resources of the current broadcast, if any.
+    protected BroadcastPayload payload;
+    // True if the message is a List of messages coalesced by the Broadcaster.
+    protected boolean coalesced;
+    // The sequence number the BroadcasterCache gave to the message, 0 if none.
+    protected long sequence;
+    // The sequence number of each message of a List of messages, null if none.
+    protected long[] sequences;
     protected AtmosphereResourceImpl resource;
-    private final AtomicBoolean isClosedByClient = new AtomicBoolean(false);
+    private volatile boolean isClosedByClient;
     private final String uuid;
-    private final AtomicBoolean isClosedByApplication = new AtomicBoolean(false);
+    private volatile boolean isClosedByApplication;
 
     public AtmosphereResourceEventImpl(AtmosphereResourceImpl resource) {
         this.resource = resource;
@@ -46,8 +53,8 @@ public class AtmosphereResourceEventImpl implements AtmosphereResourceEvent {
 
     public AtmosphereResourceEventImpl(AtmosphereResourceImpl resource, boolean isCancelled,
                                        boolean isResumedOnTimeout) {
-        this.isCancelled.set(isCancelled);
-        this.isResumedOnTimeout.set(isResumedOnTimeout);
+        this.isCancelled = isCancelled;
+        this.isResumedOnTimeout = isResumedOnTimeout;
         this.resource = resource;
         this.throwable = null;
         uuid = resource.uuid();
@@ -56,8 +63,8 @@ public class AtmosphereResourceEventImpl implements AtmosphereResourceEvent {
     public AtmosphereResourceEventImpl(AtmosphereResourceImpl resource, boolean isCancelled,
                                        boolean isResumedOnTimeout,
                                        Throwable throwable) {
-        this.isCancelled.set(isCancelled);
-        this.isResumedOnTimeout.set(isResumedOnTimeout);
+        this.isCancelled = isCancelled;
+        this.isResumedOnTimeout = isResumedOnTimeout;
         this.resource = resource;
         this.throwable = throwable;
         uuid = resource.uuid();
@@ -68,11 +75,11 @@ public class AtmosphereResourceEventImpl implements AtmosphereResourceEvent {
                                        boolean isResumedOnTimeout,
                                        boolean isClosedByClient,
                                        Throwable throwable) {
-        this.isCancelled.set(isCancelled);
-        this.isResumedOnTimeout.set(isResumedOnTimeout);
+        this.isCancelled = isCancelled;
+        this.isResumedOnTimeout = isResumedOnTimeout;
         this.resource = resource;
         this.throwable = throwable;
-        this.isClosedByClient.set(isClosedByClient);
+        this.isClosedByClient = isClosedByClient;
         uuid = resource.uuid();
     }
 
@@ -88,16 +95,16 @@ public class AtmosphereResourceEventImpl implements AtmosphereResourceEvent {
 
     @Override
     public boolean isClosedByClient() {
-        return isClosedByClient.get();
+        return isClosedByClient;
     }
 
     @Override
     public boolean isClosedByApplication() {
-        return isClosedByApplication.get();
+        return isClosedByApplication;
     }
 
     public AtmosphereResourceEventImpl setCloseByApplication(boolean b) {
-        isClosedByApplication.set(b);
+        isClosedByApplication = b;
         return this;
     }
 
@@ -112,25 +119,97 @@ public class AtmosphereResourceEventImpl implements AtmosphereResourceEvent {
         return this;
     }
 
+    /**
+     * Return the {@link BroadcastPayload} of the broadcast being delivered, or null. The payload must only be used
+     * if {@link BroadcastPayload#matches(Object)} returns true for {@link #getMessage()}.
+     *
+     * @return the {@link BroadcastPayload}, or null
+     */
+    public BroadcastPayload payload() {
+        return payload;
+    }
+
+    public AtmosphereResourceEventImpl payload(BroadcastPayload payload) {
+        this.payload = payload;
+        return this;
+    }
+
+    /**
+     * Return true if the message is a {@link java.util.List} of broadcasted messages the {@link Broadcaster} coalesced into
+     * a single write, see {@link ApplicationConfig#BROADCASTER_WRITE_COALESCING}.
+     *
+     * @return true if the message is a {@link java.util.List} of coalesced messages
+     */
+    public boolean isCoalesced() {
+        return coalesced;
+    }
+
+    public AtmosphereResourceEventImpl coalesced(boolean coalesced) {
+        this.coalesced = coalesced;
+        return this;
+    }
+
+    /**
+     * Return the sequence number of the message being delivered, as given by the {@link BroadcasterCache}, or 0 if the
+     * message has no sequence number, see {@link org.atmosphere.cache.RingBroadcasterCache.Entry#sequence()}. For a
+     * {@link java.util.List} of messages, it is the sequence number of the last one, unless the {@link AtmosphereHandler}
+     * is writing the messages one by one, see {@link #sequences()}.
+     *
+     * @return the sequence number, or 0
+     */
+    public long sequence() {
+        return sequence;
+    }
+
+    public AtmosphereResourceEventImpl sequence(long sequence) {
+        this.sequence = sequence;
+        return this;
+    }
+
+    /**
+     * Return the sequence number of each message of a {@link java.util.List} of messages, in order, or null. An
+     * {@link AtmosphereHandler} writing the messages one by one sets {@link #sequence(long)} to the sequence number of
+     * the message before writing it, so a client disconnecting in the middle of the {@link java.util.List} only misses
+     * the messages it hasn't received.
+     *
+     * @return the sequence number of each message, or null
+     */
+    public long[] sequences() {
+        return sequences;
+    }
+
+    /**
+     * Set the sequence number of each message of a {@link java.util.List} of messages, and {@link #sequence()} to the
+     * one of the last message.
+     *
+     * @param sequences the sequence number of each message, or null
+     * @return this
+     */
+    public AtmosphereResourceEventImpl sequences(long[] sequences) {
+        this.sequences = sequences;
+        this.sequence = sequences == null || sequences.length == 0 ? 0 : sequences[sequences.length - 1];
+        return this;
+    }
+
     public AtmosphereResourceEventImpl isClosedByClient(boolean isClosedByClient) {
-        this.isClosedByClient.set(isClosedByClient);
+        this.isClosedByClient = isClosedByClient;
         return this;
     }
 
     @Override
     public boolean isResumedOnTimeout() {
-        return isResumedOnTimeout.get();
+        return isResumedOnTimeout;
     }
 
     @Override
     public boolean isCancelled() {
-        return isCancelled.get();
+        return isCancelled;
     }
 
     public AtmosphereResourceEventImpl setCancelled(boolean isCancelled) {
         if (check()) {
             resource.action().type(Action.TYPE.CANCELLED);
-            this.isCancelled.set(isCancelled);
+            this.isCancelled = isCancelled;
         }
         return this;
     }
@@ -138,7 +217,7 @@ public class AtmosphereResourceEventImpl implements AtmosphereResourceEvent {
     protected AtmosphereResourceEventImpl setIsResumedOnTimeout(boolean isResumedOnTimeout) {
         if (check()) {
             resource.action().type(Action.TYPE.TIMEOUT);
-            this.isResumedOnTimeout.set(isResumedOnTimeout);
+            this.isResumedOnTimeout = isResumedOnTimeout;
         }
         return this;
     }
@@ -150,9 +229,8 @@ public class AtmosphereResourceEventImpl implements AtmosphereResourceEvent {
 
         AtmosphereResourceEventImpl that = (AtmosphereResourceEventImpl) o;
 
-        if (!isCancelled.equals(that.isCancelled)) return false;
-        if (!isResumedOnTimeout.equals(that.isResumedOnTimeout))
-            return false;
+        if (isCancelled != that.isCancelled) return false;
+        if (isResumedOnTimeout != that.isResumedOnTimeout) return false;
         if (!Objects.equals(message, that.message)) return false;
         if (!Objects.equals(resource, that.resource)) return false;
         if (!Objects.equals(throwable, that.throwable)) return false;
@@ -162,8 +240,8 @@ public class AtmosphereResourceEventImpl implements AtmosphereResourceEvent {
 
     @Override
     public int hashCode() {
-        int result = isCancelled.hashCode();
-        result = 31 * result + isResumedOnTimeout.hashCode();
+        int result = isCancelled ? 1 : 0;
+        result = 31 * result + (isResumedOnTimeout ? 1 : 0);
         result = 31 * result + (throwable != null ? throwable.hashCode() : 0);
         result = 31 * result + (message != null ? message.hashCode() : 0);
         result = 31 * result + (resource != null ? resource.hashCode() : 0);
@@ -195,9 +273,13 @@ public class AtmosphereResourceEventImpl implements AtmosphereResourceEvent {
     }
 
     public AtmosphereResourceEvent destroy() {
-        isCancelled.set(true);
+        isCancelled = true;
         resource = null;
         message = null;
+        payload = null;
+        coalesced = false;
+        sequence = 0;
+        sequences = null;
         return this;
     }
 
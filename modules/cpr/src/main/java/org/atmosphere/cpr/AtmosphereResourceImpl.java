@@ -16,6 +16,8 @@
 package org.atmosphere.cpr;
 
 import org.atmosphere.interceptor.AllowInterceptor;
+import org.atmosphere.util.CopyOnWriteArrays;
+import org.atmosphere.util.HashedTimerWheel;
 import org.atmosphere.util.Utils;
 import org.atmosphere.websocket.WebSocket;
 import org.atmosphere.websocket.WebSocketEventListener;
@@ -25,10 +27,9 @@ import org.slf4j.LoggerFactory;
 import javax.servlet.http.HttpSession;
 import java.io.IOException;
 import java.util.*;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 import static org.atmosphere.cpr.ApplicationConfig.PROPERTY_SESSION_CREATE;
 import static org.atmosphere.cpr.ApplicationConfig.SUSPENDED_ATMOSPHERE_RESOURCE_UUID;
@@ -54,38 +55,56 @@ public class AtmosphereResourceImpl implements AtmosphereResource {
     public static final String SKIP_BROADCASTER_CREATION = AtmosphereResourceImpl.class.getName() + ".skipBroadcasterCreation";
     public static final String METEOR = Meteor.class.getName();
 
+    // The lifecycle flags, packed in the state word.
+    private static final int IN_SCOPE = 1;
+    private static final int RESUMED = 1 << 1;
+    private static final int CANCELLED = 1 << 2;
+    private static final int RESUME_ON_BROADCAST = 1 << 3;
+    private static final int DISCONNECTED = 1 << 4;
+    private static final int SUSPEND_EVENT = 1 << 5;
+    private static final int SUSPENDED = 1 << 6;
+    private static final int CLOSING = 1 << 7;
+    private static final int PENDING_CLOSE = 1 << 8;
+
+    private static final AtomicIntegerFieldUpdater<AtmosphereResourceImpl> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(AtmosphereResourceImpl.class, "state");
+    private static final AtomicReferenceFieldUpdater<AtmosphereResourceImpl, Broadcaster[]> BROADCASTERS =
+            AtomicReferenceFieldUpdater.newUpdater(AtmosphereResourceImpl.class, Broadcaster[].class, "broadcasters");
+    private static final AtomicReferenceFieldUpdater<AtmosphereResourceImpl, AtmosphereResourceEventListener[]> LISTENERS =
+            AtomicReferenceFieldUpdater.newUpdater(AtmosphereResourceImpl.class, AtmosphereResourceEventListener[].class, "listeners");
+    private static final AtomicReferenceFieldUpdater<AtmosphereResourceImpl, Broadcaster> WRITER =
+            AtomicReferenceFieldUpdater.newUpdater(AtmosphereResourceImpl.class, Broadcaster.class, "writer");
+    private static final AtomicReferenceFieldUpdater<AtmosphereResourceImpl, HashedTimerWheel.Timeout> IDLE_TIMEOUT =
+            AtomicReferenceFieldUpdater.newUpdater(AtmosphereResourceImpl.class, HashedTimerWheel.Timeout.class, "idleTimeout");
+    private static final Broadcaster[] NO_BROADCASTERS = new Broadcaster[0];
+    private static final AtmosphereResourceEventListener[] NO_LISTENERS = new AtmosphereResourceEventListener[0];
+
     private AtmosphereRequest req;
     private AtmosphereResponse response;
     private final Action action = new Action();
-    protected final List<Broadcaster> broadcasters = new CopyOnWriteArrayList<>();
+    private volatile Broadcaster[] broadcasters = NO_BROADCASTERS;
     protected Broadcaster broadcaster;
     private AtmosphereConfig config;
     protected AsyncSupport<AtmosphereResourceImpl> asyncSupport;
     private Serializer serializer;
-    private final AtomicBoolean isInScope = new AtomicBoolean(true);
+    private volatile int state = IN_SCOPE;
     private AtmosphereResourceEventImpl event;
-    private final AtomicBoolean isResumed = new AtomicBoolean();
-    private final AtomicBoolean isCancelled = new AtomicBoolean();
-    private final AtomicBoolean resumeOnBroadcast = new AtomicBoolean();
     private Object writeOnTimeout;
     private boolean disableSuspend;
-    private final AtomicBoolean disconnected = new AtomicBoolean();
-
-    private final ConcurrentLinkedQueue<AtmosphereResourceEventListener> listeners =
-            new ConcurrentLinkedQueue<>();
-
-    private final AtomicBoolean isSuspendEvent = new AtomicBoolean();
+    private volatile AtmosphereResourceEventListener[] listeners = NO_LISTENERS;
+    // The Broadcaster writing to this resource and the state of that write, see writeToken(Broadcaster, Object).
+    private volatile Broadcaster writer;
+    private volatile Object writeToken;
+    // The next idle check of the IdleResourceInterceptor, see idleTimeout(Timeout, Timeout).
+    private volatile HashedTimerWheel.Timeout idleTimeout;
     private AtmosphereHandler atmosphereHandler;
     private String uuid;
     protected HttpSession session;
     private boolean disableSuspendEvent;
     private TRANSPORT transport;
     private boolean forceBinaryWrite;
-    private final AtomicBoolean suspended = new AtomicBoolean();
     private WebSocket webSocket;
-    private final AtomicBoolean inClosingPhase = new AtomicBoolean();
     private boolean closeOnCancel;
-    private final AtomicBoolean isPendingClose = new AtomicBoolean();
 
     public AtmosphereResourceImpl() {
     }
@@ -232,7 +251,7 @@ public class AtmosphereResourceImpl implements AtmosphereResource {
 
     @Override
     public AtmosphereResource resumeOnBroadcast(boolean resumeOnBroadcast) {
-        this.resumeOnBroadcast.set(resumeOnBroadcast);
+        flag(RESUME_ON_BROADCAST, resumeOnBroadcast);
         // For legacy reason
         req.setAttribute(ApplicationConfig.RESUME_ON_BROADCAST, resumeOnBroadcast);
         return this;
@@ -240,12 +259,12 @@ public class AtmosphereResourceImpl implements AtmosphereResource {
 
     @Override
     public boolean isSuspended() {
-        return suspended.get();
+        return flag(SUSPENDED);
     }
 
     @Override
     public boolean resumeOnBroadcast() {
-        boolean rob = resumeOnBroadcast.get();
+        boolean rob = flag(RESUME_ON_BROADCAST);
         if (!rob) {
             try {
                 Boolean b = (Boolean) req.getAttribute(ApplicationConfig.RESUME_ON_BROADCAST);
@@ -267,8 +286,8 @@ public class AtmosphereResourceImpl implements AtmosphereResource {
         }
 
         try {
-            if (!isResumed.getAndSet(true) && isInScope.get()) {
-                suspended.set(false);
+            if (!getAndSetFlag(RESUMED) && flag(IN_SCOPE)) {
+                flag(SUSPENDED, false);
                 logger.trace("AtmosphereResource {} is resuming", uuid());
 
                 action.type(Action.TYPE.RESUME);
@@ -311,7 +330,7 @@ public class AtmosphereResourceImpl implements AtmosphereResource {
             unregister();
             Utils.destroyMeteor(req);
         }
-        listeners.clear();
+        listeners = NO_LISTENERS;
         return this;
     }
 
@@ -344,7 +363,7 @@ public class AtmosphereResourceImpl implements AtmosphereResource {
         }
 
         if (Utils.resumableTransport(transport())) {
-            resumeOnBroadcast.set(true);
+            flag(RESUME_ON_BROADCAST, true);
         }
 
         onPreSuspend(event);
@@ -353,7 +372,7 @@ public class AtmosphereResourceImpl implements AtmosphereResource {
         if (event.isSuspended() || disableSuspend) return this;
 
         if (!event.isResumedOnTimeout()) {
-            suspended.set(true);
+            flag(SUSPENDED, true);
 
             Enumeration<String> connection = req.getHeaders("Connection");
             if (connection == null) {
@@ -418,14 +437,14 @@ public class AtmosphereResourceImpl implements AtmosphereResource {
     }
 
     public AtmosphereRequest getRequest(boolean enforceScope) {
-        if (enforceScope && !isInScope.get()) {
+        if (enforceScope && !flag(IN_SCOPE)) {
             throw new IllegalStateException("Request object no longer" + " valid. This object has been cancelled");
         }
         return req;
     }
 
     public AtmosphereResponse getResponse(boolean enforceScope) {
-        if (enforceScope && !isInScope.get()) {
+        if (enforceScope && !flag(IN_SCOPE)) {
             throw new IllegalStateException("Response object no longer valid. This object has been cancelled");
         }
         return response;
@@ -448,7 +467,7 @@ public class AtmosphereResourceImpl implements AtmosphereResource {
 
     @Override
     public List<Broadcaster> broadcasters() {
-        return Collections.unmodifiableList(broadcasters);
+        return CopyOnWriteArrays.asList(broadcasters);
     }
 
     protected Broadcaster getBroadcaster(boolean autoCreate) {
@@ -492,7 +511,7 @@ public class AtmosphereResourceImpl implements AtmosphereResource {
 
     @Override
     public AtmosphereResource removeBroadcaster(Broadcaster broadcaster) {
-        broadcasters.remove(broadcaster);
+        CopyOnWriteArrays.remove(BROADCASTERS, this, broadcaster);
         return this;
     }
 
@@ -507,7 +526,7 @@ public class AtmosphereResourceImpl implements AtmosphereResource {
                 return this;
             }
         }
-        broadcasters.add(newB);
+        CopyOnWriteArrays.add(BROADCASTERS, this, newB);
         return this;
     }
 
@@ -530,12 +549,8 @@ public class AtmosphereResourceImpl implements AtmosphereResource {
      * Completely reset the instance to its initial state.
      */
     public void reset() {
-        isResumed.set(false);
-        isCancelled.set(false);
-        isPendingClose.set(false);
-        isInScope.set(true);
-        isSuspendEvent.set(false);
-        listeners.clear();
+        flags(RESUMED | CANCELLED | PENDING_CLOSE | SUSPEND_EVENT, IN_SCOPE);
+        listeners = NO_LISTENERS;
         action.type(Action.TYPE.CREATED);
     }
 
@@ -544,7 +559,7 @@ public class AtmosphereResourceImpl implements AtmosphereResource {
      *
      * */
     public void setIsInScope(boolean isInScope) {
-        this.isInScope.set(isInScope);
+        flag(IN_SCOPE, isInScope);
     }
 
     /**
@@ -553,7 +568,7 @@ public class AtmosphereResourceImpl implements AtmosphereResource {
      * @return true if the {@link AtmosphereRequest} still is valid
      */
     public boolean isInScope() {
-        return isInScope.get();
+        return flag(IN_SCOPE);
     }
 
     /**
@@ -568,12 +583,12 @@ public class AtmosphereResourceImpl implements AtmosphereResource {
 
     @Override
     public boolean isResumed() {
-        return isResumed.get();
+        return flag(RESUMED);
     }
 
     @Override
     public boolean isCancelled() {
-        return isCancelled.get();
+        return flag(CANCELLED);
     }
 
     @Override
@@ -606,20 +621,19 @@ public class AtmosphereResourceImpl implements AtmosphereResource {
      */
     @Override
     public AtmosphereResource addEventListener(AtmosphereResourceEventListener e) {
-        if (listeners.contains(e)) return this;
-        listeners.add(e);
+        CopyOnWriteArrays.addIfAbsent(LISTENERS, this, e);
         return this;
     }
 
     @Override
     public AtmosphereResource removeEventListener(AtmosphereResourceEventListener e) {
-        listeners.remove(e);
+        CopyOnWriteArrays.remove(LISTENERS, this, e);
         return this;
     }
 
     @Override
     public AtmosphereResource removeEventListeners() {
-        listeners.clear();
+        listeners = NO_LISTENERS;
         return this;
     }
 
@@ -631,11 +645,11 @@ public class AtmosphereResourceImpl implements AtmosphereResource {
 
     @Override
     public AtmosphereResource notifyListeners(AtmosphereResourceEvent event) {
-        if (listeners.isEmpty() && config.framework().atmosphereResourceListeners().isEmpty()) {
+        if (listeners.length == 0 && config.framework().atmosphereResourceListeners().isEmpty()) {
             logger.trace("No listener with {}", uuid());
             return this;
         }
-        logger.trace("Invoking listener {} for {}", listeners, uuid());
+        logger.trace("Invoking listener {} for {}", listeners(), uuid());
 
         try {
             if (HeartbeatAtmosphereResourceEvent.class.isAssignableFrom(event.getClass())) {
@@ -643,14 +657,14 @@ public class AtmosphereResourceImpl implements AtmosphereResource {
             } else if (event.isClosedByApplication()) {
                 onClose(event);
             } else if (event.isCancelled() || event.isClosedByClient()) {
-                if (!disconnected.getAndSet(true)) {
+                if (!getAndSetFlag(DISCONNECTED)) {
                     onDisconnect(event);
                 } else {
                     logger.trace("Skipping notification, already disconnected {}", event.getResource() != null ? event.getResource().uuid() : uuid());
                 }
             } else if (event.isResuming() || event.isResumedOnTimeout()) {
                 onResume(event);
-            } else if (!isSuspendEvent.getAndSet(true) && event.isSuspended()) {
+            } else if (!getAndSetFlag(SUSPEND_EVENT) && event.isSuspended()) {
                 onSuspend(event);
             } else if (event.throwable() != null) {
                 onThrowable(event);
@@ -778,8 +792,8 @@ public class AtmosphereResourceImpl implements AtmosphereResource {
         }
     }
 
-    public ConcurrentLinkedQueue<AtmosphereResourceEventListener> atmosphereResourceEventListener() {
-        return listeners;
+    public Collection<AtmosphereResourceEventListener> atmosphereResourceEventListener() {
+        return listeners();
     }
 
     public AtmosphereResourceImpl atmosphereHandler(AtmosphereHandler atmosphereHandler) {
@@ -789,8 +803,8 @@ public class AtmosphereResourceImpl implements AtmosphereResource {
 
     public void cancel() throws IOException {
         try {
-            if (!isCancelled.getAndSet(true)) {
-                suspended.set(false);
+            if (!getAndSetFlag(CANCELLED)) {
+                flag(SUSPENDED, false);
                 logger.trace("Cancelling {}", uuid());
 
                 if (config.getBroadcasterFactory() != null) {
@@ -844,10 +858,10 @@ public class AtmosphereResourceImpl implements AtmosphereResource {
 
     public void _destroy() {
         try {
-            if (!isCancelled.get()) {
+            if (!flag(CANCELLED)) {
                 removeFromAllBroadcasters();
             }
-            broadcasters.clear();
+            broadcasters = NO_BROADCASTERS;
 
             unregister();
             removeEventListeners();
@@ -865,7 +879,7 @@ public class AtmosphereResourceImpl implements AtmosphereResource {
             return "AtmosphereResource{" +
                     "\n\t uuid=" + uuid() +
                     ",\n\t transport=" + transport() +
-                    ",\n\t isInScope=" + isInScope +
+                    ",\n\t isInScope=" + isInScope() +
                     ",\n\t isResumed=" + isResumed() +
                     ",\n\t isCancelled=" + isCancelled() +
                     ",\n\t isSuspended=" + isSuspended() +
@@ -956,8 +970,8 @@ public class AtmosphereResourceImpl implements AtmosphereResource {
         return this;
     }
 
-    public ConcurrentLinkedQueue<AtmosphereResourceEventListener> listeners() {
-        return listeners;
+    public Collection<AtmosphereResourceEventListener> listeners() {
+        return CopyOnWriteArrays.asList(listeners);
     }
 
     /**
@@ -1010,18 +1024,116 @@ public class AtmosphereResourceImpl implements AtmosphereResource {
         return uuid() != null ? uuid().hashCode() : 0;
     }
 
+    /**
+     * Store the state of the write in progress for the {@link Broadcaster}, unless another write already uses the
+     * slot, in which case the caller must keep it elsewhere.
+     *
+     * @param b     the writing {@link Broadcaster}
+     * @param token the state of the write
+     * @return true if stored
+     */
+    boolean writeToken(Broadcaster b, Object token) {
+        if (!WRITER.compareAndSet(this, null, b)) {
+            return false;
+        }
+        writeToken = token;
+        return true;
+    }
+
+    /**
+     * Return the state of the write in progress for the {@link Broadcaster}, if stored using {@link #writeToken(Broadcaster, Object)}.
+     *
+     * @param b the writing {@link Broadcaster}
+     * @return the state of the write, or null
+     */
+    Object writeToken(Broadcaster b) {
+        if (writer != b) {
+            return null;
+        }
+        Object token = writeToken;
+        return writer == b ? token : null;
+    }
+
+    /**
+     * Release the slot stored using {@link #writeToken(Broadcaster, Object)}.
+     *
+     * @param b the writing {@link Broadcaster}
+     */
+    void releaseWriteToken(Broadcaster b) {
+        if (writer == b) {
+            writeToken = null;
+            writer = null;
+        }
+    }
+
+    /**
+     * Return the {@link HashedTimerWheel.Timeout} of the next idle check of this resource, see
+     * {@link org.atmosphere.interceptor.IdleResourceInterceptor}.
+     *
+     * @return the {@link HashedTimerWheel.Timeout}, or null
+     */
+    public HashedTimerWheel.Timeout idleTimeout() {
+        return idleTimeout;
+    }
+
+    /**
+     * Replace the {@link HashedTimerWheel.Timeout} of the next idle check, if it is still the expected one. A caller
+     * losing the race must cancel its {@link HashedTimerWheel.Timeout}, so a resource never has more than one.
+     *
+     * @param expect the {@link HashedTimerWheel.Timeout} read with {@link #idleTimeout()}
+     * @param update the new {@link HashedTimerWheel.Timeout}
+     * @return true if replaced
+     */
+    public boolean idleTimeout(HashedTimerWheel.Timeout expect, HashedTimerWheel.Timeout update) {
+        return IDLE_TIMEOUT.compareAndSet(this, expect, update);
+    }
+
     public boolean getAndSetInClosingPhase() {
-        return inClosingPhase.getAndSet(true);
+        return getAndSetFlag(CLOSING);
     }
 
     /**
      * @return
      */
     public boolean isPendingClose () {
-        return isPendingClose.get();
+        return flag(PENDING_CLOSE);
     }
     
     public boolean getAndSetPendingClose() {
-        return isPendingClose.getAndSet(true);
+        return getAndSetFlag(PENDING_CLOSE);
+    }
+
+    private boolean flag(int flag) {
+        return (state & flag) != 0;
+    }
+
+    private void flag(int flag, boolean value) {
+        if (value) {
+            flags(0, flag);
+        } else {
+            flags(flag, 0);
+        }
+    }
+
+    private void flags(int clear, int set) {
+        for (; ; ) {
+            int s = state;
+            int n = (s & ~clear) | set;
+            if (s == n || STATE.compareAndSet(this, s, n)) {
+                return;
+            }
+        }
+    }
+
+    private boolean getAndSetFlag(int flag) {
+        for (; ; ) {
+            int s = state;
+            if ((s & flag) != 0) {
+                return true;
+            }
+            if (STATE.compareAndSet(this, s, s | flag)) {
+                return false;
+            }
+        }
     }
 }
@@ -99,6 +99,7 @@ public class AtmosphereResponseImpl extends HttpServletResponseWrapper implement
     private final AtomicBoolean destroyed = new AtomicBoolean(false);
     private final AtomicReference<Object> buffered = new AtomicReference<Object>(null);
     private boolean completed;
+    private volatile boolean recycled;
 
     public AtmosphereResponseImpl(AsyncIOWriter asyncIOWriter, AtmosphereRequest atmosphereRequest, boolean destroyable) {
         super(dsr);
@@ -122,6 +123,61 @@ public class AtmosphereResponseImpl extends HttpServletResponseWrapper implement
         this.destroyable = destroyable;
     }
 
+    /**
+     * Reset this response so it can be reused for another WebSocket message, see
+     * {@link ApplicationConfig#WEBSOCKET_POOL_REQUEST_RESPONSE}. Until {@link #reuse(AsyncIOWriter, AtmosphereRequest, boolean)}
+     * is invoked, any attempt to write, or to set its status or headers, throws an {@link IllegalStateException}.
+     *
+     * @return this
+     */
+    public AtmosphereResponseImpl recycle() {
+        recycled = true;
+        cookies.clear();
+        headers.clear();
+        asyncIOWriter = null;
+        atmosphereRequest = null;
+        status = 200;
+        statusMessage = "OK";
+        charSet = "UTF-8";
+        contentLength = -1;
+        contentType = "text/html";
+        isCommited = false;
+        locale = null;
+        headerHandled = false;
+        writeStatusAndHeader.set(false);
+        forceAsyncIOWriter = false;
+        uuid = "0";
+        usingStream.set(true);
+        buffered.set(null);
+        completed = false;
+        if (response != dsr) {
+            setResponse(dsr);
+        }
+        return this;
+    }
+
+    /**
+     * Reuse a response previously reset by {@link #recycle()}, as if it had been created by
+     * {@link #AtmosphereResponseImpl(AsyncIOWriter, AtmosphereRequest, boolean)}.
+     *
+     * @return this
+     */
+    public AtmosphereResponseImpl reuse(AsyncIOWriter asyncIOWriter, AtmosphereRequest atmosphereRequest, boolean destroyable) {
+        this.asyncIOWriter = asyncIOWriter;
+        this.atmosphereRequest = atmosphereRequest;
+        this.delegateToNativeResponse = asyncIOWriter == null;
+        this.destroyable = destroyable;
+        destroyed.set(false);
+        recycled = false;
+        return this;
+    }
+
+    private void checkRecycled() {
+        if (recycled) {
+            throw new IllegalStateException("AtmosphereResponse has been recycled and can't be used outside the dispatch of its WebSocket message");
+        }
+    }
+
     private AtmosphereResponseImpl(Builder b) {
         super(b.atmosphereResponse);
 
@@ -339,6 +395,7 @@ public class AtmosphereResponseImpl extends HttpServletResponseWrapper implement
 
     @Override
     public void setHeader(String name, String value) {
+        checkRecycled();
         if (value == null) headers.remove(name);
         else headers.put(name, value);
 
@@ -353,6 +410,7 @@ public class AtmosphereResponseImpl extends HttpServletResponseWrapper implement
 
     @Override
     public void addHeader(String name, String value) {
+        checkRecycled();
         headers.put(name, value);
 
         if (delegateToNativeResponse) {
@@ -372,6 +430,7 @@ public class AtmosphereResponseImpl extends HttpServletResponseWrapper implement
 
     @Override
     public void setStatus(int status) {
+        checkRecycled();
         if (!delegateToNativeResponse) {
             this.status = status;
         } else {
@@ -381,6 +440,7 @@ public class AtmosphereResponseImpl extends HttpServletResponseWrapper implement
 
     @Override
     public void setStatus(int status, String statusMessage) {
+        checkRecycled();
         if (!delegateToNativeResponse) {
             this.statusMessage = statusMessage;
             this.status = status;
@@ -550,6 +610,7 @@ public class AtmosphereResponseImpl extends HttpServletResponseWrapper implement
 
     @Override
     public ServletOutputStream getOutputStream() throws IOException {
+        checkRecycled();
         if (forceAsyncIOWriter || !delegateToNativeResponse) {
             return new Stream(isBuffering());
         } else {
@@ -592,6 +653,7 @@ public class AtmosphereResponseImpl extends HttpServletResponseWrapper implement
 
     @Override
     public PrintWriter getWriter() throws IOException {
+        checkRecycled();
         if (forceAsyncIOWriter || !delegateToNativeResponse) {
             return new Writer(new Stream(isBuffering()));
         } else {
@@ -732,6 +794,7 @@ public class AtmosphereResponseImpl extends HttpServletResponseWrapper implement
 
     @Override
     public AtmosphereResponse write(String data, boolean writeUsingOriginalResponse) {
+        checkRecycled();
 
         if (Proxy.class.isAssignableFrom(response.getClass())) {
             writeUsingOriginalResponse = false;
@@ -781,6 +844,7 @@ public class AtmosphereResponseImpl extends HttpServletResponseWrapper implement
 
     @Override
     public AtmosphereResponse write(byte[] data, boolean writeUsingOriginalResponse) {
+        checkRecycled();
 
         if (data == null) {
             logger.error("Cannot write null value for {}", resource());
@@ -817,6 +881,7 @@ public class AtmosphereResponseImpl extends HttpServletResponseWrapper implement
 
     @Override
     public AtmosphereResponse write(byte[] data, int offset, int length, boolean writeUsingOriginalResponse) {
+        checkRecycled();
 
         if (data == null) {
             logger.error("Cannot write null value for {}", resource());
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2008-2021 Async-IO.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atmosphere.cpr;
+
+import java.io.UnsupportedEncodingException;
+import java.util.function.Function;
+
+/**
+ * A broadcasted message shared by all {@link AtmosphereResource}s receiving the same {@link Deliver}. The encoded
+ * form of the message and its byte representation are computed once and re-used for every resource, as long as no
+ * {@link PerRequestBroadcastFilter} has changed the message delivered to that resource.
+ * <p/>
+ * The {@link DefaultBroadcaster} attaches the payload to the {@link AtmosphereResourceEventImpl} before invoking the
+ * {@link AtmosphereHandler}. {@link AtmosphereHandler}s must use {@link #matches(Object)} to make sure the message
+ * they are about to write is the shared one. Arrays returned by {@link #bytes(String)} are shared and must never be modified.
+ */
+public final class BroadcastPayload {
+
+    private static final Object NULL = new Object();
+
+    private final Object message;
+
+    private volatile String charset;
+    private volatile byte[] bytes;
+
+    private volatile Object derivedKey;
+    private volatile Object derived;
+
+    public BroadcastPayload(Object message) {
+        this.message = message;
+    }
+
+    /**
+     * Return the broadcasted message.
+     *
+     * @return the broadcasted message
+     */
+    public Object message() {
+        return message;
+    }
+
+    /**
+     * Return true if the message is the one shared by this payload.
+     *
+     * @param o a message
+     * @return true if the message is the one shared by this payload.
+     */
+    public boolean matches(Object o) {
+        return o == message;
+    }
+
+    /**
+     * Return the bytes of the message, using {@link Object#toString()} unless the message is already a byte array.
+     * The conversion is executed once per charset the first time it is requested.
+     *
+     * @param charset the charset
+     * @return the bytes of the message
+     * @throws UnsupportedEncodingException
+     */
+    public byte[] bytes(String charset) throws UnsupportedEncodingException {
+        if (message instanceof byte[]) {
+            return (byte[]) message;
+        }
+
+        byte[] b = bytes;
+        if (b != null && charset.equals(this.charset)) {
+            return b;
+        }
+
+        synchronized (this) {
+            if (bytes == null) {
+                this.charset = charset;
+                bytes = message.toString().getBytes(charset);
+                return bytes;
+            } else if (charset.equals(this.charset)) {
+                return bytes;
+            }
+        }
+        // Resources using a different charset. Rare, don't cache.
+        return message.toString().getBytes(charset);
+    }
+
+    /**
+     * Transform the message once for the given key, e.g an {@link AtmosphereHandler} running its {@link org.atmosphere.config.managed.Encoder}s,
+     * and return a new {@link BroadcastPayload} wrapping the result. All invocations with the same key share the result of the
+     * first invocation.
+     *
+     * @param key         the owner of the transformation, compared by identity
+     * @param transformer the transformation to execute
+     * @return a {@link BroadcastPayload} wrapping the transformed message, or null if the transformation returned null
+     */
+    public BroadcastPayload derive(Object key, Function<Object, Object> transformer) {
+        Object d = derived;
+        if (d == null || derivedKey != key) {
+            synchronized (this) {
+                if (derived == null) {
+                    Object o = transformer.apply(message);
+                    derived = o == null ? NULL : new BroadcastPayload(o);
+                    derivedKey = key;
+                    d = derived;
+                } else if (derivedKey == key) {
+                    d = derived;
+                } else {
+                    Object o = transformer.apply(message);
+                    return o == null ? null : new BroadcastPayload(o);
+                }
+            }
+        }
+        return d == NULL ? null : (BroadcastPayload) d;
+    }
+
+    @Override
+    public String toString() {
+        return "BroadcastPayload{" +
+                "message=" + message +
+                '}';
+    }
+}
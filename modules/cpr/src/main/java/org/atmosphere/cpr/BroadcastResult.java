@@ -0,0 +1,118 @@
+/*
+ * Copyright 2008-2021 Async-IO.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atmosphere.cpr;
+
+/**
+ * The outcome of a broadcast operation, returned by {@link Broadcaster#broadcastAsync(Object)} once the message has
+ * been handled for every targeted {@link AtmosphereResource}. Every {@link AtmosphereResource} is counted once, as
+ * <ul>
+ * <li>delivered: the message has been written</li>
+ * <li>filtered: a {@link BroadcastFilter} or {@link PerRequestBroadcastFilter} aborted the message</li>
+ * <li>cached: the message couldn't be written and has been kept in the {@link BroadcasterCache}</li>
+ * <li>failed: the message couldn't be written and has been lost</li>
+ * </ul>
+ * The counts are unknown, and all 0, when the broadcast operation only returned a {@link java.util.concurrent.Future},
+ * see {@link #isCounted()}.
+ */
+public final class BroadcastResult {
+
+    private final Object message;
+    private final int delivered;
+    private final int filtered;
+    private final int cached;
+    private final int failed;
+    private final boolean counted;
+
+    public BroadcastResult(Object message, int delivered, int filtered, int cached, int failed) {
+        this(message, delivered, filtered, cached, failed, true);
+    }
+
+    private BroadcastResult(Object message, int delivered, int filtered, int cached, int failed, boolean counted) {
+        this.message = message;
+        this.delivered = delivered;
+        this.filtered = filtered;
+        this.cached = cached;
+        this.failed = failed;
+        this.counted = counted;
+    }
+
+    /**
+     * Return a {@link BroadcastResult} of a completed broadcast operation whose counts are unknown.
+     *
+     * @param message the broadcasted message
+     * @return a {@link BroadcastResult} whose {@link #isCounted()} is false
+     */
+    public static BroadcastResult uncounted(Object message) {
+        return new BroadcastResult(message, 0, 0, 0, 0, false);
+    }
+
+    /**
+     * Return the broadcasted message.
+     *
+     * @return the broadcasted message
+     */
+    public Object message() {
+        return message;
+    }
+
+    public int delivered() {
+        return delivered;
+    }
+
+    public int filtered() {
+        return filtered;
+    }
+
+    public int cached() {
+        return cached;
+    }
+
+    public int failed() {
+        return failed;
+    }
+
+    /**
+     * Return true if the {@link AtmosphereResource}s have been counted, false if the counts are unknown and all 0.
+     *
+     * @return true if the counts are known
+     */
+    public boolean isCounted() {
+        return counted;
+    }
+
+    /**
+     * Add the counts of another result, for example when the same message is broadcasted by several {@link Broadcaster}s.
+     *
+     * @param r a {@link BroadcastResult}
+     * @return a new {@link BroadcastResult}
+     */
+    public BroadcastResult merge(BroadcastResult r) {
+        return new BroadcastResult(message, delivered + r.delivered, filtered + r.filtered, cached + r.cached, failed + r.failed,
+                counted && r.counted);
+    }
+
+    @Override
+    public String toString() {
+        return "BroadcastResult{" +
+                "message=" + message +
+                ", delivered=" + delivered +
+                ", filtered=" + filtered +
+                ", cached=" + cached +
+                ", failed=" + failed +
+                ", counted=" + counted +
+                '}';
+    }
+}
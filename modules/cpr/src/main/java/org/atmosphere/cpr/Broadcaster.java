@@ -19,6 +19,7 @@ import java.net.URI;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
@@ -57,6 +58,15 @@ public interface Broadcaster {
         FIFO, REJECT
     }
 
+    /**
+     * What to do when the messages queued for a slow {@link AtmosphereResource} exceed the configured limits:
+     * drop the oldest queued messages, drop the new message, replace all queued messages with the new one, or
+     * disconnect the {@link AtmosphereResource} and leave the messages in the {@link BroadcasterCache}.
+     */
+    enum OVERFLOW_POLICY {
+        DROP_OLDEST, DROP_NEWEST, CONFLATE, DISCONNECT
+    }
+
     /**
      * Configure a Broadcaster.
      * @param name
@@ -163,6 +173,43 @@ public interface Broadcaster {
      */
     Future<Object> broadcast(Object o, Set<AtmosphereResource> subset);
 
+    /**
+     * Broadcast the {@link Object} to all suspended responses, like {@link #broadcast(Object)}, without requiring a
+     * Thread to wait for the completion.
+     *
+     * @param o the {@link Object} to be broadcasted
+     * @return a {@link CompletionStage} completed with the {@link BroadcastResult} once the message has been handled for
+     * every suspended response
+     */
+    default CompletionStage<BroadcastResult> broadcastAsync(Object o) {
+        return BroadcasterFuture.completion(broadcast(o), getBroadcasterConfig());
+    }
+
+    /**
+     * Broadcast the {@link Object} to an {@link AtmosphereResource}, like {@link #broadcast(Object, AtmosphereResource)},
+     * without requiring a Thread to wait for the completion.
+     *
+     * @param o        the {@link Object} to be broadcasted
+     * @param resource an {@link AtmosphereResource}
+     * @return a {@link CompletionStage} completed with the {@link BroadcastResult} once the message has been handled
+     */
+    default CompletionStage<BroadcastResult> broadcastAsync(Object o, AtmosphereResource resource) {
+        return BroadcasterFuture.completion(broadcast(o, resource), getBroadcasterConfig());
+    }
+
+    /**
+     * Broadcast the {@link Object} to a {@link Set} of {@link AtmosphereResource}, like {@link #broadcast(Object, Set)},
+     * without requiring a Thread to wait for the completion.
+     *
+     * @param o      the {@link Object} to be broadcasted
+     * @param subset a Set of {@link AtmosphereResource}
+     * @return a {@link CompletionStage} completed with the {@link BroadcastResult} once the message has been handled for
+     * every {@link AtmosphereResource} of the subset
+     */
+    default CompletionStage<BroadcastResult> broadcastAsync(Object o, Set<AtmosphereResource> subset) {
+        return BroadcasterFuture.completion(broadcast(o, subset), getBroadcasterConfig());
+    }
+
     /**
      * Add a {@link AtmosphereResource} to the list of items to be notified when
      * the {@link Broadcaster#broadcast} is invoked.
@@ -16,25 +16,50 @@
 
 package org.atmosphere.cpr;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 /**
  * Simple {@link Future} that can be used when awaiting for a {@link Broadcaster} to finish
- * its broadcast operation to {@link AtmosphereHandler}.
+ * its broadcast operation to {@link AtmosphereHandler}. The {@link #completion()} can be used instead to be notified
+ * without blocking a Thread.
  *
  * @author Jeanfrancois Arcand
  */
 public class BroadcasterFuture<E> implements Future<E> {
 
+    private static final AtomicIntegerFieldUpdater<BroadcasterFuture> DELIVERED = AtomicIntegerFieldUpdater.newUpdater(BroadcasterFuture.class, "delivered");
+    private static final AtomicIntegerFieldUpdater<BroadcasterFuture> FILTERED = AtomicIntegerFieldUpdater.newUpdater(BroadcasterFuture.class, "filtered");
+    private static final AtomicIntegerFieldUpdater<BroadcasterFuture> CACHED = AtomicIntegerFieldUpdater.newUpdater(BroadcasterFuture.class, "cached");
+    private static final AtomicIntegerFieldUpdater<BroadcasterFuture> FAILED = AtomicIntegerFieldUpdater.newUpdater(BroadcasterFuture.class, "failed");
+    private static final AtomicIntegerFieldUpdater<BroadcasterFuture> PENDING = AtomicIntegerFieldUpdater.newUpdater(BroadcasterFuture.class, "pending");
+
     private final CountDownLatch latch;
+    private final int latchCount;
+    // The number of AtmosphereResources the broadcast operation is still waiting for
+    private volatile int pending;
     private boolean isCancelled;
-    private boolean isDone;
+    private volatile boolean isDone;
     private final E msg;
     private final Future<?> innerFuture;
+    private volatile int delivered;
+    private volatile int filtered;
+    private volatile int cached;
+    private volatile int failed;
+    // Created on demand, so the Future only API doesn't pay for it
+    private CompletableFuture<BroadcastResult> completion;
+    // Completes the completion, if any, so its dependent stages don't run in the Thread writing the message
+    private Executor executor;
 
     public BroadcasterFuture(E msg) {
         this(null, msg);
@@ -51,8 +76,10 @@ public class BroadcasterFuture<E> implements Future<E> {
     public BroadcasterFuture(Future<?> innerFuture, E msg, int latchCount) {
         this.msg = msg;
         this.innerFuture = innerFuture;
+        this.latchCount = latchCount;
+        this.pending = latchCount;
         if (innerFuture == null) {
-            latch = new CountDownLatch(latchCount);
+            latch = new CountDownLatch(latchCount > 0 ? 1 : 0);
         } else {
             latch = null;
         }
@@ -70,6 +97,11 @@ public class BroadcasterFuture<E> implements Future<E> {
         while (latch.getCount() > 0) {
             latch.countDown();
         }
+        synchronized (this) {
+            if (completion != null) {
+                completion.cancel(false);
+            }
+        }
         return isCancelled;
     }
 
@@ -97,13 +129,185 @@ public class BroadcasterFuture<E> implements Future<E> {
      * Invoked when a {@link Broadcaster} completed its broadcast operation.
      */
     public BroadcasterFuture<E> done() {
+        if (latch == null || PENDING.decrementAndGet(this) <= 0) {
+            release();
+        }
+        return this;
+    }
+
+    /**
+     * Invoked before the {@link Broadcaster} dispatches the message to its {@link AtmosphereResource}s, which may have
+     * changed since this Future was created. The operation can't complete until {@link #dispatched(int)} is invoked.
+     */
+    public BroadcasterFuture<E> dispatching() {
         if (latch != null) {
-            latch.countDown();
+            PENDING.incrementAndGet(this);
         }
-        isDone = latch == null || latch.getCount() == 0;
         return this;
     }
 
+    /**
+     * Invoked once the {@link Broadcaster} has dispatched the message, replacing the number of {@link AtmosphereResource}s
+     * this Future was created for by the number the message has actually been dispatched to.
+     *
+     * @param count the number of {@link AtmosphereResource}s the message has been dispatched to
+     */
+    public BroadcasterFuture<E> dispatched(int count) {
+        if (latch != null && PENDING.addAndGet(this, count - latchCount - 1) <= 0) {
+            release();
+        }
+        return this;
+    }
+
+    /**
+     * Invoked when the message has been written to an {@link AtmosphereResource}.
+     */
+    public BroadcasterFuture<E> delivered() {
+        DELIVERED.incrementAndGet(this);
+        return done();
+    }
+
+    /**
+     * Invoked when a {@link BroadcastFilter} aborted the delivery of the message to an {@link AtmosphereResource}.
+     */
+    public BroadcasterFuture<E> filtered() {
+        FILTERED.incrementAndGet(this);
+        return done();
+    }
+
+    /**
+     * Invoked when the message couldn't be written to an {@link AtmosphereResource} and has been kept in the
+     * {@link BroadcasterCache}.
+     */
+    public BroadcasterFuture<E> cached() {
+        CACHED.incrementAndGet(this);
+        return done();
+    }
+
+    /**
+     * Invoked when the message couldn't be written to an {@link AtmosphereResource} and has been lost.
+     */
+    public BroadcasterFuture<E> failed() {
+        FAILED.incrementAndGet(this);
+        return done();
+    }
+
+    /**
+     * Complete the broadcast operation, whatever the number of {@link AtmosphereResource}s left, for example when the
+     * message can't be delivered at all.
+     */
+    public BroadcasterFuture<E> abort() {
+        release();
+        return this;
+    }
+
+    /**
+     * Return a {@link CompletionStage} completed with the {@link BroadcastResult} once the broadcast operation has
+     * completed, or cancelled if this Future is cancelled.
+     *
+     * @return a {@link CompletionStage}
+     */
+    public CompletionStage<BroadcastResult> completion() {
+        return completion(null);
+    }
+
+    /**
+     * Same as {@link #completion()}, but the {@link CompletionStage} is completed by the {@link Executor}, so its
+     * dependent stages don't run in the Thread that wrote the message, which may hold the {@link AtmosphereResource}'s
+     * monitor.
+     *
+     * @param executor the {@link Executor} completing the {@link CompletionStage}, or null to complete it in the
+     *                 Thread completing the broadcast operation
+     * @return a {@link CompletionStage}
+     */
+    public synchronized CompletionStage<BroadcastResult> completion(Executor executor) {
+        if (completion == null) {
+            completion = new CompletableFuture<BroadcastResult>();
+            this.executor = executor;
+            if (isCancelled) {
+                completion.cancel(false);
+            } else if (isDone) {
+                completion.complete(result());
+            }
+        }
+        return completion;
+    }
+
+    /**
+     * Return a {@link CompletionStage} completed when the broadcast operation represented by the {@link Future} completes.
+     * A {@link BroadcasterFuture} is adapted without blocking, any other {@link Future} is waited for by a Thread of the
+     * {@link BroadcasterConfig#getExecutorService()}, or of the common pool if there is no {@link BroadcasterConfig}, and
+     * its {@link BroadcastResult} isn't {@link BroadcastResult#isCounted() counted}.
+     *
+     * @param f      the {@link Future} returned by a broadcast operation, or null
+     * @param config the {@link BroadcasterConfig} of the {@link Broadcaster}, or null
+     * @return a {@link CompletionStage}
+     */
+    public static CompletionStage<BroadcastResult> completion(final Future<?> f, BroadcasterConfig config) {
+        if (f == null) {
+            return CompletableFuture.completedFuture(new BroadcastResult(null, 0, 0, 0, 0));
+        } else if (f instanceof BroadcasterFuture) {
+            return ((BroadcasterFuture<?>) f).completion(config == null ? null : config.getExecutorService());
+        }
+
+        // Unknown Future, a Thread must wait for it.
+        ExecutorService executor = config == null ? null : config.getExecutorService();
+        return executor == null ? CompletableFuture.supplyAsync(() -> get(f)) : CompletableFuture.supplyAsync(() -> get(f), executor);
+    }
+
+    private static BroadcastResult get(Future<?> f) {
+        try {
+            return BroadcastResult.uncounted(f.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        } catch (ExecutionException e) {
+            throw new CompletionException(e.getCause());
+        }
+    }
+
+    /**
+     * Return the {@link BroadcastResult} counted so far.
+     *
+     * @return the {@link BroadcastResult}
+     */
+    public BroadcastResult result() {
+        return new BroadcastResult(msg, delivered, filtered, cached, failed);
+    }
+
+    private void release() {
+        if (latch != null) {
+            latch.countDown();
+        }
+        complete();
+    }
+
+    private void complete() {
+        final CompletableFuture<BroadcastResult> c;
+        Executor e;
+        synchronized (this) {
+            if (isDone) {
+                return;
+            }
+            isDone = true;
+            c = completion;
+            e = executor;
+        }
+        // Complete outside of the lock, the dependent stages run in this thread unless an Executor has been given
+        if (c != null) {
+            final BroadcastResult result = result();
+            if (e != null) {
+                try {
+                    e.execute(() -> c.complete(result));
+                    return;
+                } catch (RejectedExecutionException ex) {
+                    // The Executor has been shut down
+                }
+            }
+            c.complete(result);
+        }
+    }
+
     @Override
     public E get() throws InterruptedException, ExecutionException {
         if (innerFuture != null) {
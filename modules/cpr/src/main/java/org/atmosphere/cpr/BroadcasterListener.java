@@ -66,6 +66,18 @@ public interface BroadcasterListener {
      */
     void onMessage(Broadcaster b, Deliver deliver);
 
+    /**
+     * Invoked when the messages queued for an {@link AtmosphereResource} exceed the configured limits, before the
+     * {@link Broadcaster.OVERFLOW_POLICY} is applied. Does nothing by default.
+     *
+     * @param b       a Broadcaster
+     * @param r       the slow AtmosphereResource
+     * @param message the message that overflowed the queue
+     * @param policy  the {@link Broadcaster.OVERFLOW_POLICY} about to be applied
+     */
+    default void onOverflow(Broadcaster b, AtmosphereResource r, Object message, Broadcaster.OVERFLOW_POLICY policy) {
+    }
+
     /**
      * Throw this exception to interrupt the {@link org.atmosphere.cpr.Broadcaster#destroy()} operation.
      */
@@ -75,4 +75,12 @@ public class BroadcasterListenerAdapter implements BroadcasterListener {
         logger.trace("onMessage for broadcaster {} for {}", b.getID(), deliver);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onOverflow(Broadcaster b, AtmosphereResource r, Object message, Broadcaster.OVERFLOW_POLICY policy) {
+        logger.trace("onOverflow for broadcaster {} and {} applying {}", new Object[]{b.getID(), r.uuid(), policy});
+    }
+
 }
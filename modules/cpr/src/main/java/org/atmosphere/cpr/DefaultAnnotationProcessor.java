@@ -15,6 +15,29 @@
  */
 package org.atmosphere.cpr;
 
+import org.atmosphere.annotation.AsyncSupportListenerServiceProcessor;
+import org.atmosphere.annotation.AsyncSupportServiceProcessor;
+import org.atmosphere.annotation.AtmosphereFrameworkServiceProcessor;
+import org.atmosphere.annotation.AtmosphereHandlerServiceProcessor;
+import org.atmosphere.annotation.AtmosphereInterceptorServiceProcessor;
+import org.atmosphere.annotation.AtmosphereResourceFactoryServiceProcessor;
+import org.atmosphere.annotation.AtmosphereResourceListenerServiceProcessor;
+import org.atmosphere.annotation.AtmosphereServiceProcessor;
+import org.atmosphere.annotation.BroadcastFilterServiceProcessor;
+import org.atmosphere.annotation.BroadcasterCacheInspectorServiceProcessor;
+import org.atmosphere.annotation.BroadcasterCacheListenererviceProcessor;
+import org.atmosphere.annotation.BroadcasterCacheServiceProcessor;
+import org.atmosphere.annotation.BroadcasterFactoryServiceProcessor;
+import org.atmosphere.annotation.BroadcasterListenerServiceProcessor;
+import org.atmosphere.annotation.BroadcasterServiceProcessor;
+import org.atmosphere.annotation.EndpointMapperServiceProcessor;
+import org.atmosphere.annotation.ManagedServiceProcessor;
+import org.atmosphere.annotation.MeteorServiceProcessor;
+import org.atmosphere.annotation.UUIDProviderServiceProcessor;
+import org.atmosphere.annotation.WebSocketFactoryServiceProcessor;
+import org.atmosphere.annotation.WebSocketHandlerServiceProcessor;
+import org.atmosphere.annotation.WebSocketProcessorServiceProcessor;
+import org.atmosphere.annotation.WebSocketProtocolServiceProcessor;
 import org.atmosphere.config.AtmosphereAnnotation;
 import org.atmosphere.config.service.AsyncSupportListenerService;
 import org.atmosphere.config.service.AsyncSupportService;
@@ -46,11 +69,20 @@ import org.slf4j.LoggerFactory;
 
 import javax.servlet.ServletContext;
 import javax.servlet.annotation.HandlesTypes;
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.FilenameFilter;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.lang.annotation.Annotation;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -59,8 +91,9 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import static org.atmosphere.util.IOUtils.loadClass;
 
 /**
- * An {@link AnnotationProcessor} that selects between a ServletContextInitializer based scanner, and
- * a bytecode based scanner based on <a href="https://github.com/rmuller/infomas-asl"></a>.
+ * An {@link AnnotationProcessor} that selects between the index generated at build time by atmosphere-annotations'
+ * AnnotationIndexProcessor, a ServletContextInitializer based scanner, and a bytecode based scanner based on
+ * <a href="https://github.com/rmuller/infomas-asl"></a>.
  * <p/>
  *
  * @author Jeanfrancois Arcand
@@ -74,6 +107,12 @@ public class DefaultAnnotationProcessor implements AnnotationProcessor {
      */
     public static final String ANNOTATION_ATTRIBUTE = "org.atmosphere.cpr.ANNOTATION_MAP";
 
+    /**
+     * The index of the annotated classes generated at build time. Each line is an annotation and an annotated class,
+     * separated by a space.
+     */
+    public static final String ANNOTATION_INDEX = "META-INF/atmosphere/annotations.idx";
+
     // Annotation in java is broken.
     private static final Class[] coreAnnotations = {
             AtmosphereHandlerService.class,
@@ -102,6 +141,33 @@ public class DefaultAnnotationProcessor implements AnnotationProcessor {
             UUIDProviderService.class
     };
 
+    // The Processors of the core annotations, which aren't in the applications' index.
+    private static final Class[] coreProcessors = {
+            AtmosphereHandlerServiceProcessor.class,
+            BroadcasterCacheServiceProcessor.class,
+            BroadcastFilterServiceProcessor.class,
+            BroadcasterFactoryServiceProcessor.class,
+            BroadcasterServiceProcessor.class,
+            MeteorServiceProcessor.class,
+            WebSocketFactoryServiceProcessor.class,
+            WebSocketHandlerServiceProcessor.class,
+            WebSocketProtocolServiceProcessor.class,
+            AtmosphereInterceptorServiceProcessor.class,
+            BroadcasterListenerServiceProcessor.class,
+            AsyncSupportServiceProcessor.class,
+            AsyncSupportListenerServiceProcessor.class,
+            WebSocketProcessorServiceProcessor.class,
+            BroadcasterCacheInspectorServiceProcessor.class,
+            ManagedServiceProcessor.class,
+            AtmosphereServiceProcessor.class,
+            EndpointMapperServiceProcessor.class,
+            BroadcasterCacheListenererviceProcessor.class,
+            AtmosphereResourceFactoryServiceProcessor.class,
+            AtmosphereFrameworkServiceProcessor.class,
+            AtmosphereResourceListenerServiceProcessor.class,
+            UUIDProviderServiceProcessor.class
+    };
+
     private AnnotationProcessor delegate;
     private final AnnotationHandler handler;
     private final AtomicBoolean coreAnnotationsFound = new AtomicBoolean();
@@ -138,9 +204,13 @@ public class DefaultAnnotationProcessor implements AnnotationProcessor {
         sc.removeAttribute(ANNOTATION_ATTRIBUTE);
 
         boolean useByteCodeProcessor = config.getInitParameter(ApplicationConfig.BYTECODE_PROCESSOR, false);
+        Map<Class<? extends Annotation>, Set<Class<?>>> index =
+                config.getInitParameter(ApplicationConfig.USE_ANNOTATION_INDEX, true) ? readIndex() : null;
 
         boolean scanForAtmosphereAnnotation = false;
-        if (useByteCodeProcessor || annotations == null || annotations.isEmpty()) {
+        if (index != null) {
+            delegate = new IndexBasedAnnotationProcessor(handler, index, config.framework());
+        } else if (useByteCodeProcessor || annotations == null || annotations.isEmpty()) {
             delegate = new BytecodeBasedAnnotationProcessor(handler);
             scanForAtmosphereAnnotation = true;
         } else {
@@ -152,14 +222,87 @@ public class DefaultAnnotationProcessor implements AnnotationProcessor {
 
         if (scanForAtmosphereAnnotation) {
             scanForAnnotation(config.framework());
+        } else if (index != null) {
+            scanForCustomAnnotationPackages(config.framework());
         }
 
         delegate.configure(config.framework().getAtmosphereConfig());
     }
 
+    /**
+     * Read all the {@link #ANNOTATION_INDEX} of the classpath.
+     *
+     * @return the annotated classes, keyed by annotation, or null if there is no index
+     */
+    static Map<Class<? extends Annotation>, Set<Class<?>>> readIndex() {
+        Set<URL> urls = new LinkedHashSet<URL>();
+        try {
+            ClassLoader cl = Thread.currentThread().getContextClassLoader();
+            if (cl != null) {
+                urls.addAll(Collections.list(cl.getResources(ANNOTATION_INDEX)));
+            }
+            urls.addAll(Collections.list(DefaultAnnotationProcessor.class.getClassLoader().getResources(ANNOTATION_INDEX)));
+        } catch (IOException e) {
+            logger.warn("Unable to look up {}", ANNOTATION_INDEX, e);
+            return null;
+        }
+
+        return urls.isEmpty() ? null : readIndex(urls);
+    }
+
+    /**
+     * Read the given {@link #ANNOTATION_INDEX}es, skipping the comments and the classes that can't be loaded.
+     *
+     * @param urls the indexes
+     * @return the annotated classes, keyed by annotation
+     */
+    static Map<Class<? extends Annotation>, Set<Class<?>>> readIndex(Collection<URL> urls) {
+        Map<Class<? extends Annotation>, Set<Class<?>>> index = new LinkedHashMap<Class<? extends Annotation>, Set<Class<?>>>();
+        for (URL url : urls) {
+            logger.info("Using annotation index {}", url);
+            try (BufferedReader r = new BufferedReader(new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = r.readLine()) != null) {
+                    line = line.trim();
+                    int space = line.indexOf(' ');
+                    if (line.isEmpty() || line.startsWith("#") || space == -1) continue;
+
+                    try {
+                        Class<? extends Annotation> annotation =
+                                loadClass(DefaultAnnotationProcessor.class, line.substring(0, space)).asSubclass(Annotation.class);
+                        Class<?> clazz = loadClass(DefaultAnnotationProcessor.class, line.substring(space + 1).trim());
+                        index.computeIfAbsent(annotation, k -> new LinkedHashSet<Class<?>>()).add(clazz);
+                    } catch (Exception ex) {
+                        logger.warn("Unable to load {} from {}", line, url, ex);
+                    }
+                }
+            } catch (IOException e) {
+                logger.warn("Unable to read {}", url, e);
+            }
+        }
+        return index;
+    }
+
+    private void scanForCustomAnnotationPackages(AtmosphereFramework f) {
+        List<String> packages = f.customAnnotationPackages();
+        if (packages.isEmpty()) return;
+
+        AnnotationDetector detector = newDetector(f.getAtmosphereConfig(), atmosphereReporter);
+        try {
+            for (String p : packages) {
+                logger.trace("Package {} scanned for @AtmosphereAnnotation", p);
+                detector.detect(p);
+            }
+        } catch (IOException e) {
+            logger.warn("Unable to scan annotation", e);
+        } finally {
+            detector.destroy();
+        }
+    }
+
     private void scanForAnnotation(AtmosphereFramework f) {
         List<String> packages = f.customAnnotationPackages();
-        AnnotationDetector detector = new AnnotationDetector(atmosphereReporter);
+        AnnotationDetector detector = newDetector(f.getAtmosphereConfig(), atmosphereReporter);
         try {
             if (!packages.isEmpty()) {
                 for (String p : packages) {
@@ -198,6 +341,11 @@ public class DefaultAnnotationProcessor implements AnnotationProcessor {
         }
     }
 
+    private static AnnotationDetector newDetector(AtmosphereConfig config, AnnotationDetector.Reporter reporter) {
+        return new AnnotationDetector(reporter)
+                .parallelism(config.getInitParameter(ApplicationConfig.ANNOTATION_SCAN_PARALLELISM, 1));
+    }
+
     private static void fallbackToManualAnnotatedClasses(Class<?> mainClass, AtmosphereFramework f, AnnotationHandler handler) {
         logger.warn("Unable to detect annotations. Application may fail to deploy.");
         f.annotationScanned(true);
@@ -352,6 +500,72 @@ public class DefaultAnnotationProcessor implements AnnotationProcessor {
         }
     }
 
+    private static final class IndexBasedAnnotationProcessor implements AnnotationProcessor {
+
+        private final Map<Class<? extends Annotation>, Set<Class<?>>> annotations;
+        private final AtmosphereFramework framework;
+        private final AnnotationHandler handler;
+
+        private IndexBasedAnnotationProcessor(AnnotationHandler handler,
+                                              final Map<Class<? extends Annotation>, Set<Class<?>>> annotations,
+                                              final AtmosphereFramework framework) {
+            this.annotations = annotations;
+            this.framework = framework;
+            this.handler = handler;
+        }
+
+        @Override
+        public void configure(final AtmosphereConfig config) {
+            for (Class<?> p : coreProcessors) {
+                handler.handleProcessor(p);
+            }
+
+            Set<Class<?>> processors = annotations.remove(AtmosphereAnnotation.class);
+            if (processors != null) {
+                for (Class<?> clazz : processors) {
+                    handler.handleProcessor(clazz);
+                }
+            }
+        }
+
+        @Override
+        public AnnotationProcessor scan(final File rootDir) throws IOException {
+            return scanAll();
+        }
+
+        @Override
+        public AnnotationProcessor scan(final String packageName) throws IOException {
+            handle(packageName);
+            return this;
+        }
+
+        @Override
+        public AnnotationProcessor scanAll() throws IOException {
+            handle("");
+            return this;
+        }
+
+        /**
+         * Handle the indexed classes of a package, once.
+         */
+        private void handle(String packageName) {
+            for (Map.Entry<Class<? extends Annotation>, Set<Class<?>>> entry : annotations.entrySet()) {
+                for (Iterator<Class<?>> i = entry.getValue().iterator(); i.hasNext(); ) {
+                    Class<?> clazz = i.next();
+                    if (clazz.getName().startsWith(packageName)) {
+                        i.remove();
+                        handler.handleAnnotation(framework, entry.getKey(), clazz);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void destroy() {
+            annotations.clear();
+        }
+    }
+
     private static final class BytecodeBasedAnnotationProcessor implements AnnotationProcessor {
 
         protected AnnotationDetector detector;
@@ -382,7 +596,7 @@ public class DefaultAnnotationProcessor implements AnnotationProcessor {
                 }
 
             };
-            detector = new AnnotationDetector(reporter);
+            detector = newDetector(config, reporter);
         }
 
         @Override
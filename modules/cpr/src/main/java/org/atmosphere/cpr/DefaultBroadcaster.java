@@ -18,9 +18,14 @@ package org.atmosphere.cpr;
 
 import org.atmosphere.cache.BroadcastMessage;
 import org.atmosphere.cache.CacheMessage;
+import org.atmosphere.cache.RingBroadcasterCache;
 import org.atmosphere.cpr.BroadcastFilter.BroadcastAction;
 import org.atmosphere.lifecycle.LifecycleHandler;
 import org.atmosphere.pool.PoolableBroadcasterFactory;
+import org.atmosphere.util.AtmosphereResourceIndex;
+import org.atmosphere.util.ExecutorsFactory;
+import org.atmosphere.util.HashedTimerWheel;
+import org.atmosphere.util.IOUtils;
 import org.atmosphere.util.Utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,6 +33,7 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -39,6 +45,7 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Future;
@@ -51,8 +58,14 @@ import java.util.concurrent.atomic.AtomicLong;
 
 import static org.atmosphere.cpr.ApplicationConfig.BACKWARD_COMPATIBLE_WEBSOCKET_BEHAVIOR;
 import static org.atmosphere.cpr.ApplicationConfig.BROADCASTER_CACHE_STRATEGY;
+import static org.atmosphere.cpr.ApplicationConfig.BROADCASTER_MAILBOX_THROUGHPUT;
+import static org.atmosphere.cpr.ApplicationConfig.BROADCASTER_MAILBOX_WRITE;
 import static org.atmosphere.cpr.ApplicationConfig.BROADCASTER_SHAREABLE_LISTENERS;
 import static org.atmosphere.cpr.ApplicationConfig.BROADCASTER_WAIT_TIME;
+import static org.atmosphere.cpr.ApplicationConfig.BROADCASTER_WRITE_COALESCING;
+import static org.atmosphere.cpr.ApplicationConfig.BROADCASTER_WRITE_QUEUE_MAX_BYTES;
+import static org.atmosphere.cpr.ApplicationConfig.BROADCASTER_WRITE_QUEUE_MAX_MESSAGES;
+import static org.atmosphere.cpr.ApplicationConfig.BROADCASTER_WRITE_QUEUE_OVERFLOW_POLICY;
 import static org.atmosphere.cpr.ApplicationConfig.CACHE_MESSAGE_ON_IO_FLUSH_EXCEPTION;
 import static org.atmosphere.cpr.ApplicationConfig.MAX_INACTIVE;
 import static org.atmosphere.cpr.ApplicationConfig.OUT_OF_ORDER_BROADCAST;
@@ -73,14 +86,14 @@ import static org.atmosphere.cpr.FrameworkConfig.INJECTED_ATMOSPHERE_RESOURCE;
  */
 public class DefaultBroadcaster implements Broadcaster {
     public static final int POLLING_DEFAULT = 100;
+    public static final int MAILBOX_THROUGHPUT_DEFAULT = 64;
     public static final String CACHED = DefaultBroadcaster.class.getName() + ".messagesCached";
 
     private static final Logger logger = LoggerFactory.getLogger(DefaultBroadcaster.class);
     private static final String DESTROYED = "This Broadcaster has been destroyed and cannot be used {} by invoking {}";
     private static final List<AtmosphereResourceEventListener> EMPTY_LISTENERS = new ArrayList<AtmosphereResourceEventListener>();
 
-    protected final ConcurrentLinkedQueue<AtmosphereResource> resources =
-            new ConcurrentLinkedQueue<AtmosphereResource>();
+    protected final AtmosphereResourceIndex resources = new AtmosphereResourceIndex();
     protected BroadcasterConfig bc;
     protected final BlockingQueue<Deliver> messages = new LinkedBlockingQueue<Deliver>();
     protected Collection<BroadcasterListener> broadcasterListeners;
@@ -113,6 +126,15 @@ public class DefaultBroadcaster implements Broadcaster {
     private final AtomicBoolean outOfOrderBroadcastSupported = new AtomicBoolean(false);
     protected int writeTimeoutInSecond = -1;
     protected int waitTime = POLLING_DEFAULT;
+    protected boolean mailboxWrite;
+    protected int mailboxThroughput = MAILBOX_THROUGHPUT_DEFAULT;
+    protected boolean writeCoalescing;
+    protected int writeQueueMaxMessages = -1;
+    protected long writeQueueMaxBytes = -1;
+    protected OVERFLOW_POLICY overflowPolicy = OVERFLOW_POLICY.DROP_OLDEST;
+    protected final AtomicLong overflowCount = new AtomicLong();
+    protected final AtomicLong droppedCount = new AtomicLong();
+    protected AtmosphereMetrics metrics = new AtmosphereMetricsAdapter();
     private boolean backwardCompatible;
     private LifecycleHandler lifecycleHandler;
     private Future<?> currentLifecycleTask;
@@ -151,6 +173,29 @@ public class DefaultBroadcaster implements Broadcaster {
         if (outOfOrderBroadcastSupported.get()) {
             logger.trace("{} supports Out Of Order Broadcast: {}", name, outOfOrderBroadcastSupported.get());
         }
+
+        mailboxWrite = config.getInitParameter(BROADCASTER_MAILBOX_WRITE, false);
+        mailboxThroughput = config.getInitParameter(BROADCASTER_MAILBOX_THROUGHPUT, MAILBOX_THROUGHPUT_DEFAULT);
+        if (mailboxWrite && outOfOrderBroadcastSupported.get()) {
+            logger.warn("{} is ignored when {} is set", BROADCASTER_MAILBOX_WRITE, OUT_OF_ORDER_BROADCAST);
+            mailboxWrite = false;
+        }
+
+        writeCoalescing = config.getInitParameter(BROADCASTER_WRITE_COALESCING, false);
+        if (writeCoalescing && outOfOrderBroadcastSupported.get()) {
+            logger.warn("{} is ignored when {} is set", BROADCASTER_WRITE_COALESCING, OUT_OF_ORDER_BROADCAST);
+            writeCoalescing = false;
+        }
+
+        writeQueueMaxMessages = config.getInitParameter(BROADCASTER_WRITE_QUEUE_MAX_MESSAGES, -1);
+        s = config.getInitParameter(BROADCASTER_WRITE_QUEUE_MAX_BYTES);
+        if (s != null) {
+            writeQueueMaxBytes = Long.parseLong(s);
+        }
+        s = config.getInitParameter(BROADCASTER_WRITE_QUEUE_OVERFLOW_POLICY);
+        if (s != null) {
+            overflowPolicy = OVERFLOW_POLICY.valueOf(s.trim().toUpperCase());
+        }
         initialized.set(true);
         backwardCompatible = Boolean.parseBoolean(config.getInitParameter(BACKWARD_COMPATIBLE_WEBSOCKET_BEHAVIOR));
         cacheOnIOFlushException = config.getInitParameter(CACHE_MESSAGE_ON_IO_FLUSH_EXCEPTION, true);
@@ -163,6 +208,7 @@ public class DefaultBroadcaster implements Broadcaster {
         }
 
         candidateForPoolable = PoolableBroadcasterFactory.class.isAssignableFrom(config.getBroadcasterFactory().getClass());
+        metrics = config.framework().metrics();
 
         return this;
     }
@@ -447,7 +493,7 @@ public class DefaultBroadcaster implements Broadcaster {
                 while (!isDestroyed()) {
                     AsyncWriteToken token = null;
                     try {
-                        token = writeQueue.queue.poll(waitTime, TimeUnit.MILLISECONDS);
+                        token = writeQueue.poll(waitTime, TimeUnit.MILLISECONDS);
                         if (token == null && !outOfOrderBroadcastSupported.get()) {
                             synchronized (writeQueue) {
                                 if (writeQueue.queue.isEmpty()) {
@@ -471,6 +517,7 @@ public class DefaultBroadcaster implements Broadcaster {
 
                     // Shield us from https://github.com/Atmosphere/atmosphere/issues/1187
                     if (token != null) {
+                        token = coalesce(writeQueue, token);
                         synchronized (token.resource) {
                             try {
                                 logger.trace("About to write to {}", token.resource);
@@ -505,6 +552,67 @@ public class DefaultBroadcaster implements Broadcaster {
         };
     }
 
+    /**
+     * Return a {@link Runnable} that drains the {@link WriteQueue} like a mailbox: it never waits for new messages and
+     * gives the thread back as soon as the queue is empty, or after {@link #mailboxThroughput} writes, in which case it
+     * reschedules itself. A single task is active per {@link WriteQueue} at any time, which preserves the per-resource ordering.
+     *
+     * @param writeQueue the {@link WriteQueue} to drain
+     * @return a {@link Runnable}
+     */
+    protected Runnable getMailboxWriteHandler(final WriteQueue writeQueue) {
+        return new Runnable() {
+            public void run() {
+                int processed = 0;
+                while (!isDestroyed()) {
+                    AsyncWriteToken token = writeQueue.poll();
+                    if (token == null) {
+                        writeQueue.monitored.set(false);
+                        // A message may have been queued after the poll but before the flag was cleared.
+                        if (writeQueue.queue.isEmpty() || writeQueue.monitored.getAndSet(true)) {
+                            return;
+                        }
+                        continue;
+                    }
+
+                    token = coalesce(writeQueue, token);
+                    synchronized (token.resource) {
+                        try {
+                            logger.trace("About to write to {}", token.resource);
+                            executeAsyncWrite(token);
+                        } catch (Throwable ex) {
+                            if (!started.get() || destroyed.get()) {
+                                logger.trace("Failed to execute a write operation. Broadcaster is destroyed or not yet started for Broadcaster {}", getID(), ex);
+                                writeQueue.monitored.set(false);
+                                return;
+                            } else {
+                                try {
+                                    logger.warn("This message {} will be lost for AtmosphereResource {}, adding it to the BroadcasterCache",
+                                            token.originalMessage, token.resource != null ? token.resource.uuid() : "null");
+                                    cacheLostMessage(token.resource, token, true);
+                                } finally {
+                                    removeAtmosphereResource(token.resource, false);
+                                    logger.warn("Failed to execute a write operation for Broadcaster " + getID(), ex);
+                                }
+                            }
+                        }
+                    }
+
+                    if (++processed >= mailboxThroughput && !writeQueue.queue.isEmpty()) {
+                        try {
+                            bc.getAsyncWriteService().submit(this);
+                            return;
+                        } catch (RejectedExecutionException ex) {
+                            logger.trace("Unable to reschedule write for Broadcaster {}, continuing on the current thread", getID());
+                            processed = 0;
+                        }
+                    }
+                }
+                writeQueue.monitored.set(false);
+            }
+        };
+    }
+
     protected void start() {
         if (!initialized.get()) {
             logger.warn("Broadcaster {} not initialized", getID());
@@ -569,6 +677,7 @@ public class DefaultBroadcaster implements Broadcaster {
             return;
         }
 
+        metrics.onBroadcast(this);
         deliverPush(deliver, true);
     }
 
@@ -604,7 +713,7 @@ public class DefaultBroadcaster implements Broadcaster {
         if (finalMsg == null) {
             logger.error("Callable exception. Please catch all exceptions from your callable. Message {} will be lost and all AtmosphereResource " +
                     "associated with this Broadcaster resumed.", deliver.message);
-            entryDone(deliver.future);
+            entryAborted(deliver.future);
             switch (deliver.type) {
                 case ALL:
                     synchronized (resources) {
@@ -635,11 +744,12 @@ public class DefaultBroadcaster implements Broadcaster {
 
         if (deliver.originalMessage == null) {
             logger.trace("Broadcasted message was null {}", prevM);
-            entryDone(deliver.future);
+            entryAborted(deliver.future);
             return;
         }
 
         deliver.message = finalMsg;
+        deliver.payload = new BroadcastPayload(finalMsg);
 
         Map<String, CacheMessage> cacheForSet = deliver.type == Deliver.TYPE.SET ? new HashMap<String, CacheMessage>() : null;
         // We cache first, and if the broadcast succeed, we will remove it.
@@ -660,7 +770,10 @@ public class DefaultBroadcaster implements Broadcaster {
         notifyOnMessage(deliver);
         if (resources.isEmpty()) {
             logger.trace("No resource available for {} and message {}", getID(), finalMsg);
-            entryDone(deliver.future);
+            if (deliver.future != null && (deliver.cache != null || (cacheForSet != null && !cacheForSet.isEmpty()))) {
+                deliver.future.cached();
+            }
+            entryAborted(deliver.future);
             if (cacheForSet != null) {
                 cacheForSet.clear();
             }
@@ -676,19 +789,30 @@ public class DefaultBroadcaster implements Broadcaster {
 
             boolean hasFilters = bc.hasPerRequestFilters();
             Object beforeProcessingMessage = deliver.message;
+            int dispatched = 0;
             switch (deliver.type) {
                 case ALL:
                     AtomicInteger count = new AtomicInteger(resources.size());
 
-                    for (AtmosphereResource r : resources) {
-                        deliver.message = beforeProcessingMessage;
-                        boolean deliverMessage = perRequestFilter(r, deliver);
+                    // AtmosphereResources may have been added or removed since the broadcast, the BroadcasterFuture
+                    // waits for the ones the message is dispatched to.
+                    dispatching(deliver.future);
+                    try {
+                        for (AtmosphereResource r : resources) {
+                            dispatched++;
+                            deliver.message = beforeProcessingMessage;
+                            boolean deliverMessage = perRequestFilter(r, deliver);
 
-                        if (endBroadcast(deliver, r, deliver.cache, deliverMessage)) continue;
+                            if (endBroadcast(deliver, r, deliver.cache, deliverMessage)) continue;
 
-                        if (deliver.writeLocally) {
-                            queueWriteIO(r, hasFilters ? new Deliver(r, deliver) : deliver, count);
+                            if (deliver.writeLocally) {
+                                queueWriteIO(r, hasFilters ? new Deliver(r, deliver) : deliver, count);
+                            } else if (deliver.future != null) {
+                                deliver.future.done();
+                            }
                         }
+                    } finally {
+                        dispatched(deliver.future, dispatched);
                     }
                     break;
                 case RESOURCE:
@@ -698,22 +822,32 @@ public class DefaultBroadcaster implements Broadcaster {
 
                     if (deliver.writeLocally) {
                         queueWriteIO(deliver.resource, deliver, new AtomicInteger(1));
+                    } else if (deliver.future != null) {
+                        deliver.future.done();
                     }
                     break;
                 case SET:
                     count = new AtomicInteger(deliver.resources.size());
 
-                    for (AtmosphereResource r : deliver.resources) {
-                        deliver.message = beforeProcessingMessage;
-                        deliverMessage = perRequestFilter(r, deliver);
+                    dispatching(deliver.future);
+                    try {
+                        for (AtmosphereResource r : deliver.resources) {
+                            dispatched++;
+                            deliver.message = beforeProcessingMessage;
+                            deliverMessage = perRequestFilter(r, deliver);
 
-                        CacheMessage cacheMsg = cacheForSet.remove(r.uuid());
+                            CacheMessage cacheMsg = cacheForSet.remove(r.uuid());
 
-                        if (endBroadcast(deliver, r, cacheMsg, deliverMessage)) continue;
+                            if (endBroadcast(deliver, r, cacheMsg, deliverMessage)) continue;
 
-                        if (deliver.writeLocally) {
-                            queueWriteIO(r, new Deliver(r, deliver, cacheMsg), count);
+                            if (deliver.writeLocally) {
+                                queueWriteIO(r, new Deliver(r, deliver, cacheMsg), count);
+                            } else if (deliver.future != null) {
+                                deliver.future.done();
+                            }
                         }
+                    } finally {
+                        dispatched(deliver.future, dispatched);
                     }
                     break;
             }
@@ -724,14 +858,25 @@ public class DefaultBroadcaster implements Broadcaster {
             if (cacheForSet != null) {
                 cacheForSet.clear();
             }
+            // The message won't be dispatched to the remaining AtmosphereResources
+            if (deliver.future != null) deliver.future.abort();
         }
     }
 
+    private static void dispatching(BroadcasterFuture<?> f) {
+        if (f != null) f.dispatching();
+    }
+
+    private static void dispatched(BroadcasterFuture<?> f, int count) {
+        if (f != null) f.dispatched(count);
+    }
+
     protected boolean endBroadcast(Deliver deliver, AtmosphereResource r, CacheMessage cacheMsg, boolean deliverMessage) {
         if (!deliverMessage || deliver.message == null) {
             logger.debug("Skipping broadcast delivery {} for resource {} ", deliver.message, deliver.resource != null ? deliver.resource.uuid() : "null");
             bc.getBroadcasterCache().clearCache(getID(), r.uuid(), cacheMsg);
-            entryDone(deliver.future);
+            notifyBroadcastListener();
+            if (deliver.future != null) deliver.future.filtered();
 
             return true;
         }
@@ -759,19 +904,39 @@ public class DefaultBroadcaster implements Broadcaster {
                         removeAtmosphereResource(r2);
                         checkCachedAndPush(r2, r2.getAtmosphereResourceEvent());
                     }
+                    if (deliver.future != null) deliver.future.cached();
                     return;
                 }
             }
 
             AsyncWriteToken w = new AsyncWriteToken(r, deliver.message, deliver.future, deliver.originalMessage, deliver.cache, count);
-            if (!outOfOrderBroadcastSupported.get()) {
+            w.payload = sharedPayload(deliver);
+            w.created = deliver.created;
+            if (mailboxWrite) {
+                WriteQueue writeQueue = writeQueues.get(r.uuid());
+                if (writeQueue == null) {
+                    WriteQueue newQueue = new WriteQueue(r.uuid());
+                    writeQueue = writeQueues.putIfAbsent(r.uuid(), newQueue);
+                    if (writeQueue == null) {
+                        writeQueue = newQueue;
+                    }
+                }
+
+                if (offer(writeQueue, w) && !writeQueue.monitored.getAndSet(true)) {
+                    logger.trace("Broadcaster {} is about to schedule mailbox write for AtmosphereResource {}", name, r.uuid());
+                    bc.getAsyncWriteService().submit(getMailboxWriteHandler(writeQueue));
+                }
+            } else if (!outOfOrderBroadcastSupported.get()) {
                 WriteQueue writeQueue = writeQueues.get(r.uuid());
                 if (writeQueue == null) {
                     writeQueue = new WriteQueue(r.uuid());
                     writeQueues.put(r.uuid(), writeQueue);
                 }
 
-                writeQueue.queue.put(w);
+                if (!offer(writeQueue, w)) {
+                    return;
+                }
+
                 synchronized (writeQueue) {
                     if (!writeQueue.monitored.getAndSet(true)) {
                         logger.trace("Broadcaster {} is about to queueWriteIO for AtmosphereResource {}", name, r.uuid());
@@ -779,7 +944,7 @@ public class DefaultBroadcaster implements Broadcaster {
                     }
                 }
             } else {
-                uniqueWriteQueue.queue.offer(w);
+                uniqueWriteQueue.offer(w);
             }
         } else {
             executeBlockingWrite(r, deliver, count);
@@ -789,19 +954,226 @@ public class DefaultBroadcaster implements Broadcaster {
     protected void executeBlockingWrite(AtmosphereResource r, Deliver deliver, AtomicInteger count) throws InterruptedException {
         // We deliver using the calling thread.
         synchronized (r) {
-            executeAsyncWrite(new AsyncWriteToken(r, deliver.message, deliver.future, deliver.originalMessage, deliver.cache, count));
+            AsyncWriteToken w = new AsyncWriteToken(r, deliver.message, deliver.future, deliver.originalMessage, deliver.cache, count);
+            w.payload = sharedPayload(deliver);
+            w.created = deliver.created;
+            executeAsyncWrite(w);
+        }
+    }
+
+    /**
+     * Return the {@link BroadcastPayload} of the {@link Deliver} if its message hasn't been changed by a {@link PerRequestBroadcastFilter}.
+     *
+     * @param deliver the {@link Deliver}
+     * @return the {@link BroadcastPayload}, or null
+     */
+    protected BroadcastPayload sharedPayload(Deliver deliver) {
+        return deliver.payload != null && deliver.payload.matches(deliver.message) ? deliver.payload : null;
+    }
+
+    /**
+     * Queue the {@link AsyncWriteToken}, applying the {@link OVERFLOW_POLICY} if the {@link WriteQueue} is full.
+     *
+     * @param writeQueue the {@link AtmosphereResource}'s {@link WriteQueue}
+     * @param w          the {@link AsyncWriteToken}
+     * @return true if the token has been queued
+     */
+    protected boolean offer(WriteQueue writeQueue, AsyncWriteToken w) {
+        if (writeQueueMaxMessages <= 0 && writeQueueMaxBytes <= 0) {
+            writeQueue.offer(w);
+            return true;
+        }
+
+        if (writeQueueMaxBytes > 0) {
+            w.size = messageSize(w.msg);
+        }
+
+        if (writeQueue.reserve(w, writeQueueMaxMessages, writeQueueMaxBytes)) {
+            writeQueue.enqueue(w);
+            return true;
+        }
+
+        AtmosphereResource r = w.resource;
+        overflowCount.incrementAndGet();
+        logger.debug("Write queue of AtmosphereResource {} is full, applying {}", r.uuid(), overflowPolicy);
+        notifyOnOverflow(r, w.originalMessage, overflowPolicy);
+
+        AsyncWriteToken t;
+        switch (overflowPolicy) {
+            case DROP_NEWEST:
+                discard(w, true);
+                return false;
+            case DROP_OLDEST:
+                while (!writeQueue.reserve(w, writeQueueMaxMessages, writeQueueMaxBytes)) {
+                    if ((t = writeQueue.poll()) == null) {
+                        // Other writers reserved the room, the message is queued anyway.
+                        writeQueue.offer(w);
+                        return true;
+                    }
+                    discard(t, true);
+                }
+                writeQueue.enqueue(w);
+                return true;
+            case CONFLATE:
+                while ((t = writeQueue.poll()) != null) {
+                    discard(t, true);
+                }
+                writeQueue.offer(w);
+                return true;
+            default:
+                // Leave the messages in the BroadcasterCache, the client will retrieve them when reconnecting.
+                while ((t = writeQueue.poll()) != null) {
+                    discard(t, false);
+                }
+                discard(w, false);
+                onException(new IOException("Write queue is full for AtmosphereResource " + r.uuid()), r, false);
+                return false;
+        }
+    }
+
+    /**
+     * Complete an {@link AsyncWriteToken} that will never be written.
+     *
+     * @param token      the {@link AsyncWriteToken}
+     * @param clearCache true if the message must be removed from the {@link BroadcasterCache}
+     */
+    protected void discard(AsyncWriteToken token, boolean clearCache) {
+        droppedCount.incrementAndGet();
+        try {
+            if (clearCache) {
+                bc.getBroadcasterCache().clearCache(getID(), token.resource.uuid(), token.cache);
+            }
+        } finally {
+            if (token.lastBroadcasted()) {
+                notifyBroadcastListener();
+            }
+            done(token.future, false, !clearCache && token.cache != null);
+            token.destroy();
+        }
+    }
+
+    /**
+     * Return the size of a message counted against {@link ApplicationConfig#BROADCASTER_WRITE_QUEUE_MAX_BYTES}, in bytes.
+     * Only String, measured as UTF-8, and byte[] are measured, other messages are considered empty.
+     *
+     * @param message the message
+     * @return the size of the message
+     */
+    protected long messageSize(Object message) {
+        if (message instanceof byte[]) {
+            return ((byte[]) message).length;
+        } else if (message instanceof CharSequence) {
+            return IOUtils.utf8Length((CharSequence) message);
+        }
+        return 0;
+    }
+
+    /**
+     * When {@link ApplicationConfig#BROADCASTER_WRITE_COALESCING} is enabled, drain the messages queued behind the
+     * {@link AsyncWriteToken} and merge them into a single {@link AsyncWriteToken} whose message is the {@link List} of
+     * messages, so the {@link AtmosphereHandler} writes them all and flushes once.
+     *
+     * @param writeQueue the {@link WriteQueue} the token has been polled from
+     * @param token      the first {@link AsyncWriteToken}
+     * @return the {@link AsyncWriteToken} to write
+     */
+    protected AsyncWriteToken coalesce(WriteQueue writeQueue, AsyncWriteToken token) {
+        if (!writeCoalescing || writeQueue.queue.isEmpty()) {
+            return token;
         }
+
+        List<AsyncWriteToken> tokens = new ArrayList<AsyncWriteToken>();
+        tokens.add(token);
+        AsyncWriteToken t;
+        while (tokens.size() < mailboxThroughput && (t = writeQueue.poll()) != null) {
+            tokens.add(t);
+        }
+
+        // One element per broadcast, a List broadcasted by the application stays a single message.
+        List<Object> messages = new ArrayList<Object>(tokens.size());
+        for (AsyncWriteToken w : tokens) {
+            messages.add(w.msg);
+        }
+        logger.trace("Coalescing {} messages for {}", tokens.size(), token.resource.uuid());
+        return new AsyncWriteToken(token.resource, messages, tokens);
     }
 
     public final static class WriteQueue {
         final BlockingQueue<AsyncWriteToken> queue = new LinkedBlockingQueue<AsyncWriteToken>();
         final AtomicBoolean monitored = new AtomicBoolean();
+        // The messages and bytes queued or reserved by a writer about to queue them
+        final AtomicInteger messages = new AtomicInteger();
+        final AtomicLong bytes = new AtomicLong();
         final String uuid;
 
         private WriteQueue(String uuid) {
             this.uuid = uuid;
         }
 
+        /**
+         * Queue the token, whatever the limits.
+         */
+        void offer(AsyncWriteToken w) {
+            messages.incrementAndGet();
+            if (w.size > 0) bytes.addAndGet(w.size);
+            queue.offer(w);
+        }
+
+        /**
+         * Reserve room for the token, which must then be queued with {@link #enqueue(AsyncWriteToken)}. Nothing is
+         * reserved if the queue is full. An empty queue accepts a message whatever its size.
+         *
+         * @return true if the room has been reserved
+         */
+        boolean reserve(AsyncWriteToken w, int maxMessages, long maxBytes) {
+            int m = messages.incrementAndGet();
+            long b = w.size > 0 ? bytes.addAndGet(w.size) : bytes.get();
+            if (m > 1 && ((maxMessages > 0 && m > maxMessages) || (maxBytes > 0 && b > maxBytes))) {
+                messages.decrementAndGet();
+                if (w.size > 0) bytes.addAndGet(-w.size);
+                return false;
+            }
+            return true;
+        }
+
+        void enqueue(AsyncWriteToken w) {
+            queue.offer(w);
+        }
+
+        AsyncWriteToken poll() {
+            return release(queue.poll());
+        }
+
+        AsyncWriteToken poll(long timeout, TimeUnit unit) throws InterruptedException {
+            return release(queue.poll(timeout, unit));
+        }
+
+        private AsyncWriteToken release(AsyncWriteToken w) {
+            if (w != null) {
+                messages.decrementAndGet();
+                if (w.size > 0) bytes.addAndGet(-w.size);
+            }
+            return w;
+        }
+
+        /**
+         * Return the number of queued messages.
+         *
+         * @return the number of queued messages
+         */
+        public int size() {
+            return queue.size();
+        }
+
+        /**
+         * Return the size of the queued messages, as measured by {@link DefaultBroadcaster#messageSize(Object)}.
+         *
+         * @return the size of the queued messages
+         */
+        public long bytes() {
+            return bytes.get();
+        }
+
         public List<String> asString() {
             List<String> l = new ArrayList<String>();
             for (AsyncWriteToken w : queue) {
@@ -840,9 +1212,28 @@ public class DefaultBroadcaster implements Broadcaster {
         return msg;
     }
 
+    /**
+     * Report the delivery of the {@link AsyncWriteToken}'s messages to the {@link AtmosphereMetrics}.
+     *
+     * @param token the written {@link AsyncWriteToken}
+     */
+    protected void delivered(AsyncWriteToken token) {
+        long now = System.nanoTime();
+        if (token.coalesced != null) {
+            for (AsyncWriteToken t : token.coalesced) {
+                metrics.onDeliver(this, token.resource, now - t.created);
+            }
+        } else {
+            metrics.onDeliver(this, token.resource, now - token.created);
+        }
+    }
+
     protected void executeAsyncWrite(final AsyncWriteToken token) {
         boolean notifyListeners = true;
         boolean lostCandidate = false;
+        boolean written = false;
+        boolean keptInCache = false;
+        boolean slot = false;
 
         if (token.resource == null) throw new NullPointerException();
 
@@ -851,27 +1242,52 @@ public class DefaultBroadcaster implements Broadcaster {
         final boolean willBeResumed = Utils.resumableTransport(r.transport());
         List<AtmosphereResourceEventListener> listeners = willBeResumed ? new ArrayList() : EMPTY_LISTENERS;
         final AtmosphereRequest request = r.getRequest(false);
+        // The AtmosphereHandler may empty a coalesced List while writing it, so the listeners get a copy.
+        final Object listenerMessage = token.coalesced != null ? new ArrayList<Object>((List<?>) token.msg) : token.msg;
         try {
 
             event.setMessage(token.msg);
+            event.payload(token.payload);
+            event.coalesced(token.coalesced != null);
+            if (token.coalesced != null) {
+                event.sequences(token.sequences());
+            } else {
+                event.sequence(token.sequence());
+            }
 
             // Make sure we cache the message in case the AtmosphereResource has been cancelled, resumed or the client disconnected.
             if (!isAtmosphereResourceValid(r)) {
                 logger.trace("AtmosphereResource {} state is invalid for Broadcaster {}. Message will be cached", r.uuid(), name);
                 removeAtmosphereResource(r, false);
+                keptInCache = true;
                 return;
             }
 
-            bc.getBroadcasterCache().clearCache(getID(), r.uuid(), token.cache);
+            if (token.coalesced != null) {
+                for (AsyncWriteToken t : token.coalesced) {
+                    bc.getBroadcasterCache().clearCache(getID(), r.uuid(), t.cache);
+                }
+            } else {
+                bc.getBroadcasterCache().clearCache(getID(), r.uuid(), token.cache);
+            }
             try {
-                request.setAttribute(getID(), token.future);
-                request.setAttribute(MAX_INACTIVE, System.currentTimeMillis());
-                request.setAttribute(usingTokenIdForAttribute, token);
+                slot = r.writeToken(this, token);
+                if (!slot) {
+                    request.setAttribute(getID(), token.future);
+                    request.setAttribute(usingTokenIdForAttribute, token);
+                }
+                if (request instanceof AtmosphereRequestImpl) {
+                    ((AtmosphereRequestImpl) request).lastActivity(System.currentTimeMillis());
+                } else {
+                    request.setAttribute(MAX_INACTIVE, System.currentTimeMillis());
+                }
 
                 if (willBeResumed && !r.atmosphereResourceEventListener().isEmpty()) {
                     listeners.addAll(r.atmosphereResourceEventListener());
                 }
                 prepareInvokeOnStateChange(r, event);
+                written = true;
+                delivered(token);
             } catch (Throwable t) {
                 logger.debug("Invalid AtmosphereResource state {}. The connection has been remotely" +
                         " closed and message {} will be added to the configured BroadcasterCache for later retrieval", r.uuid(), event.getMessage());
@@ -889,9 +1305,12 @@ public class DefaultBroadcaster implements Broadcaster {
             }
         } finally {
             if (notifyListeners) {
+                if (token.coalesced != null) {
+                    event.setMessage(listenerMessage);
+                }
                 // Long Polling listener will be cleared when the resume() is called.
                 if (willBeResumed) {
-                    event.setMessage(token.msg);
+                    event.setMessage(listenerMessage);
                     for (AtmosphereResourceEventListener e : listeners) {
                         e.onBroadcast(event);
                     }
@@ -901,22 +1320,40 @@ public class DefaultBroadcaster implements Broadcaster {
                 }
             }
 
-            if (token.lastBroadcasted()) {
-                notifyBroadcastListener();
-            }
-
-            if (token.future != null) token.future.done();
-
             if (lostCandidate) {
                 cacheLostMessage(r, token, true);
             }
 
+            event.payload(null);
+            event.coalesced(false);
+            event.sequences(null);
             try {
-                request.removeAttribute(getID());
-                request.removeAttribute(usingTokenIdForAttribute);
+                if (slot) {
+                    r.releaseWriteToken(this);
+                } else {
+                    request.removeAttribute(getID());
+                    request.removeAttribute(usingTokenIdForAttribute);
+                }
             } catch (NullPointerException ex) {
                 logger.trace("NPE after the message has been written for {}", r.uuid());
             }
+
+            // Complete once the message has been cached and the AtmosphereResource released, the BroadcasterFuture
+            // may run application code.
+            if (token.coalesced != null) {
+                for (AsyncWriteToken t : token.coalesced) {
+                    if (t.lastBroadcasted()) {
+                        notifyBroadcastListener();
+                    }
+                    done(t.future, written, lostCandidate || (keptInCache && t.cache != null));
+                }
+            } else {
+                if (token.lastBroadcasted()) {
+                    notifyBroadcastListener();
+                }
+
+                done(token.future, written, lostCandidate || (keptInCache && token.cache != null));
+            }
             token.destroy();
         }
     }
@@ -939,12 +1376,16 @@ public class DefaultBroadcaster implements Broadcaster {
             logger.debug("Sending cached message {} to {}", e.getMessage(), r.uuid());
 
             List<Object> cacheMessages = (List) e.getMessage();
+            long[] sequences = sequences(e, cacheMessages.size());
+            long[] filteredSequences = sequences != null ? new long[sequences.length] : null;
             BroadcasterFuture<Object> f = new BroadcasterFuture<Object>(e.getMessage(), 1);
             LinkedList<Object> filteredMessage = new LinkedList<Object>();
             LinkedList<Object> filteredMessageClone = null;
             Deliver deliver;
             Object newMessage;
+            int index = -1;
             for (Object o : cacheMessages) {
+                index++;
                 newMessage = filter(o);
                 if (newMessage == null) {
                     continue;
@@ -957,14 +1398,21 @@ public class DefaultBroadcaster implements Broadcaster {
                 }
 
                 if (deliver.message != null) {
+                    if (filteredSequences != null) {
+                        filteredSequences[filteredMessage.size()] = sequences[index];
+                    }
                     filteredMessage.addLast(deliver.message);
                 }
             }
 
             if (filteredMessage.isEmpty()) {
+                sequences(e, null);
                 return false;
             }
             e.setMessage(filteredMessage);
+            if (filteredSequences != null) {
+                sequences(e, Arrays.copyOf(filteredSequences, filteredMessage.size()));
+            }
 
             final boolean willBeResumed = Utils.resumableTransport(r.transport());
 
@@ -991,6 +1439,8 @@ public class DefaultBroadcaster implements Broadcaster {
                         bc.getBroadcasterCache().addToCache(getID(), r != null ? r.uuid() : BroadcasterCache.NULL, new BroadcastMessage(o));
                     }
                     return true;
+                } finally {
+                    sequences(e, null);
                 }
 
                 // If long-polling or JSONP is used we need to set the messages for the event again, because onResume() have cleared them
@@ -1026,7 +1476,26 @@ public class DefaultBroadcaster implements Broadcaster {
 
     protected boolean retrieveTrackedBroadcast(final AtmosphereResource r, final AtmosphereResourceEvent e) {
         logger.trace("Checking cached message for {}", r.uuid());
-        List<?> missedMsg = bc.getBroadcasterCache().retrieveFromCache(getID(), r.uuid());
+        BroadcasterCache cache = bc.getBroadcasterCache();
+        if (cache instanceof RingBroadcasterCache) {
+            // A range read of the log, starting at the Last-Event-ID sent by a reconnecting EventSource, if any.
+            List<RingBroadcasterCache.Entry> entries = ((RingBroadcasterCache) cache).retrieveEntries(getID(), r.uuid(), lastEventId(r));
+            if (entries.isEmpty()) {
+                return false;
+            }
+
+            List<Object> missedMsg = new ArrayList<Object>(entries.size());
+            long[] sequences = new long[entries.size()];
+            for (RingBroadcasterCache.Entry entry : entries) {
+                sequences[missedMsg.size()] = entry.sequence();
+                missedMsg.add(entry.getMessage());
+            }
+            e.setMessage(missedMsg);
+            sequences(e, sequences);
+            return true;
+        }
+
+        List<?> missedMsg = cache.retrieveFromCache(getID(), r.uuid());
         if (missedMsg != null && !missedMsg.isEmpty()) {
             e.setMessage(missedMsg);
             return true;
@@ -1034,6 +1503,46 @@ public class DefaultBroadcaster implements Broadcaster {
         return false;
     }
 
+    /**
+     * Return the sequence number sent by the client in the {@link HeaderConfig#LAST_EVENT_ID} header, or -1. Sequence numbers
+     * are per {@link Broadcaster}, so the header is only honored by the {@link AtmosphereResource}'s own {@link Broadcaster}.
+     */
+    private long lastEventId(AtmosphereResource r) {
+        AtmosphereResourceImpl rImpl = AtmosphereResourceImpl.class.cast(r);
+        if (rImpl.broadcaster != this) {
+            return -1;
+        }
+
+        String s = rImpl.getRequest(false).getHeader(HeaderConfig.LAST_EVENT_ID);
+        if (s == null) {
+            return -1;
+        }
+
+        try {
+            return Long.parseLong(s.trim());
+        } catch (NumberFormatException ex) {
+            logger.trace("Invalid {} header {} for {}", HeaderConfig.LAST_EVENT_ID, s, r.uuid());
+            return -1;
+        }
+    }
+
+    private static void sequences(AtmosphereResourceEvent e, long[] sequences) {
+        if (e instanceof AtmosphereResourceEventImpl) {
+            ((AtmosphereResourceEventImpl) e).sequences(sequences);
+        }
+    }
+
+    /**
+     * Return the sequence number of each of the event's messages, or null if they don't match the size of the List.
+     */
+    private static long[] sequences(AtmosphereResourceEvent e, int size) {
+        if (e instanceof AtmosphereResourceEventImpl) {
+            long[] sequences = ((AtmosphereResourceEventImpl) e).sequences();
+            return sequences != null && sequences.length == size ? sequences : null;
+        }
+        return null;
+    }
+
     protected void invokeOnStateChange(final AtmosphereResource r, final AtmosphereResourceEvent e) {
         try {
             logger.trace("{} is broadcasting to {}", name, r.uuid());
@@ -1048,13 +1557,24 @@ public class DefaultBroadcaster implements Broadcaster {
     protected void prepareInvokeOnStateChange(final AtmosphereResource r, final AtmosphereResourceEvent e) {
         if (writeTimeoutInSecond != -1) {
             logger.trace("Registering Write timeout {} for {}", writeTimeoutInSecond, r.uuid());
-            WriteOperation w = new WriteOperation(r, e, Thread.currentThread());
-            bc.getScheduledExecutorService().schedule(w, writeTimeoutInSecond, TimeUnit.MILLISECONDS);
+            final WriteOperation w = new WriteOperation(r, e, Thread.currentThread());
+            HashedTimerWheel.Timeout timeout = ExecutorsFactory.getTimerWheel(config).schedule(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        w.call();
+                    } catch (Exception ex) {
+                        logger.warn("", ex);
+                    }
+                }
+            }, writeTimeoutInSecond, TimeUnit.MILLISECONDS);
 
             try {
                 w.call();
             } catch (Exception ex) {
                 logger.warn("", ex);
+            } finally {
+                timeout.cancel();
             }
         } else {
             invokeOnStateChange(r, e);
@@ -1125,7 +1645,7 @@ public class DefaultBroadcaster implements Broadcaster {
         }
 
         if (notifyAndCache) {
-            cacheLostMessage(r, (AsyncWriteToken) r.getRequest(false).getAttribute(usingTokenIdForAttribute), notifyAndCache);
+            cacheLostMessage(r, writeToken(r), notifyAndCache);
         }
 
         /**
@@ -1156,14 +1676,28 @@ public class DefaultBroadcaster implements Broadcaster {
      * @param r {@link AtmosphereResource}
      */
     public void cacheLostMessage(AtmosphereResource r, boolean force) {
-        AtmosphereRequest request = AtmosphereResourceImpl.class.cast(r).getRequest(false);
+        AtmosphereResourceImpl rImpl = AtmosphereResourceImpl.class.cast(r);
+        AsyncWriteToken token = (AsyncWriteToken) rImpl.writeToken(this);
         try {
-            cacheLostMessage(r, (AsyncWriteToken) request.getAttribute(usingTokenIdForAttribute), force);
+            cacheLostMessage(r, token != null ? token : writeToken(rImpl), force);
         } finally {
-            request.removeAttribute(usingTokenIdForAttribute);
+            if (token != null) {
+                rImpl.releaseWriteToken(this);
+            } else {
+                rImpl.getRequest(false).removeAttribute(usingTokenIdForAttribute);
+            }
         }
     }
 
+    /**
+     * Return the {@link AsyncWriteToken} of the write in progress to the {@link AtmosphereResource}, kept in its
+     * write slot or, when another {@link Broadcaster} was using the slot, in its request attributes.
+     */
+    private AsyncWriteToken writeToken(AtmosphereResourceImpl r) {
+        Object token = r.writeToken(this);
+        return token != null ? (AsyncWriteToken) token : (AsyncWriteToken) r.getRequest(false).getAttribute(usingTokenIdForAttribute);
+    }
+
     /**
      * Cache the message because an unexpected exception occurred.
      *
@@ -1183,6 +1717,13 @@ public class DefaultBroadcaster implements Broadcaster {
             return;
         }
 
+        if (token != null && token.coalesced != null) {
+            for (AsyncWriteToken t : token.coalesced) {
+                cacheLostMessage(r, t, force);
+            }
+            return;
+        }
+
         try {
             if (token != null && token.originalMessage != null) {
                 bc.getBroadcasterCache().addToCache(getID(), r != null ? r.uuid() : BroadcasterCache.NULL,
@@ -1213,7 +1754,7 @@ public class DefaultBroadcaster implements Broadcaster {
         Object newMsg = filter(msg);
         if (newMsg == null) {
             logger.debug("Broadcast Interrupted {}", msg);
-            return futureDone(msg);
+            return futureFiltered(msg);
         }
 
         int callee = resources.isEmpty() ? 1 : resources.size();
@@ -1228,6 +1769,36 @@ public class DefaultBroadcaster implements Broadcaster {
         return (new BroadcasterFuture<Object>(msg)).done();
     }
 
+    protected BroadcasterFuture<Object> futureFiltered(Object msg) {
+        notifyBroadcastListener();
+        return (new BroadcasterFuture<Object>(msg)).filtered();
+    }
+
+    /**
+     * Return a {@link CompletionStage} completed when the broadcast operation represented by the {@link Future} completes.
+     *
+     * @param f the {@link Future} returned by a broadcast operation, or null
+     * @return a {@link CompletionStage}
+     */
+    protected CompletionStage<BroadcastResult> completion(Future<Object> f) {
+        return BroadcasterFuture.completion(f, bc);
+    }
+
+    @Override
+    public CompletionStage<BroadcastResult> broadcastAsync(Object msg) {
+        return completion(broadcast(msg));
+    }
+
+    @Override
+    public CompletionStage<BroadcastResult> broadcastAsync(Object msg, AtmosphereResource r) {
+        return completion(broadcast(msg, r));
+    }
+
+    @Override
+    public CompletionStage<BroadcastResult> broadcastAsync(Object msg, Set<AtmosphereResource> subset) {
+        return completion(broadcast(msg, subset));
+    }
+
     protected void dispatchMessages(Deliver e) {
         messages.offer(e);
 
@@ -1261,7 +1832,7 @@ public class DefaultBroadcaster implements Broadcaster {
 
         start();
         Object newMsg = filter(msg);
-        if (newMsg == null) return futureDone(msg);
+        if (newMsg == null) return futureFiltered(msg);
 
         BroadcasterFuture<Object> f = new BroadcasterFuture<Object>(newMsg, 1);
         dispatchMessages(new Deliver(newMsg, r, f, msg));
@@ -1306,7 +1877,7 @@ public class DefaultBroadcaster implements Broadcaster {
 
         start();
         Object newMsg = filter(msg);
-        if (newMsg == null) return futureDone(msg);
+        if (newMsg == null) return futureFiltered(msg);
 
         BroadcasterFuture<Object> f = new BroadcasterFuture<Object>(null, newMsg, subset.size());
         dispatchMessages(new Deliver(newMsg, subset, f, msg));
@@ -1331,13 +1902,14 @@ public class DefaultBroadcaster implements Broadcaster {
             if (maxSuspendResource.get() > 0 && resources.size() >= maxSuspendResource.get()) {
                 // Resume the first in.
                 if (policy == POLICY.FIFO) {
-                    // TODO handle null return from poll()
                     AtmosphereResource resource = resources.poll();
-                    try {
-                        logger.warn("Too many resource. Forcing resume of {} ", resource.uuid());
-                        resource.resume();
-                    } catch (Throwable t) {
-                        logger.warn("failed to resume resource {} ", resource, t);
+                    if (resource != null) {
+                        try {
+                            logger.warn("Too many resource. Forcing resume of {} ", resource.uuid());
+                            resource.resume();
+                        } catch (Throwable t) {
+                            logger.warn("failed to resume resource {} ", resource, t);
+                        }
                     }
                 } else if (policy == POLICY.REJECT) {
                     throw new RejectedExecutionException(String.format("Maximum suspended AtmosphereResources %s", maxSuspendResource));
@@ -1445,6 +2017,29 @@ public class DefaultBroadcaster implements Broadcaster {
         if (f != null) f.done();
     }
 
+    /**
+     * Complete the {@link BroadcasterFuture} of a message that won't be delivered to the remaining
+     * {@link AtmosphereResource}s.
+     *
+     * @param f the {@link BroadcasterFuture}
+     */
+    protected void entryAborted(final BroadcasterFuture<?> f) {
+        notifyBroadcastListener();
+        if (f != null) f.abort();
+    }
+
+    private static void done(BroadcasterFuture<?> f, boolean written, boolean cached) {
+        if (f == null) {
+            return;
+        } else if (written) {
+            f.delivered();
+        } else if (cached) {
+            f.cached();
+        } else {
+            f.failed();
+        }
+    }
+
     protected void notifyBroadcastListener() {
         for (BroadcasterListener b : broadcasterListeners) {
             try {
@@ -1465,6 +2060,16 @@ public class DefaultBroadcaster implements Broadcaster {
         }
     }
 
+    protected void notifyOnOverflow(AtmosphereResource r, Object message, OVERFLOW_POLICY policy) {
+        for (BroadcasterListener b : broadcasterListeners) {
+            try {
+                b.onOverflow(this, r, message, policy);
+            } catch (Exception ex) {
+                logger.warn("", ex);
+            }
+        }
+    }
+
     protected void notifyOnRemoveAtmosphereResourceListener(AtmosphereResource r) {
         for (BroadcasterListener b : broadcasterListeners) {
             try {
@@ -1516,9 +2121,12 @@ public class DefaultBroadcaster implements Broadcaster {
         // Here we need to make sure we aren't in the process of broadcasting and unlock the Future.
         if (executeDone) {
             AtmosphereResourceImpl aImpl = AtmosphereResourceImpl.class.cast(r);
-            BroadcasterFuture f = (BroadcasterFuture) aImpl.getRequest(false).getAttribute(getID());
+            AsyncWriteToken token = (AsyncWriteToken) aImpl.writeToken(this);
+            BroadcasterFuture f = token != null ? token.future : (BroadcasterFuture) aImpl.getRequest(false).getAttribute(getID());
             if (f != null && !f.isDone() && !f.isCancelled()) {
-                aImpl.getRequest(false).removeAttribute(getID());
+                if (token == null) {
+                    aImpl.getRequest(false).removeAttribute(getID());
+                }
                 entryDone(f);
             }
         }
@@ -1649,6 +2257,10 @@ public class DefaultBroadcaster implements Broadcaster {
         Object originalMessage;
         CacheMessage cache;
         AtomicInteger count;
+        BroadcastPayload payload;
+        long size;
+        long created;
+        List<AsyncWriteToken> coalesced;
 
         public AsyncWriteToken(AtmosphereResource resource, Object msg, BroadcasterFuture future, Object originalMessage, AtomicInteger count) {
             this.resource = resource;
@@ -1667,11 +2279,46 @@ public class DefaultBroadcaster implements Broadcaster {
             this.count = count;
         }
 
+        AsyncWriteToken(AtmosphereResource resource, List<Object> msg, List<AsyncWriteToken> coalesced) {
+            this.resource = resource;
+            this.msg = msg;
+            this.future = coalesced.get(0).future;
+            this.coalesced = coalesced;
+        }
+
         public void destroy() {
+            if (coalesced != null) {
+                for (AsyncWriteToken t : coalesced) {
+                    t.destroy();
+                }
+                coalesced = null;
+            }
             this.resource = null;
             this.msg = null;
             this.future = null;
             this.originalMessage = null;
+            this.payload = null;
+        }
+
+        /**
+         * Return the sequence number the {@link RingBroadcasterCache} gave to the message, or 0.
+         */
+        long sequence() {
+            return cache instanceof RingBroadcasterCache.Entry ? ((RingBroadcasterCache.Entry) cache).sequence() : 0;
+        }
+
+        /**
+         * Return the sequence number of each coalesced message, in the order of the coalesced List, or null.
+         */
+        long[] sequences() {
+            if (coalesced == null) {
+                return null;
+            }
+            long[] sequences = new long[coalesced.size()];
+            for (int i = 0; i < sequences.length; i++) {
+                sequences[i] = coalesced.get(i).sequence();
+            }
+            return sequences;
         }
 
         public boolean lastBroadcasted() {
@@ -1745,6 +2392,39 @@ public class DefaultBroadcaster implements Broadcaster {
         return writeQueues;
     }
 
+    /**
+     * Limit the messages queued for every {@link AtmosphereResource}.
+     *
+     * @param maxMessages the maximum number of queued messages, -1 for unlimited
+     * @param maxBytes    the maximum size of the queued messages, -1 for unlimited
+     * @param policy      the {@link OVERFLOW_POLICY} applied when a limit is reached
+     * @return this
+     */
+    public DefaultBroadcaster writeQueueLimits(int maxMessages, long maxBytes, OVERFLOW_POLICY policy) {
+        this.writeQueueMaxMessages = maxMessages;
+        this.writeQueueMaxBytes = maxBytes;
+        this.overflowPolicy = policy;
+        return this;
+    }
+
+    /**
+     * Return the number of times a {@link WriteQueue} overflowed.
+     *
+     * @return the number of overflows
+     */
+    public long overflowCount() {
+        return overflowCount.get();
+    }
+
+    /**
+     * Return the number of messages dropped because a {@link WriteQueue} overflowed.
+     *
+     * @return the number of dropped messages
+     */
+    public long droppedCount() {
+        return droppedCount.get();
+    }
+
     public POLICY policy() {
         return policy;
     }
@@ -17,13 +17,19 @@
 package org.atmosphere.cpr;
 
 import org.atmosphere.lifecycle.BroadcasterLifecyclePolicyHandler;
+import org.atmosphere.util.PathIndex;
+import org.atmosphere.util.uri.UriTemplate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.function.Function;
@@ -49,6 +55,8 @@ public class DefaultBroadcasterFactory implements BroadcasterFactory {
     private static final Logger logger = LoggerFactory.getLogger(DefaultBroadcasterFactory.class);
 
     protected final ConcurrentHashMap<Object, Broadcaster> store = new ConcurrentHashMap<Object, Broadcaster>();
+    // The Broadcasters of the store, indexed by the segments of their id.
+    protected final PathIndex<Broadcaster> index = new PathIndex<Broadcaster>();
 
     protected Class<? extends Broadcaster> clazz;
 
@@ -167,14 +175,19 @@ public class DefaultBroadcasterFactory implements BroadcasterFactory {
 
     @Override
     public boolean add(Broadcaster b, Object id) {
-        return (store.put(id, b) == null);
+        Broadcaster previous = store.put(id, b);
+        index.add(id.toString(), b);
+        return previous == null;
     }
 
     @Override
     public boolean remove(Broadcaster b, Object id) {
         boolean removed = store.remove(id, b);
-        if (removed && logger.isDebugEnabled()) {
-            logger.debug("Removing Broadcaster {} factory size now {} ", id, store.size());
+        if (removed) {
+            index.remove(id.toString(), b);
+            if (logger.isDebugEnabled()) {
+                logger.debug("Removing Broadcaster {} factory size now {} ", id, store.size());
+            }
         }
         return removed;
     }
@@ -210,7 +223,9 @@ public class DefaultBroadcasterFactory implements BroadcasterFactory {
 
             if (b.isDestroyed()) {
                 logger.trace("Removing destroyed Broadcaster {}", b.getID());
-                store.remove(b.getID(), b);
+                if (store.remove(b.getID(), b)) {
+                    index.remove(b.getID(), b);
+                }
                 createIfNull = true;
             } else {
                 createIfNull = false;
@@ -250,7 +265,11 @@ public class DefaultBroadcasterFactory implements BroadcasterFactory {
 
     @Override
     public boolean remove(Object id) {
-        return store.remove(id) != null;
+        Broadcaster b = store.remove(id);
+        if (b != null) {
+            index.remove(id.toString(), b);
+        }
+        return b != null;
     }
 
     @Override
@@ -258,6 +277,33 @@ public class DefaultBroadcasterFactory implements BroadcasterFactory {
         return Collections.unmodifiableCollection(store.values());
     }
 
+    /**
+     * Return all {@link Broadcaster} whose {@link Broadcaster#getID()} matches the {@link UriTemplate}. Only the
+     * {@link Broadcaster}s indexed under the literal segments of the template are evaluated, not all the {@link Broadcaster}s
+     * this factory contains.
+     *
+     * @param path a {@link UriTemplate}, like <code>/chat/{room}</code>
+     * @return the matching {@link Broadcaster}s
+     */
+    public List<Broadcaster> lookupAll(String path) {
+        List<Broadcaster> l = new ArrayList<Broadcaster>();
+        final Map<String, String> m = new HashMap<String, String>();
+        UriTemplate t = null;
+        try {
+            t = new UriTemplate(path);
+            for (Broadcaster b : index.candidates(path)) {
+                logger.trace("Trying to map {} to {}", t, b.getID());
+                if (t.match(b.getID(), m)) {
+                    l.add(b);
+                }
+                m.clear();
+            }
+        } finally {
+            if (t != null) t.destroy();
+        }
+        return l;
+    }
+
     @Override
     public synchronized void destroy() {
         // Invalid state
@@ -287,6 +333,7 @@ public class DefaultBroadcasterFactory implements BroadcasterFactory {
         }
         broadcasterListeners.clear();
         store.clear();
+        index.clear();
     }
 
     public void notifyOnPostCreate(Broadcaster b) {
@@ -341,6 +388,7 @@ public class DefaultBroadcasterFactory implements BroadcasterFactory {
         @Override
         public Broadcaster apply(Object id) {
             Broadcaster b = createBroadcaster(c, id);
+            index.add(id.toString(), b);
             if (logger.isTraceEnabled()) {
                 logger.trace("Added Broadcaster {} . Factory size: {}", id, store.size());
             }
@@ -20,11 +20,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
@@ -75,17 +76,26 @@ public class DefaultMetaBroadcaster implements MetaBroadcaster {
         this.config = config;
     }
 
-    protected MetaBroadcasterFuture broadcast(final String path, Object message, int time, TimeUnit unit, boolean delay, boolean cacheMessage) {
-        if (config != null) {
-            Collection<Broadcaster> c = config.getBroadcasterFactory().lookupAll();
+    /**
+     * Return the {@link Broadcaster}s whose {@link Broadcaster#getID()} matches the path.
+     *
+     * @param path a path, with its wildcards already replaced by {@link #MAPPING_REGEX}
+     * @return the matching {@link Broadcaster}s
+     */
+    protected List<Broadcaster> lookup(String path) {
+        BroadcasterFactory factory = config.getBroadcasterFactory();
+        logger.trace("Map {}", path);
 
+        List<Broadcaster> l;
+        if (factory instanceof DefaultBroadcasterFactory) {
+            l = ((DefaultBroadcasterFactory) factory).lookupAll(path);
+        } else {
+            l = new ArrayList<Broadcaster>();
             final Map<String, String> m = new HashMap<String, String>();
-            List<Broadcaster> l = new ArrayList<Broadcaster>();
-            logger.trace("Map {}", path);
             UriTemplate t = null;
             try {
                 t = new UriTemplate(path);
-                for (Broadcaster b : c) {
+                for (Broadcaster b : factory.lookupAll()) {
                     logger.trace("Trying to map {} to {}", t, b.getID());
                     if (t.match(b.getID(), m)) {
                         l.add(b);
@@ -95,14 +105,31 @@ public class DefaultMetaBroadcaster implements MetaBroadcaster {
             } finally {
                 if (t != null) t.destroy();
             }
+        }
+        return l;
+    }
+
+    /**
+     * Cache a message that no {@link Broadcaster} matches.
+     *
+     * @return true if the message has been cached, false if it is lost
+     */
+    private boolean cacheUnmapped(String path, Object message) {
+        if (NoCache.class.isAssignableFrom(cache.getClass())) {
+            logger.warn("No Broadcaster matches {}. Message {} WILL BE LOST. " +
+                    "Make sure you cache it or make sure the Broadcaster exists before.", path, message);
+            return false;
+        }
+        cache.cache(path, message);
+        return true;
+    }
+
+    protected MetaBroadcasterFuture broadcast(final String path, Object message, int time, TimeUnit unit, boolean delay, boolean cacheMessage) {
+        if (config != null) {
+            List<Broadcaster> l = lookup(path);
 
             if (l.isEmpty() && cacheMessage) {
-                if (NoCache.class.isAssignableFrom(cache.getClass())) {
-                    logger.warn("No Broadcaster matches {}. Message {} WILL BE LOST. " +
-                            "Make sure you cache it or make sure the Broadcaster exists before.", path, message);
-                } else {
-                    cache.cache(path, message);
-                }
+                cacheUnmapped(path, message);
                 return E;
             }
 
@@ -126,7 +153,10 @@ public class DefaultMetaBroadcaster implements MetaBroadcaster {
     }
 
     protected MetaBroadcasterFuture map(String path, Object message, int time, TimeUnit unit, boolean delay, boolean cacheMessage) {
+        return broadcast(normalize(path), message, time, unit, delay, cacheMessage);
+    }
 
+    private static String normalize(String path) {
         if (path == null || path.isEmpty()) {
             throw new NullPointerException();
         }
@@ -138,8 +168,7 @@ public class DefaultMetaBroadcaster implements MetaBroadcaster {
         if (path.equals("/")) {
             path += MAPPING_REGEX;
         }
-
-        return broadcast(path, message, time, unit, delay, cacheMessage);
+        return path;
     }
 
     @Override
@@ -152,6 +181,32 @@ public class DefaultMetaBroadcaster implements MetaBroadcaster {
         return map(broadcasterID, message, -1, null, false, cacheMessage);
     }
 
+    @Override
+    public CompletionStage<BroadcastResult> broadcastToAsync(String broadcasterID, Object message) {
+        String path = normalize(broadcasterID);
+        final List<Broadcaster> l = config == null ? Collections.<Broadcaster>emptyList() : lookup(path);
+        if (l.isEmpty()) {
+            boolean cached = config != null && cacheUnmapped(path, message);
+            return CompletableFuture.completedFuture(new BroadcastResult(message, 0, 0, cached ? 1 : 0, 0));
+        }
+
+        // Sum the counts of every Broadcaster
+        CompletionStage<BroadcastResult> result = l.get(0).broadcastAsync(message);
+        for (Broadcaster b : l.subList(1, l.size())) {
+            result = result.thenCombine(b.broadcastAsync(message), BroadcastResult::merge);
+        }
+        return result.whenComplete((r, t) -> {
+            Broadcaster last = l.get(l.size() - 1);
+            for (BroadcasterListener listener : broadcasterListeners) {
+                try {
+                    listener.onComplete(last);
+                } catch (Exception ex) {
+                    logger.warn("", ex);
+                }
+            }
+        });
+    }
+
     /**
      * Flush the cached messages.
      * @return this
@@ -41,6 +41,9 @@ public class Deliver implements Serializable {
     // https://github.com/Atmosphere/atmosphere/issues/864
     protected CacheMessage cache;
     protected boolean async;
+    protected transient BroadcastPayload payload;
+    // System.nanoTime() when the message was broadcasted.
+    protected long created;
 
     public Deliver(TYPE type,
                    Object originalMessage,
@@ -62,6 +65,7 @@ public class Deliver implements Serializable {
         this.cache = cache;
         this.resources = resources;
         this.async = async;
+        this.created = System.nanoTime();
     }
 
 
@@ -75,10 +79,14 @@ public class Deliver implements Serializable {
 
     public Deliver(AtmosphereResource r, Deliver e) {
         this(TYPE.RESOURCE, e.originalMessage, e.message, r, e.future, e.cache, e.writeLocally, null, e.async);
+        this.payload = e.payload;
+        this.created = e.created;
     }
 
     public Deliver(AtmosphereResource r, Deliver e, CacheMessage cacheMessage) {
         this(TYPE.RESOURCE, e.originalMessage, e.message, r, e.future, cacheMessage, e.writeLocally, null, e.async);
+        this.payload = e.payload;
+        this.created = e.created;
     }
 
     public Deliver(Object message, Set<AtmosphereResource> resources, BroadcasterFuture<?> future, Object originalMessage) {
@@ -150,6 +158,19 @@ public class Deliver implements Serializable {
         this.cache = cache;
     }
 
+    /**
+     * Return the {@link BroadcastPayload} shared by all {@link AtmosphereResource}s, or null if the message is not yet processed.
+     *
+     * @return the {@link BroadcastPayload}
+     */
+    public BroadcastPayload getPayload() {
+        return payload;
+    }
+
+    public void setPayload(BroadcastPayload payload) {
+        this.payload = payload;
+    }
+
     public boolean isAsync() {
         return async;
     }
@@ -98,4 +98,6 @@ public interface HeaderConfig {
 
     String FORCE_BINARY = "application/octet-stream";
 
+    String LAST_EVENT_ID = "Last-Event-ID";
+
 }
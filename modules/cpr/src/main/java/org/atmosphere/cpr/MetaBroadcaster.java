@@ -20,6 +20,7 @@ import org.atmosphere.util.ExecutorsFactory;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
@@ -69,6 +70,21 @@ public interface MetaBroadcaster extends AtmosphereConfigAware {
      */
     Future<List<Broadcaster>> broadcastTo(String broadcasterID, Object message, boolean cacheMessage);
 
+    /**
+     * Broadcast the message to all Broadcasters whose {@link org.atmosphere.cpr.Broadcaster#getID()} matches the
+     * broadcasterID value, without requiring a Thread to wait for the completion.
+     *
+     * @param broadcasterID a String (or path) that can potentially match a {@link org.atmosphere.cpr.Broadcaster#getID()}
+     * @param message       a message to be broadcasted
+     * @return a {@link CompletionStage} completed with the sum of the {@link BroadcastResult} of every matching
+     * Broadcaster, once they have all completed. This default implementation only knows when the {@link #broadcastTo(String, Object)}
+     * Future completes, the {@link BroadcastResult} isn't {@link BroadcastResult#isCounted() counted}.
+     */
+    default CompletionStage<BroadcastResult> broadcastToAsync(String broadcasterID, final Object message) {
+        return BroadcasterFuture.completion(broadcastTo(broadcasterID, message), null)
+                .thenApply(r -> BroadcastResult.uncounted(message));
+    }
+
     /**
      * Broadcast the message at a fixed rate to all Broadcasters whose {@link org.atmosphere.cpr.Broadcaster#getID()}
      * matches the broadcasterID value. This operation will invoke {@link Broadcaster#scheduleFixedBroadcast(Object, long, java.util.concurrent.TimeUnit)}}
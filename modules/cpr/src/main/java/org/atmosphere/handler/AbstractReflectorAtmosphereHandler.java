@@ -23,10 +23,12 @@ import org.atmosphere.cpr.AtmosphereHandler;
 import org.atmosphere.cpr.AtmosphereRequest;
 import org.atmosphere.cpr.AtmosphereResource;
 import org.atmosphere.cpr.AtmosphereResourceEvent;
+import org.atmosphere.cpr.AtmosphereResourceEventImpl;
 import org.atmosphere.cpr.AtmosphereResourceImpl;
 import org.atmosphere.cpr.AtmosphereResponse;
 import org.atmosphere.cpr.AtmosphereResponseImpl;
 import org.atmosphere.cpr.AtmosphereServletProcessor;
+import org.atmosphere.cpr.BroadcastPayload;
 import org.atmosphere.cpr.Broadcaster;
 import org.atmosphere.util.IOUtils;
 import org.slf4j.Logger;
@@ -35,6 +37,7 @@ import org.slf4j.LoggerFactory;
 import javax.servlet.ServletException;
 import javax.servlet.ServletOutputStream;
 import java.io.IOException;
+import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -81,11 +84,22 @@ public abstract class AbstractReflectorAtmosphereHandler implements AtmosphereSe
             return;
         }
 
+        long[] sequences = message instanceof List ? sequences(event, ((List<?>) message).size()) : null;
+        if (message instanceof List && isCoalesced(event)) {
+            List<?> coalesced = (List<?>) message;
+            message = flatten(coalesced);
+            if (sequences != null && message != coalesced) {
+                sequences = flatten(coalesced, sequences);
+            }
+        }
+
         if (resource.getSerializer() != null) {
             try {
 
                 if (message instanceof List) {
+                    int index = 0;
                     for (Object s : (List<Object>) message) {
+                        sequence(event, sequences, index++);
                         resource.getSerializer().write(resource.getResponse().getOutputStream(), s);
                     }
                 } else {
@@ -117,8 +131,10 @@ public abstract class AbstractReflectorAtmosphereHandler implements AtmosphereSe
                 Iterator<Object> i = ((List) message).iterator();
                 try {
                     Object s;
+                    int index = 0;
                     while (i.hasNext()) {
                         s = i.next();
+                        sequence(event, sequences, index++);
                         if (String.class.isAssignableFrom(s.getClass())) {
                             if (isUsingStream) {
                                 r.getOutputStream().write(s.toString().getBytes(r.getCharacterEncoding()));
@@ -152,7 +168,7 @@ public abstract class AbstractReflectorAtmosphereHandler implements AtmosphereSe
                 }
             } else {
                 if (isUsingStream) {
-                    r.getOutputStream().write(writeAsBytes ? (byte[]) message : message.toString().getBytes(r.getCharacterEncoding()));
+                    r.getOutputStream().write(writeAsBytes ? (byte[]) message : toBytes(event, message, r.getCharacterEncoding()));
                     r.getOutputStream().flush();
                 } else {
                     r.getWriter().write(message.toString());
@@ -163,6 +179,97 @@ public abstract class AbstractReflectorAtmosphereHandler implements AtmosphereSe
         postStateChange(event);
     }
 
+    /**
+     * Return the sequence number of each message of the event's {@link List}, or null.
+     */
+    private static long[] sequences(AtmosphereResourceEvent event, int size) {
+        if (event instanceof AtmosphereResourceEventImpl) {
+            long[] sequences = ((AtmosphereResourceEventImpl) event).sequences();
+            return sequences != null && sequences.length == size ? sequences : null;
+        }
+        return null;
+    }
+
+    /**
+     * Give the event the sequence number of the message about to be written, so every message of a {@link List} is
+     * written with its own id, see {@link org.atmosphere.interceptor.SSEAtmosphereInterceptor}.
+     */
+    private static void sequence(AtmosphereResourceEvent event, long[] sequences, int index) {
+        if (sequences != null) {
+            ((AtmosphereResourceEventImpl) event).sequence(sequences[index]);
+        }
+    }
+
+    private static boolean isCoalesced(AtmosphereResourceEvent event) {
+        return event instanceof AtmosphereResourceEventImpl && ((AtmosphereResourceEventImpl) event).isCoalesced();
+    }
+
+    /**
+     * Expand the {@link List}s broadcasted by the application, which a coalesced event holds as single messages, so
+     * they are written as they would be without coalescing.
+     */
+    private static List<?> flatten(List<?> coalesced) {
+        boolean nested = false;
+        for (Object o : coalesced) {
+            nested |= o instanceof List;
+        }
+        if (!nested) {
+            return coalesced;
+        }
+
+        List<Object> messages = new ArrayList<Object>(coalesced.size());
+        for (Object o : coalesced) {
+            if (o instanceof List) {
+                messages.addAll((List<?>) o);
+            } else {
+                messages.add(o);
+            }
+        }
+        return messages;
+    }
+
+    /**
+     * Expand the sequence numbers as {@link #flatten(List)} expands the messages. Only the last message of an expanded
+     * {@link List} carries its sequence number, so a client disconnecting in the middle of it gets all of it back.
+     */
+    private static long[] flatten(List<?> coalesced, long[] sequences) {
+        int size = 0;
+        for (Object o : coalesced) {
+            size += o instanceof List ? ((List<?>) o).size() : 1;
+        }
+
+        long[] expanded = new long[size];
+        int index = 0;
+        for (int i = 0; i < sequences.length; i++) {
+            Object o = coalesced.get(i);
+            index += o instanceof List ? ((List<?>) o).size() : 1;
+            if (index > 0) {
+                expanded[index - 1] = sequences[i];
+            }
+        }
+        return expanded;
+    }
+
+    /**
+     * Convert the message into bytes. If the message is the one shared by all {@link AtmosphereResource}s of the current
+     * broadcast, the bytes computed for the first {@link AtmosphereResource} are re-used.
+     *
+     * @param event   the {@link AtmosphereResourceEvent}
+     * @param message the message to write
+     * @param charset the response's charset
+     * @return the bytes to write. The array must not be modified.
+     * @throws UnsupportedEncodingException
+     */
+    protected byte[] toBytes(AtmosphereResourceEvent event, Object message, String charset) throws UnsupportedEncodingException {
+        if (event instanceof AtmosphereResourceEventImpl) {
+            BroadcastPayload payload = ((AtmosphereResourceEventImpl) event).payload();
+            if (payload != null && payload.matches(message)) {
+                return payload.bytes(charset);
+            }
+        }
+        return message.toString().getBytes(charset);
+    }
+
     protected void write(AtmosphereResourceEvent event, ServletOutputStream o, byte[] data) throws IOException {
         if (useTwoStepWrite(event) && data.length > 1) {
             twoStepWrite(o, data);
@@ -17,6 +17,7 @@ package org.atmosphere.interceptor;
 
 import org.atmosphere.cpr.*;
 import org.atmosphere.util.ExecutorsFactory;
+import org.atmosphere.util.HashedTimerWheel;
 import org.atmosphere.util.IOUtils;
 import org.atmosphere.util.Utils;
 import org.slf4j.Logger;
@@ -25,9 +26,6 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.util.Arrays;
-import java.util.concurrent.Callable;
-import java.util.concurrent.Future;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -59,7 +57,7 @@ public class HeartbeatInterceptor extends AtmosphereInterceptorAdapter {
     public final static String HEARTBEAT_FUTURE = "heartbeat.future";
 
     private static final Logger logger = LoggerFactory.getLogger(HeartbeatInterceptor.class);
-    private ScheduledExecutorService heartBeat;
+    private HashedTimerWheel heartBeat;
     private byte[] paddingBytes = "X".getBytes();
     private boolean resumeOnHeartbeat;
     private int heartbeatFrequencyInSeconds = 60;
@@ -152,7 +150,7 @@ public class HeartbeatInterceptor extends AtmosphereInterceptorAdapter {
             flushBuffer = Boolean.parseBoolean(s);
         }
 
-        heartBeat = ExecutorsFactory.getScheduler(config);
+        heartBeat = ExecutorsFactory.getTimerWheel(config);
 
         resumeOnHeartbeat = config.getInitParameter(RESUME_ON_HEARTBEAT, true);
         logger.info("HeartbeatInterceptor configured with padding value '{}', client frequency {} seconds and server frequency {} seconds", new String[]
@@ -269,7 +267,7 @@ public class HeartbeatInterceptor extends AtmosphereInterceptorAdapter {
 
                     @Override
                     public byte[] transformPayload(AtmosphereResponse response, byte[] responseDraft, byte[] data) throws IOException {
-                        cancelF(request);
+                        touchF(request);
                         return responseDraft;
                     }
 
@@ -319,8 +317,8 @@ public class HeartbeatInterceptor extends AtmosphereInterceptorAdapter {
 
     void cancelF(AtmosphereRequest request) {
         try {
-            Future<?> f = (Future<?>) request.getAttribute(HEARTBEAT_FUTURE);
-            if (f != null) f.cancel(false);
+            HashedTimerWheel.Timeout f = (HashedTimerWheel.Timeout) request.getAttribute(HEARTBEAT_FUTURE);
+            if (f != null) f.cancel();
             request.removeAttribute(HEARTBEAT_FUTURE);
         } catch (Exception ex) {
             // https://github.com/Atmosphere/atmosphere/issues/1503
@@ -328,10 +326,20 @@ public class HeartbeatInterceptor extends AtmosphereInterceptorAdapter {
         }
     }
 
+    boolean touchF(AtmosphereRequest request) {
+        try {
+            HashedTimerWheel.Timeout f = (HashedTimerWheel.Timeout) request.getAttribute(HEARTBEAT_FUTURE);
+            return f != null && f.touch();
+        } catch (Exception ex) {
+            logger.trace("", ex);
+            return false;
+        }
+    }
+
     /**
      * <p>
      * Configures the heartbeat sent by the server in an interval in seconds specified in parameter for the given
-     * resource.
+     * resource. If a heartbeat is already pending, its deadline is pushed back instead.
      * </p>
      *
      * @param interval the interval in seconds
@@ -346,9 +354,14 @@ public class HeartbeatInterceptor extends AtmosphereInterceptorAdapter {
                                       final AtmosphereResponse response) {
 
         try {
-            request.setAttribute(HEARTBEAT_FUTURE, heartBeat.schedule(new Callable<Object>() {
+            HashedTimerWheel.Timeout f = (HashedTimerWheel.Timeout) request.getAttribute(HEARTBEAT_FUTURE);
+            if (f != null && f.extend(interval, TimeUnit.SECONDS)) {
+                return this;
+            }
+
+            request.setAttribute(HEARTBEAT_FUTURE, heartBeat.schedule(new Runnable() {
                 @Override
-                public Object call() throws Exception {
+                public void run() {
                     synchronized (r) {
                         if (AtmosphereResourceImpl.class.cast(r).isInScope() && r.isSuspended()) {
                             try {
@@ -367,7 +380,6 @@ public class HeartbeatInterceptor extends AtmosphereInterceptorAdapter {
                             cancelF(request);
                         }
                     }
-                    return null;
                 }
             }, interval, TimeUnit.SECONDS));
         } catch (Throwable t) {
@@ -20,32 +20,42 @@ import org.atmosphere.cpr.AsynchronousProcessor;
 import org.atmosphere.cpr.AtmosphereConfig;
 import org.atmosphere.cpr.AtmosphereInterceptorAdapter;
 import org.atmosphere.cpr.AtmosphereRequest;
+import org.atmosphere.cpr.AtmosphereRequestImpl;
 import org.atmosphere.cpr.AtmosphereResource;
 import org.atmosphere.cpr.AtmosphereResourceImpl;
 import org.atmosphere.util.ExecutorsFactory;
+import org.atmosphere.util.HashedTimerWheel;
 import org.atmosphere.util.Utils;
 import org.atmosphere.websocket.WebSocket;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 
+import static org.atmosphere.cpr.ApplicationConfig.IDLE_RESOURCE_CHECK_INTERVAL;
 import static org.atmosphere.cpr.ApplicationConfig.MAX_INACTIVE;
 
 /**
  * An Interceptor that track idle {@link AtmosphereResource} and close it. This interceptor is useful for
  * tracking disconnected client that aren't detected by the network. A good example is a wireless connection
  * that goes down. In that case Tomcat and Jetty fail to detects the disconnect.
+ * <p/>
+ * Every tracked {@link AtmosphereResource} has a {@link HashedTimerWheel.Timeout} expiring at its idle deadline. A write
+ * only records the time of the last activity, the deadline is checked and pushed back when the timeout expires. Hence
+ * the work done is proportional to the number of connections reaching their deadline, not to the number of connections.
  *
  * @author Jeanfrancois Arcand
  */
 public class IdleResourceInterceptor extends AtmosphereInterceptorAdapter {
 
+    private final static long DEFAULT_CHECK_INTERVAL = 2000;
+
     private final Logger logger = LoggerFactory.getLogger(IdleResourceInterceptor.class);
-    private long maxInactiveTime = -1;
+    private volatile long maxInactiveTime = -1;
+    private long checkInterval = DEFAULT_CHECK_INTERVAL;
     private AtmosphereConfig config;
-    private Future<?> future;
+    private volatile HashedTimerWheel wheel;
 
     public void configure(AtmosphereConfig config) {
         this.config = config;
@@ -54,74 +64,136 @@ public class IdleResourceInterceptor extends AtmosphereInterceptorAdapter {
         if (maxInactive != null) {
             maxInactiveTime = Long.parseLong(maxInactive);
         }
+        checkInterval = config.getInitParameter(IDLE_RESOURCE_CHECK_INTERVAL, (int) DEFAULT_CHECK_INTERVAL);
 
         start();
     }
 
     private void start() {
-        if (future != null) {
-            future.cancel(false);
-        }
-
-        if (maxInactiveTime > 0) {
+        if (maxInactiveTime > 0 && config != null) {
             logger.info("{} started with idle timeout set to {}", IdleResourceInterceptor.class.getSimpleName(), maxInactiveTime);
-            future = ExecutorsFactory.getScheduler(config).scheduleAtFixedRate(new Runnable() {
-                public void run() {
-                    idleResources();
-                }
-            }, 0, 2, TimeUnit.SECONDS);
+            wheel = ExecutorsFactory.getTimerWheel(config);
         }
     }
 
-    protected void idleResources() {
-        if (logger.isTraceEnabled()) {
-            logger.trace("{} monitoring {} AtmosphereResources", getClass().getSimpleName(), config.resourcesFactory().findAll().size());
+    /**
+     * Check if the {@link AtmosphereResource} has been idle for more than {@link #maxInactiveTime()} and close it,
+     * otherwise check it again at its next deadline.
+     *
+     * @param r an {@link AtmosphereResource}
+     */
+    protected void check(AtmosphereResource r) {
+        AtmosphereResourceImpl impl = AtmosphereResourceImpl.class.cast(r);
+        // Stop tracking resources which are gone, the next request will track them again.
+        if (wheel == null || maxInactiveTime <= 0 || impl.isCancelled() || !impl.isInScope()
+                || config.resourcesFactory().find(r.uuid()) == null) {
+            return;
         }
 
-        for (AtmosphereResource r : config.resourcesFactory().findAll()) {
+        AtmosphereRequest req = impl.getRequest(false);
+        try {
+            long l = lastActivity(req);
+            if (l == AtmosphereRequestImpl.NO_ACTIVITY) {
+                logger.warn("Invalid state {}", r);
+                r.removeFromAllBroadcasters();
+                config.resourcesFactory().unRegisterUuidForFindCandidate(r);
+                return;
+            }
 
-            if (Utils.pollableTransport(r.transport())) {
-                continue;
+            if (l < 0) {
+                // Already closed
+                return;
             }
 
-            AtmosphereRequest req = AtmosphereResourceImpl.class.cast(r).getRequest(false);
-            try {
-                if (req.getAttribute(MAX_INACTIVE) == null) {
-                    logger.warn("Invalid state {}", r);
-                    r.removeFromAllBroadcasters();
-                    config.resourcesFactory().unRegisterUuidForFindCandidate(r);
-                    continue;
-                }
+            long idle = System.currentTimeMillis() - l;
+            if (logger.isTraceEnabled()) {
+                logger.trace("Expiring {} in {}", r.uuid(), maxInactiveTime - idle);
+            }
 
-                long l = (Long) req.getAttribute(MAX_INACTIVE);
+            if (idle >= maxInactiveTime) {
+                closeIdleResource(r);
+            } else {
+                schedule(impl, Math.max(maxInactiveTime - idle, checkInterval));
+            }
+        } catch (Throwable e) {
+            logger.warn("IdleResourceInterceptor", e);
+        }
+    }
 
-                if (logger.isTraceEnabled() && l > 0) {
-                    logger.trace("Expiring {} in {}", r.uuid(), System.currentTimeMillis() - l);
-                }
+    /**
+     * Close an idle {@link AtmosphereResource}.
+     *
+     * @param r an {@link AtmosphereResource}
+     */
+    protected void closeIdleResource(AtmosphereResource r) {
+        AtmosphereResourceImpl impl = AtmosphereResourceImpl.class.cast(r);
+        AtmosphereRequest req = impl.getRequest(false);
+        try {
+            req.setAttribute(MAX_INACTIVE, (long) -1);
+
+            logger.debug("IdleResourceInterceptor disconnecting {}", r);
+            HashedTimerWheel.Timeout f = (HashedTimerWheel.Timeout) req.getAttribute(HeartbeatInterceptor.HEARTBEAT_FUTURE);
+            if (f != null) f.cancel();
+            req.removeAttribute(HeartbeatInterceptor.HEARTBEAT_FUTURE);
+
+            WebSocket webSocket = impl.webSocket();
+            if (webSocket != null) {
+                webSocket.close();
+            } else {
+                AsynchronousProcessor.class.cast(config.framework().getAsyncSupport()).endRequest(impl, true);
+            }
+        } finally {
+            r.removeFromAllBroadcasters();
+            config.resourcesFactory().unRegisterUuidForFindCandidate(r);
+        }
+    }
 
-                if (l > 0 && System.currentTimeMillis() - l > maxInactiveTime ) {
-                    try {
-                        req.setAttribute(MAX_INACTIVE, (long) -1);
-
-                        logger.debug("IdleResourceInterceptor disconnecting {}", r);
-                        Future<?> f = (Future<?>) req.getAttribute(HeartbeatInterceptor.HEARTBEAT_FUTURE);
-                        if (f != null) f.cancel(false);
-                        req.removeAttribute(HeartbeatInterceptor.HEARTBEAT_FUTURE);
-
-                        WebSocket webSocket = AtmosphereResourceImpl.class.cast(r).webSocket();
-                        if (webSocket != null) {
-                            webSocket.close();
-                        } else {
-                            AsynchronousProcessor.class.cast(config.framework().getAsyncSupport()).endRequest(AtmosphereResourceImpl.class.cast(r), true);
-                        }
-                    } finally {
-                        r.removeFromAllBroadcasters();
-                        config.resourcesFactory().unRegisterUuidForFindCandidate(r);
-                    }
+    /**
+     * Return the time of the last activity, read from the field of an {@link AtmosphereRequestImpl} or else from the
+     * {@link org.atmosphere.cpr.ApplicationConfig#MAX_INACTIVE} attribute.
+     */
+    private static long lastActivity(AtmosphereRequest req) {
+        if (req instanceof AtmosphereRequestImpl) {
+            return ((AtmosphereRequestImpl) req).lastActivity();
+        }
+        Object o = req.getAttribute(MAX_INACTIVE);
+        return o instanceof Long ? (Long) o : AtmosphereRequestImpl.NO_ACTIVITY;
+    }
+
+    private static void lastActivity(AtmosphereRequest req, long time) {
+        if (req instanceof AtmosphereRequestImpl) {
+            ((AtmosphereRequestImpl) req).lastActivity(time);
+        } else {
+            req.setAttribute(MAX_INACTIVE, time);
+        }
+    }
+
+    /**
+     * Schedule the next check of the {@link AtmosphereResource}, unless one is already pending. The expired
+     * {@link HashedTimerWheel.Timeout} is replaced atomically, hence a resource never has more than one.
+     */
+    private void schedule(final AtmosphereResourceImpl r, long delay) {
+        HashedTimerWheel w = wheel;
+        if (w == null) return;
+
+        HashedTimerWheel.Timeout current = r.idleTimeout();
+        if (current != null && !current.isExpired() && !current.isCancelled()) {
+            // The pending check reads the last activity when it expires.
+            return;
+        }
+
+        try {
+            HashedTimerWheel.Timeout t = w.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    check(r);
                 }
-            } catch (Throwable e) {
-                logger.warn("IdleResourceInterceptor", e);
+            }, delay, TimeUnit.MILLISECONDS);
+            if (!r.idleTimeout(current, t)) {
+                t.cancel();
             }
+        } catch (RejectedExecutionException ex) {
+            logger.trace("Unable to track {}", r.uuid(), ex);
         }
     }
 
@@ -135,10 +207,26 @@ public class IdleResourceInterceptor extends AtmosphereInterceptorAdapter {
         return this;
     }
 
+    /**
+     * Return the minimum time, in milliseconds, between two checks of the same {@link AtmosphereResource}.
+     *
+     * @return the check interval
+     */
+    public long checkInterval() {
+        return checkInterval;
+    }
+
+    public IdleResourceInterceptor checkInterval(long checkInterval) {
+        this.checkInterval = checkInterval;
+        return this;
+    }
+
     @Override
     public Action inspect(AtmosphereResource r) {
         if (maxInactiveTime > 0 && !Utils.pollableTransport(r.transport())) {
-            AtmosphereResourceImpl.class.cast(r).getRequest(false).setAttribute(MAX_INACTIVE, System.currentTimeMillis());
+            AtmosphereResourceImpl impl = AtmosphereResourceImpl.class.cast(r);
+            lastActivity(impl.getRequest(false), System.currentTimeMillis());
+            schedule(impl, maxInactiveTime);
         }
         return Action.CONTINUE;
     }
@@ -150,10 +238,8 @@ public class IdleResourceInterceptor extends AtmosphereInterceptorAdapter {
 
     @Override
     public void destroy() {
-        if (future != null) {
-            future.cancel(true);
-        }
+        // Pending timeouts are discarded with the timer wheel, a late check returns early.
+        wheel = null;
     }
 
 }
-
@@ -25,6 +25,7 @@ import org.atmosphere.cpr.AtmosphereInterceptorWriter;
 import org.atmosphere.cpr.AtmosphereRequest;
 import org.atmosphere.cpr.AtmosphereResource;
 import org.atmosphere.cpr.AtmosphereResourceEvent;
+import org.atmosphere.cpr.AtmosphereResourceEventImpl;
 import org.atmosphere.cpr.AtmosphereResponse;
 import org.atmosphere.util.Utils;
 import org.slf4j.Logger;
@@ -119,6 +120,11 @@ public class SSEAtmosphereInterceptor extends AtmosphereInterceptorAdapter {
         }
     }
 
+    private static long sequence(AtmosphereResource r) {
+        AtmosphereResourceEvent e = r.getAtmosphereResourceEvent();
+        return e instanceof AtmosphereResourceEventImpl ? ((AtmosphereResourceEventImpl) e).sequence() : 0;
+    }
+
     @Override
     public Action inspect(final AtmosphereResource r) {
 
@@ -149,7 +155,11 @@ public class SSEAtmosphereInterceptor extends AtmosphereInterceptorAdapter {
                         // The CALLBACK_JAVASCRIPT_PROTOCOL may be called by a framework running on top of Atmosphere
                         // In that case, we must pad/protocol indenendently of the state of the AtmosphereResource
                         if (!noPadding || r.getRequest().getAttribute(CALLBACK_JAVASCRIPT_PROTOCOL) != null) {
-                            // write other meta info such as (id, event, etc)?
+                            // The sequence number of a cached message, sent back in the Last-Event-ID header on reconnect.
+                            long sequence = sequence(r);
+                            if (sequence > 0) {
+                                response.write(("id:" + sequence + "\r\n").getBytes(), true);
+                            }
                             response.write(DATA, true);
                         }
                     }
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2008-2021 Async-IO.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atmosphere.metrics;
+
+import org.atmosphere.cache.AbstractBroadcasterCache;
+import org.atmosphere.cache.RingBroadcasterCache;
+import org.atmosphere.cache.UUIDBroadcasterCache;
+import org.atmosphere.cpr.Broadcaster;
+import org.atmosphere.cpr.BroadcasterCache;
+import org.atmosphere.cpr.BroadcasterConfig;
+import org.atmosphere.cpr.DefaultBroadcaster;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The counters of a {@link Broadcaster}. The queues and the cache are read from the {@link Broadcaster} when the
+ * attributes are read.
+ */
+class BroadcasterMetrics implements BroadcasterMetricsMXBean {
+
+    private final Broadcaster broadcaster;
+    final LongAdder broadcasts = new LongAdder();
+    final LongAdder cacheHits = new LongAdder();
+    final LongAdder cacheMisses = new LongAdder();
+    final LongAdder cacheEvictions = new LongAdder();
+    final Histogram latency = new Histogram();
+
+    BroadcasterMetrics(Broadcaster broadcaster) {
+        this.broadcaster = broadcaster;
+    }
+
+    void onDeliver(long latencyNanos) {
+        latency.record(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+    }
+
+    void onCacheRetrieve(int messages) {
+        if (messages > 0) {
+            cacheHits.increment();
+        } else {
+            cacheMisses.increment();
+        }
+    }
+
+    @Override
+    public int getResources() {
+        return broadcaster.getAtmosphereResources().size();
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return broadcaster instanceof DefaultBroadcaster ? ((DefaultBroadcaster) broadcaster).messages().size() : 0;
+    }
+
+    @Override
+    public int getWriteQueueDepth() {
+        if (!(broadcaster instanceof DefaultBroadcaster)) return 0;
+
+        int depth = 0;
+        for (DefaultBroadcaster.WriteQueue q : ((DefaultBroadcaster) broadcaster).writeQueues().values()) {
+            depth += q.size();
+        }
+        return depth;
+    }
+
+    @Override
+    public long getWriteQueueOverflows() {
+        return broadcaster instanceof DefaultBroadcaster ? ((DefaultBroadcaster) broadcaster).overflowCount() : 0;
+    }
+
+    @Override
+    public long getDroppedMessages() {
+        return broadcaster instanceof DefaultBroadcaster ? ((DefaultBroadcaster) broadcaster).droppedCount() : 0;
+    }
+
+    @Override
+    public long getBroadcasts() {
+        return broadcasts.sum();
+    }
+
+    @Override
+    public long getDeliveries() {
+        return latency.count();
+    }
+
+    @Override
+    public double getDeliveryLatencyMean() {
+        return latency.mean();
+    }
+
+    @Override
+    public long getDeliveryLatencyMedian() {
+        return latency.percentile(50);
+    }
+
+    @Override
+    public long getDeliveryLatency99thPercentile() {
+        return latency.percentile(99);
+    }
+
+    @Override
+    public long getDeliveryLatency999thPercentile() {
+        return latency.percentile(99.9);
+    }
+
+    @Override
+    public long getDeliveryLatencyMax() {
+        return latency.max();
+    }
+
+    @Override
+    public int getCacheSize() {
+        BroadcasterConfig config = broadcaster.getBroadcasterConfig();
+        BroadcasterCache cache = config == null ? null : config.getBroadcasterCache();
+        if (cache instanceof RingBroadcasterCache) {
+            return ((RingBroadcasterCache) cache).size(broadcaster.getID());
+        } else if (cache instanceof UUIDBroadcasterCache) {
+            return ((UUIDBroadcasterCache) cache).size();
+        } else if (cache instanceof AbstractBroadcasterCache) {
+            return ((AbstractBroadcasterCache) cache).size();
+        }
+        return 0;
+    }
+
+    @Override
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    @Override
+    public long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    @Override
+    public long getCacheEvictions() {
+        return cacheEvictions.sum();
+    }
+}
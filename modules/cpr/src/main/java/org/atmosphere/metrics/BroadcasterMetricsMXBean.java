@@ -0,0 +1,89 @@
+/*
+ * Copyright 2008-2021 Async-IO.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atmosphere.metrics;
+
+/**
+ * The metrics of a {@link org.atmosphere.cpr.Broadcaster}, exported by {@link DefaultAtmosphereMetrics} under
+ * <code>org.atmosphere:type=Broadcaster</code>. Latencies are the time between the broadcast of a message and its
+ * delivery to an {@link org.atmosphere.cpr.AtmosphereResource}, in microseconds.
+ */
+public interface BroadcasterMetricsMXBean {
+
+    /**
+     * @return the number of {@link org.atmosphere.cpr.AtmosphereResource}s associated with the Broadcaster
+     */
+    int getResources();
+
+    /**
+     * @return the number of broadcasted messages waiting to be dispatched
+     */
+    int getQueueDepth();
+
+    /**
+     * @return the number of messages waiting to be written to the {@link org.atmosphere.cpr.AtmosphereResource}s
+     */
+    int getWriteQueueDepth();
+
+    /**
+     * @return the number of times a write queue overflowed
+     */
+    long getWriteQueueOverflows();
+
+    /**
+     * @return the number of messages dropped because a write queue overflowed
+     */
+    long getDroppedMessages();
+
+    /**
+     * @return the number of broadcasted messages
+     */
+    long getBroadcasts();
+
+    /**
+     * @return the number of messages delivered to an {@link org.atmosphere.cpr.AtmosphereResource}
+     */
+    long getDeliveries();
+
+    double getDeliveryLatencyMean();
+
+    long getDeliveryLatencyMedian();
+
+    long getDeliveryLatency99thPercentile();
+
+    long getDeliveryLatency999thPercentile();
+
+    long getDeliveryLatencyMax();
+
+    /**
+     * @return the number of messages in the {@link org.atmosphere.cpr.BroadcasterCache}, or 0 if unknown
+     */
+    int getCacheSize();
+
+    /**
+     * @return the number of times cached messages have been retrieved
+     */
+    long getCacheHits();
+
+    /**
+     * @return the number of times the {@link org.atmosphere.cpr.BroadcasterCache} was looked up and had no message
+     */
+    long getCacheMisses();
+
+    /**
+     * @return the number of messages evicted from the {@link org.atmosphere.cpr.BroadcasterCache} before being retrieved
+     */
+    long getCacheEvictions();
+}
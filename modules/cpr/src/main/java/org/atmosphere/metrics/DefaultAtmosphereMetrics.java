@@ -0,0 +1,237 @@
+/*
+ * Copyright 2008-2021 Async-IO.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atmosphere.metrics;
+
+import org.atmosphere.cpr.AtmosphereConfig;
+import org.atmosphere.cpr.AtmosphereMetrics;
+import org.atmosphere.cpr.AtmosphereResource;
+import org.atmosphere.cpr.Broadcaster;
+import org.atmosphere.cpr.BroadcasterFactory;
+import org.atmosphere.cpr.BroadcasterListenerAdapter;
+import org.atmosphere.websocket.WebSocket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletContext;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An {@link AtmosphereMetrics} that counts the events with {@link java.util.concurrent.atomic.LongAdder}s, records the
+ * delivery latencies in {@link Histogram}s and exports them as JMX MXBeans:
+ * <ul>
+ * <li><code>org.atmosphere:type=AtmosphereFramework,context=...,servlet=...</code>, see {@link FrameworkMetricsMXBean}</li>
+ * <li><code>org.atmosphere:type=Broadcaster,context=...,servlet=...,name=...</code> for every {@link Broadcaster}, see {@link BroadcasterMetricsMXBean}</li>
+ * </ul>
+ * Install it using {@link org.atmosphere.cpr.ApplicationConfig#METRICS}.
+ */
+public class DefaultAtmosphereMetrics implements AtmosphereMetrics {
+
+    private static final Logger logger = LoggerFactory.getLogger(DefaultAtmosphereMetrics.class);
+
+    public static final String DOMAIN = "org.atmosphere";
+
+    private final Map<String, BroadcasterMetrics> broadcasters = new ConcurrentHashMap<>();
+    private FrameworkMetrics framework;
+    private MBeanServer server;
+    private String scope;
+
+    @Override
+    public void configure(AtmosphereConfig config) {
+        framework = new FrameworkMetrics(config, broadcasters.values());
+        server = ManagementFactory.getPlatformMBeanServer();
+        scope = scope(config);
+        register(DOMAIN + ":type=AtmosphereFramework," + scope, framework, FrameworkMetricsMXBean.class);
+
+        config.startupHook(f -> {
+            f.addBroadcasterListener(new BroadcasterListenerAdapter() {
+                @Override
+                public void onPostCreate(Broadcaster b) {
+                    add(b);
+                }
+
+                @Override
+                public void onPreDestroy(Broadcaster b) {
+                    remove(b.getID());
+                }
+            });
+
+            BroadcasterFactory factory = f.getBroadcasterFactory();
+            if (factory != null) {
+                for (Broadcaster b : factory.lookupAll()) {
+                    add(b);
+                }
+            }
+        });
+    }
+
+    /**
+     * Return the metrics of the {@link org.atmosphere.cpr.AtmosphereFramework}.
+     *
+     * @return the {@link FrameworkMetricsMXBean}
+     */
+    public FrameworkMetricsMXBean framework() {
+        return framework;
+    }
+
+    /**
+     * Return the metrics of a {@link Broadcaster}.
+     *
+     * @param broadcasterId the {@link Broadcaster#getID()}
+     * @return the {@link BroadcasterMetricsMXBean}, or null if the {@link Broadcaster} doesn't exist
+     */
+    public BroadcasterMetricsMXBean broadcaster(String broadcasterId) {
+        return broadcasters.get(broadcasterId);
+    }
+
+    @Override
+    public void onBroadcast(Broadcaster b) {
+        framework.broadcasts.increment();
+        BroadcasterMetrics m = broadcasters.get(b.getID());
+        if (m != null) {
+            m.broadcasts.increment();
+        }
+    }
+
+    @Override
+    public void onDeliver(Broadcaster b, AtmosphereResource r, long latencyNanos) {
+        framework.onDeliver(latencyNanos);
+        BroadcasterMetrics m = broadcasters.get(b.getID());
+        if (m != null) {
+            m.onDeliver(latencyNanos);
+        }
+    }
+
+    @Override
+    public void onCacheRetrieve(String broadcasterId, int messages) {
+        framework.onCacheRetrieve(messages);
+        BroadcasterMetrics m = broadcasterId == null ? null : broadcasters.get(broadcasterId);
+        if (m != null) {
+            m.onCacheRetrieve(messages);
+        }
+    }
+
+    @Override
+    public void onCacheEviction(String broadcasterId, int messages) {
+        framework.cacheEvictions.add(messages);
+        BroadcasterMetrics m = broadcasterId == null ? null : broadcasters.get(broadcasterId);
+        if (m != null) {
+            m.cacheEvictions.add(messages);
+        }
+    }
+
+    @Override
+    public void onSuspend(AtmosphereResource r) {
+        framework.onSuspend(r);
+    }
+
+    @Override
+    public void onResume(AtmosphereResource r) {
+        framework.resumes.increment();
+    }
+
+    @Override
+    public void onTimeout(AtmosphereResource r) {
+        framework.timeouts.increment();
+    }
+
+    @Override
+    public void onWebSocketOpen(WebSocket webSocket) {
+        framework.webSocketOpens.increment();
+    }
+
+    @Override
+    public void onWebSocketClose(WebSocket webSocket) {
+        framework.webSocketCloses.increment();
+    }
+
+    @Override
+    public void onWebSocketMessage(WebSocket webSocket) {
+        framework.webSocketMessages.increment();
+    }
+
+    @Override
+    public void destroy() {
+        for (String id : broadcasters.keySet()) {
+            remove(id);
+        }
+        unregister(DOMAIN + ":type=AtmosphereFramework," + scope);
+    }
+
+    protected void add(Broadcaster b) {
+        BroadcasterMetrics m = new BroadcasterMetrics(b);
+        if (broadcasters.putIfAbsent(b.getID(), m) == null) {
+            register(broadcasterName(b.getID()), m, BroadcasterMetricsMXBean.class);
+        }
+    }
+
+    protected void remove(String broadcasterId) {
+        if (broadcasters.remove(broadcasterId) != null) {
+            unregister(broadcasterName(broadcasterId));
+        }
+    }
+
+    private String broadcasterName(String broadcasterId) {
+        return DOMAIN + ":type=Broadcaster," + scope + ",name=" + ObjectName.quote(broadcasterId);
+    }
+
+    private <T> void register(String name, T mbean, Class<T> type) {
+        try {
+            server.registerMBean(new StandardMBean(mbean, type, true), new ObjectName(name));
+        } catch (JMException ex) {
+            logger.warn("Unable to register MBean {}", name, ex);
+        }
+    }
+
+    private void unregister(String name) {
+        try {
+            ObjectName o = new ObjectName(name);
+            if (server.isRegistered(o)) {
+                server.unregisterMBean(o);
+            }
+        } catch (JMException ex) {
+            logger.debug("Unable to unregister MBean {}", name, ex);
+        }
+    }
+
+    /**
+     * Return the <code>context=...,servlet=...</code> part of the {@link ObjectName}s registered for an
+     * {@link org.atmosphere.cpr.AtmosphereFramework}.
+     *
+     * @param config an {@link AtmosphereConfig}
+     * @return the keys identifying the framework
+     */
+    public static String scope(AtmosphereConfig config) {
+        String context = null;
+        String servlet = null;
+        ServletConfig sc = config.getServletConfig();
+        if (sc != null) {
+            servlet = sc.getServletName();
+            ServletContext c = sc.getServletContext();
+            if (c != null) {
+                context = c.getContextPath();
+            }
+        }
+        return "context=" + ObjectName.quote(context == null || context.isEmpty() ? "/" : context)
+                + ",servlet=" + ObjectName.quote(servlet == null ? "AtmosphereFramework" : servlet);
+    }
+}
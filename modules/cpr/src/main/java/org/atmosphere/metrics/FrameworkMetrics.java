@@ -0,0 +1,198 @@
+/*
+ * Copyright 2008-2021 Async-IO.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atmosphere.metrics;
+
+import org.atmosphere.cpr.AtmosphereConfig;
+import org.atmosphere.cpr.AtmosphereResource;
+import org.atmosphere.cpr.AtmosphereResourceFactory;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The counters of an {@link org.atmosphere.cpr.AtmosphereFramework}. Every event is counted here and by the
+ * {@link BroadcasterMetrics} of its {@link org.atmosphere.cpr.Broadcaster}; the gauges are the sums of the
+ * {@link BroadcasterMetrics}' gauges.
+ */
+class FrameworkMetrics extends BroadcasterMetrics implements FrameworkMetricsMXBean {
+
+    private static final long ONE_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtmosphereConfig config;
+    private final Collection<BroadcasterMetrics> broadcasters;
+    private final LongAdder[] suspends = new LongAdder[AtmosphereResource.TRANSPORT.values().length];
+    final LongAdder resumes = new LongAdder();
+    final LongAdder timeouts = new LongAdder();
+    final LongAdder webSocketOpens = new LongAdder();
+    final LongAdder webSocketCloses = new LongAdder();
+    final LongAdder webSocketMessages = new LongAdder();
+
+    private long lastMessages;
+    private long lastRead = System.nanoTime();
+    private double messageRate;
+
+    FrameworkMetrics(AtmosphereConfig config, Collection<BroadcasterMetrics> broadcasters) {
+        super(null);
+        this.config = config;
+        this.broadcasters = broadcasters;
+        for (int i = 0; i < suspends.length; i++) {
+            suspends[i] = new LongAdder();
+        }
+    }
+
+    void onSuspend(AtmosphereResource r) {
+        suspends[r.transport().ordinal()].increment();
+    }
+
+    @Override
+    public int getBroadcasters() {
+        return broadcasters.size();
+    }
+
+    @Override
+    public int getConnections() {
+        AtmosphereResourceFactory f = config.resourcesFactory();
+        return f == null ? 0 : f.findAll().size();
+    }
+
+    @Override
+    public Map<String, Integer> getConnectionsByTransport() {
+        Map<String, Integer> m = new TreeMap<>();
+        AtmosphereResourceFactory f = config.resourcesFactory();
+        if (f != null) {
+            for (AtmosphereResource r : f.findAll()) {
+                m.merge(r.transport().name(), 1, Integer::sum);
+            }
+        }
+        return m;
+    }
+
+    @Override
+    public long getSuspends() {
+        long n = 0;
+        for (LongAdder a : suspends) {
+            n += a.sum();
+        }
+        return n;
+    }
+
+    @Override
+    public Map<String, Long> getSuspendsByTransport() {
+        Map<String, Long> m = new TreeMap<>();
+        for (AtmosphereResource.TRANSPORT t : AtmosphereResource.TRANSPORT.values()) {
+            long n = suspends[t.ordinal()].sum();
+            if (n > 0) {
+                m.put(t.name(), n);
+            }
+        }
+        return m;
+    }
+
+    @Override
+    public long getResumes() {
+        return resumes.sum();
+    }
+
+    @Override
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    @Override
+    public long getWebSocketOpens() {
+        return webSocketOpens.sum();
+    }
+
+    @Override
+    public long getWebSocketCloses() {
+        return webSocketCloses.sum();
+    }
+
+    @Override
+    public long getWebSocketMessages() {
+        return webSocketMessages.sum();
+    }
+
+    @Override
+    public synchronized double getWebSocketMessageRate() {
+        long now = System.nanoTime();
+        long elapsed = now - lastRead;
+        if (elapsed >= ONE_SECOND) {
+            long messages = webSocketMessages.sum();
+            messageRate = (double) (messages - lastMessages) * ONE_SECOND / elapsed;
+            lastMessages = messages;
+            lastRead = now;
+        }
+        return messageRate;
+    }
+
+    @Override
+    public int getResources() {
+        int n = 0;
+        for (BroadcasterMetrics b : broadcasters) {
+            n += b.getResources();
+        }
+        return n;
+    }
+
+    @Override
+    public int getQueueDepth() {
+        int n = 0;
+        for (BroadcasterMetrics b : broadcasters) {
+            n += b.getQueueDepth();
+        }
+        return n;
+    }
+
+    @Override
+    public int getWriteQueueDepth() {
+        int n = 0;
+        for (BroadcasterMetrics b : broadcasters) {
+            n += b.getWriteQueueDepth();
+        }
+        return n;
+    }
+
+    @Override
+    public long getWriteQueueOverflows() {
+        long n = 0;
+        for (BroadcasterMetrics b : broadcasters) {
+            n += b.getWriteQueueOverflows();
+        }
+        return n;
+    }
+
+    @Override
+    public long getDroppedMessages() {
+        long n = 0;
+        for (BroadcasterMetrics b : broadcasters) {
+            n += b.getDroppedMessages();
+        }
+        return n;
+    }
+
+    @Override
+    public int getCacheSize() {
+        int n = 0;
+        for (BroadcasterMetrics b : broadcasters) {
+            n += b.getCacheSize();
+        }
+        return n;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2008-2021 Async-IO.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atmosphere.metrics;
+
+import java.util.Map;
+
+/**
+ * The metrics of an {@link org.atmosphere.cpr.AtmosphereFramework}, exported by {@link DefaultAtmosphereMetrics} under
+ * <code>org.atmosphere:type=AtmosphereFramework</code>. The {@link BroadcasterMetricsMXBean} attributes are the
+ * totals of all the {@link org.atmosphere.cpr.Broadcaster}s.
+ */
+public interface FrameworkMetricsMXBean extends BroadcasterMetricsMXBean {
+
+    /**
+     * @return the number of {@link org.atmosphere.cpr.Broadcaster}s
+     */
+    int getBroadcasters();
+
+    /**
+     * @return the number of connected {@link org.atmosphere.cpr.AtmosphereResource}s
+     */
+    int getConnections();
+
+    /**
+     * @return the number of connected {@link org.atmosphere.cpr.AtmosphereResource}s, per transport
+     */
+    Map<String, Integer> getConnectionsByTransport();
+
+    long getSuspends();
+
+    Map<String, Long> getSuspendsByTransport();
+
+    long getResumes();
+
+    long getTimeouts();
+
+    long getWebSocketOpens();
+
+    long getWebSocketCloses();
+
+    long getWebSocketMessages();
+
+    /**
+     * @return the number of messages received per second from the WebSockets, since the previous time it was read, and at least a second ago
+     */
+    double getWebSocketMessageRate();
+}
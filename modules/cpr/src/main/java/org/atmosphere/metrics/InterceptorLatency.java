@@ -0,0 +1,113 @@
+/*
+ * Copyright 2008-2021 Async-IO.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atmosphere.metrics;
+
+/**
+ * A snapshot of the time spent by an {@link org.atmosphere.cpr.AtmosphereInterceptor} in one phase, for one mapping
+ * and one transport. Latencies are in nanoseconds.
+ */
+public final class InterceptorLatency {
+
+    private final String mapping;
+    private final String interceptor;
+    private final String transport;
+    private final String phase;
+    private final long count;
+    private final double mean;
+    private final long median;
+    private final long percentile99;
+    private final long percentile999;
+    private final long max;
+
+    InterceptorLatency(String mapping, String interceptor, String transport, String phase, Histogram h) {
+        this.mapping = mapping;
+        this.interceptor = interceptor;
+        this.transport = transport;
+        this.phase = phase;
+        this.count = h.count();
+        this.mean = h.mean();
+        this.median = h.percentile(50);
+        this.percentile99 = h.percentile(99);
+        this.percentile999 = h.percentile(99.9);
+        this.max = h.max();
+    }
+
+    /**
+     * @return the mapping of the {@link org.atmosphere.cpr.AtmosphereHandler}, or <code>*</code> for the interceptors
+     * invoked outside of any mapping
+     */
+    public String getMapping() {
+        return mapping;
+    }
+
+    /**
+     * @return the class name of the {@link org.atmosphere.cpr.AtmosphereInterceptor}
+     */
+    public String getInterceptor() {
+        return interceptor;
+    }
+
+    /**
+     * @return the {@link org.atmosphere.cpr.AtmosphereResource.TRANSPORT}
+     */
+    public String getTransport() {
+        return transport;
+    }
+
+    /**
+     * @return <code>inspect</code> or <code>postInspect</code>
+     */
+    public String getPhase() {
+        return phase;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public long getMedian() {
+        return median;
+    }
+
+    public long get99thPercentile() {
+        return percentile99;
+    }
+
+    public long get999thPercentile() {
+        return percentile999;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * @return the approximate total time spent, used to rank the interceptors
+     */
+    public double getTotal() {
+        return mean * count;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-40s %-50s %-12s %-12s %10d %12.0f %10d %10d %10d %10d",
+                mapping, interceptor, transport, phase, count, mean, median, percentile99, percentile999, max);
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2008-2021 Async-IO.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atmosphere.metrics;
+
+import org.atmosphere.cpr.AtmosphereConfig;
+import org.atmosphere.cpr.AtmosphereInterceptor;
+import org.atmosphere.cpr.AtmosphereResource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Record the time spent by every {@link AtmosphereInterceptor#inspect} and {@link AtmosphereInterceptor#postInspect}
+ * in {@link Histogram}s, per {@link org.atmosphere.cpr.AtmosphereHandler} mapping and per transport, and export them
+ * as <code>org.atmosphere:type=InterceptorProfiler,context=...,servlet=...</code>, see {@link InterceptorProfilerMXBean}.
+ * <p/>
+ * Enabled using {@link org.atmosphere.cpr.ApplicationConfig#INTERCEPTOR_PROFILING}. When disabled, no instance is
+ * created and the {@link org.atmosphere.cpr.AsynchronousProcessor} doesn't read the clock.
+ */
+public class InterceptorProfiler implements InterceptorProfilerMXBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(InterceptorProfiler.class);
+
+    /**
+     * The mapping used for the interceptors that aren't invoked on behalf of an {@link org.atmosphere.cpr.AtmosphereHandler}.
+     */
+    public static final String NO_MAPPING = "*";
+
+    private static final AtmosphereResource.TRANSPORT[] TRANSPORTS = AtmosphereResource.TRANSPORT.values();
+    private static final int INSPECT = 0;
+    private static final int POST_INSPECT = 1;
+
+    private final ConcurrentMap<String, ConcurrentMap<AtmosphereInterceptor, Timings>> mappings = new ConcurrentHashMap<>();
+    private final MBeanServer server;
+    private final String name;
+
+    public InterceptorProfiler(AtmosphereConfig config) {
+        server = ManagementFactory.getPlatformMBeanServer();
+        name = DefaultAtmosphereMetrics.DOMAIN + ":type=InterceptorProfiler," + DefaultAtmosphereMetrics.scope(config);
+        try {
+            server.registerMBean(new StandardMBean(this, InterceptorProfilerMXBean.class, true), new ObjectName(name));
+        } catch (JMException ex) {
+            logger.warn("Unable to register MBean {}", name, ex);
+        }
+    }
+
+    /**
+     * Record the time spent by {@link AtmosphereInterceptor#inspect}.
+     *
+     * @param mapping     the mapping of the {@link org.atmosphere.cpr.AtmosphereHandler}, or null
+     * @param interceptor the {@link AtmosphereInterceptor}
+     * @param r           the {@link AtmosphereResource}
+     * @param nanos       the elapsed time, in nanoseconds
+     */
+    public void inspect(String mapping, AtmosphereInterceptor interceptor, AtmosphereResource r, long nanos) {
+        timings(mapping, interceptor).histogram(INSPECT, r.transport()).record(nanos);
+    }
+
+    /**
+     * Record the time spent by {@link AtmosphereInterceptor#postInspect}.
+     *
+     * @param mapping     the mapping of the {@link org.atmosphere.cpr.AtmosphereHandler}, or null
+     * @param interceptor the {@link AtmosphereInterceptor}
+     * @param r           the {@link AtmosphereResource}
+     * @param nanos       the elapsed time, in nanoseconds
+     */
+    public void postInspect(String mapping, AtmosphereInterceptor interceptor, AtmosphereResource r, long nanos) {
+        timings(mapping, interceptor).histogram(POST_INSPECT, r.transport()).record(nanos);
+    }
+
+    @Override
+    public List<InterceptorLatency> getLatencies() {
+        List<InterceptorLatency> l = new ArrayList<>();
+        for (Map.Entry<String, ConcurrentMap<AtmosphereInterceptor, Timings>> m : mappings.entrySet()) {
+            for (Timings t : m.getValue().values()) {
+                for (int i = 0; i < t.histograms.length(); i++) {
+                    Histogram h = t.histograms.get(i);
+                    if (h != null && h.count() > 0) {
+                        l.add(new InterceptorLatency(m.getKey(), t.name,
+                                TRANSPORTS[i % TRANSPORTS.length].name(),
+                                i < TRANSPORTS.length ? "inspect" : "postInspect", h));
+                    }
+                }
+            }
+        }
+        l.sort(Comparator.comparingDouble(InterceptorLatency::getTotal).reversed());
+        return l;
+    }
+
+    @Override
+    public String dump() {
+        StringBuilder b = new StringBuilder(String.format("%-40s %-50s %-12s %-12s %10s %12s %10s %10s %10s %10s",
+                "mapping", "interceptor", "transport", "phase", "count", "mean(ns)", "p50", "p99", "p999", "max"));
+        for (InterceptorLatency l : getLatencies()) {
+            b.append('\n').append(l);
+        }
+        return b.toString();
+    }
+
+    @Override
+    public void reset() {
+        mappings.clear();
+    }
+
+    public void destroy() {
+        try {
+            ObjectName o = new ObjectName(name);
+            if (server.isRegistered(o)) {
+                server.unregisterMBean(o);
+            }
+        } catch (JMException ex) {
+            logger.debug("Unable to unregister MBean {}", name, ex);
+        }
+        mappings.clear();
+    }
+
+    private Timings timings(String mapping, AtmosphereInterceptor interceptor) {
+        String key = mapping == null ? NO_MAPPING : mapping;
+        ConcurrentMap<AtmosphereInterceptor, Timings> m = mappings.get(key);
+        if (m == null) {
+            m = mappings.computeIfAbsent(key, k -> new ConcurrentHashMap<>());
+        }
+        Timings t = m.get(interceptor);
+        return t != null ? t : m.computeIfAbsent(interceptor, Timings::new);
+    }
+
+    private static final class Timings {
+        final String name;
+        // inspect histograms, indexed by transport, followed by the postInspect ones. Allocated on first use.
+        final AtomicReferenceArray<Histogram> histograms = new AtomicReferenceArray<>(TRANSPORTS.length * 2);
+
+        Timings(AtmosphereInterceptor interceptor) {
+            name = interceptor.getClass().getName();
+        }
+
+        Histogram histogram(int phase, AtmosphereResource.TRANSPORT transport) {
+            int i = phase * TRANSPORTS.length + (transport == null ? AtmosphereResource.TRANSPORT.UNDEFINED : transport).ordinal();
+            Histogram h = histograms.get(i);
+            if (h == null) {
+                histograms.compareAndSet(i, null, new Histogram());
+                h = histograms.get(i);
+            }
+            return h;
+        }
+    }
+}
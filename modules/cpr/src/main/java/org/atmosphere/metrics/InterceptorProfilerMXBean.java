@@ -0,0 +1,40 @@
+/*
+ * Copyright 2008-2021 Async-IO.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atmosphere.metrics;
+
+import java.util.List;
+
+/**
+ * The time spent by the {@link org.atmosphere.cpr.AtmosphereInterceptor}s, exported by {@link InterceptorProfiler} under
+ * <code>org.atmosphere:type=InterceptorProfiler</code>.
+ */
+public interface InterceptorProfilerMXBean {
+
+    /**
+     * @return the latencies of every profiled interceptor, mapping, transport and phase, the slowest first
+     */
+    List<InterceptorLatency> getLatencies();
+
+    /**
+     * @return the {@link #getLatencies()} as a human readable table
+     */
+    String dump();
+
+    /**
+     * Discard all the recorded latencies.
+     */
+    void reset();
+}
@@ -26,6 +26,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 
 import static org.atmosphere.cpr.ApplicationConfig.POOLEABLE_PROVIDER;
 import static org.atmosphere.cpr.ApplicationConfig.SUPPORT_TRACKED_BROADCASTER;
@@ -142,6 +143,14 @@ public class PoolableBroadcasterFactory extends DefaultBroadcasterFactory {
         return emptyCollection;
     }
 
+    @Override
+    public List<Broadcaster> lookupAll(String path) {
+        if (trackPooledBroadcaster) {
+            return super.lookupAll(path);
+        }
+        return Collections.emptyList();
+    }
+
     public Broadcaster createBroadcaster() {
         return createBroadcaster(clazz, "POOLED");
     }
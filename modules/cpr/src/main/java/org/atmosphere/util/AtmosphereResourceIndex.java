@@ -0,0 +1,179 @@
+/*
+ * Copyright 2008-2021 Async-IO.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atmosphere.util;
+
+import org.atmosphere.cpr.AtmosphereResource;
+
+import java.util.AbstractCollection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread safe collection of {@link AtmosphereResource} indexed by {@link AtmosphereResource#uuid()}, used by
+ * {@link org.atmosphere.cpr.DefaultBroadcaster} to store its subscribers.
+ * <p/>
+ * {@link #add(AtmosphereResource)}, {@link #remove(Object)}, {@link #contains(Object)} and {@link #size()} are O(1). Iteration
+ * is weakly consistent and never copies the underlying collection, hence resources added or removed during a fan-out may
+ * or may not be visited. Two {@link AtmosphereResource}s are considered identical if they are equal, e.g they share the same uuid.
+ */
+public class AtmosphereResourceIndex extends AbstractCollection<AtmosphereResource> {
+
+    private final ConcurrentHashMap<String, Entry> index = new ConcurrentHashMap<String, Entry>();
+    private final AtomicInteger count = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Add an {@link AtmosphereResource}. If an equal {@link AtmosphereResource} is already present, it is replaced.
+     *
+     * @param r an {@link AtmosphereResource}
+     * @return true
+     */
+    @Override
+    public boolean add(AtmosphereResource r) {
+        if (index.put(r.uuid(), new Entry(r, sequence.incrementAndGet())) == null) {
+            count.incrementAndGet();
+        }
+        return true;
+    }
+
+    /**
+     * Same as {@link #add(AtmosphereResource)}
+     */
+    public boolean offer(AtmosphereResource r) {
+        return add(r);
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!(o instanceof AtmosphereResource)) return false;
+
+        AtmosphereResource r = (AtmosphereResource) o;
+        Entry e = index.get(r.uuid());
+        if (e != null && e.resource.equals(r) && index.remove(r.uuid(), e)) {
+            count.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof AtmosphereResource)) return false;
+
+        AtmosphereResource r = (AtmosphereResource) o;
+        Entry e = index.get(r.uuid());
+        return e != null && e.resource.equals(r);
+    }
+
+    /**
+     * Return the {@link AtmosphereResource} associated with the uuid.
+     *
+     * @param uuid {@link AtmosphereResource#uuid()}
+     * @return the {@link AtmosphereResource}, or null
+     */
+    public AtmosphereResource find(String uuid) {
+        Entry e = index.get(uuid);
+        return e == null ? null : e.resource;
+    }
+
+    /**
+     * Remove and return the oldest {@link AtmosphereResource}. Unlike the other operations, this method is O(n).
+     *
+     * @return the oldest {@link AtmosphereResource}, or null if empty
+     */
+    public AtmosphereResource poll() {
+        for (; ; ) {
+            Entry oldest = null;
+            for (Entry e : index.values()) {
+                if (oldest == null || e.sequence < oldest.sequence) {
+                    oldest = e;
+                }
+            }
+
+            if (oldest == null) {
+                return null;
+            }
+
+            if (index.remove(oldest.resource.uuid(), oldest)) {
+                count.decrementAndGet();
+                return oldest.resource;
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return count.get();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return count.get() == 0;
+    }
+
+    @Override
+    public void clear() {
+        Iterator<AtmosphereResource> i = iterator();
+        while (i.hasNext()) {
+            i.next();
+            i.remove();
+        }
+    }
+
+    @Override
+    public Iterator<AtmosphereResource> iterator() {
+        final Iterator<Map.Entry<String, Entry>> i = index.entrySet().iterator();
+        return new Iterator<AtmosphereResource>() {
+            private Map.Entry<String, Entry> current;
+
+            @Override
+            public boolean hasNext() {
+                return i.hasNext();
+            }
+
+            @Override
+            public AtmosphereResource next() {
+                current = i.next();
+                return current.getValue().resource;
+            }
+
+            @Override
+            public void remove() {
+                if (current == null) {
+                    throw new IllegalStateException();
+                }
+
+                if (index.remove(current.getKey(), current.getValue())) {
+                    count.decrementAndGet();
+                }
+                current = null;
+            }
+        };
+    }
+
+    private final static class Entry {
+        final AtmosphereResource resource;
+        final long sequence;
+
+        Entry(AtmosphereResource resource, long sequence) {
+            this.resource = resource;
+            this.sequence = sequence;
+        }
+    }
+}
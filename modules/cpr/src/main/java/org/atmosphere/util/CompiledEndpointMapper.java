@@ -0,0 +1,226 @@
+/*
+ * Copyright 2008-2021 Async-IO.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atmosphere.util;
+
+import org.atmosphere.util.uri.UriTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An {@link EndpointMapper} that compiles the mappings once instead of parsing every {@link UriTemplate} on every request.
+ * <p/>
+ * Literal mappings can only match their exact path, which {@link DefaultEndpointMapper} already looks up first, so they
+ * are never evaluated again. Mappings with template variables or wildcards are compiled once and stored in a trie
+ * keyed by the literal path segments preceding their first variable. A request path only evaluates the templates found
+ * along its own segments, in the order {@link DefaultEndpointMapper} would have tried them, hence the same mapping is selected.
+ * <p/>
+ * The trie is rebuilt after {@link #invalidate()}, which {@link org.atmosphere.cpr.AtmosphereFramework} and
+ * {@link org.atmosphere.websocket.DefaultWebSocketProcessor} invoke when a handler is added or removed, or when the number
+ * of mappings changes. To install it, set {@link org.atmosphere.cpr.ApplicationConfig#ENDPOINT_MAPPER}
+ * to this class.
+ */
+public class CompiledEndpointMapper<U> extends DefaultEndpointMapper<U> {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompiledEndpointMapper.class);
+
+    private volatile Index index;
+
+    public CompiledEndpointMapper() {
+    }
+
+    /**
+     * Discard the compiled mappings. They are compiled again on the next lookup.
+     */
+    public void invalidate() {
+        index = null;
+    }
+
+    @Override
+    protected U match(String path, Map<String, U> handlers) {
+        U handler = handlers.get(path);
+        if (handler != null) {
+            return handler;
+        }
+
+        Index i = index(handlers);
+        List<Template> candidates = i.candidates(path);
+        if (candidates.isEmpty()) {
+            return null;
+        }
+
+        if (candidates.size() > 1) {
+            Collections.sort(candidates, Template.ORDER);
+        }
+
+        for (Template t : candidates) {
+            if (t.matches(path)) {
+                handler = handlers.get(t.key);
+                if (handler != null) {
+                    logger.trace("Mapped {} to {}", t.key, path);
+                    return handler;
+                }
+            }
+        }
+        return null;
+    }
+
+    private Index index(Map<String, U> handlers) {
+        Index i = index;
+        if (i == null || i.handlers != handlers || i.size != handlers.size()) {
+            i = new Index(handlers);
+            index = i;
+        }
+        return i;
+    }
+
+    private final static class Index {
+        final Map<String, ?> handlers;
+        final int size;
+        final Node root = new Node();
+
+        Index(Map<String, ?> handlers) {
+            this.handlers = handlers;
+            this.size = handlers.size();
+
+            int order = 0;
+            for (String key : handlers.keySet()) {
+                String prefix = prefix(key);
+                if (prefix != null) {
+                    add(new Template(key, prefix, order));
+                }
+                order++;
+            }
+        }
+
+        /**
+         * Return the literal part a path must start with to match the mapping, or null if the mapping only
+         * matches itself. Besides template variables, {@link UriTemplate} doesn't escape most regex characters.
+         */
+        private static String prefix(String key) {
+            for (int i = 0; i < key.length(); i++) {
+                switch (key.charAt(i)) {
+                    case '{':
+                    case '+':
+                    case '[':
+                    case '$':
+                    case '\\':
+                        return key.substring(0, i);
+                    case '*':
+                        // The previous character is optional.
+                        return key.substring(0, Math.max(i - 1, 0));
+                    case '|':
+                    case '^':
+                        return "";
+                    default:
+                }
+            }
+            return null;
+        }
+
+        private void add(Template t) {
+            Node node = root;
+            int start = 0;
+            int slash;
+            while ((slash = t.prefix.indexOf('/', start)) != -1) {
+                node = node.child(t.prefix.substring(start, slash));
+                start = slash + 1;
+            }
+            node.templates.add(t);
+        }
+
+        List<Template> candidates(String path) {
+            List<Template> candidates = new ArrayList<Template>();
+            Node node = root;
+            int start = 0;
+            while (node != null) {
+                for (Template t : node.templates) {
+                    if (path.startsWith(t.prefix)) {
+                        candidates.add(t);
+                    }
+                }
+
+                int slash = path.indexOf('/', start);
+                if (slash == -1 || node.children == null) {
+                    break;
+                }
+                node = node.children.get(path.substring(start, slash));
+                start = slash + 1;
+            }
+            return candidates;
+        }
+    }
+
+    private final static class Node {
+        final List<Template> templates = new ArrayList<Template>(1);
+        Map<String, Node> children;
+
+        Node child(String segment) {
+            if (children == null) {
+                children = new HashMap<String, Node>();
+            }
+            Node n = children.get(segment);
+            if (n == null) {
+                n = new Node();
+                children.put(segment, n);
+            }
+            return n;
+        }
+    }
+
+    private final static class Template {
+        static final Comparator<Template> ORDER = new Comparator<Template>() {
+            @Override
+            public int compare(Template o1, Template o2) {
+                return o1.order < o2.order ? -1 : (o1.order == o2.order ? 0 : 1);
+            }
+        };
+
+        final String key;
+        final String prefix;
+        final int order;
+        final UriTemplate template;
+
+        Template(String key, String prefix, int order) {
+            this.key = key;
+            this.prefix = prefix;
+            this.order = order;
+
+            UriTemplate t = null;
+            try {
+                t = new UriTemplate(key);
+            } catch (RuntimeException ex) {
+                logger.warn("Invalid mapping {}", key, ex);
+            }
+            this.template = t;
+        }
+
+        boolean matches(String path) {
+            if (template == null) {
+                // Fail the same way DefaultEndpointMapper does.
+                new UriTemplate(key);
+                return false;
+            }
+            return template.match(path, new HashMap<String, String>());
+        }
+    }
+}
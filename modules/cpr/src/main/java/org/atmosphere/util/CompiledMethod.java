@@ -0,0 +1,163 @@
+/*
+ * Copyright 2008-2021 Async-IO.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atmosphere.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * A {@link Method} compiled once into a {@link MethodHandle}. The arity and the parameter types are resolved when the
+ * method is compiled, hence an invocation doesn't use reflection, doesn't allocate an array of arguments and doesn't
+ * clone the parameter types.
+ * <p/>
+ * Invocations have the semantics of {@link Method#invoke(Object, Object...)}: an exception thrown by the method is wrapped
+ * in an {@link InvocationTargetException}. Arguments that don't exactly match the parameters, like a wrong number of
+ * arguments, are delegated to {@link Method#invoke(Object, Object...)} which converts them or throws an {@link IllegalArgumentException}.
+ * The same goes for methods that can't be accessed using a {@link MethodHandles#publicLookup()}.
+ */
+public final class CompiledMethod {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompiledMethod.class);
+
+    private final Method method;
+    private final Class<?>[] parameterTypes;
+    private final Class<?> receiverType;
+    private final MethodHandle handle;
+
+    private CompiledMethod(Method method) {
+        this.method = method;
+
+        Class<?>[] types = method.getParameterTypes();
+        this.parameterTypes = new Class<?>[types.length];
+        for (int i = 0; i < types.length; i++) {
+            parameterTypes[i] = MethodType.methodType(types[i]).wrap().returnType();
+        }
+
+        boolean isStatic = Modifier.isStatic(method.getModifiers());
+        this.receiverType = isStatic ? Object.class : method.getDeclaringClass();
+
+        MethodHandle h = null;
+        try {
+            h = MethodHandles.publicLookup().unreflect(method);
+            if (isStatic) {
+                h = MethodHandles.dropArguments(h.asType(MethodType.genericMethodType(types.length)), 0, Object.class);
+            } else {
+                h = h.asType(MethodType.genericMethodType(types.length + 1));
+            }
+        } catch (IllegalAccessException e) {
+            logger.trace("Unable to compile {}, reflection will be used", method, e);
+            h = null;
+        }
+        this.handle = h;
+    }
+
+    /**
+     * Compile a {@link Method}.
+     *
+     * @param method a {@link Method}, or null
+     * @return the {@link CompiledMethod}, or null if the method was null
+     */
+    public static CompiledMethod compile(Method method) {
+        return method == null ? null : new CompiledMethod(method);
+    }
+
+    public Method method() {
+        return method;
+    }
+
+    /**
+     * Return the number of parameters of the method.
+     *
+     * @return the number of parameters of the method
+     */
+    public int arity() {
+        return parameterTypes.length;
+    }
+
+    /**
+     * Invoke a method without argument.
+     *
+     * @param instance the instance
+     * @return the value returned by the method, null if void
+     */
+    public Object invoke(Object instance) throws IllegalAccessException, InvocationTargetException {
+        if (handle == null || parameterTypes.length != 0 || !receiverType.isInstance(instance)) {
+            return method.invoke(instance);
+        }
+
+        try {
+            return (Object) handle.invokeExact(instance);
+        } catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+
+    /**
+     * Invoke a method with one argument.
+     *
+     * @param instance the instance
+     * @param a        the argument
+     * @return the value returned by the method, null if void
+     */
+    public Object invoke(Object instance, Object a) throws IllegalAccessException, InvocationTargetException {
+        if (handle == null || parameterTypes.length != 1 || !receiverType.isInstance(instance) || !accepts(0, a)) {
+            return method.invoke(instance, a);
+        }
+
+        try {
+            return (Object) handle.invokeExact(instance, a);
+        } catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+
+    /**
+     * Invoke a method with two arguments.
+     *
+     * @param instance the instance
+     * @param a        the first argument
+     * @param b        the second argument
+     * @return the value returned by the method, null if void
+     */
+    public Object invoke(Object instance, Object a, Object b) throws IllegalAccessException, InvocationTargetException {
+        if (handle == null || parameterTypes.length != 2 || !receiverType.isInstance(instance) || !accepts(0, a) || !accepts(1, b)) {
+            return method.invoke(instance, a, b);
+        }
+
+        try {
+            return (Object) handle.invokeExact(instance, a, b);
+        } catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+
+    private boolean accepts(int i, Object arg) {
+        // null can't be unboxed, let reflection reject it.
+        return arg != null ? parameterTypes[i].isInstance(arg) : !method.getParameterTypes()[i].isPrimitive();
+    }
+
+    @Override
+    public String toString() {
+        return method.toString();
+    }
+}
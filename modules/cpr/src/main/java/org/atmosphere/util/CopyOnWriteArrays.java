@@ -0,0 +1,108 @@
+/*
+ * Copyright 2008-2021 Async-IO.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atmosphere.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Copy-on-write operations on an array stored in a volatile field, updated with an {@link AtomicReferenceFieldUpdater}.
+ * <p/>
+ * Used for the small collections held by every connection: unlike a {@link java.util.concurrent.CopyOnWriteArrayList}
+ * or a {@link java.util.concurrent.ConcurrentLinkedQueue}, an empty collection is a shared empty array and a collection
+ * of one or two elements is a single small array. Iterating the field returns a stable snapshot.
+ */
+public final class CopyOnWriteArrays {
+
+    private CopyOnWriteArrays() {
+    }
+
+    /**
+     * Append an element.
+     *
+     * @return true
+     */
+    public static <T, E> boolean add(AtomicReferenceFieldUpdater<T, E[]> updater, T holder, E e) {
+        for (; ; ) {
+            E[] a = updater.get(holder);
+            E[] n = Arrays.copyOf(a, a.length + 1);
+            n[a.length] = e;
+            if (updater.compareAndSet(holder, a, n)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Append an element unless an equal element is already present.
+     *
+     * @return true if the element has been added
+     */
+    public static <T, E> boolean addIfAbsent(AtomicReferenceFieldUpdater<T, E[]> updater, T holder, E e) {
+        for (; ; ) {
+            E[] a = updater.get(holder);
+            if (indexOf(a, e) >= 0) {
+                return false;
+            }
+            E[] n = Arrays.copyOf(a, a.length + 1);
+            n[a.length] = e;
+            if (updater.compareAndSet(holder, a, n)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Remove the first element equal to the given one.
+     *
+     * @return true if an element has been removed
+     */
+    public static <T, E> boolean remove(AtomicReferenceFieldUpdater<T, E[]> updater, T holder, Object e) {
+        for (; ; ) {
+            E[] a = updater.get(holder);
+            int i = indexOf(a, e);
+            if (i < 0) {
+                return false;
+            }
+            E[] n = Arrays.copyOf(a, a.length - 1);
+            System.arraycopy(a, i + 1, n, i, a.length - i - 1);
+            if (updater.compareAndSet(holder, a, n)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Return an unmodifiable {@link List} view of a snapshot.
+     *
+     * @param a a snapshot of the array
+     * @return an unmodifiable {@link List}
+     */
+    public static <E> List<E> asList(E[] a) {
+        return a.length == 0 ? Collections.<E>emptyList() : Collections.unmodifiableList(Arrays.asList(a));
+    }
+
+    private static int indexOf(Object[] a, Object e) {
+        for (int i = 0; i < a.length; i++) {
+            if (e == null ? a[i] == null : e.equals(a[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
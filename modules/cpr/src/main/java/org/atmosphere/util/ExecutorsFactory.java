@@ -20,7 +20,7 @@ import org.atmosphere.cpr.AtmosphereConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.concurrent.AbstractExecutorService;
+import java.lang.reflect.Method;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -30,6 +30,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.atmosphere.cpr.ApplicationConfig.USE_FORJOINPOOL;
+import static org.atmosphere.cpr.ApplicationConfig.USE_VIRTUAL_THREADS;
 
 /**
  * Stateless Factory to create {@link ExecutorService} used in all Atmosphere Component. By default they are
@@ -47,6 +48,51 @@ public class ExecutorsFactory {
     public final static String ASYNC_WRITE_THREAD_POOL = "asyncWriteService";
     public final static String SCHEDULER_THREAD_POOL = "scheduler";
     public final static String BROADCASTER_THREAD_POOL = "executorService";
+    public final static String TIMER_WHEEL = "timerWheel";
+    public final static int DEFAULT_TIMER_WHEEL_TICK = 100;
+    public final static int DEFAULT_TIMER_WHEEL_SIZE = 512;
+
+    // Replaced by the tests to simulate a JVM without, or with broken, virtual threads
+    static VirtualThreads virtualThreads = VirtualThreads.lookup();
+
+    /**
+     * Thread.ofVirtual(), Thread.Builder.name(String, long), Thread.Builder.factory() and
+     * Executors.newThreadPerTaskExecutor(ThreadFactory), looked up reflectively as they only exist on Java 21+
+     */
+    static class VirtualThreads {
+        private final Method ofVirtual;
+        private final Method builderName;
+        private final Method builderFactory;
+        private final Method newThreadPerTaskExecutor;
+
+        VirtualThreads(Method ofVirtual, Method builderName, Method builderFactory, Method newThreadPerTaskExecutor) {
+            this.ofVirtual = ofVirtual;
+            this.builderName = builderName;
+            this.builderFactory = builderFactory;
+            this.newThreadPerTaskExecutor = newThreadPerTaskExecutor;
+        }
+
+        static VirtualThreads lookup() {
+            try {
+                Class<?> builder = Class.forName("java.lang.Thread$Builder");
+                return new VirtualThreads(Thread.class.getMethod("ofVirtual"),
+                        builder.getMethod("name", String.class, long.class),
+                        builder.getMethod("factory"),
+                        Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class));
+            } catch (Exception ex) {
+                return new VirtualThreads(null, null, null, null);
+            }
+        }
+
+        boolean supported() {
+            return ofVirtual != null;
+        }
+
+        ExecutorService newExecutor(String name) throws Exception {
+            Object builder = builderName.invoke(ofVirtual.invoke(null), name, 0L);
+            return (ExecutorService) newThreadPerTaskExecutor.invoke(null, builderFactory.invoke(builder));
+        }
+    }
 
     public final static class AtmosphereThreadFactory implements ThreadFactory {
         private final AtomicInteger count = new AtomicInteger();
@@ -90,11 +136,13 @@ public class ExecutorsFactory {
                 numberOfMessageProcessingThread = -1;
             }
 
-            AbstractExecutorService messageService;
             logger.trace("Max number of DispatchOp {}", numberOfMessageProcessingThread == -1 ? "Unlimited" : numberOfMessageProcessingThread);
             String threadName = name + "-DispatchOp-";
 
-            if (numberOfMessageProcessingThread == -1) {
+            ExecutorService messageService = virtualThreadExecutor(config, shared, threadName);
+            if (messageService != null) {
+                logger.trace("Using virtual threads for {}", threadName);
+            } else if (numberOfMessageProcessingThread == -1) {
                 messageService = !useForkJoinPool ? (ThreadPoolExecutor) Executors.newCachedThreadPool(new AtmosphereThreadFactory(shared, threadName))
                         : new ForkJoinPool(shared, threadName);
             } else {
@@ -113,7 +161,57 @@ public class ExecutorsFactory {
         }
     }
 
-    private static void keepAliveThreads(AbstractExecutorService t, AtmosphereConfig config) {
+    /**
+     * Return true if the virtual threads are supported by the running JVM, e.g Java 21 or newer.
+     *
+     * @return true if the virtual threads are supported
+     */
+    public static boolean virtualThreadsSupported() {
+        return virtualThreads.supported();
+    }
+
+    /**
+     * Create the virtual thread {@link ExecutorService} requested by {@link ApplicationConfig#USE_VIRTUAL_THREADS}.
+     *
+     * @return the {@link ExecutorService}, or null if platform threads must be used
+     */
+    private static ExecutorService virtualThreadExecutor(AtmosphereConfig config, boolean shared, String name) {
+        if (!config.getInitParameter(USE_VIRTUAL_THREADS, false)) {
+            return null;
+        }
+        if (!virtualThreadsSupported()) {
+            logger.warn("{} requires Java 21 or newer. Using platform threads with Java {}",
+                    USE_VIRTUAL_THREADS, System.getProperty("java.version"));
+            return null;
+        }
+        try {
+            return newVirtualThreadExecutor(shared, name);
+        } catch (UnsupportedOperationException ex) {
+            logger.warn("{} is set but the virtual threads can't be created. Using platform threads", USE_VIRTUAL_THREADS, ex);
+            return null;
+        }
+    }
+
+    /**
+     * Create an {@link ExecutorService} that runs every task in a new virtual thread.
+     *
+     * @param shared true if the {@link ExecutorService} is shared amongst all components
+     * @param name   the prefix of the virtual threads' name if shared is false
+     * @return {@link ExecutorService}
+     * @throws UnsupportedOperationException if the virtual threads aren't supported
+     */
+    public static ExecutorService newVirtualThreadExecutor(boolean shared, String name) {
+        if (!virtualThreadsSupported()) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or newer");
+        }
+        try {
+            return virtualThreads.newExecutor(shared ? "Atmosphere-Shared-" : name);
+        } catch (Exception ex) {
+            throw new UnsupportedOperationException("Unable to create virtual threads", ex);
+        }
+    }
+
+    private static void keepAliveThreads(ExecutorService t, AtmosphereConfig config) {
 
         if (!ThreadPoolExecutor.class.isAssignableFrom(t.getClass())) {
             return;
@@ -152,12 +250,14 @@ public class ExecutorsFactory {
                 numberOfAsyncThread = -1;
             }
 
-            AbstractExecutorService asyncWriteService;
             boolean useForkJoinPool = config.getInitParameter(USE_FORJOINPOOL, true);
             logger.trace("Max number of AsyncOp {}", numberOfAsyncThread == -1 ? "Unlimited" : numberOfAsyncThread);
             String threadName = name + "-AsyncOp-";
 
-            if (numberOfAsyncThread == -1) {
+            ExecutorService asyncWriteService = virtualThreadExecutor(config, shared, threadName);
+            if (asyncWriteService != null) {
+                logger.trace("Using virtual threads for {}", threadName);
+            } else if (numberOfAsyncThread == -1) {
                 asyncWriteService = !useForkJoinPool ? (ThreadPoolExecutor) Executors.newCachedThreadPool(new AtmosphereThreadFactory(shared, threadName))
                         : new ForkJoinPool(shared, threadName);
             } else {
@@ -212,7 +312,45 @@ public class ExecutorsFactory {
         }
     }
 
+    /**
+     * Return the {@link HashedTimerWheel} used to schedule heartbeats, idle and write timeouts. Unlike the other
+     * {@link ExecutorService}s, a single wheel is always shared amongst all components.
+     *
+     * @param config the {@link AtmosphereConfig}
+     * @return {@link HashedTimerWheel}
+     */
+    public static HashedTimerWheel getTimerWheel(final AtmosphereConfig config) {
+        synchronized (config.properties()) {
+            HashedTimerWheel wheel = (HashedTimerWheel) config.properties().get(TIMER_WHEEL);
+            if (wheel == null) {
+                wheel = newTimerWheel(config);
+                config.properties().put(TIMER_WHEEL, wheel);
+            }
+            return wheel;
+        }
+    }
+
+    /**
+     * Create a new {@link HashedTimerWheel}, configured like the one returned by {@link #getTimerWheel(AtmosphereConfig)}.
+     * If {@link ExecutorService}s aren't shared, the wheel runs its tasks on its own scheduler, which is shutdown
+     * with {@link HashedTimerWheel#stop()}.
+     *
+     * @param config the {@link AtmosphereConfig}
+     * @return {@link HashedTimerWheel}
+     */
+    public static HashedTimerWheel newTimerWheel(final AtmosphereConfig config) {
+        int tick = config.getInitParameter(ApplicationConfig.TIMER_WHEEL_TICK_DURATION, DEFAULT_TIMER_WHEEL_TICK);
+        int size = config.getInitParameter(ApplicationConfig.TIMER_WHEEL_SIZE, DEFAULT_TIMER_WHEEL_SIZE);
+        logger.trace("Timer wheel with {} buckets of {} ms", size, tick);
+        return new HashedTimerWheel(tick, TimeUnit.MILLISECONDS, size, getScheduler(config), !config.framework().isShareExecutorServices());
+    }
+
     public final static void reset(AtmosphereConfig config) {
+        HashedTimerWheel wheel = (HashedTimerWheel) config.properties().remove(TIMER_WHEEL);
+        if (wheel != null) {
+            wheel.stop();
+        }
+
         ExecutorService e = (ExecutorService) config.properties().get(ASYNC_WRITE_THREAD_POOL);
         if (e != null) {
             e.shutdown();
@@ -0,0 +1,345 @@
+/*
+ * Copyright 2008-2021 Async-IO.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atmosphere.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A hashed timer wheel used to schedule a large number of short lived, mostly cancelled timeouts like heartbeats,
+ * idle and write timeouts. Unlike a {@link java.util.concurrent.ScheduledExecutorService}, scheduling and cancelling a
+ * {@link Timeout} are O(1) and never touch a shared heap. Timeouts are approximated to the tick duration.
+ * <p/>
+ * A single daemon thread advances the wheel every tick and hands expired tasks to an {@link Executor}, hence tasks
+ * may block without delaying the wheel. A {@link Timeout} can be extended with {@link Timeout#touch()}, which only
+ * updates its deadline. The wheel re-files it lazily once its original bucket is reached.
+ * <p/>
+ * Use {@link ExecutorsFactory#getTimerWheel(org.atmosphere.cpr.AtmosphereConfig)} to retrieve the instance shared by all
+ * Atmosphere components.
+ */
+public class HashedTimerWheel {
+
+    private static final Logger logger = LoggerFactory.getLogger(HashedTimerWheel.class);
+
+    private static final int PENDING = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+
+    private static final int MAX_TRANSFER_PER_TICK = 100000;
+
+    private final Bucket[] wheel;
+    private final int mask;
+    private final long tickDuration;
+    private final Executor executor;
+    private final boolean shutdownExecutor;
+    private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<Timeout>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<Timeout>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicBoolean stopped = new AtomicBoolean();
+    private final long startTime;
+    private final Thread worker;
+    private long tick;
+
+    /**
+     * Create a wheel.
+     *
+     * @param tickDuration     the duration of a tick
+     * @param unit             the {@link TimeUnit} of the tick duration
+     * @param ticksPerWheel    the number of buckets, rounded to the next power of two
+     * @param executor         the {@link Executor} running expired tasks
+     * @param shutdownExecutor true if the {@link Executor} must be shutdown with this wheel
+     */
+    public HashedTimerWheel(long tickDuration, TimeUnit unit, int ticksPerWheel, Executor executor, boolean shutdownExecutor) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("tickDuration must be greater than 0: " + tickDuration);
+        }
+        if (ticksPerWheel <= 0 || ticksPerWheel > 1 << 30) {
+            throw new IllegalArgumentException("ticksPerWheel must be between 1 and 2^30: " + ticksPerWheel);
+        }
+
+        int size = 1;
+        while (size < ticksPerWheel) {
+            size <<= 1;
+        }
+
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.tickDuration = Math.max(unit.toNanos(tickDuration), TimeUnit.MILLISECONDS.toNanos(1));
+        this.executor = executor;
+        this.shutdownExecutor = shutdownExecutor;
+        this.startTime = System.nanoTime();
+
+        worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                HashedTimerWheel.this.run();
+            }
+        }, "Atmosphere-TimerWheel");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Schedule a task to be executed once after the given delay.
+     *
+     * @param task  the task
+     * @param delay the delay
+     * @param unit  the {@link TimeUnit} of the delay
+     * @return a {@link Timeout} that can be used to cancel or extend the task
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        if (stopped.get()) {
+            throw new RejectedExecutionException("HashedTimerWheel has been stopped");
+        }
+
+        long d = Math.max(unit.toNanos(delay), 0);
+        Timeout t = new Timeout(task, d, now() + d);
+        pending.incrementAndGet();
+        scheduled.offer(t);
+        return t;
+    }
+
+    /**
+     * Return the number of scheduled, not yet expired nor cancelled, {@link Timeout}s.
+     *
+     * @return the number of pending {@link Timeout}s
+     */
+    public int pending() {
+        return pending.get();
+    }
+
+    /**
+     * Stop the wheel. Pending {@link Timeout}s are discarded.
+     */
+    public void stop() {
+        if (stopped.getAndSet(true)) return;
+
+        worker.interrupt();
+        if (shutdownExecutor && executor instanceof ExecutorService) {
+            ((ExecutorService) executor).shutdown();
+        }
+    }
+
+    private long now() {
+        return System.nanoTime() - startTime;
+    }
+
+    private void run() {
+        while (!stopped.get()) {
+            long deadline = tickDuration * (tick + 1);
+            long sleep = TimeUnit.NANOSECONDS.toMillis(deadline - now() + 999999);
+            if (sleep > 0) {
+                try {
+                    Thread.sleep(sleep);
+                } catch (InterruptedException e) {
+                    if (stopped.get()) break;
+                }
+                continue;
+            }
+
+            try {
+                removeCancelled();
+                transferScheduled();
+                expire(wheel[(int) (tick & mask)], deadline);
+            } catch (Throwable t) {
+                logger.warn("Unexpected exception in the timer wheel", t);
+            }
+            tick++;
+        }
+        scheduled.clear();
+        cancelled.clear();
+    }
+
+    private void removeCancelled() {
+        Timeout t;
+        while ((t = cancelled.poll()) != null) {
+            if (t.bucket != null) {
+                t.bucket.remove(t);
+            }
+        }
+    }
+
+    private void transferScheduled() {
+        for (int i = 0; i < MAX_TRANSFER_PER_TICK; i++) {
+            Timeout t = scheduled.poll();
+            if (t == null) break;
+            if (t.state.get() == PENDING) {
+                place(t);
+            }
+        }
+    }
+
+    private void place(Timeout t) {
+        long ticks = t.deadline / tickDuration;
+        t.remainingRounds = (ticks - tick) / wheel.length;
+        wheel[(int) (Math.max(ticks, tick) & mask)].add(t);
+    }
+
+    private void expire(Bucket bucket, long deadline) {
+        Timeout t = bucket.head;
+        while (t != null) {
+            Timeout next = t.next;
+            if (t.state.get() != PENDING) {
+                bucket.remove(t);
+            } else if (t.remainingRounds > 0) {
+                t.remainingRounds--;
+            } else if (t.deadline > deadline) {
+                // The Timeout has been extended, file it again.
+                bucket.remove(t);
+                place(t);
+            } else {
+                bucket.remove(t);
+                t.expire();
+            }
+            t = next;
+        }
+    }
+
+    /**
+     * A task scheduled by a {@link HashedTimerWheel}.
+     */
+    public final class Timeout {
+        private final Runnable task;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+        private volatile long delay;
+        private volatile long deadline;
+
+        // Only accessed by the worker thread.
+        private long remainingRounds;
+        private Bucket bucket;
+        private Timeout next;
+        private Timeout prev;
+
+        private Timeout(Runnable task, long delay, long deadline) {
+            this.task = task;
+            this.delay = delay;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancel the task.
+         *
+         * @return true if the task was pending and has been cancelled.
+         */
+        public boolean cancel() {
+            if (!state.compareAndSet(PENDING, CANCELLED)) {
+                return false;
+            }
+            pending.decrementAndGet();
+            cancelled.offer(this);
+            return true;
+        }
+
+        /**
+         * Push back the deadline by the delay used to schedule the task, or the last delay passed to {@link #extend(long, TimeUnit)}.
+         *
+         * @return true if the task was still pending and has been extended.
+         */
+        public boolean touch() {
+            deadline = now() + delay;
+            return state.get() == PENDING;
+        }
+
+        /**
+         * Push back the deadline by the given delay, starting now.
+         *
+         * @param delay the new delay
+         * @param unit  the {@link TimeUnit} of the delay
+         * @return true if the task was still pending and has been extended.
+         */
+        public boolean extend(long delay, TimeUnit unit) {
+            this.delay = Math.max(unit.toNanos(delay), 0);
+            return touch();
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+
+        private void expire() {
+            if (!state.compareAndSet(PENDING, EXPIRED)) {
+                return;
+            }
+            pending.decrementAndGet();
+
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                logger.trace("Unable to execute {}", task, e);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Timeout{" +
+                    "task=" + task +
+                    ", state=" + state.get() +
+                    '}';
+        }
+    }
+
+    private final static class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout t) {
+            t.bucket = this;
+            if (head == null) {
+                head = tail = t;
+            } else {
+                tail.next = t;
+                t.prev = tail;
+                tail = t;
+            }
+        }
+
+        void remove(Timeout t) {
+            if (t.bucket != this) return;
+
+            if (t.prev != null) {
+                t.prev.next = t.next;
+            } else {
+                head = t.next;
+            }
+
+            if (t.next != null) {
+                t.next.prev = t.prev;
+            } else {
+                tail = t.prev;
+            }
+
+            t.next = null;
+            t.prev = null;
+            t.bucket = null;
+        }
+    }
+}
@@ -122,6 +122,32 @@ public class IOUtils {
         }
     }
 
+    /**
+     * Return the number of bytes of the UTF-8 encoding of the characters, without encoding them.
+     *
+     * @param s the characters
+     * @return the number of bytes
+     */
+    public static long utf8Length(CharSequence s) {
+        int length = s.length();
+        long bytes = length;
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                continue;
+            } else if (c < 0x800) {
+                bytes++;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(s.charAt(i + 1))) {
+                // 4 bytes for the 2 chars
+                bytes += 2;
+                i++;
+            } else {
+                bytes += 2;
+            }
+        }
+        return bytes;
+    }
+
     public static StringBuilder readEntirelyAsString(AtmosphereResource r) throws IOException {
         final StringBuilder stringBuilder = new StringBuilder();
 
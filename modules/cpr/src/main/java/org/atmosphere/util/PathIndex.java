@@ -0,0 +1,274 @@
+/*
+ * Copyright 2008-2021 Async-IO.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atmosphere.util;
+
+import org.atmosphere.util.uri.UriTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An index of values keyed by a path like <code>/chat/room1/user</code>, stored in a trie of path segments. The index is used
+ * to find the values whose path may match a {@link UriTemplate} without evaluating the template against every path:
+ * literal segments of the template select a single child, template variables select all children of a node and only
+ * a regex, like the one produced by {@link org.atmosphere.cpr.DefaultMetaBroadcaster} for <code>*</code>, selects whole
+ * sub trees.
+ * <p/>
+ * {@link #candidates(String)} may return values that don't match the template, hence the template must still be matched
+ * against every candidate. It never omits a matching value.
+ * <p/>
+ * Lookups are lock free, updates are serialized.
+ */
+public class PathIndex<T> {
+
+    private static final int LITERAL = 0;
+    private static final int SEGMENT = 1;
+    private static final int DEEP = 2;
+
+    private final Node<T> root = new Node<T>();
+    private int size;
+
+    /**
+     * Add a value.
+     *
+     * @param path  the path
+     * @param value the value
+     * @return the value previously associated with the path, or null
+     */
+    public synchronized T add(String path, T value) {
+        Node<T> node = root;
+        for (String s : split(path, false)) {
+            node = node.child(s);
+        }
+
+        T previous = node.value;
+        node.value = value;
+        if (previous == null) size++;
+        return previous;
+    }
+
+    /**
+     * Remove a value, if still associated with the path.
+     *
+     * @param path  the path
+     * @param value the value
+     * @return true if removed
+     */
+    public synchronized boolean remove(String path, T value) {
+        List<Node<T>> branch = new ArrayList<Node<T>>();
+        List<String> segments = split(path, false);
+
+        Node<T> node = root;
+        for (String s : segments) {
+            branch.add(node);
+            node = node.children == null ? null : node.children.get(s);
+            if (node == null) return false;
+        }
+
+        if (node.value != value) return false;
+        node.value = null;
+        size--;
+
+        // Prune the empty nodes.
+        for (int i = segments.size() - 1; i >= 0 && node.value == null && node.isLeaf(); i--) {
+            Node<T> parent = branch.get(i);
+            parent.children.remove(segments.get(i));
+            node = parent;
+        }
+        return true;
+    }
+
+    public synchronized void clear() {
+        root.children = null;
+        size = 0;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Return the values whose path may match the {@link UriTemplate}.
+     *
+     * @param template a {@link UriTemplate}
+     * @return the candidates
+     */
+    public List<T> candidates(String template) {
+        List<T> candidates = new ArrayList<T>();
+        if (template.indexOf('|') != -1 || template.indexOf('^') != -1) {
+            collect(root, candidates);
+        } else {
+            walk(root, split(template, true), 0, candidates);
+        }
+        return candidates;
+    }
+
+    private void walk(Node<T> node, List<String> segments, int i, List<T> candidates) {
+        if (i == segments.size()) {
+            if (node.value != null) candidates.add(node.value);
+            return;
+        }
+
+        Map<String, Node<T>> children = node.children;
+        String s = segments.get(i);
+        switch (kind(s)) {
+            case LITERAL:
+                Node<T> child = children == null ? null : children.get(s);
+                if (child != null) {
+                    walk(child, segments, i + 1, candidates);
+                }
+                break;
+            case SEGMENT:
+                if (children == null) break;
+                String prefix = s.substring(0, s.indexOf('{'));
+                for (Map.Entry<String, Node<T>> e : children.entrySet()) {
+                    if (e.getKey().startsWith(prefix)) {
+                        walk(e.getValue(), segments, i + 1, candidates);
+                    }
+                }
+                break;
+            default:
+                int regex = firstRegexCharacter(s);
+                if (s.charAt(regex) == '*' && regex == 0) {
+                    // The separator itself is optional.
+                    collect(node, candidates);
+                    break;
+                }
+
+                if (children == null) break;
+                prefix = s.substring(0, s.charAt(regex) == '*' ? regex - 1 : regex);
+                for (Map.Entry<String, Node<T>> e : children.entrySet()) {
+                    if (e.getKey().startsWith(prefix)) {
+                        collect(e.getValue(), candidates);
+                    }
+                }
+        }
+    }
+
+    private void collect(Node<T> node, List<T> candidates) {
+        if (node.value != null) candidates.add(node.value);
+        Map<String, Node<T>> children = node.children;
+        if (children != null) {
+            for (Node<T> n : children.values()) {
+                collect(n, candidates);
+            }
+        }
+    }
+
+    /**
+     * Classify a template segment: a literal only matches itself, a segment made of default template variables matches
+     * a single path segment, anything else may span several path segments.
+     */
+    private static int kind(String s) {
+        int kind = LITERAL;
+        boolean variable = false;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (variable) {
+                if (c == '}') {
+                    variable = false;
+                } else if (c == ':') {
+                    return DEEP;
+                }
+                continue;
+            }
+
+            switch (c) {
+                case '{':
+                    variable = true;
+                    kind = SEGMENT;
+                    break;
+                case '}':
+                case '[':
+                case ']':
+                case '*':
+                case '+':
+                case '$':
+                case '\\':
+                    return DEEP;
+                default:
+            }
+        }
+        return kind;
+    }
+
+    private static int firstRegexCharacter(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            switch (s.charAt(i)) {
+                case '{':
+                case '}':
+                case '[':
+                case ']':
+                case '*':
+                case '+':
+                case '$':
+                case '\\':
+                    return i;
+                default:
+            }
+        }
+        return s.length();
+    }
+
+    /**
+     * Split a path in segments. Separators inside a template variable or a character class don't split the template.
+     */
+    private static List<String> split(String path, boolean template) {
+        List<String> segments = new ArrayList<String>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (template) {
+                if (c == '{' || c == '[') {
+                    depth++;
+                } else if ((c == '}' || c == ']') && depth > 0) {
+                    depth--;
+                }
+            }
+
+            if (c == '/' && depth == 0) {
+                segments.add(path.substring(start, i));
+                start = i + 1;
+            }
+        }
+        segments.add(path.substring(start));
+        return segments;
+    }
+
+    private final static class Node<T> {
+        volatile T value;
+        volatile Map<String, Node<T>> children;
+
+        Node<T> child(String segment) {
+            if (children == null) {
+                children = new ConcurrentHashMap<String, Node<T>>();
+            }
+            Node<T> n = children.get(segment);
+            if (n == null) {
+                n = new Node<T>();
+                children.put(segment, n);
+            }
+            return n;
+        }
+
+        boolean isLeaf() {
+            return children == null || children.isEmpty();
+        }
+    }
+}
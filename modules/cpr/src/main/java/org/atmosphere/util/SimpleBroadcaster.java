@@ -83,7 +83,7 @@ public class SimpleBroadcaster extends DefaultBroadcaster {
 
         Object newMsg = filter(msg);
         if (newMsg == null) return null;
-        BroadcasterFuture<Object> f = new BroadcasterFuture<Object>(newMsg);
+        BroadcasterFuture<Object> f = new BroadcasterFuture<Object>(newMsg, resources.isEmpty() ? 1 : resources.size());
         push(new Deliver(newMsg, f, msg));
         return f;
     }
@@ -118,7 +118,7 @@ public class SimpleBroadcaster extends DefaultBroadcaster {
         Object newMsg = filter(msg);
         if (newMsg == null) return null;
 
-        BroadcasterFuture<Object> f = new BroadcasterFuture<Object>(newMsg);
+        BroadcasterFuture<Object> f = new BroadcasterFuture<Object>(newMsg, subset.size());
         push(new Deliver(newMsg, subset, f, msg));
         return f;
     }
@@ -226,6 +226,28 @@ public final class Utils {
         return null;
     }
 
+    /**
+     * <p>
+     * Manages the invocation of the given {@link CompiledMethod} on the specified 'proxied' instance. Logs any invocation failure.
+     * </p>
+     *
+     * @param proxiedInstance the instance
+     * @param m               the method to invoke that belongs to the instance
+     * @param o               the optional parameter
+     * @return the result of the invocation
+     */
+    public static Object invoke(final Object proxiedInstance, CompiledMethod m, Object o) {
+        if (m != null) {
+            try {
+                return (o == null || m.arity() == 0) ? m.invoke(proxiedInstance) : m.invoke(proxiedInstance, o);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                LOGGER.error("", e);
+            }
+        }
+        LOGGER.trace("No Method Mapped for {}", o);
+        return null;
+    }
+
     public static void inject(AtmosphereResource r) throws IllegalAccessException {
         AtmosphereConfig config = r.getAtmosphereConfig();
 
@@ -38,10 +38,13 @@ package org.atmosphere.util.annotation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
 import java.io.DataInput;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.net.JarURLConnection;
@@ -58,6 +61,10 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 
@@ -125,6 +132,11 @@ import java.util.jar.JarFile;
  * <p/>
  * All above mentioned projects make use of a byte code manipulation library (like BCEL,
  * ASM or Javassist).
+ * <p/>
+ * With a {@link #parallelism(int)} greater than one, the files, directories and jars are read
+ * by a {@link ForkJoinPool}: every jar and every chunk of {@link #CHUNK_SIZE} class files of a
+ * directory is read by a worker with its own {@link ClassFileBuffer}. The detected annotations
+ * are reported by the calling thread, in the same order as a sequential scan.
  *
  * @author <a href="mailto:rmuller@xiam.nl">Ronald K. Muller</a>
  * @since annotation-detector 3.0.0
@@ -221,10 +233,22 @@ public final class AnnotationDetector {
     private static final int ANNOTATION = '@';
     private static final int ARRAY = '[';
 
+    /**
+     * The number of class files of a directory read by a worker, when scanning in parallel.
+     */
+    static final int CHUNK_SIZE = 256;
+
     // The buffer is reused during the life cycle of this AnnotationDetector instance
     private final ClassFileBuffer cpBuffer = new ClassFileBuffer();
     // the annotation types to report, see {@link #annotations()}
     private final Map<String, Class<? extends Annotation>> annotations;
+    // the "raw" type names, encoded as in the constant pool
+    private final byte[][] descriptors;
+    private int parallelism = 1;
+    // the reporter of the annotations, wrapped by the Recorder of the workers
+    private final Reporter reporter;
+    // the detected annotations, if this AnnotationDetector is a worker
+    private final Recorder recorder;
 
     private TypeReporter typeReporter;
     private FieldReporter fieldReporter;
@@ -260,6 +284,34 @@ public final class AnnotationDetector {
         if (typeReporter == null && fieldReporter == null && methodReporter == null) {
             throw new AssertionError("No reporter defined");
         }
+        descriptors = descriptors(annotations.keySet());
+        this.reporter = reporter;
+        recorder = null;
+    }
+
+    /**
+     * Create a worker, recording the annotations detected for the same annotation types as the parent.
+     */
+    private AnnotationDetector(final AnnotationDetector parent, final Recorder recorder) {
+        annotations = parent.annotations;
+        descriptors = parent.descriptors;
+        typeReporter = parent.typeReporter == null ? null : recorder;
+        fieldReporter = parent.fieldReporter == null ? null : recorder;
+        methodReporter = parent.methodReporter == null ? null : recorder;
+        reporter = parent.reporter;
+        this.recorder = recorder;
+    }
+
+    /**
+     * Set the number of threads reading the files, directories and jars. Default is 1, e.g the
+     * calling thread reads them.
+     *
+     * @param parallelism the number of threads
+     * @return this
+     */
+    public AnnotationDetector parallelism(final int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+        return this;
     }
 
     /**
@@ -268,7 +320,7 @@ public final class AnnotationDetector {
      * @see #detect(File...)
      */
     public void detect() throws IOException {
-        detect(new ClassFileIterator());
+        detect(ClassFileIterator.classPath(), null);
     }
 
     /**
@@ -384,7 +436,7 @@ public final class AnnotationDetector {
         }
 
         if (!files.isEmpty()) {
-            detect(new ClassFileIterator(files.toArray(new File[files.size()]), pkgNameFilter));
+            detect(files.toArray(new File[files.size()]), pkgNameFilter);
         } else if (!streams.isEmpty()) {
             detect(new ClassFileIterator(streams.toArray(new InputStream[streams.size()]), pkgNameFilter));
         }
@@ -481,7 +533,118 @@ public final class AnnotationDetector {
      */
     public void detect(final File... filesOrDirectories) throws IOException {
         print("detectFilesOrDirectories: %s", (Object) filesOrDirectories);
-        detect(new ClassFileIterator(filesOrDirectories, null));
+        detect(filesOrDirectories, null);
+    }
+
+    private void detect(final File[] filesOrDirectories, final String[] pkgNameFilter) throws IOException {
+        if (parallelism == 1) {
+            detect(new ClassFileIterator(filesOrDirectories, pkgNameFilter));
+            return;
+        }
+
+        final List<Callable<Recorder>> workers = new ArrayList<Callable<Recorder>>();
+        for (final File[] files : split(filesOrDirectories)) {
+            workers.add(new Callable<Recorder>() {
+                @Override
+                public Recorder call() throws Exception {
+                    final Recorder result = new Recorder(reporter);
+                    final AnnotationDetector worker = new AnnotationDetector(AnnotationDetector.this, result);
+                    final ClassFileIterator iterator = new ClassFileIterator(files, pkgNameFilter);
+                    try {
+                        worker.detect(iterator);
+                    } finally {
+                        worker.cpBuffer.destroy();
+                    }
+                    result.failed = iterator.failed();
+                    return result;
+                }
+            });
+        }
+
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            for (Future<Recorder> f : pool.invokeAll(workers)) {
+                final Recorder result = f.get();
+                result.replay(this);
+                // A sequential scan stops at the first error
+                if (result.failed) {
+                    break;
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof IOException) {
+                throw (IOException) ex.getCause();
+            }
+            throw new IOException(ex.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Split the files and directories in the work of the workers, in the order of a
+     * {@link ClassFileIterator}. Only the class files of a directory are read, not its jars.
+     */
+    private static List<File[]> split(final File[] filesOrDirectories) throws IOException {
+        final List<File[]> split = new ArrayList<File[]>();
+        for (final File root : filesOrDirectories) {
+            if (!root.isDirectory()) {
+                split.add(new File[]{root});
+                continue;
+            }
+
+            final FileIterator iterator = new FileIterator(root);
+            final List<File> chunk = new ArrayList<File>(CHUNK_SIZE);
+            File file;
+            while ((file = iterator.next()) != null) {
+                if (file.getName().endsWith(".class")) {
+                    chunk.add(file);
+                    if (chunk.size() == CHUNK_SIZE) {
+                        split.add(chunk.toArray(new File[chunk.size()]));
+                        chunk.clear();
+                    }
+                }
+            }
+            if (!chunk.isEmpty()) {
+                split.add(chunk.toArray(new File[chunk.size()]));
+            }
+        }
+        return split;
+    }
+
+    /**
+     * Encode the "raw" type names as the CP_UTF8 entries of the constant pool.
+     */
+    private static byte[][] descriptors(final Set<String> rawTypeNames) {
+        final byte[][] descriptors = new byte[rawTypeNames.size()][];
+        int i = 0;
+        for (final String name : rawTypeNames) {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try {
+                new DataOutputStream(bytes).writeUTF(name);
+            } catch (IOException ex) {
+                throw new IllegalStateException(ex);
+            }
+            // Skip the length
+            descriptors[i++] = Arrays.copyOfRange(bytes.toByteArray(), 2, bytes.size());
+        }
+        return descriptors;
+    }
+
+    /**
+     * Return {@code false} if none of the annotation types to report is in the constant pool,
+     * hence the class file doesn't need to be parsed.
+     */
+    private boolean mayReport(final ClassFileBuffer buffer) {
+        for (final byte[] descriptor : descriptors) {
+            if (buffer.contains(descriptor)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     // private
@@ -505,8 +668,11 @@ public final class AnnotationDetector {
         InputStream stream;
         while ((stream = iterator.next()) != null) {
             try {
+                if (recorder != null) {
+                    recorder.nextClassFile();
+                }
                 cpBuffer.readFrom(stream);
-                if (hasCafebabe(cpBuffer)) {
+                if (hasCafebabe(cpBuffer) && mayReport(cpBuffer)) {
                     detect(cpBuffer);
                 } // else ignore
             } catch (Throwable t) { // SUPPRESS CHECKSTYLE IllegalCatchCheck
@@ -804,6 +970,88 @@ public final class AnnotationDetector {
         }
     }
 
+    /**
+     * The annotations detected by a worker, reported by the calling thread once the worker is done.
+     */
+    private static final class Recorder implements TypeReporter, FieldReporter, MethodReporter {
+
+        private final Reporter reporter;
+        private final List<Report> reports = new ArrayList<Report>();
+        private int classFile;
+        private boolean failed;
+
+        Recorder(final Reporter reporter) {
+            this.reporter = reporter;
+        }
+
+        void nextClassFile() {
+            classFile++;
+        }
+
+        @Override
+        public Class<? extends Annotation>[] annotations() {
+            return reporter.annotations();
+        }
+
+        @Override
+        public void reportTypeAnnotation(final Class<? extends Annotation> annotation, final String className) {
+            reports.add(new Report(classFile, 'T', annotation, className, null));
+        }
+
+        @Override
+        public void reportFieldAnnotation(final Class<? extends Annotation> annotation, final String className,
+                                          final String fieldName) {
+            reports.add(new Report(classFile, 'F', annotation, className, fieldName));
+        }
+
+        @Override
+        public void reportMethodAnnotation(final Class<? extends Annotation> annotation, final String className,
+                                           final String methodName) {
+            reports.add(new Report(classFile, 'M', annotation, className, methodName));
+        }
+
+        void replay(final AnnotationDetector detector) {
+            int skipped = 0;
+            for (final Report r : reports) {
+                if (r.classFile == skipped) {
+                    continue;
+                }
+                try {
+                    switch (r.reporterType) {
+                        case 'T':
+                            detector.typeReporter.reportTypeAnnotation(r.annotation, r.className);
+                            break;
+                        case 'F':
+                            detector.fieldReporter.reportFieldAnnotation(r.annotation, r.className, r.memberName);
+                            break;
+                        default:
+                            detector.methodReporter.reportMethodAnnotation(r.annotation, r.className, r.memberName);
+                    }
+                } catch (Throwable t) { // SUPPRESS CHECKSTYLE IllegalCatchCheck
+                    // As a sequential scan, skip the other annotations of the class file
+                    skipped = r.classFile;
+                }
+            }
+        }
+    }
+
+    private static final class Report {
+        final int classFile;
+        final char reporterType;
+        final Class<? extends Annotation> annotation;
+        final String className;
+        final String memberName;
+
+        Report(final int classFile, final char reporterType, final Class<? extends Annotation> annotation,
+               final String className, final String memberName) {
+            this.classFile = classFile;
+            this.reporterType = reporterType;
+            this.annotation = annotation;
+            this.className = className;
+            this.memberName = memberName;
+        }
+    }
+
     /**
      * Reclaim memory.
      */
@@ -113,6 +113,23 @@ final class ClassFileBuffer implements DataInput {
         this.pointer = position;
     }
 
+    /**
+     * Return {@code true} if the bytes appear in this Java ClassFile file, regardless of the read pointer.
+     */
+    public boolean contains(final byte[] bytes) {
+        final int last = size - bytes.length;
+        outer:
+        for (int i = 0; i <= last; ++i) {
+            for (int j = 0; j < bytes.length; ++j) {
+                if (buffer[i + j] != bytes[j]) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
     /**
      * Return the size (in bytes) of this Java ClassFile file.
      */
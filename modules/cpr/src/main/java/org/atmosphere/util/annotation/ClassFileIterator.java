@@ -62,6 +62,7 @@ final class ClassFileIterator {
     private final String[] pkgNameFilter;
     private ZipFileIterator zipIterator;
     private boolean isFile;
+    private boolean failed;
     private final InputStreamIterator inputStreamIterator;
 
     /**
@@ -124,6 +125,14 @@ final class ClassFileIterator {
         return isFile;
     }
 
+    /**
+     * Return {@code true} if {@link #next()} returned {@code null} because of an error, not because all the files
+     * have been returned.
+     */
+    boolean failed() {
+        return failed;
+    }
+
     /**
      * Return the next Java ClassFile as an {@code InputStream}.
      * <p/>
@@ -147,6 +156,7 @@ final class ClassFileIterator {
                                     zipIterator = new ZipFileIterator(new ZipFile(file), pkgNameFilter);
                                 } catch (Exception ex) {
                                     logger.debug("Unable to construct file {}", file);
+                                    failed = true;
                                     return null;
                                 }
                             } // else just ignore
@@ -166,6 +176,7 @@ final class ClassFileIterator {
             }
         } catch (Exception ex) {
             logger.error("Unable to scan classes", ex);
+            failed = true;
             return null;
         }
     }
@@ -196,7 +207,7 @@ final class ClassFileIterator {
     /**
      * Returns the class path of the current JVM instance as an array of {@link File} objects.
      */
-    private static File[] classPath() {
+    static File[] classPath() {
         final String[] fileNames = System.getProperty("java.class.path")
                 .split(File.pathSeparator);
         final File[] files = new File[fileNames.length];
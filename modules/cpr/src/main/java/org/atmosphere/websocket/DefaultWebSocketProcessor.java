@@ -34,9 +34,12 @@ import org.atmosphere.cpr.AtmosphereResponse;
 import org.atmosphere.cpr.AtmosphereResponseImpl;
 import org.atmosphere.cpr.FrameworkConfig;
 import org.atmosphere.cpr.HeaderConfig;
+import org.atmosphere.util.CompiledEndpointMapper;
 import org.atmosphere.util.DefaultEndpointMapper;
 import org.atmosphere.util.EndpointMapper;
 import org.atmosphere.util.ExecutorsFactory;
+import org.atmosphere.util.HashedTimerWheel;
+import org.atmosphere.util.IOUtils;
 import org.atmosphere.util.Utils;
 import org.atmosphere.util.VoidExecutorService;
 import org.atmosphere.websocket.WebSocketEventListener.WebSocketEvent;
@@ -56,6 +59,7 @@ import java.io.StringReader;
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
+import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.List;
@@ -63,10 +67,7 @@ import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicReference;
 
 import static org.atmosphere.cpr.Action.TYPE.SKIP_ATMOSPHEREHANDLER;
 import static org.atmosphere.cpr.ApplicationConfig.ALLOW_WEBSOCKET_STATUS_CODE_1005_AS_DISCONNECT;
@@ -74,6 +75,9 @@ import static org.atmosphere.cpr.ApplicationConfig.INVOKE_ATMOSPHERE_INTERCEPTOR
 import static org.atmosphere.cpr.ApplicationConfig.IN_MEMORY_STREAMING_BUFFER_SIZE;
 import static org.atmosphere.cpr.ApplicationConfig.RECYCLE_ATMOSPHERE_REQUEST_RESPONSE;
 import static org.atmosphere.cpr.ApplicationConfig.SUSPENDED_ATMOSPHERE_RESOURCE_UUID;
+import static org.atmosphere.cpr.ApplicationConfig.WEBSOCKET_BUFFER_POOL_SIZE;
+import static org.atmosphere.cpr.ApplicationConfig.WEBSOCKET_BUFFER_SIZE;
+import static org.atmosphere.cpr.ApplicationConfig.WEBSOCKET_POOL_REQUEST_RESPONSE;
 import static org.atmosphere.cpr.ApplicationConfig.WEBSOCKET_PROTOCOL_EXECUTION;
 import static org.atmosphere.cpr.AtmosphereFramework.REFLECTOR_ATMOSPHEREHANDLER;
 import static org.atmosphere.cpr.Broadcaster.ROOT_MASTER;
@@ -97,16 +101,18 @@ public class DefaultWebSocketProcessor implements WebSocketProcessor, Serializab
     private /* final */ AtmosphereFramework framework;
     private /* final */ WebSocketProtocol webSocketProtocol;
     private /* final */ boolean destroyable;
+    private /* final */ boolean pooled;
     private /* final */ boolean executeAsync;
     private ExecutorService asyncExecutor;
-    private ScheduledExecutorService scheduler;
+    private HashedTimerWheel timerWheel;
     private final Map<String, WebSocketHandlerProxy> handlers = new ConcurrentHashMap<String, WebSocketHandlerProxy>();
-    private final EndpointMapper<WebSocketHandlerProxy> mapper = new DefaultEndpointMapper<WebSocketHandlerProxy>();
+    private EndpointMapper<WebSocketHandlerProxy> mapper = new DefaultEndpointMapper<WebSocketHandlerProxy>();
     private boolean allow1005StatusCode;
     private boolean wildcardMapping;
     // 2MB - like maxPostSize
     private int byteBufferMaxSize = 2097152;
     private int charBufferMaxSize = 2097152;
+    private WebSocketBufferPool bufferPool;
     private /* final */ long closingTime;
     private AsynchronousProcessor asynchronousProcessor;
     private /* final */ boolean invokeInterceptors;
@@ -119,6 +125,7 @@ public class DefaultWebSocketProcessor implements WebSocketProcessor, Serializab
         this.webSocketProtocol = framework.getWebSocketProtocol();
 
         destroyable = Boolean.parseBoolean(framework.getAtmosphereConfig().getInitParameter(RECYCLE_ATMOSPHERE_REQUEST_RESPONSE));
+        pooled = Boolean.parseBoolean(framework.getAtmosphereConfig().getInitParameter(WEBSOCKET_POOL_REQUEST_RESPONSE));
         executeAsync = Boolean.parseBoolean(framework.getAtmosphereConfig().getInitParameter(WEBSOCKET_PROTOCOL_EXECUTION));
         allow1005StatusCode = Boolean.parseBoolean(framework.getAtmosphereConfig().getInitParameter(ALLOW_WEBSOCKET_STATUS_CODE_1005_AS_DISCONNECT));
 
@@ -128,13 +135,30 @@ public class DefaultWebSocketProcessor implements WebSocketProcessor, Serializab
             charBufferMaxSize = byteBufferMaxSize;
         }
 
+        bufferPool = new WebSocketBufferPool(config.getInitParameter(WEBSOCKET_BUFFER_SIZE, 8192),
+                byteBufferMaxSize, Long.parseLong(config.getInitParameter(WEBSOCKET_BUFFER_POOL_SIZE, "16777216")));
+        if (config.getInitParameter(ApplicationConfig.METRICS) != null) {
+            bufferPool.register(config);
+        }
+
         if (executeAsync) {
             asyncExecutor = ExecutorsFactory.getAsyncOperationExecutor(config, "WebSocket");
         } else {
             asyncExecutor = VoidExecutorService.VOID;
         }
 
-        scheduler = ExecutorsFactory.getScheduler(config);
+        // Like the scheduler it replaced, the wheel is private to this processor unless executors are shared.
+        timerWheel = framework.isShareExecutorServices() ? ExecutorsFactory.getTimerWheel(config) : ExecutorsFactory.newTimerWheel(config);
+
+        s = config.getInitParameter(ApplicationConfig.ENDPOINT_MAPPER);
+        if (s != null) {
+            try {
+                mapper = framework.newClassInstance(EndpointMapper.class, (Class<EndpointMapper>) IOUtils.loadClass(getClass(), s));
+                mapper.configure(config);
+            } catch (Exception ex) {
+                logger.error("Cannot load the EndpointMapper {}", s, ex);
+            }
+        }
         optimizeMapping();
 
         closingTime = Long.valueOf(config.getInitParameter(ApplicationConfig.CLOSED_ATMOSPHERE_THINK_TIME, "0"));
@@ -165,6 +189,9 @@ public class DefaultWebSocketProcessor implements WebSocketProcessor, Serializab
     @Override
     public WebSocketProcessor registerWebSocketHandler(String path, WebSocketHandlerProxy webSockethandler) {
         handlers.put(path, webSockethandler.path(path));
+        if (mapper instanceof CompiledEndpointMapper) {
+            ((CompiledEndpointMapper) mapper).invalidate();
+        }
         return this;
     }
 
@@ -224,18 +251,10 @@ public class DefaultWebSocketProcessor implements WebSocketProcessor, Serializab
             if (webSocket.resource() != null) {
                 final Action action = ((AtmosphereResourceImpl) webSocket.resource()).action();
                 if (action.timeout() != -1 && !framework.getAsyncSupport().getContainerName().contains("Netty")) {
-                    final AtomicReference<Future<?>> f = new AtomicReference();
-                    f.set(scheduler.scheduleAtFixedRate(new Runnable() {
-                        @Override
-                        public void run() {
-                            if (WebSocket.class.isAssignableFrom(webSocket.getClass())
-                                    && System.currentTimeMillis() - WebSocket.class.cast(webSocket).lastWriteTimeStampInMilliseconds() > action.timeout()) {
-                                asynchronousProcessor.endRequest(((AtmosphereResourceImpl) webSocket.resource()), false);
-                                f.get().cancel(true);
-                            }
-                        }
-                    }, action.timeout(), action.timeout(), TimeUnit.MILLISECONDS));
+                    scheduleIdleTimeout(webSocket, action.timeout(), action.timeout());
                 }
+                // Counted as close() counts the closes, only when there is an AtmosphereResource.
+                framework.metrics().onWebSocketOpen(webSocket);
             } else {
                 logger.warn("AtmosphereResource was null");
                 cleanUpAfterDisconnect = true;
@@ -330,12 +349,17 @@ public class DefaultWebSocketProcessor implements WebSocketProcessor, Serializab
                 asyncExecutor.execute(new Runnable() {
                     @Override
                     public void run() {
-                        AtmosphereResponse w = new AtmosphereResponseImpl(webSocket, r, destroyable);
+                        AtmosphereResponse w = pooled ? webSocket.response(r, destroyable) : new AtmosphereResponseImpl(webSocket, r, destroyable);
+                        boolean recycle = false;
                         try {
-                            dispatch(webSocket, r, w);
+                            recycle = reusable(r, doDispatch(webSocket, r, w));
                         } finally {
-                            r.destroy();
-                            w.destroy();
+                            if (recycle) {
+                                webSocket.recycle(r, w);
+                            } else {
+                                r.destroy();
+                                w.destroy();
+                            }
                         }
                     }
                 });
@@ -388,15 +412,18 @@ public class DefaultWebSocketProcessor implements WebSocketProcessor, Serializab
 
         AtmosphereFramework.AtmosphereHandlerWrapper w = framework.getAtmosphereHandlers().get(framework.normalizePath(path));
         List<AtmosphereInterceptor> l;
+        String mapping;
         if (w == null) {
             l = framework.interceptors();
+            mapping = null;
         } else {
             l = w.interceptors;
+            mapping = w.mapping;
         }
 
         // Globally defined
         int tracing = 0;
-        Action a = asynchronousProcessor.invokeInterceptors(l, resource, tracing);
+        Action a = asynchronousProcessor.invokeInterceptors(l, resource, tracing, mapping);
         if (a.type() != Action.TYPE.CONTINUE && a.type() != Action.TYPE.SKIP_ATMOSPHEREHANDLER) {
             return;
         }
@@ -424,7 +451,7 @@ public class DefaultWebSocketProcessor implements WebSocketProcessor, Serializab
             }
             request.setAttribute(SKIP_ATMOSPHEREHANDLER.name(), Boolean.FALSE);
         } finally {
-            asynchronousProcessor.postInterceptors(l, resource);
+            asynchronousProcessor.postInterceptors(l, resource, mapping);
         }
     }
 
@@ -458,6 +485,7 @@ public class DefaultWebSocketProcessor implements WebSocketProcessor, Serializab
                 return;
             }
         }
+        framework.metrics().onWebSocketMessage(webSocket);
         notifyListener(webSocket, new WebSocketEventListener.WebSocketEvent(webSocketMessage, MESSAGE, webSocket));
     }
 
@@ -491,6 +519,7 @@ public class DefaultWebSocketProcessor implements WebSocketProcessor, Serializab
                 return;
             }
         }
+        framework.metrics().onWebSocketMessage(webSocket);
         notifyListener(webSocket, new WebSocketEventListener.WebSocketEvent<byte[]>(data, MESSAGE, webSocket));
     }
 
@@ -524,6 +553,7 @@ public class DefaultWebSocketProcessor implements WebSocketProcessor, Serializab
             handleException(ex, webSocket, webSocketHandler);
         }
 
+        framework.metrics().onWebSocketMessage(webSocket);
         notifyListener(webSocket, new WebSocketEventListener.WebSocketEvent<InputStream>(stream, MESSAGE, webSocket));
     }
 
@@ -556,6 +586,7 @@ public class DefaultWebSocketProcessor implements WebSocketProcessor, Serializab
             handleException(ex, webSocket, webSocketHandler);
         }
 
+        framework.metrics().onWebSocketMessage(webSocket);
         notifyListener(webSocket, new WebSocketEventListener.WebSocketEvent<Reader>(reader, MESSAGE, webSocket));
     }
 
@@ -578,10 +609,15 @@ public class DefaultWebSocketProcessor implements WebSocketProcessor, Serializab
      * @param r       a {@link AtmosphereResponse}
      */
     public final void dispatch(WebSocket webSocket, final AtmosphereRequest request, final AtmosphereResponse r) {
-        if (request == null) return;
+        doDispatch(webSocket, request, r);
+    }
+
+    private Action doDispatch(WebSocket webSocket, final AtmosphereRequest request, final AtmosphereResponse r) {
+        if (request == null) return null;
 
+        Action a;
         try {
-            framework.doCometSupport(request, r);
+            a = framework.doCometSupport(request, r);
         } catch (Throwable e) {
             logger.warn("Failed invoking AtmosphereFramework.doCometSupport()", e);
             webSocketProtocol.onError(webSocket, new WebSocketException(e,
@@ -589,12 +625,25 @@ public class DefaultWebSocketProcessor implements WebSocketProcessor, Serializab
                             .request(request)
                             .status(500)
                             .statusMessage("Server Error").build()));
-            return;
+            return null;
         }
 
         if (r.getStatus() >= 400) {
             webSocketProtocol.onError(webSocket, new WebSocketException("Status code higher or equal than 400", r));
+            return null;
+        }
+        return a;
+    }
+
+    /**
+     * Return true if the request and response of a dispatched message can be recycled: nothing suspended or kept them.
+     */
+    private boolean reusable(AtmosphereRequest request, Action a) {
+        if (!pooled || a == null || a.type() == Action.TYPE.SUSPEND || framework.externalizeDestroy()) {
+            return false;
         }
+        AtmosphereResource resource = request.resource();
+        return resource == null || !resource.isSuspended();
     }
 
     @Override
@@ -610,6 +659,7 @@ public class DefaultWebSocketProcessor implements WebSocketProcessor, Serializab
         if (resource == null) {
             logger.trace("Already closed {}", webSocket);
         } else {
+            framework.metrics().onWebSocketClose(webSocket);
             final boolean allowedToClose = allowedCloseCode(closeCode);
 
             final AtmosphereRequest r = resource.getRequest(false);
@@ -708,6 +758,27 @@ public class DefaultWebSocketProcessor implements WebSocketProcessor, Serializab
         }
     }
 
+    /**
+     * Close the {@link WebSocket} once nothing has been written for the timeout. The check is re-scheduled for the
+     * remaining time every time the {@link WebSocket} has been written since, so a single timer is used per {@link WebSocket}.
+     */
+    private void scheduleIdleTimeout(final WebSocket webSocket, final long timeout, long delay) {
+        timerWheel.schedule(new Runnable() {
+            @Override
+            public void run() {
+                AtmosphereResourceImpl r = (AtmosphereResourceImpl) webSocket.resource();
+                if (r == null || !webSocket.isOpen()) return;
+
+                long idle = System.currentTimeMillis() - webSocket.lastWriteTimeStampInMilliseconds();
+                if (idle > timeout) {
+                    asynchronousProcessor.endRequest(r, false);
+                } else {
+                    scheduleIdleTimeout(webSocket, timeout, Math.max(timeout - idle, 1));
+                }
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
     @Override
     public void destroy() {
         boolean shared = framework.isShareExecutorServices();
@@ -715,8 +786,12 @@ public class DefaultWebSocketProcessor implements WebSocketProcessor, Serializab
             asyncExecutor.shutdown();
         }
 
-        if (scheduler != null && !shared) {
-            scheduler.shutdown();
+        if (timerWheel != null && !shared) {
+            timerWheel.stop();
+        }
+
+        if (bufferPool != null) {
+            bufferPool.destroy();
         }
     }
 
@@ -795,81 +870,76 @@ public class DefaultWebSocketProcessor implements WebSocketProcessor, Serializab
 
     protected void dispatchStream(WebSocket webSocket, InputStream is) throws IOException {
         int read = 0;
-        ByteBuffer bb = webSocket.bb;
+        ByteBuffer bb = bufferPool.byteBuffer(0);
         try {
             while (read > -1) {
                 ((Buffer)bb).position(((Buffer)bb).position() + read);
                 if (bb.remaining() == 0) {
-                    bb = resizeByteBuffer(webSocket);
+                    bb = resizeByteBuffer(bb);
                 }
                 read = is.read(bb.array(), ((Buffer)bb).position(), bb.remaining());
             }
             ((Buffer)bb).flip();
 
-            invokeWebSocketProtocol(webSocket, ((ByteBuffer)bb).array(), 0, ((Buffer)bb).limit());
+            // The buffer goes back to the pool, the message must not reference it.
+            byte[] data = Arrays.copyOf(bb.array(), ((Buffer)bb).limit());
+            invokeWebSocketProtocol(webSocket, data, 0, data.length);
         } finally {
-            ((Buffer)bb).clear();
+            bufferPool.release(bb);
         }
     }
 
     protected void dispatchReader(WebSocket webSocket, Reader r) throws IOException {
         int read = 0;
-        CharBuffer cb = webSocket.cb;
+        CharBuffer cb = bufferPool.charBuffer(0);
         try {
             while (read > -1) {
                 ((Buffer)cb).position(((Buffer)cb).position() + read);
                 if (cb.remaining() == 0) {
-                    cb = resizeCharBuffer(webSocket);
+                    cb = resizeCharBuffer(cb);
                 }
                 read = r.read(cb.array(), ((Buffer)cb).position(), cb.remaining());
             }
             ((Buffer)cb).flip();
             invokeWebSocketProtocol(webSocket, cb.toString());
         } finally {
-            ((Buffer)cb).clear();
+            bufferPool.release(cb);
         }
     }
 
-    private ByteBuffer resizeByteBuffer(WebSocket webSocket) throws IOException {
-        int maxSize = byteBufferMaxSize;
-        Buffer bb = webSocket.bb;
-        if (((Buffer)bb).limit() >= maxSize) {
+    private ByteBuffer resizeByteBuffer(ByteBuffer bb) throws IOException {
+        if (((Buffer)bb).limit() >= byteBufferMaxSize) {
             throw new IOException("Message Buffer too small. Use " + StreamingHttpProtocol.class.getName() + " when streaming over websocket.");
         }
 
-        long newSize = ((Buffer)bb).limit() * 2;
-        if (newSize > maxSize) {
-            newSize = maxSize;
-        }
-
-        // Cast is safe. newSize < maxSize and maxSize is an int
-        ByteBuffer newBuffer = ByteBuffer.allocate((int) newSize);
+        ByteBuffer newBuffer = bufferPool.byteBuffer(((Buffer)bb).limit() + 1);
         ((Buffer)bb).rewind();
-        newBuffer.put((ByteBuffer)bb);
-        webSocket.bb = newBuffer;
+        newBuffer.put(bb);
+        bufferPool.release(bb);
         return newBuffer;
     }
 
-    private CharBuffer resizeCharBuffer(WebSocket webSocket) throws IOException {
-        int maxSize = charBufferMaxSize;
-        CharBuffer cb = webSocket.cb;
-        if (((Buffer)cb).limit() >= maxSize) {
+    private CharBuffer resizeCharBuffer(CharBuffer cb) throws IOException {
+        if (((Buffer)cb).limit() >= charBufferMaxSize) {
             throw new IOException("Message Buffer too small. Use " + StreamingHttpProtocol.class.getName() + " when streaming over websocket.");
         }
 
-        long newSize = ((Buffer)cb).limit() * 2;
-        if (newSize > maxSize) {
-            newSize = maxSize;
-        }
-
-        // Cast is safe. newSize < maxSize and maxSize is an int
-        CharBuffer newBuffer = CharBuffer.allocate((int) newSize);
+        CharBuffer newBuffer = bufferPool.charBuffer(((Buffer)cb).limit() + 1);
         ((Buffer)cb).rewind();
         newBuffer.put(cb);
-        webSocket.cb = newBuffer;
+        bufferPool.release(cb);
         return newBuffer;
     }
 
+    /**
+     * Return the {@link WebSocketBufferPool} used to read the messages delivered as a stream.
+     *
+     * @return the {@link WebSocketBufferPool}
+     */
+    public WebSocketBufferPool bufferPool() {
+        return bufferPool;
+    }
+
     protected void optimizeMapping() {
         for (String w : framework.getAtmosphereConfig().handlers().keySet()) {
             if (w.contains("{") && w.contains("}")) {
@@ -24,18 +24,17 @@ import org.atmosphere.cpr.AtmosphereRequestImpl;
 import org.atmosphere.cpr.AtmosphereResource;
 import org.atmosphere.cpr.AtmosphereResourceImpl;
 import org.atmosphere.cpr.AtmosphereResponse;
+import org.atmosphere.cpr.AtmosphereResponseImpl;
 import org.atmosphere.cpr.KeepOpenStreamAware;
 import org.atmosphere.util.ByteArrayAsyncWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.nio.Buffer;
-import java.nio.ByteBuffer;
-import java.nio.CharBuffer;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.atmosphere.cpr.HeaderConfig.X_ATMOSPHERE_ERROR;
 
@@ -60,11 +59,12 @@ public abstract class WebSocket extends AtmosphereInterceptorWriter implements K
     private final AtomicBoolean firstWrite = new AtomicBoolean(false);
     private final AtmosphereConfig config;
     private WebSocketHandler webSocketHandler;
-    protected ByteBuffer bb;
-    protected CharBuffer cb;
     protected String uuid = "NUll";
     private Map<String, Object> attributesAtWebSocketOpen;
     private Object attachment;
+    // The request and response recycled after a message has been dispatched, see ApplicationConfig.WEBSOCKET_POOL_REQUEST_RESPONSE
+    private final AtomicReference<AtmosphereRequestImpl.Builder> pooledRequest = new AtomicReference<>();
+    private final AtomicReference<AtmosphereResponseImpl> pooledResponse = new AtomicReference<>();
 
     public WebSocket(AtmosphereConfig config) {
         String s = config.getInitParameter(ApplicationConfig.WEBSOCKET_BINARY_WRITE);
@@ -74,14 +74,6 @@ public abstract class WebSocket extends AtmosphereInterceptorWriter implements K
             binaryWrite = false;
         }
 
-        int bufferSize = 8192;
-        String bufferSizeParam = config.getInitParameter(ApplicationConfig.WEBSOCKET_BUFFER_SIZE);
-        if (bufferSizeParam != null) {
-            bufferSize = Integer.parseInt(bufferSizeParam);
-        }
-        bb = ByteBuffer.allocate(bufferSize);
-        cb = CharBuffer.allocate(bufferSize);
-
         this.config = config;
     }
 
@@ -147,6 +139,47 @@ public abstract class WebSocket extends AtmosphereInterceptorWriter implements K
         return attributesAtWebSocketOpen;
     }
 
+    /**
+     * Return the {@link AtmosphereRequestImpl.Builder} of the request recycled by
+     * {@link #recycle(AtmosphereRequest, AtmosphereResponse)}, or a new one if none is available.
+     *
+     * @return a {@link AtmosphereRequestImpl.Builder} used to wrap a message received by this WebSocket
+     */
+    public AtmosphereRequestImpl.Builder requestBuilder() {
+        AtmosphereRequestImpl.Builder b = pooledRequest.getAndSet(null);
+        return b != null ? b : new AtmosphereRequestImpl.Builder();
+    }
+
+    /**
+     * Return the response recycled by {@link #recycle(AtmosphereRequest, AtmosphereResponse)}, or a new one if none is
+     * available.
+     *
+     * @param request     the {@link AtmosphereRequest} wrapping the message
+     * @param destroyable true if the response can be destroyed once the message has been dispatched
+     * @return an {@link AtmosphereResponse} writing to this WebSocket
+     */
+    public AtmosphereResponse response(AtmosphereRequest request, boolean destroyable) {
+        AtmosphereResponseImpl r = pooledResponse.getAndSet(null);
+        return r != null ? r.reuse(this, request, destroyable) : new AtmosphereResponseImpl(this, request, destroyable);
+    }
+
+    /**
+     * Reset the request and response used to dispatch a message so the next message received by this WebSocket can reuse
+     * them. Only one of each is kept, the others are left to the garbage collector. They must not be used once recycled.
+     *
+     * @param request  an {@link AtmosphereRequest}
+     * @param response an {@link AtmosphereResponse}
+     */
+    public void recycle(AtmosphereRequest request, AtmosphereResponse response) {
+        if (request instanceof AtmosphereRequestImpl) {
+            pooledRequest.compareAndSet(null, ((AtmosphereRequestImpl) request).recycle());
+        }
+
+        if (response instanceof AtmosphereResponseImpl) {
+            pooledResponse.compareAndSet(null, ((AtmosphereResponseImpl) response).recycle());
+        }
+    }
+
     /**
      * Return the an {@link AtmosphereResource} used by this WebSocket, or null if the WebSocket has been closed
      * before the WebSocket message has been processed.
@@ -319,13 +352,8 @@ public abstract class WebSocket extends AtmosphereInterceptorWriter implements K
             logger.trace("", ex);
         }
 
-        try {
-            ((Buffer)bb).clear();
-            ((Buffer)cb).clear();
-            // NOTE #1961 if the buffer is cached at thread-local, it needs to be released here.
-        } catch (Exception ex) {
-            logger.trace("", ex);
-        }
+        pooledRequest.set(null);
+        pooledResponse.set(null);
     }
 
     @Override
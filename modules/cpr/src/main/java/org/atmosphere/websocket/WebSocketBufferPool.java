@@ -0,0 +1,251 @@
+/*
+ * Copyright 2008-2021 Async-IO.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atmosphere.websocket;
+
+import org.atmosphere.cpr.AtmosphereConfig;
+import org.atmosphere.metrics.DefaultAtmosphereMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.lang.management.ManagementFactory;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A pool of the {@link ByteBuffer}s and {@link CharBuffer}s used by the {@link DefaultWebSocketProcessor} to assemble
+ * the WebSocket messages delivered as an {@link java.io.InputStream} or a {@link java.io.Reader}. A buffer is only
+ * borrowed while such a message is read, so an idle {@link WebSocket} holds none.
+ * <p/>
+ * Buffers are pooled by size class, starting at {@link org.atmosphere.cpr.ApplicationConfig#WEBSOCKET_BUFFER_SIZE}
+ * and doubling up to {@link org.atmosphere.cpr.ApplicationConfig#IN_MEMORY_STREAMING_BUFFER_SIZE}. At most
+ * {@link org.atmosphere.cpr.ApplicationConfig#WEBSOCKET_BUFFER_POOL_SIZE} bytes are kept in the pool, the other released
+ * buffers are left to the garbage collector.
+ */
+public class WebSocketBufferPool implements WebSocketBufferPoolMXBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketBufferPool.class);
+
+    private final int minSize;
+    private final int maxSize;
+    private final long maxPooledBytes;
+    private final Queue<ByteBuffer>[] byteBuffers;
+    private final Queue<CharBuffer>[] charBuffers;
+    private final AtomicLong pooledBytes = new AtomicLong();
+    private final AtomicLong borrowedBytes = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder discards = new LongAdder();
+    private MBeanServer server;
+    private String name;
+
+    @SuppressWarnings("unchecked")
+    public WebSocketBufferPool(int minSize, int maxSize, long maxPooledBytes) {
+        if (minSize <= 0) {
+            throw new IllegalArgumentException("Invalid buffer size " + minSize);
+        }
+        this.minSize = minSize;
+        this.maxSize = Math.max(minSize, maxSize);
+        this.maxPooledBytes = maxPooledBytes;
+
+        int classes = 1;
+        for (long size = minSize; size < this.maxSize; size <<= 1) {
+            classes++;
+        }
+        byteBuffers = new Queue[classes];
+        charBuffers = new Queue[classes];
+        for (int i = 0; i < classes; i++) {
+            byteBuffers[i] = new ConcurrentLinkedQueue<>();
+            charBuffers[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    /**
+     * Export this pool as <code>org.atmosphere:type=WebSocketBufferPool,context=...,servlet=...</code>.
+     *
+     * @param config the {@link AtmosphereConfig}
+     * @return this
+     */
+    public WebSocketBufferPool register(AtmosphereConfig config) {
+        server = ManagementFactory.getPlatformMBeanServer();
+        name = DefaultAtmosphereMetrics.DOMAIN + ":type=WebSocketBufferPool," + DefaultAtmosphereMetrics.scope(config);
+        try {
+            server.registerMBean(new StandardMBean(this, WebSocketBufferPoolMXBean.class, true), new ObjectName(name));
+        } catch (JMException ex) {
+            logger.warn("Unable to register MBean {}", name, ex);
+        }
+        return this;
+    }
+
+    /**
+     * @return the capacity of the largest buffer
+     */
+    public int maxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Borrow a cleared {@link ByteBuffer} of at least the capacity, which must be returned using {@link #release(ByteBuffer)}.
+     *
+     * @param capacity the minimum capacity, up to {@link #maxSize()}
+     * @return a {@link ByteBuffer}
+     */
+    public ByteBuffer byteBuffer(int capacity) {
+        int sizeClass = sizeClass(capacity);
+        ByteBuffer bb = byteBuffers[sizeClass].poll();
+        if (bb != null) {
+            hit(bb.capacity());
+        } else {
+            bb = ByteBuffer.allocate(capacity(sizeClass));
+            miss(bb.capacity());
+        }
+        return bb;
+    }
+
+    /**
+     * Borrow a cleared {@link CharBuffer} of at least the capacity, which must be returned using {@link #release(CharBuffer)}.
+     *
+     * @param capacity the minimum capacity, up to {@link #maxSize()}
+     * @return a {@link CharBuffer}
+     */
+    public CharBuffer charBuffer(int capacity) {
+        int sizeClass = sizeClass(capacity);
+        CharBuffer cb = charBuffers[sizeClass].poll();
+        if (cb != null) {
+            hit(cb.capacity() * 2L);
+        } else {
+            cb = CharBuffer.allocate(capacity(sizeClass));
+            miss(cb.capacity() * 2L);
+        }
+        return cb;
+    }
+
+    public void release(ByteBuffer bb) {
+        release(byteBuffers, bb, bb.capacity());
+    }
+
+    public void release(CharBuffer cb) {
+        release(charBuffers, cb, cb.capacity() * 2L);
+    }
+
+    /**
+     * Drop the pooled buffers and unregister the MBean, if any.
+     */
+    public void destroy() {
+        if (server != null) {
+            try {
+                ObjectName o = new ObjectName(name);
+                if (server.isRegistered(o)) {
+                    server.unregisterMBean(o);
+                }
+            } catch (JMException ex) {
+                logger.debug("Unable to unregister MBean {}", name, ex);
+            }
+        }
+
+        for (int i = 0; i < byteBuffers.length; i++) {
+            byteBuffers[i].clear();
+            charBuffers[i].clear();
+        }
+        pooledBytes.set(0);
+    }
+
+    @Override
+    public long getHits() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public double getHitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    @Override
+    public long getDiscards() {
+        return discards.sum();
+    }
+
+    @Override
+    public long getPooledBytes() {
+        return pooledBytes.get();
+    }
+
+    @Override
+    public long getBorrowedBytes() {
+        return borrowedBytes.get();
+    }
+
+    @Override
+    public long getMaxPooledBytes() {
+        return maxPooledBytes;
+    }
+
+    private int capacity(int sizeClass) {
+        return (int) Math.min((long) minSize << sizeClass, maxSize);
+    }
+
+    private int sizeClass(int capacity) {
+        if (capacity > maxSize) {
+            throw new IllegalArgumentException("Buffer size " + capacity + " larger than " + maxSize);
+        }
+        int sizeClass = 0;
+        while (capacity(sizeClass) < capacity) {
+            sizeClass++;
+        }
+        return sizeClass;
+    }
+
+    private void hit(long bytes) {
+        hits.increment();
+        pooledBytes.addAndGet(-bytes);
+        borrowedBytes.addAndGet(bytes);
+    }
+
+    private void miss(long bytes) {
+        misses.increment();
+        borrowedBytes.addAndGet(bytes);
+    }
+
+    private <T extends Buffer> void release(Queue<T>[] pool, T buffer, long bytes) {
+        borrowedBytes.addAndGet(-bytes);
+        buffer.clear();
+
+        int sizeClass = sizeClass(buffer.capacity());
+        if (capacity(sizeClass) == buffer.capacity()) {
+            if (pooledBytes.addAndGet(bytes) <= maxPooledBytes) {
+                pool[sizeClass].offer(buffer);
+                return;
+            }
+            pooledBytes.addAndGet(-bytes);
+        }
+        discards.increment();
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2008-2021 Async-IO.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atmosphere.websocket;
+
+/**
+ * The usage of a {@link WebSocketBufferPool}, exported under <code>org.atmosphere:type=WebSocketBufferPool</code>.
+ * Sizes are in bytes, a char counting for two bytes.
+ */
+public interface WebSocketBufferPoolMXBean {
+
+    /**
+     * @return the number of buffers taken from the pool
+     */
+    long getHits();
+
+    /**
+     * @return the number of buffers allocated because the pool had none of the requested size
+     */
+    long getMisses();
+
+    /**
+     * @return hits / (hits + misses), or 0 if no buffer has been requested
+     */
+    double getHitRate();
+
+    /**
+     * @return the number of released buffers dropped because the pool was full
+     */
+    long getDiscards();
+
+    /**
+     * @return the size of the buffers waiting in the pool
+     */
+    long getPooledBytes();
+
+    /**
+     * @return the size of the buffers currently used to assemble a message
+     */
+    long getBorrowedBytes();
+
+    /**
+     * @return the maximum size of the buffers kept in the pool
+     */
+    long getMaxPooledBytes();
+}
@@ -35,13 +35,24 @@ public class ProtocolUtil {
                                                                 String methodType,
                                                                 String contentType,
                                                                 boolean destroyable) {
+        return constructRequest(webSocket, pathInfo, requestURI, methodType, contentType, destroyable, false);
+    }
+
+    protected static AtmosphereRequestImpl.Builder constructRequest(WebSocket webSocket,
+                                                                String pathInfo,
+                                                                String requestURI,
+                                                                String methodType,
+                                                                String contentType,
+                                                                boolean destroyable,
+                                                                boolean pooled) {
 
         AtmosphereResource resource = webSocket.resource();
         AtmosphereRequest request = AtmosphereResourceImpl.class.cast(resource).getRequest(false);
         Map<String, Object> m = attributes(webSocket, request);
 
-        // We need to create a new AtmosphereRequest as WebSocket message may arrive concurrently on the same connection.
-        AtmosphereRequestImpl.Builder b = (new AtmosphereRequestImpl.Builder()
+        // We need to create a new AtmosphereRequest as WebSocket message may arrive concurrently on the same connection,
+        // unless one has been recycled after dispatching a previous message.
+        AtmosphereRequestImpl.Builder b = ((pooled ? webSocket.requestBuilder() : new AtmosphereRequestImpl.Builder())
                 .request(request)
                 .method(methodType)
                 .contentType(contentType == null ? request.getContentType() : contentType)
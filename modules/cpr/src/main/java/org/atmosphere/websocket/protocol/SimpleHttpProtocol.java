@@ -54,6 +54,7 @@ public class SimpleHttpProtocol implements WebSocketProtocol, Serializable {
     protected String methodType = "POST";
     protected String delimiter = "@@";
     protected boolean destroyable;
+    protected boolean pooled;
     protected boolean rewriteUri;
 
     @Override
@@ -78,6 +79,7 @@ public class SimpleHttpProtocol implements WebSocketProtocol, Serializable {
 
         String s = config.getInitParameter(ApplicationConfig.RECYCLE_ATMOSPHERE_REQUEST_RESPONSE);
         destroyable = s != null && Boolean.valueOf(s);
+        pooled = Boolean.parseBoolean(config.getInitParameter(ApplicationConfig.WEBSOCKET_POOL_REQUEST_RESPONSE));
 
         rewriteUri = Boolean.valueOf(config.getInitParameter(ApplicationConfig.REWRITE_WEBSOCKET_REQUESTURI, "true"));
     }
@@ -116,7 +118,7 @@ public class SimpleHttpProtocol implements WebSocketProtocol, Serializable {
         }
 
         List<AtmosphereRequest> list = new ArrayList<AtmosphereRequest>();
-        list.add(constructRequest(webSocket, pathInfo, requestURI, methodType, contentType.equalsIgnoreCase(TEXT) ? null : contentType, destroyable).body(message).build());
+        list.add(constructRequest(webSocket, pathInfo, requestURI, methodType, contentType.equalsIgnoreCase(TEXT) ? null : contentType, destroyable, pooled).body(message).build());
 
         return list;
     }
@@ -137,7 +139,7 @@ public class SimpleHttpProtocol implements WebSocketProtocol, Serializable {
         if (!resource.isInScope()) return Collections.emptyList();
 
         List<AtmosphereRequest> list = new ArrayList<AtmosphereRequest>();
-        list.add(constructRequest(webSocket, request.getPathInfo(), request.getRequestURI(), methodType, contentType.equalsIgnoreCase(TEXT) ? null : contentType, destroyable).body(d, offset, length).build());
+        list.add(constructRequest(webSocket, request.getPathInfo(), request.getRequestURI(), methodType, contentType.equalsIgnoreCase(TEXT) ? null : contentType, destroyable, pooled).body(d, offset, length).build());
 
         return list;
     }
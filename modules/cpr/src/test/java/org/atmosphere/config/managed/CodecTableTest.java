@@ -0,0 +1,120 @@
+/*
+ * Copyright 2008-2021 Async-IO.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atmosphere.config.managed;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class CodecTableTest {
+
+    public final static class Upper implements Encoder<String, String> {
+        @Override
+        public String encode(String s) {
+            return s.toUpperCase();
+        }
+    }
+
+    public final static class Quote implements Encoder<CharSequence, String> {
+        @Override
+        public String encode(CharSequence s) {
+            return "'" + s + "'";
+        }
+    }
+
+    public final static class Hex implements Encoder<Integer, String> {
+        @Override
+        public String encode(Integer i) {
+            return Integer.toHexString(i);
+        }
+    }
+
+    public final static class Length implements Decoder<String, Integer> {
+        @Override
+        public Integer decode(String s) {
+            return s.length();
+        }
+    }
+
+    public final static class Negate implements Decoder<Integer, Integer> {
+        @Override
+        public Integer decode(Integer i) {
+            return -i;
+        }
+    }
+
+    private final List<Encoder<?, ?>> encoders = Arrays.<Encoder<?, ?>>asList(new Upper(), new Hex(), new Quote());
+    private final List<Decoder<?, ?>> decoders = Arrays.<Decoder<?, ?>>asList(new Length(), new Negate());
+
+    @Test
+    public void testApplicableInDeclarationOrder() {
+        CodecTable<Encoder<?, ?>> table = CodecTable.encoders(encoders);
+
+        assertEquals(table.all(), encoders);
+        assertEquals(table.applicable(String.class), Arrays.asList(encoders.get(0), encoders.get(2)));
+        assertEquals(table.applicable(StringBuilder.class), Collections.singletonList(encoders.get(2)));
+        assertEquals(table.applicable(Integer.class), Collections.singletonList(encoders.get(1)));
+        assertTrue(table.applicable(Long.class).isEmpty());
+    }
+
+    @Test
+    public void testApplicableIsCached() {
+        CodecTable<Encoder<?, ?>> table = CodecTable.encoders(encoders);
+
+        assertSame(table.applicable(String.class), table.applicable(String.class));
+    }
+
+    @Test
+    public void testEncode() {
+        CodecTable<Encoder<?, ?>> table = CodecTable.encoders(encoders);
+
+        // Every applicable Encoder is invoked, the last one wins.
+        assertEquals(Invoker.encode(table, "a"), "'a'");
+        assertEquals(Invoker.encode(table, 255), "ff");
+        assertNull(Invoker.encode(table, 1L));
+        assertEquals(Invoker.encode(CodecTable.encoders(Collections.<Encoder<?, ?>>emptyList()), 1L), 1L);
+    }
+
+    @Test
+    public void testDecode() {
+        CodecTable<Decoder<?, ?>> table = CodecTable.decoders(decoders);
+
+        assertEquals(Invoker.decode(table, "abc"), 3);
+        assertEquals(Invoker.decode(table, 3), -3);
+        assertNull(Invoker.decode(table, 1L));
+        assertEquals(Invoker.decode(CodecTable.decoders(Collections.<Decoder<?, ?>>emptyList()), "abc"), "abc");
+    }
+
+    @Test
+    public void testSameResultAsList() {
+        CodecTable<Encoder<?, ?>> encoderTable = CodecTable.encoders(encoders);
+        CodecTable<Decoder<?, ?>> decoderTable = CodecTable.decoders(decoders);
+
+        List<Object> messages = new ArrayList<Object>(Arrays.<Object>asList("a", new StringBuilder("b"), 10, 1L, null));
+        for (Object m : messages) {
+            assertEquals(Invoker.matchEncoder(m, encoderTable), Invoker.matchEncoder(m, encoders), "Encoding " + m);
+            assertEquals(Invoker.matchDecoder(m, decoderTable), Invoker.matchDecoder(m, decoders), "Decoding " + m);
+        }
+    }
+}
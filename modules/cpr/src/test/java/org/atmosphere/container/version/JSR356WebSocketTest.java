@@ -15,33 +15,45 @@
  */
 package org.atmosphere.container.version;
 
+import org.atmosphere.cache.BroadcastMessage;
 import org.atmosphere.cpr.*;
+import org.atmosphere.util.ExecutorsFactory;
+import org.mockito.ArgumentCaptor;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
+import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import javax.servlet.ServletException;
 import javax.websocket.RemoteEndpoint;
 import javax.websocket.SendHandler;
 import javax.websocket.SendResult;
 import javax.websocket.Session;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
 
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.*;
+import static org.testng.Assert.assertEquals;
 
 public class JSR356WebSocketTest {
 
     private JSR356WebSocket webSocket;
     private Session session;
     private RemoteEndpoint.Async asyncRemoteEndpoint;
+    private AtmosphereConfig config;
+    private AtmosphereFramework nonBlockingFramework;
 
     @BeforeMethod
     public void setUp() throws Exception {
         session = mock(Session.class);
         asyncRemoteEndpoint = mock(RemoteEndpoint.Async.class);
         when(session.getAsyncRemote()).thenReturn(asyncRemoteEndpoint);
-        webSocket = new JSR356WebSocket(session, new AtmosphereFramework().getAtmosphereConfig()) {
+        config = new AtmosphereFramework().getAtmosphereConfig();
+        webSocket = new JSR356WebSocket(session, config) {
             @Override
             public boolean isOpen() {
                 return true;
@@ -49,6 +61,15 @@ public class JSR356WebSocketTest {
         };
     }
 
+    @AfterMethod
+    public void tearDown() {
+        ExecutorsFactory.reset(config);
+        if (nonBlockingFramework != null) {
+            nonBlockingFramework.destroy();
+            nonBlockingFramework = null;
+        }
+    }
+
     @Test(timeOut = 1000)
     public void test_semaphore_is_released_in_case_of_successful_write() throws Exception {
         mockWriteResult(new SendResult());
@@ -96,6 +117,143 @@ public class JSR356WebSocketTest {
         verify(asyncRemoteEndpoint).sendText(eq("Hello2"), any(SendHandler.class));
     }
 
+    @Test(timeOut = 1000)
+    public void test_non_blocking_write_queues_until_completion() throws Exception {
+        webSocket = nonBlockingWebSocket();
+
+        webSocket.write("Hello1");
+        webSocket.write("Hello2");
+        webSocket.write("Hello3");
+
+        ArgumentCaptor<SendHandler> handler = ArgumentCaptor.forClass(SendHandler.class);
+        verify(asyncRemoteEndpoint).sendText(eq("Hello1"), handler.capture());
+        verify(asyncRemoteEndpoint, never()).sendText(eq("Hello2"), any(SendHandler.class));
+        assertEquals(webSocket.queueDepth(), 3);
+
+        handler.getValue().onResult(new SendResult());
+        verify(asyncRemoteEndpoint).sendText(eq("Hello2"), handler.capture());
+        assertEquals(webSocket.queueDepth(), 2);
+
+        handler.getValue().onResult(new SendResult(new RuntimeException("Fails")));
+        verify(asyncRemoteEndpoint).sendText(eq("Hello3"), handler.capture());
+        assertEquals(webSocket.queueDepth(), 1);
+    }
+
+    @Test(timeOut = 5000)
+    public void test_non_blocking_write_completing_inline() throws Exception {
+        webSocket = nonBlockingWebSocket();
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(final InvocationOnMock invocationOnMock) throws Throwable {
+                ((SendHandler) invocationOnMock.getArguments()[1]).onResult(new SendResult());
+                return null;
+            }
+        }).when(asyncRemoteEndpoint).sendText(anyString(), any(SendHandler.class));
+
+        for (int i = 0; i < 10000; i++) {
+            webSocket.write("Hello");
+        }
+
+        verify(asyncRemoteEndpoint, times(10000)).sendText(eq("Hello"), any(SendHandler.class));
+        assertEquals(webSocket.queueDepth(), 0);
+    }
+
+    @Test(timeOut = 10000)
+    public void test_non_blocking_write_timeout_caches_in_order() throws Exception {
+        webSocket = nonBlockingWebSocket(ApplicationConfig.WEBSOCKET_WRITE_TIMEOUT, "100");
+        when(session.isOpen()).thenReturn(true);
+
+        BroadcasterCache cache = mock(BroadcasterCache.class);
+        BroadcasterConfig broadcasterConfig = mock(BroadcasterConfig.class);
+        when(broadcasterConfig.getBroadcasterCache()).thenReturn(cache);
+        Broadcaster broadcaster = mock(Broadcaster.class);
+        when(broadcaster.getID()).thenReturn("test");
+        when(broadcaster.getBroadcasterConfig()).thenReturn(broadcasterConfig);
+        AtmosphereResource r = mock(AtmosphereResource.class);
+        when(r.uuid()).thenReturn("uuid");
+        when(r.getBroadcaster()).thenReturn(broadcaster);
+        webSocket.resource(r);
+
+        webSocket.write("Hello1");
+        webSocket.write("Hello2");
+        webSocket.write("Hello3");
+
+        ArgumentCaptor<BroadcastMessage> cached = ArgumentCaptor.forClass(BroadcastMessage.class);
+        verify(cache, timeout(5000).times(3)).addToCache(eq("test"), eq("uuid"), cached.capture());
+        List<BroadcastMessage> messages = cached.getAllValues();
+        assertEquals(Arrays.asList(messages.get(0).message(), messages.get(1).message(), messages.get(2).message()),
+                Arrays.<Object>asList("Hello1", "Hello2", "Hello3"));
+        verify(session).close();
+    }
+
+    @Test(timeOut = 1000)
+    public void test_non_blocking_write_copies_bytes() throws Exception {
+        webSocket = nonBlockingWebSocket();
+        byte[] data = "--Hello1--".getBytes("UTF-8");
+
+        webSocket.write("Hello0");
+        webSocket.write(data, 2, 6);
+        Arrays.fill(data, (byte) 0);
+
+        ArgumentCaptor<SendHandler> handler = ArgumentCaptor.forClass(SendHandler.class);
+        verify(asyncRemoteEndpoint).sendText(eq("Hello0"), handler.capture());
+        handler.getValue().onResult(new SendResult());
+
+        verify(asyncRemoteEndpoint).sendBinary(eq(ByteBuffer.wrap("Hello1".getBytes("UTF-8"))), any(SendHandler.class));
+    }
+
+    @Test(timeOut = 1000)
+    public void test_non_blocking_write_queue_drops_oldest() throws Exception {
+        webSocket = nonBlockingWebSocket(ApplicationConfig.WEBSOCKET_NON_BLOCKING_WRITE_MAX_MESSAGES, "2");
+
+        webSocket.write("Hello1");
+        webSocket.write("Hello2");
+        webSocket.write("Hello3");
+        assertEquals(webSocket.queueDepth(), 2);
+
+        ArgumentCaptor<SendHandler> handler = ArgumentCaptor.forClass(SendHandler.class);
+        verify(asyncRemoteEndpoint).sendText(eq("Hello1"), handler.capture());
+        handler.getValue().onResult(new SendResult());
+
+        verify(asyncRemoteEndpoint).sendText(eq("Hello3"), any(SendHandler.class));
+        verify(asyncRemoteEndpoint, never()).sendText(eq("Hello2"), any(SendHandler.class));
+        assertEquals(webSocket.queueDepth(), 1);
+    }
+
+    @Test(timeOut = 1000)
+    public void test_non_blocking_write_queue_bounded_by_bytes() throws Exception {
+        webSocket = nonBlockingWebSocket(ApplicationConfig.WEBSOCKET_NON_BLOCKING_WRITE_MAX_BYTES, "12",
+                ApplicationConfig.BROADCASTER_WRITE_QUEUE_OVERFLOW_POLICY, "DROP_NEWEST");
+
+        webSocket.write("Hello1");
+        webSocket.write("Hello2");
+        webSocket.write("Hello3");
+        assertEquals(webSocket.queueDepth(), 2);
+
+        ArgumentCaptor<SendHandler> handler = ArgumentCaptor.forClass(SendHandler.class);
+        verify(asyncRemoteEndpoint).sendText(eq("Hello1"), handler.capture());
+        handler.getValue().onResult(new SendResult());
+
+        verify(asyncRemoteEndpoint).sendText(eq("Hello2"), any(SendHandler.class));
+        verify(asyncRemoteEndpoint, never()).sendText(eq("Hello3"), any(SendHandler.class));
+        assertEquals(webSocket.queueDepth(), 1);
+    }
+
+    private JSR356WebSocket nonBlockingWebSocket(String... initParams) throws ServletException {
+        nonBlockingFramework = new AtmosphereFramework()
+                .addInitParameter(ApplicationConfig.WEBSOCKET_SUPPRESS_JSR356, "true")
+                .addInitParameter(ApplicationConfig.WEBSOCKET_NON_BLOCKING_WRITE, "true");
+        for (int i = 0; i < initParams.length; i += 2) {
+            nonBlockingFramework.addInitParameter(initParams[i], initParams[i + 1]);
+        }
+        return new JSR356WebSocket(session, nonBlockingFramework.init().getAtmosphereConfig()) {
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+        };
+    }
+
     private void mockWriteResult(final SendResult sendResult) {
         doAnswer(new Answer<Void>() {
             @Override
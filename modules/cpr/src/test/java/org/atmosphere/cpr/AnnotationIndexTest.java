@@ -0,0 +1,103 @@
+/*
+ * Copyright 2008-2021 Async-IO.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atmosphere.cpr;
+
+import org.atmosphere.config.service.AtmosphereHandlerService;
+import org.atmosphere.config.service.ManagedService;
+import org.atmosphere.handler.AbstractReflectorAtmosphereHandler;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class AnnotationIndexTest {
+
+    @ManagedService(path = "/managed")
+    public final static class Managed {
+    }
+
+    @AtmosphereHandlerService(path = "/handler")
+    public final static class Handler extends AbstractReflectorAtmosphereHandler {
+        @Override
+        public void onRequest(AtmosphereResource resource) {
+        }
+    }
+
+    private File index;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        index = File.createTempFile("annotations", ".idx");
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        index.delete();
+    }
+
+    @Test
+    public void testReadIndex() throws IOException {
+        write("# Generated by org.atmosphere.annotation.processor.AnnotationIndexProcessor",
+                "",
+                ManagedService.class.getName() + " " + Managed.class.getName(),
+                AtmosphereHandlerService.class.getName() + " " + Handler.class.getName(),
+                ManagedService.class.getName() + " " + Handler.class.getName());
+
+        Map<Class<? extends Annotation>, Set<Class<?>>> read = DefaultAnnotationProcessor.readIndex(Collections.singletonList(index.toURI().toURL()));
+
+        assertEquals(read.keySet(), new LinkedHashSet<Class<?>>(Arrays.<Class<?>>asList(ManagedService.class, AtmosphereHandlerService.class)));
+        assertEquals(read.get(ManagedService.class), new LinkedHashSet<Class<?>>(Arrays.<Class<?>>asList(Managed.class, Handler.class)));
+        assertEquals(read.get(AtmosphereHandlerService.class), Collections.<Class<?>>singleton(Handler.class));
+    }
+
+    @Test
+    public void testUnknownClassesAreSkipped() throws IOException {
+        write("org.acme.Missing " + Managed.class.getName(),
+                ManagedService.class.getName() + " org.acme.Missing",
+                String.class.getName() + " " + Managed.class.getName(),
+                "malformed",
+                ManagedService.class.getName() + " " + Managed.class.getName());
+
+        Map<Class<? extends Annotation>, Set<Class<?>>> read = DefaultAnnotationProcessor.readIndex(Collections.singletonList(index.toURI().toURL()));
+
+        assertEquals(read.size(), 1);
+        assertEquals(read.get(ManagedService.class), Collections.<Class<?>>singleton(Managed.class));
+    }
+
+    @Test
+    public void testEmptyIndex() throws IOException {
+        write("# Generated by org.atmosphere.annotation.processor.AnnotationIndexProcessor");
+
+        assertTrue(DefaultAnnotationProcessor.readIndex(Collections.singletonList(index.toURI().toURL())).isEmpty());
+    }
+
+    private void write(String... lines) throws IOException {
+        Files.write(index.toPath(), Arrays.asList(lines), StandardCharsets.UTF_8);
+    }
+}
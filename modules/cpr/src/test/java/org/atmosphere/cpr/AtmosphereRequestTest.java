@@ -17,6 +17,7 @@ package org.atmosphere.cpr;
 
 import org.atmosphere.container.BlockingIOCometSupport;
 import org.atmosphere.handler.AbstractReflectorAtmosphereHandler;
+import org.atmosphere.interceptor.HeartbeatInterceptor;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
@@ -25,6 +26,7 @@ import javax.servlet.ServletConfig;
 import javax.servlet.ServletContext;
 import javax.servlet.ServletException;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Map;
@@ -335,4 +337,45 @@ public class AtmosphereRequestTest {
         assertNull(request.getContentType());
     }
 
+    @Test
+    public void testTypedAttributeSlots() throws Exception {
+        AtmosphereRequestImpl request = (AtmosphereRequestImpl) new AtmosphereRequestImpl.Builder().pathInfo("/a").build();
+        assertNull(request.getAttribute(ApplicationConfig.MAX_INACTIVE));
+        assertEquals(request.lastActivity(), AtmosphereRequestImpl.NO_ACTIVITY);
+
+        request.lastActivity(1234L);
+        assertEquals(request.getAttribute(ApplicationConfig.MAX_INACTIVE), 1234L);
+        assertTrue(Collections.list(request.getAttributeNames()).contains(ApplicationConfig.MAX_INACTIVE));
+
+        request.setAttribute(ApplicationConfig.MAX_INACTIVE, (long) -1);
+        assertEquals(request.lastActivity(), -1L);
+        assertFalse(request.localAttributes().containsKey(ApplicationConfig.MAX_INACTIVE));
+
+        Object future = new Object();
+        request.setAttribute(HeartbeatInterceptor.HEARTBEAT_FUTURE, future);
+        assertEquals(request.getAttribute(HeartbeatInterceptor.HEARTBEAT_FUTURE), future);
+
+        request.removeAttribute(ApplicationConfig.MAX_INACTIVE);
+        request.removeAttribute(HeartbeatInterceptor.HEARTBEAT_FUTURE);
+        assertNull(request.getAttribute(ApplicationConfig.MAX_INACTIVE));
+        assertNull(request.getAttribute(HeartbeatInterceptor.HEARTBEAT_FUTURE));
+    }
+
+    @Test
+    public void testMaxInactiveAcceptsAnyValue() throws Exception {
+        AtmosphereRequestImpl request = (AtmosphereRequestImpl) new AtmosphereRequestImpl.Builder().pathInfo("/a").build();
+
+        request.setAttribute(ApplicationConfig.MAX_INACTIVE, 1234);
+        assertEquals(request.lastActivity(), 1234L);
+        assertEquals(request.getAttribute(ApplicationConfig.MAX_INACTIVE), 1234L);
+
+        request.setAttribute(ApplicationConfig.MAX_INACTIVE, "5678");
+        assertEquals(request.lastActivity(), AtmosphereRequestImpl.NO_ACTIVITY);
+        assertEquals(request.getAttribute(ApplicationConfig.MAX_INACTIVE), "5678");
+
+        request.setAttribute(ApplicationConfig.MAX_INACTIVE, -1L);
+        assertEquals(request.lastActivity(), -1L);
+        assertFalse(request.localAttributes().containsKey(ApplicationConfig.MAX_INACTIVE));
+    }
+
 }
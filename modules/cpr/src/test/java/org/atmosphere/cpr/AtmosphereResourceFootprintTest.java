@@ -0,0 +1,148 @@
+/*
+ * Copyright 2008-2021 Async-IO.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atmosphere.cpr;
+
+import org.atmosphere.container.BlockingIOCometSupport;
+import org.openjdk.jol.info.GraphLayout;
+import org.openjdk.jol.vm.VM;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletContext;
+import java.util.Enumeration;
+
+import static org.mockito.Mockito.mock;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class AtmosphereResourceFootprintTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(AtmosphereResourceFootprintTest.class);
+
+    // The bytes owned by an initialized AtmosphereResourceImpl, its Action, its AtmosphereResourceEventImpl, its uuid
+    // and its Broadcaster array. It was above 550 bytes with one AtomicBoolean per flag, and is about 350 bytes with the
+    // packed flags, with 4 bytes references. The graph is mostly references and object headers, so the budget grows with
+    // the reference size of the running VM.
+    private static final long COMPRESSED_REFERENCES_BUDGET = 384;
+    private static final long FOOTPRINT_BUDGET = COMPRESSED_REFERENCES_BUDGET * Math.max(4, VM.current().sizeOfField("java.lang.Object")) / 4;
+
+    private AtmosphereFramework framework;
+    private AtmosphereConfig config;
+
+    @BeforeMethod
+    public void create() throws Throwable {
+        framework = new AtmosphereFramework();
+        framework.setAsyncSupport(new BlockingIOCometSupport(framework.getAtmosphereConfig()));
+        framework.init(new ServletConfig() {
+            @Override
+            public String getServletName() {
+                return "void";
+            }
+
+            @Override
+            public ServletContext getServletContext() {
+                return mock(ServletContext.class);
+            }
+
+            @Override
+            public String getInitParameter(String name) {
+                return null;
+            }
+
+            @Override
+            public Enumeration<String> getInitParameterNames() {
+                return null;
+            }
+        });
+        config = framework.getAtmosphereConfig();
+    }
+
+    @AfterMethod
+    public void destroy() {
+        framework.destroy();
+    }
+
+    private AtmosphereResourceImpl resource(Broadcaster b) {
+        AtmosphereRequest request = AtmosphereRequestImpl.newInstance();
+        AtmosphereResponse response = AtmosphereResponseImpl.newInstance(request);
+        AtmosphereResourceImpl r = new AtmosphereResourceImpl();
+        r.initialize(config, b, request, response, null, null);
+        return r;
+    }
+
+    @Test
+    public void footprint() {
+        Broadcaster b = framework.getBroadcasterFactory().get();
+        AtmosphereResourceImpl r = resource(b);
+
+        GraphLayout shared = GraphLayout.parseInstance(config, b, r.getRequest(false), r.getResponse(false),
+                r.transport(), r.action().type());
+        GraphLayout owned = GraphLayout.parseInstance(r).subtract(shared);
+
+        logger.info("AtmosphereResourceImpl footprint: {} bytes, budget {} bytes\n{}", owned.totalSize(), FOOTPRINT_BUDGET, owned.toFootprint());
+        assertTrue(owned.totalSize() <= FOOTPRINT_BUDGET, owned.toFootprint());
+    }
+
+    @Test
+    public void lifecycleFlags() {
+        AtmosphereResourceImpl r = resource(framework.getBroadcasterFactory().get());
+
+        assertTrue(r.isInScope());
+        assertFalse(r.isResumed());
+        assertFalse(r.isCancelled());
+        assertFalse(r.isSuspended());
+
+        r.setIsInScope(false);
+        r.resumeOnBroadcast(true);
+        assertFalse(r.isInScope());
+        assertTrue(r.resumeOnBroadcast());
+
+        assertFalse(r.getAndSetPendingClose());
+        assertTrue(r.getAndSetPendingClose());
+        assertTrue(r.isPendingClose());
+        assertFalse(r.getAndSetInClosingPhase());
+        assertTrue(r.getAndSetInClosingPhase());
+
+        r.reset();
+        assertTrue(r.isInScope());
+        assertFalse(r.isPendingClose());
+        assertTrue(r.resumeOnBroadcast());
+    }
+
+    @Test
+    public void listenersAndBroadcasters() {
+        Broadcaster b = framework.getBroadcasterFactory().get();
+        AtmosphereResourceImpl r = resource(b);
+        AtmosphereResourceEventListener l = new AtmosphereResourceEventListenerAdapter();
+
+        r.addEventListener(l).addEventListener(l);
+        assertEquals(r.listeners().size(), 1);
+        r.removeEventListener(l);
+        assertTrue(r.listeners().isEmpty());
+
+        Broadcaster b2 = framework.getBroadcasterFactory().get();
+        r.addBroadcaster(b).addBroadcaster(b2);
+        assertEquals(r.broadcasters().size(), 2);
+        r.removeBroadcaster(b);
+        assertEquals(r.broadcasters().size(), 1);
+        assertEquals(r.broadcasters().get(0), b2);
+    }
+}
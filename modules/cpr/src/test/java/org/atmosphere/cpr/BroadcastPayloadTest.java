@@ -0,0 +1,65 @@
+/*
+ * Copyright 2018 Jean-Francois Arcand
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atmosphere.cpr;
+
+import org.testng.annotations.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class BroadcastPayloadTest {
+
+    @Test
+    public void testBytesAreComputedOnce() throws Exception {
+        BroadcastPayload payload = new BroadcastPayload("foo");
+        byte[] b = payload.bytes("UTF-8");
+
+        assertEquals(new String(b, "UTF-8"), "foo");
+        assertSame(payload.bytes("UTF-8"), b);
+        assertNotSame(payload.bytes("UTF-16"), b);
+        assertTrue(payload.matches(payload.message()));
+    }
+
+    @Test
+    public void testDeriveIsInvokedOncePerKey() {
+        final AtomicInteger invoked = new AtomicInteger();
+        BroadcastPayload payload = new BroadcastPayload("foo");
+        Object key = new Object();
+
+        BroadcastPayload p1 = payload.derive(key, m -> "<" + m + invoked.incrementAndGet() + ">");
+        BroadcastPayload p2 = payload.derive(key, m -> "<" + m + invoked.incrementAndGet() + ">");
+
+        assertSame(p1, p2);
+        assertEquals(p1.message(), "<foo1>");
+        assertEquals(invoked.get(), 1);
+
+        assertEquals(payload.derive(new Object(), m -> "bar").message(), "bar");
+        assertSame(payload.derive(key, m -> "bar"), p1);
+    }
+
+    @Test
+    public void testNullDerive() {
+        BroadcastPayload payload = new BroadcastPayload("foo");
+        Object key = new Object();
+        assertNull(payload.derive(key, m -> null));
+        assertNull(payload.derive(key, m -> "bar"));
+    }
+}
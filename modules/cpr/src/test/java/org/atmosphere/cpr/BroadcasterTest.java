@@ -17,14 +17,21 @@ package org.atmosphere.cpr;
 
 import static org.mockito.Mockito.mock;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
 import java.io.IOException;
 import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 import javax.servlet.ServletConfig;
 import javax.servlet.ServletContext;
@@ -192,6 +199,110 @@ public class BroadcasterTest {
         assertEquals(atmosphereHandler.value.get().size(), set.size());
     }
 
+    @Test
+    public void testBroadcastAsync() throws Exception {
+        BroadcastResult result = broadcaster.broadcastAsync("foo").toCompletableFuture().get(10, TimeUnit.SECONDS);
+        assertEquals(result.message(), "foo");
+        assertTrue(result.isCounted());
+        assertEquals(result.delivered(), 1);
+        assertEquals(result.filtered(), 0);
+        assertEquals(atmosphereHandler.value.get().toArray()[0], ar);
+    }
+
+    @Test
+    public void testBroadcastAsyncFiltered() throws Exception {
+        broadcaster.getBroadcasterConfig().addFilter(new PerRequestBroadcastFilter() {
+            @Override
+            public BroadcastAction filter(String broadcasterId, AtmosphereResource r, Object originalMessage, Object message) {
+                return new BroadcastAction(BroadcastAction.ACTION.ABORT, message);
+            }
+
+            @Override
+            public BroadcastAction filter(String broadcasterId, Object originalMessage, Object message) {
+                return new BroadcastAction(message);
+            }
+        });
+
+        BroadcastResult result = broadcaster.broadcastAsync("foo", ar).toCompletableFuture().get(10, TimeUnit.SECONDS);
+        assertEquals(result.delivered(), 0);
+        assertEquals(result.filtered(), 1);
+        assertEquals(atmosphereHandler.value.get(), new HashSet());
+    }
+
+    @Test
+    public void testEmptyBroadcastAsync() throws Exception {
+        broadcaster.removeAtmosphereResource(ar);
+
+        BroadcastResult result = broadcaster.broadcastAsync("foo").toCompletableFuture().get(10, TimeUnit.SECONDS);
+        assertEquals(result.delivered(), 0);
+        assertEquals(result.failed(), 0);
+    }
+
+    @Test
+    public void testCompletionOfAnyFuture() throws Exception {
+        BroadcastResult result = BroadcasterFuture.completion(CompletableFuture.completedFuture("foo"), broadcaster.getBroadcasterConfig())
+                .toCompletableFuture().get(10, TimeUnit.SECONDS);
+        assertEquals(result.message(), "foo");
+        assertFalse(result.isCounted());
+
+        result = BroadcasterFuture.completion(CompletableFuture.completedFuture("bar"), null).toCompletableFuture().get(10, TimeUnit.SECONDS);
+        assertEquals(result.message(), "bar");
+
+        result = BroadcasterFuture.completion(null, null).toCompletableFuture().get(10, TimeUnit.SECONDS);
+        assertEquals(result.delivered(), 0);
+    }
+
+    @Test
+    public void testBroadcastAsyncRacingRemoveAtmosphereResource() throws Exception {
+        AtmosphereResource ar2 = new AtmosphereResourceImpl(config,
+                broadcaster,
+                AtmosphereRequestImpl.newInstance(),
+                AtmosphereResponseImpl.newInstance(),
+                mock(BlockingIOCometSupport.class),
+                atmosphereHandler);
+        broadcaster.addAtmosphereResource(ar2);
+
+        // The Callable is invoked when the message is dispatched, so ar2 leaves after the broadcast and before the dispatch.
+        final CountDownLatch dispatching = new CountDownLatch(1);
+        final CountDownLatch removed = new CountDownLatch(1);
+        CompletableFuture<BroadcastResult> f = broadcaster.broadcastAsync(new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                dispatching.countDown();
+                removed.await(10, TimeUnit.SECONDS);
+                return "foo";
+            }
+        }).toCompletableFuture();
+
+        assertTrue(dispatching.await(10, TimeUnit.SECONDS));
+        broadcaster.removeAtmosphereResource(ar2);
+        removed.countDown();
+
+        BroadcastResult result = f.get(10, TimeUnit.SECONDS);
+        assertEquals(result.delivered(), 1);
+        assertEquals(atmosphereHandler.value.get().size(), 1);
+    }
+
+    @Test
+    public void testBroadcastAsyncCompletesOutsideOfTheAtmosphereResourceMonitor() throws Exception {
+        final AtomicReference<Boolean> holdsLock = new AtomicReference<Boolean>();
+        broadcaster.broadcastAsync("foo").thenAccept(new Consumer<BroadcastResult>() {
+            @Override
+            public void accept(BroadcastResult result) {
+                holdsLock.set(Thread.holdsLock(ar));
+            }
+        }).toCompletableFuture().get(10, TimeUnit.SECONDS);
+
+        assertEquals(holdsLock.get(), Boolean.FALSE);
+    }
+
+    @Test
+    public void testBroadcastFutureStillWorks() throws Exception {
+        Future<Object> f = broadcaster.broadcast("foo");
+        assertEquals(f.get(10, TimeUnit.SECONDS), "foo");
+        assertTrue(f.isDone());
+    }
+
     public final static class AR implements AtmosphereHandler {
 
         public AtomicReference<Set> value = new AtomicReference<Set>(new HashSet());
@@ -23,13 +23,18 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.mockito.Mockito.mock;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 public class ConcurrentBroadcasterTest {
 
@@ -340,6 +345,448 @@ public class ConcurrentBroadcasterTest {
         assertEquals(atmosphereHandler.value.get().toString(), b.toString());
     }
 
+    @Test
+    public void testOrderedMailboxBroadcast() throws Exception {
+        AtmosphereConfig config = new AtmosphereFramework()
+                .addInitParameter(ApplicationConfig.BROADCASTER_SHARABLE_THREAD_POOLS, "true")
+                .addInitParameter(ApplicationConfig.BROADCASTER_MAILBOX_WRITE, "true")
+                .addInitParameter(ApplicationConfig.WEBSOCKET_SUPPRESS_JSR356, "true")
+                .init().getAtmosphereConfig();
+
+        DefaultBroadcasterFactory factory = new DefaultBroadcasterFactory(DefaultBroadcaster.class, "NEVER", config);
+        config.framework().setBroadcasterFactory(factory);
+        broadcaster = (DefaultBroadcaster) factory.get(DefaultBroadcaster.class, "test");
+
+        atmosphereHandler = new AR();
+        ar = newAR(atmosphereHandler);
+        AR2 a = new AR2();
+        int client = 100;
+        broadcaster.addAtmosphereResource(ar);
+        for (int i = 0; i < client; i++) {
+            broadcaster.addAtmosphereResource(newAR(a));
+        }
+
+        final CountDownLatch latch = new CountDownLatch(1000);
+        broadcaster.addBroadcasterListener(new BroadcasterListenerAdapter() {
+            @Override
+            public void onComplete(Broadcaster b) {
+                latch.countDown();
+            }
+        });
+
+        StringBuffer b = new StringBuffer();
+        for (int i = 0; i < 1000; i++) {
+            b.append("message-" + i);
+            broadcaster.broadcast("message-" + i);
+        }
+        latch.await(60, TimeUnit.SECONDS);
+
+        assertEquals(atmosphereHandler.value.get().toString(), b.toString());
+        assertEquals(a.count.get(), 1000 * client);
+        for (DefaultBroadcaster.WriteQueue q : broadcaster.writeQueues().values()) {
+            assertEquals(q.asString().size(), 0);
+        }
+    }
+
+    @Test
+    public void testWriteQueueOverflow() throws Exception {
+        AtmosphereConfig config = new AtmosphereFramework()
+                .addInitParameter(ApplicationConfig.BROADCASTER_SHARABLE_THREAD_POOLS, "true")
+                .addInitParameter(ApplicationConfig.BROADCASTER_MAILBOX_WRITE, "true")
+                .addInitParameter(ApplicationConfig.BROADCASTER_WRITE_QUEUE_MAX_MESSAGES, "3")
+                .addInitParameter(ApplicationConfig.WEBSOCKET_SUPPRESS_JSR356, "true")
+                .init().getAtmosphereConfig();
+
+        DefaultBroadcasterFactory factory = new DefaultBroadcasterFactory(DefaultBroadcaster.class, "NEVER", config);
+        config.framework().setBroadcasterFactory(factory);
+        broadcaster = (DefaultBroadcaster) factory.get(DefaultBroadcaster.class, "test");
+
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final StringBuffer value = new StringBuffer();
+        ar = newAR(new AtmosphereHandler() {
+            @Override
+            public void onRequest(AtmosphereResource resource) throws IOException {
+            }
+
+            @Override
+            public void onStateChange(AtmosphereResourceEvent event) throws IOException {
+                writing.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                value.append(event.getMessage());
+            }
+
+            @Override
+            public void destroy() {
+            }
+        });
+        broadcaster.addAtmosphereResource(ar);
+
+        final CountDownLatch overflow = new CountDownLatch(6);
+        broadcaster.addBroadcasterListener(new BroadcasterListenerAdapter() {
+            @Override
+            public void onOverflow(Broadcaster b, AtmosphereResource r, Object message, Broadcaster.OVERFLOW_POLICY policy) {
+                assertEquals(policy, Broadcaster.OVERFLOW_POLICY.DROP_OLDEST);
+                overflow.countDown();
+            }
+        });
+
+        Future<Object> first = broadcaster.broadcast("m0");
+        assertTrue(writing.await(10, TimeUnit.SECONDS));
+
+        List<Future<Object>> futures = new ArrayList<Future<Object>>();
+        for (int i = 1; i < 10; i++) {
+            futures.add(broadcaster.broadcast("m" + i));
+        }
+        assertTrue(overflow.await(10, TimeUnit.SECONDS));
+        release.countDown();
+
+        first.get(10, TimeUnit.SECONDS);
+        for (Future<Object> f : futures) {
+            f.get(10, TimeUnit.SECONDS);
+        }
+
+        assertEquals(value.toString(), "m0m7m8m9");
+        assertEquals(broadcaster.overflowCount(), 6);
+        assertEquals(broadcaster.droppedCount(), 6);
+    }
+
+    @Test
+    public void testWriteQueueBoundUnderContention() throws Exception {
+        AtmosphereConfig config = new AtmosphereFramework()
+                .addInitParameter(ApplicationConfig.BROADCASTER_SHARABLE_THREAD_POOLS, "true")
+                .addInitParameter(ApplicationConfig.BROADCASTER_MAILBOX_WRITE, "true")
+                .addInitParameter(ApplicationConfig.BROADCASTER_WRITE_QUEUE_MAX_MESSAGES, "3")
+                .addInitParameter(ApplicationConfig.BROADCASTER_WRITE_QUEUE_OVERFLOW_POLICY, "DROP_NEWEST")
+                .addInitParameter(ApplicationConfig.WEBSOCKET_SUPPRESS_JSR356, "true")
+                .init().getAtmosphereConfig();
+
+        DefaultBroadcasterFactory factory = new DefaultBroadcasterFactory(DefaultBroadcaster.class, "NEVER", config);
+        config.framework().setBroadcasterFactory(factory);
+        broadcaster = (DefaultBroadcaster) factory.get(DefaultBroadcaster.class, "test");
+
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        ar = newAR(new AtmosphereHandler() {
+            @Override
+            public void onRequest(AtmosphereResource resource) throws IOException {
+            }
+
+            @Override
+            public void onStateChange(AtmosphereResourceEvent event) throws IOException {
+                writing.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+
+            @Override
+            public void destroy() {
+            }
+        });
+        broadcaster.addAtmosphereResource(ar);
+
+        Future<Object> first = broadcaster.broadcast("m0");
+        assertTrue(writing.await(10, TimeUnit.SECONDS));
+
+        // Writers racing on the same queue, whose consumer is busy writing m0.
+        final DefaultBroadcaster.WriteQueue writeQueue = broadcaster.writeQueues().get(ar.uuid());
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicInteger queued = new AtomicInteger();
+        List<Thread> writers = new ArrayList<Thread>();
+        for (int i = 0; i < 8; i++) {
+            Thread t = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int j = 0; j < 100; j++) {
+                        if (broadcaster.offer(writeQueue, new DefaultBroadcaster.AsyncWriteToken(ar, "m", null, "m", new AtomicInteger(1)))) {
+                            queued.incrementAndGet();
+                        }
+                    }
+                }
+            };
+            t.start();
+            writers.add(t);
+        }
+        start.countDown();
+        for (Thread t : writers) {
+            t.join(10000);
+        }
+
+        assertEquals(queued.get(), 3);
+        assertEquals(writeQueue.size(), 3);
+        assertEquals(broadcaster.overflowCount(), 797);
+
+        release.countDown();
+        first.get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testWriteCoalescing() throws Exception {
+        AtmosphereConfig config = new AtmosphereFramework()
+                .addInitParameter(ApplicationConfig.BROADCASTER_SHARABLE_THREAD_POOLS, "true")
+                .addInitParameter(ApplicationConfig.BROADCASTER_MAILBOX_WRITE, "true")
+                .addInitParameter(ApplicationConfig.BROADCASTER_WRITE_COALESCING, "true")
+                .addInitParameter(ApplicationConfig.WEBSOCKET_SUPPRESS_JSR356, "true")
+                .init().getAtmosphereConfig();
+
+        DefaultBroadcasterFactory factory = new DefaultBroadcasterFactory(DefaultBroadcaster.class, "NEVER", config);
+        config.framework().setBroadcasterFactory(factory);
+        broadcaster = (DefaultBroadcaster) factory.get(DefaultBroadcaster.class, "test");
+
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<Object> events = new ArrayList<Object>();
+        ar = newAR(new AtmosphereHandler() {
+            @Override
+            public void onRequest(AtmosphereResource resource) throws IOException {
+            }
+
+            @Override
+            public void onStateChange(AtmosphereResourceEvent event) throws IOException {
+                writing.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                events.add(((AtmosphereResourceEventImpl) event).isCoalesced() ? new ArrayList<Object>((List<?>) event.getMessage()) : event.getMessage());
+            }
+
+            @Override
+            public void destroy() {
+            }
+        });
+        broadcaster.addAtmosphereResource(ar);
+
+        Future<Object> first = broadcaster.broadcast("m0");
+        assertTrue(writing.await(10, TimeUnit.SECONDS));
+
+        List<Future<Object>> futures = new ArrayList<Future<Object>>();
+        for (int i = 1; i < 5; i++) {
+            futures.add(broadcaster.broadcast("m" + i));
+        }
+        while (broadcaster.writeQueues().get(ar.uuid()).size() < 4) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+
+        first.get(10, TimeUnit.SECONDS);
+        for (Future<Object> f : futures) {
+            f.get(10, TimeUnit.SECONDS);
+        }
+
+        assertEquals(events.size(), 2);
+        assertEquals(events.get(0), "m0");
+        assertEquals(events.get(1), Arrays.<Object>asList("m1", "m2", "m3", "m4"));
+    }
+
+    @Test
+    public void testWriteCoalescingListenersOfResumedResource() throws Exception {
+        AtmosphereConfig config = new AtmosphereFramework()
+                .addInitParameter(ApplicationConfig.BROADCASTER_SHARABLE_THREAD_POOLS, "true")
+                .addInitParameter(ApplicationConfig.BROADCASTER_MAILBOX_WRITE, "true")
+                .addInitParameter(ApplicationConfig.BROADCASTER_WRITE_COALESCING, "true")
+                .addInitParameter(ApplicationConfig.WEBSOCKET_SUPPRESS_JSR356, "true")
+                .init().getAtmosphereConfig();
+
+        DefaultBroadcasterFactory factory = new DefaultBroadcasterFactory(DefaultBroadcaster.class, "NEVER", config);
+        config.framework().setBroadcasterFactory(factory);
+        broadcaster = (DefaultBroadcaster) factory.get(DefaultBroadcaster.class, "test");
+
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        ar = newAR(new AtmosphereHandler() {
+            @Override
+            public void onRequest(AtmosphereResource resource) throws IOException {
+            }
+
+            @Override
+            public void onStateChange(AtmosphereResourceEvent event) throws IOException {
+                writing.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                // Like AbstractReflectorAtmosphereHandler, consume the messages written to a long-polling connection.
+                if (event.getMessage() instanceof List) {
+                    ((List<?>) event.getMessage()).clear();
+                }
+            }
+
+            @Override
+            public void destroy() {
+            }
+        });
+        ((AtmosphereResourceImpl) ar).transport(AtmosphereResource.TRANSPORT.LONG_POLLING);
+
+        final List<Object> broadcasts = new ArrayList<Object>();
+        ar.addEventListener(new AtmosphereResourceEventListenerAdapter() {
+            @Override
+            public void onBroadcast(AtmosphereResourceEvent event) {
+                Object m = event.getMessage();
+                broadcasts.add(m instanceof List ? new ArrayList<Object>((List<?>) m) : m);
+            }
+        });
+        broadcaster.addAtmosphereResource(ar);
+
+        Future<Object> first = broadcaster.broadcast("m0");
+        assertTrue(writing.await(10, TimeUnit.SECONDS));
+
+        List<Future<Object>> futures = new ArrayList<Future<Object>>();
+        for (int i = 1; i < 3; i++) {
+            futures.add(broadcaster.broadcast("m" + i));
+        }
+        while (broadcaster.writeQueues().get(ar.uuid()).size() < 2) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+
+        first.get(10, TimeUnit.SECONDS);
+        for (Future<Object> f : futures) {
+            f.get(10, TimeUnit.SECONDS);
+        }
+
+        assertEquals(broadcasts.size(), 2);
+        assertEquals(broadcasts.get(0), "m0");
+        assertEquals(broadcasts.get(1), Arrays.<Object>asList("m1", "m2"));
+    }
+
+    @Test
+    public void testWriteCoalescingKeepsListMessages() throws Exception {
+        broadcaster = coalescingBroadcaster();
+
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<Object> events = new ArrayList<Object>();
+        ar = newAR(new AtmosphereHandler() {
+            @Override
+            public void onRequest(AtmosphereResource resource) throws IOException {
+            }
+
+            @Override
+            public void onStateChange(AtmosphereResourceEvent event) throws IOException {
+                writing.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                events.add(((AtmosphereResourceEventImpl) event).isCoalesced() ? new ArrayList<Object>((List<?>) event.getMessage()) : event.getMessage());
+            }
+
+            @Override
+            public void destroy() {
+            }
+        });
+        broadcaster.addAtmosphereResource(ar);
+
+        Future<Object> first = broadcaster.broadcast("m0");
+        assertTrue(writing.await(10, TimeUnit.SECONDS));
+
+        Future<Object> list = broadcaster.broadcast(Arrays.asList("a", "b"));
+        Future<Object> last = broadcaster.broadcast("m2");
+        while (broadcaster.writeQueues().get(ar.uuid()).size() < 2) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+
+        first.get(10, TimeUnit.SECONDS);
+        list.get(10, TimeUnit.SECONDS);
+        last.get(10, TimeUnit.SECONDS);
+
+        assertEquals(events.size(), 2);
+        assertEquals(events.get(1), Arrays.<Object>asList(Arrays.asList("a", "b"), "m2"));
+    }
+
+    @Test
+    public void testWriteCoalescingListenersOfStreamingResource() throws Exception {
+        broadcaster = coalescingBroadcaster();
+
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        ar = newAR(new AtmosphereHandler() {
+            @Override
+            public void onRequest(AtmosphereResource resource) throws IOException {
+            }
+
+            @Override
+            public void onStateChange(AtmosphereResourceEvent event) throws IOException {
+                writing.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                // Like AbstractReflectorAtmosphereHandler, consume the written messages, whatever the transport.
+                if (event.getMessage() instanceof List) {
+                    ((List<?>) event.getMessage()).clear();
+                }
+            }
+
+            @Override
+            public void destroy() {
+            }
+        });
+        ((AtmosphereResourceImpl) ar).transport(AtmosphereResource.TRANSPORT.STREAMING);
+
+        final List<Object> broadcasts = new ArrayList<Object>();
+        ar.addEventListener(new AtmosphereResourceEventListenerAdapter() {
+            @Override
+            public void onBroadcast(AtmosphereResourceEvent event) {
+                Object m = event.getMessage();
+                broadcasts.add(m instanceof List ? new ArrayList<Object>((List<?>) m) : m);
+            }
+        });
+        broadcaster.addAtmosphereResource(ar);
+
+        Future<Object> first = broadcaster.broadcast("m0");
+        assertTrue(writing.await(10, TimeUnit.SECONDS));
+
+        List<Future<Object>> futures = new ArrayList<Future<Object>>();
+        for (int i = 1; i < 3; i++) {
+            futures.add(broadcaster.broadcast("m" + i));
+        }
+        while (broadcaster.writeQueues().get(ar.uuid()).size() < 2) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+
+        first.get(10, TimeUnit.SECONDS);
+        for (Future<Object> f : futures) {
+            f.get(10, TimeUnit.SECONDS);
+        }
+
+        assertEquals(broadcasts.size(), 2);
+        assertEquals(broadcasts.get(0), "m0");
+        assertEquals(broadcasts.get(1), Arrays.<Object>asList("m1", "m2"));
+    }
+
+    private DefaultBroadcaster coalescingBroadcaster() throws Exception {
+        AtmosphereConfig config = new AtmosphereFramework()
+                .addInitParameter(ApplicationConfig.BROADCASTER_SHARABLE_THREAD_POOLS, "true")
+                .addInitParameter(ApplicationConfig.BROADCASTER_MAILBOX_WRITE, "true")
+                .addInitParameter(ApplicationConfig.BROADCASTER_WRITE_COALESCING, "true")
+                .addInitParameter(ApplicationConfig.WEBSOCKET_SUPPRESS_JSR356, "true")
+                .init().getAtmosphereConfig();
+
+        DefaultBroadcasterFactory factory = new DefaultBroadcasterFactory(DefaultBroadcaster.class, "NEVER", config);
+        config.framework().setBroadcasterFactory(factory);
+        return (DefaultBroadcaster) factory.get(DefaultBroadcaster.class, "test");
+    }
+
     AtmosphereResource newAR(AtmosphereHandler a) {
         return new AtmosphereResourceImpl(broadcaster.getBroadcasterConfig().getAtmosphereConfig(),
                 broadcaster,
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2008-2021 Async-IO.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atmosphere.cpr;
+
+import org.atmosphere.metrics.DefaultAtmosphereMetrics;
+import org.atmosphere.metrics.InterceptorLatency;
+import org.atmosphere.metrics.InterceptorProfiler;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import javax.management.ObjectName;
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class InterceptorProfilerTest {
+
+    private AtmosphereFramework framework;
+    private AsynchronousProcessor processor;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        framework = new AtmosphereFramework()
+                .addInitParameter(ApplicationConfig.INTERCEPTOR_PROFILING, "true")
+                .addInitParameter(ApplicationConfig.WEBSOCKET_SUPPRESS_JSR356, "true");
+        framework.setAsyncSupport(mock(AsyncSupport.class));
+        framework.init();
+        processor = new AsynchronousProcessor(framework.getAtmosphereConfig()) {
+            @Override
+            public Action service(AtmosphereRequest req, AtmosphereResponse res) throws IOException, ServletException {
+                return action(req, res);
+            }
+        };
+    }
+
+    @AfterMethod
+    public void unSetUp() throws Exception {
+        framework.destroy();
+    }
+
+    @Test
+    public void testProfile() throws Exception {
+        framework.addAtmosphereHandler("/*", mock(AtmosphereHandler.class));
+        framework.interceptor(new ContinueInterceptor());
+
+        processor.service(mock(AtmosphereRequestImpl.class), AtmosphereResponseImpl.newInstance());
+        processor.service(mock(AtmosphereRequestImpl.class), AtmosphereResponseImpl.newInstance());
+
+        List<InterceptorLatency> latencies = framework.interceptorProfiler().getLatencies();
+        InterceptorLatency inspect = find(latencies, "inspect");
+        InterceptorLatency postInspect = find(latencies, "postInspect");
+        assertEquals(inspect.getCount(), 2);
+        assertEquals(inspect.getMapping(), "/*");
+        assertEquals(postInspect.getCount(), 2);
+        assertTrue(inspect.getMax() >= inspect.getMedian());
+        assertTrue(framework.interceptorProfiler().dump().contains(ContinueInterceptor.class.getName()));
+
+        framework.interceptorProfiler().reset();
+        assertTrue(framework.interceptorProfiler().getLatencies().isEmpty());
+    }
+
+    @Test
+    public void testNoMapping() {
+        AtmosphereResource r = mock(AtmosphereResourceImpl.class);
+        framework.interceptorProfiler().inspect(null, new ContinueInterceptor(), r, 1000);
+
+        List<InterceptorLatency> latencies = framework.interceptorProfiler().getLatencies();
+        assertEquals(latencies.size(), 1);
+        assertEquals(latencies.get(0).getMapping(), InterceptorProfiler.NO_MAPPING);
+        assertEquals(latencies.get(0).getTransport(), AtmosphereResource.TRANSPORT.UNDEFINED.name());
+    }
+
+    @Test
+    public void testMBean() throws Exception {
+        ObjectName name = new ObjectName(DefaultAtmosphereMetrics.DOMAIN + ":type=InterceptorProfiler,*");
+        assertEquals(ManagementFactory.getPlatformMBeanServer().queryNames(name, null).size(), 1);
+
+        framework.destroy();
+        assertTrue(ManagementFactory.getPlatformMBeanServer().queryNames(name, null).isEmpty());
+        assertNull(framework.interceptorProfiler());
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        AtmosphereFramework f = new AtmosphereFramework()
+                .addInitParameter(ApplicationConfig.WEBSOCKET_SUPPRESS_JSR356, "true");
+        f.init();
+        try {
+            assertNull(f.interceptorProfiler());
+        } finally {
+            f.destroy();
+        }
+    }
+
+    private static InterceptorLatency find(List<InterceptorLatency> latencies, String phase) {
+        for (InterceptorLatency l : latencies) {
+            if (l.getInterceptor().equals(ContinueInterceptor.class.getName()) && l.getPhase().equals(phase)) {
+                return l;
+            }
+        }
+        throw new AssertionError(phase + " of " + ContinueInterceptor.class.getName() + " not found in " + latencies);
+    }
+
+    public static final class ContinueInterceptor extends AtmosphereInterceptorAdapter {
+        @Override
+        public Action inspect(AtmosphereResource r) {
+            AtmosphereResourceImpl.class.cast(r).action().type(Action.TYPE.CONTINUE);
+            return Action.CONTINUE;
+        }
+    }
+}
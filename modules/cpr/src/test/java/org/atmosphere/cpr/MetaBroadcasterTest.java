@@ -15,14 +15,18 @@
  */
 package org.atmosphere.cpr;
 
+import org.atmosphere.container.BlockingIOCometSupport;
 import org.atmosphere.util.ExecutorsFactory;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
+import static org.mockito.Mockito.mock;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 public class MetaBroadcasterTest {
     private AtmosphereConfig config;
@@ -60,6 +64,36 @@ public class MetaBroadcasterTest {
         assertEquals(metaBroadcaster.broadcastTo("/", "yo").get().size(), 4);
     }
 
+    @Test
+    public void asyncBroadcastTest() throws Exception {
+        factory.get("/a");
+        factory.get("/b");
+
+        BroadcastResult result = metaBroadcaster.broadcastToAsync("/*", "yo").toCompletableFuture().get(10, TimeUnit.SECONDS);
+        assertEquals(result.message(), "yo");
+        assertEquals(result.delivered(), 0);
+        assertEquals(metaBroadcaster.broadcastToAsync("/c", "yo").toCompletableFuture().get(10, TimeUnit.SECONDS).delivered(), 0);
+    }
+
+    @Test
+    public void asyncBroadcastSumsTheCountsTest() throws Exception {
+        BroadcasterTest.AR handler = new BroadcasterTest.AR();
+        for (String id : new String[]{"/a", "/b"}) {
+            Broadcaster b = factory.get(id);
+            b.addAtmosphereResource(new AtmosphereResourceImpl(config,
+                    b,
+                    AtmosphereRequestImpl.newInstance(),
+                    AtmosphereResponseImpl.newInstance(),
+                    mock(BlockingIOCometSupport.class),
+                    handler));
+        }
+
+        BroadcastResult result = metaBroadcaster.broadcastToAsync("/*", "yo").toCompletableFuture().get(10, TimeUnit.SECONDS);
+        assertTrue(result.isCounted());
+        assertEquals(result.delivered(), 2);
+        assertEquals(handler.value.get().size(), 2);
+    }
+
     @Test
     public void exactBroadcastTest() throws ExecutionException, InterruptedException {
 
@@ -120,4 +154,33 @@ public class MetaBroadcasterTest {
         assertEquals(metaBroadcaster.broadcastTo("/a/@b", "yo").get().size(), 1);
 
     }
+
+    @Test
+    public void templateBroadcastTest() throws ExecutionException, InterruptedException {
+        factory.get("/chat/a/messages");
+        factory.get("/chat/b/messages");
+        factory.get("/chat/b/users");
+        factory.get("/chat");
+
+        assertEquals(metaBroadcaster.broadcastTo("/chat/{room}/messages", "yo").get().size(), 2);
+        assertEquals(metaBroadcaster.broadcastTo("/chat/{room}/*", "yo").get().size(), 3);
+        assertEquals(metaBroadcaster.broadcastTo("/chat/{room}", "yo").get().size(), 0);
+        assertEquals(metaBroadcaster.broadcastTo("/{path}", "yo").get().size(), 1);
+    }
+
+    @Test
+    public void removedBroadcasterTest() throws ExecutionException, InterruptedException {
+        factory.get("/a/chat1");
+        Broadcaster b = factory.get("/a/chat2");
+        factory.get("/a/chat3");
+
+        factory.remove(b, b.getID());
+        assertEquals(metaBroadcaster.broadcastTo("/a/*", "yo").get().size(), 2);
+
+        factory.remove("/a/chat3");
+        assertEquals(metaBroadcaster.broadcastTo("/a/*", "yo").get().size(), 1);
+
+        factory.get("/a/chat2");
+        assertEquals(metaBroadcaster.broadcastTo("/a/*", "yo").get().size(), 2);
+    }
 }
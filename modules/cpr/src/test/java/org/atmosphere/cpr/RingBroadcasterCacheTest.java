@@ -0,0 +1,208 @@
+/*
+ * Copyright 2008-2021 Async-IO.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atmosphere.cpr;
+
+import org.atmosphere.cache.BroadcastMessage;
+import org.atmosphere.cache.CacheMessage;
+import org.atmosphere.cache.RingBroadcasterCache;
+import org.atmosphere.container.BlockingIOCometSupport;
+import org.atmosphere.util.ExecutorsFactory;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import javax.servlet.ServletException;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class RingBroadcasterCacheTest {
+    private AtmosphereResource ar;
+    private Broadcaster broadcaster;
+    private UUIDBroadcasterCacheTest.AR atmosphereHandler;
+    private RingBroadcasterCache broadcasterCache;
+    private AtmosphereConfig config;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        config = new AtmosphereFramework().getAtmosphereConfig();
+        DefaultBroadcasterFactory factory = new DefaultBroadcasterFactory(DefaultBroadcaster.class, "NEVER", config);
+        broadcaster = factory.get(DefaultBroadcaster.class, "test");
+        config.framework().setBroadcasterFactory(factory);
+
+        broadcasterCache = new RingBroadcasterCache();
+        broadcasterCache.configure(config);
+        broadcaster.getBroadcasterConfig().setBroadcasterCache(broadcasterCache);
+        atmosphereHandler = new UUIDBroadcasterCacheTest.AR();
+        ar = new AtmosphereResourceImpl(config,
+                broadcaster,
+                mock(AtmosphereRequestImpl.class),
+                AtmosphereResponseImpl.newInstance(),
+                mock(BlockingIOCometSupport.class),
+                atmosphereHandler);
+        broadcaster.addAtmosphereResource(ar);
+    }
+
+    @AfterMethod
+    public void addAR() {
+        broadcaster.removeAtmosphereResource(ar);
+        config.getBroadcasterFactory().destroy();
+        ExecutorsFactory.reset(config);
+    }
+
+    @Test
+    public void testBasicCache() throws ExecutionException, InterruptedException, ServletException {
+        broadcaster.broadcast("e1").get();
+        broadcaster.removeAtmosphereResource(ar);
+        broadcaster.broadcast("e2").get();
+        broadcaster.broadcast("e3").get();
+
+        assertEquals(broadcasterCache.retrieveFromCache(broadcaster.getID(), ar.uuid()), Arrays.<Object>asList("e2", "e3"));
+        assertTrue(broadcasterCache.retrieveFromCache(broadcaster.getID(), ar.uuid()).isEmpty());
+    }
+
+    @Test
+    public void addRemoveAddTest() throws ExecutionException, InterruptedException, ServletException {
+        broadcaster.broadcast("e1").get();
+        broadcaster.removeAtmosphereResource(ar);
+        broadcaster.broadcast("e2").get();
+
+        broadcaster.addAtmosphereResource(ar);
+        broadcaster.broadcast("e3").get();
+
+        assertEquals(broadcasterCache.retrieveFromCache(broadcaster.getID(), ar.uuid()), Arrays.<Object>asList("e3"));
+    }
+
+    @Test
+    public void testMessagesAreSharedByClients() {
+        String id = "shared";
+        broadcasterCache.cacheCandidate(id, "a");
+        broadcasterCache.cacheCandidate(id, "b");
+
+        for (int i = 0; i < 10; i++) {
+            broadcasterCache.addToCache(id, BroadcasterCache.NULL, new BroadcastMessage("m" + i));
+        }
+        CacheMessage lost = broadcasterCache.addToCache(id, "a", new BroadcastMessage("lost"));
+
+        assertEquals(broadcasterCache.size(id), 11);
+        assertEquals(broadcasterCache.lastSequence(id), 11);
+        assertEquals(broadcasterCache.retrieveFromCache(id, "a").size(), 11);
+        assertEquals(broadcasterCache.retrieveFromCache(id, "b").size(), 10);
+        assertEquals(broadcasterCache.retrieveFromCache(id, "b", 8).size(), 2);
+        assertEquals(((RingBroadcasterCache.Entry) lost).sequence(), 11);
+    }
+
+    @Test
+    public void testClearCacheMovesCursor() {
+        String id = "cursor";
+        broadcasterCache.cacheCandidate(id, "a");
+
+        CacheMessage m1 = broadcasterCache.addToCache(id, BroadcasterCache.NULL, new BroadcastMessage("m1"));
+        broadcasterCache.addToCache(id, BroadcasterCache.NULL, new BroadcastMessage("m2"));
+        broadcasterCache.clearCache(id, "a", m1);
+
+        assertEquals(broadcasterCache.retrieveFromCache(id, "a"), Arrays.<Object>asList("m2"));
+    }
+
+    @Test
+    public void testOutOfOrderDeliveryKeepsEarlierMessages() {
+        String id = "outOfOrder";
+        broadcasterCache.cacheCandidate(id, "a");
+        broadcasterCache.cacheCandidate(id, "b");
+
+        CacheMessage m1 = broadcasterCache.addToCache(id, BroadcasterCache.NULL, new BroadcastMessage("m1"));
+        CacheMessage m2 = broadcasterCache.addToCache(id, BroadcasterCache.NULL, new BroadcastMessage("m2"));
+        broadcasterCache.addToCache(id, BroadcasterCache.NULL, new BroadcastMessage("m3"));
+
+        broadcasterCache.clearCache(id, "a", m2);
+        broadcasterCache.clearCache(id, "b", m2);
+        broadcasterCache.clearCache(id, "b", m1);
+
+        assertEquals(broadcasterCache.retrieveFromCache(id, "a"), Arrays.<Object>asList("m1", "m3"));
+        assertEquals(broadcasterCache.retrieveFromCache(id, "b"), Arrays.<Object>asList("m3"));
+    }
+
+    @Test
+    public void testRingIsBounded() {
+        String id = "bounded";
+        broadcasterCache.setSize(4);
+        broadcasterCache.cacheCandidate(id, "a");
+
+        for (int i = 0; i < 10; i++) {
+            broadcasterCache.addToCache(id, BroadcasterCache.NULL, new BroadcastMessage("m" + i));
+        }
+
+        assertEquals(broadcasterCache.size(id), 4);
+        assertEquals(broadcasterCache.retrieveFromCache(id, "a"), Arrays.<Object>asList("m6", "m7", "m8", "m9"));
+    }
+
+    @Test
+    public void testOnlyUndeliveredOverwritesAreEvictions() {
+        String id = "evictions";
+        AtmosphereMetrics metrics = mock(AtmosphereMetrics.class);
+        config.framework().metrics(metrics);
+        broadcasterCache = new RingBroadcasterCache();
+        broadcasterCache.configure(config);
+        broadcasterCache.setSize(2);
+        broadcasterCache.cacheCandidate(id, "a");
+        broadcasterCache.cacheCandidate(id, "b");
+
+        broadcasterCache.addToCache(id, BroadcasterCache.NULL, new BroadcastMessage("m1"));
+        broadcasterCache.addToCache(id, BroadcasterCache.NULL, new BroadcastMessage("m2"));
+        broadcasterCache.retrieveFromCache(id, "a");
+        // b never received m1
+        broadcasterCache.addToCache(id, BroadcasterCache.NULL, new BroadcastMessage("m3"));
+        broadcasterCache.retrieveFromCache(id, "b");
+        // Everybody received m2
+        broadcasterCache.addToCache(id, BroadcasterCache.NULL, new BroadcastMessage("m4"));
+
+        verify(metrics, times(1)).onCacheEviction(id, 1);
+        verify(metrics, never()).onCacheEviction(eq((String) null), anyInt());
+    }
+
+    @Test
+    public void testLastEventIdResume() throws Exception {
+        broadcaster.broadcast("e1").get();
+        long lastEventId = broadcasterCache.lastSequence(broadcaster.getID());
+        broadcaster.removeAtmosphereResource(ar);
+        broadcaster.broadcast("e2").get();
+        broadcaster.broadcast("e3").get();
+
+        AtmosphereRequestImpl request = mock(AtmosphereRequestImpl.class);
+        when(request.getHeader(HeaderConfig.LAST_EVENT_ID)).thenReturn(String.valueOf(lastEventId));
+        AtmosphereResourceImpl reconnected = new AtmosphereResourceImpl(config,
+                broadcaster,
+                request,
+                AtmosphereResponseImpl.newInstance(),
+                mock(BlockingIOCometSupport.class),
+                atmosphereHandler);
+        AtmosphereResourceEventImpl e = reconnected.getAtmosphereResourceEvent();
+
+        assertTrue(((DefaultBroadcaster) broadcaster).retrieveTrackedBroadcast(reconnected, e));
+        assertEquals(e.getMessage(), Arrays.<Object>asList("e2", "e3"));
+        assertEquals(e.sequence(), broadcasterCache.lastSequence(broadcaster.getID()));
+        assertTrue(Arrays.equals(e.sequences(), new long[]{lastEventId + 1, lastEventId + 2}));
+    }
+}
@@ -31,9 +31,11 @@ import javax.servlet.http.Cookie;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
@@ -42,12 +44,16 @@ import java.util.concurrent.atomic.AtomicReference;
 
 import static org.atmosphere.cpr.ApplicationConfig.RECYCLE_ATMOSPHERE_REQUEST_RESPONSE;
 import static org.atmosphere.cpr.ApplicationConfig.SUSPENDED_ATMOSPHERE_RESOURCE_UUID;
+import static org.atmosphere.cpr.ApplicationConfig.WEBSOCKET_POOL_REQUEST_RESPONSE;
 import static org.atmosphere.websocket.WebSocketEventListener.WebSocketEvent.TYPE.DISCONNECT;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 public class WebSocketProcessorTest {
 
@@ -125,6 +131,39 @@ public class WebSocketProcessorTest {
 
     }
 
+    @Test
+    public void metricsCountOpenAndClose() throws IOException, ServletException {
+        ByteArrayOutputStream b = new ByteArrayOutputStream();
+        final WebSocket w = new ArrayBaseWebSocket(b);
+        final WebSocketProcessor processor = WebSocketProcessorFactory.getDefault()
+                .getWebSocketProcessor(framework);
+        AtmosphereMetrics metrics = mock(AtmosphereMetrics.class);
+        framework.metrics(metrics);
+
+        framework.addAtmosphereHandler("/*", new AtmosphereHandler() {
+
+            @Override
+            public void onRequest(AtmosphereResource resource) throws IOException {
+                resource.suspend();
+            }
+
+            @Override
+            public void onStateChange(AtmosphereResourceEvent event) throws IOException {
+            }
+
+            @Override
+            public void destroy() {
+            }
+        });
+
+        AtmosphereRequest request = new AtmosphereRequestImpl.Builder().destroyable(false).pathInfo("/a").build();
+        processor.open(w, request, AtmosphereResponseImpl.newInstance(framework.getAtmosphereConfig(), request, w));
+        processor.close(w, 1000);
+
+        verify(metrics, times(1)).onWebSocketOpen(w);
+        verify(metrics, times(1)).onWebSocketClose(w);
+    }
+
     @Test
     public void encodeURLProxyTest() throws IOException, ServletException, ExecutionException, InterruptedException {
         ByteArrayOutputStream b = new ByteArrayOutputStream();
@@ -350,6 +389,56 @@ public class WebSocketProcessorTest {
         assertEquals(uuid.get(), request.getAttribute(SUSPENDED_ATMOSPHERE_RESOURCE_UUID));
     }
 
+    @Test
+    public void pooledRequestResponseTest() throws IOException, ServletException {
+        framework.addInitParameter(WEBSOCKET_POOL_REQUEST_RESPONSE, "true");
+        framework.getWebSocketProtocol().configure(framework.getAtmosphereConfig());
+
+        ByteArrayOutputStream b = new ByteArrayOutputStream();
+        final WebSocket w = new ArrayBaseWebSocket(b);
+        final WebSocketProcessor processor = WebSocketProcessorFactory.getDefault()
+                .getWebSocketProcessor(framework);
+        final AtomicBoolean opened = new AtomicBoolean();
+        final List<AtmosphereRequest> requests = new ArrayList<AtmosphereRequest>();
+
+        framework.addAtmosphereHandler("/*", new AtmosphereHandler() {
+
+            @Override
+            public void onRequest(AtmosphereResource resource) throws IOException {
+                if (!opened.getAndSet(true)) {
+                    resource.suspend();
+                    return;
+                }
+                requests.add(resource.getRequest());
+                resource.getRequest().setAttribute("message", Boolean.TRUE);
+                resource.getResponse().write(resource.getRequest().getReader().readLine());
+            }
+
+            @Override
+            public void onStateChange(AtmosphereResourceEvent event) throws IOException {
+            }
+
+            @Override
+            public void destroy() {
+            }
+        });
+
+        AtmosphereRequest request = new AtmosphereRequestImpl.Builder().destroyable(false).body("yoComet").pathInfo("/a").build();
+        processor.open(w, request, AtmosphereResponseImpl.newInstance(framework.getAtmosphereConfig(), request, w));
+        processor.invokeWebSocketProtocol(w, "yo");
+        processor.invokeWebSocketProtocol(w, "WebSocket");
+
+        assertEquals(b.toString(), "yoWebSocket");
+        assertEquals(requests.size(), 2);
+        assertTrue(requests.get(0) == requests.get(1));
+
+        try {
+            requests.get(1).getAttribute("message");
+            fail("A recycled AtmosphereRequest must not be usable");
+        } catch (IllegalStateException ex) {
+        }
+    }
+
     public final class ArrayBaseWebSocket extends WebSocket {
 
         private final OutputStream outputStream;
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2008-2021 Async-IO.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atmosphere.interceptor;
+
+import org.atmosphere.container.BlockingIOCometSupport;
+import org.atmosphere.cpr.AtmosphereFramework;
+import org.atmosphere.cpr.AtmosphereRequest;
+import org.atmosphere.cpr.AtmosphereRequestImpl;
+import org.atmosphere.cpr.AtmosphereResource;
+import org.atmosphere.cpr.AtmosphereResourceImpl;
+import org.atmosphere.cpr.AtmosphereResponseImpl;
+import org.atmosphere.cpr.HeaderConfig;
+import org.atmosphere.util.ExecutorsFactory;
+import org.atmosphere.util.HashedTimerWheel;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletContext;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.atmosphere.cpr.ApplicationConfig.MAX_INACTIVE;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+
+public class IdleResourceInterceptorTest {
+
+    private AtmosphereFramework framework;
+    private CountDownLatch closed;
+    private IdleResourceInterceptor interceptor;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        framework = new AtmosphereFramework();
+        framework.setAsyncSupport(new BlockingIOCometSupport(framework.getAtmosphereConfig()));
+        framework.init(new ServletConfig() {
+            @Override
+            public String getServletName() {
+                return "void";
+            }
+
+            @Override
+            public ServletContext getServletContext() {
+                return mock(ServletContext.class);
+            }
+
+            @Override
+            public String getInitParameter(String name) {
+                return null;
+            }
+
+            @Override
+            public Enumeration<String> getInitParameterNames() {
+                return null;
+            }
+        });
+
+        closed = new CountDownLatch(1);
+        interceptor = new IdleResourceInterceptor() {
+            @Override
+            protected void closeIdleResource(AtmosphereResource r) {
+                closed.countDown();
+            }
+        };
+        interceptor.configure(framework.getAtmosphereConfig());
+        interceptor.checkInterval(50).maxInactiveTime(300);
+    }
+
+    @AfterMethod
+    public void unSet() throws Exception {
+        interceptor.destroy();
+        framework.destroy();
+    }
+
+    private AtmosphereResourceImpl resource() {
+        AtmosphereRequest request = AtmosphereRequestImpl.newInstance();
+        request.header(HeaderConfig.X_ATMOSPHERE_TRANSPORT, HeaderConfig.STREAMING_TRANSPORT);
+        AtmosphereResourceImpl r = new AtmosphereResourceImpl();
+        r.initialize(framework.getAtmosphereConfig(), framework.getBroadcasterFactory().get(),
+                request, AtmosphereResponseImpl.newInstance(request), framework.getAsyncSupport(), null);
+        framework.getAtmosphereConfig().resourcesFactory().registerUuidForFindCandidate(r);
+        return r;
+    }
+
+    @Test
+    public void closeIdleResource() throws Exception {
+        AtmosphereResourceImpl r = resource();
+        interceptor.inspect(r);
+
+        assertTrue(closed.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void keepActiveResource() throws Exception {
+        AtmosphereResourceImpl r = resource();
+        interceptor.inspect(r);
+
+        AtmosphereRequestImpl request = (AtmosphereRequestImpl) r.getRequest(false);
+        for (int i = 0; i < 10; i++) {
+            request.lastActivity(System.currentTimeMillis());
+            Thread.sleep(100);
+        }
+        assertEquals(closed.getCount(), 1);
+
+        assertTrue(closed.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void singleTimeoutPerResource() throws Exception {
+        final AtmosphereResourceImpl r = resource();
+        HashedTimerWheel wheel = ExecutorsFactory.getTimerWheel(framework.getAtmosphereConfig());
+        int pending = wheel.pending();
+
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(8);
+        ExecutorService e = Executors.newFixedThreadPool(8);
+        try {
+            for (int i = 0; i < 8; i++) {
+                e.execute(() -> {
+                    try {
+                        start.await();
+                        for (int j = 0; j < 100; j++) {
+                            interceptor.inspect(r);
+                        }
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            start.countDown();
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+        } finally {
+            e.shutdownNow();
+        }
+
+        assertEquals(wheel.pending(), pending + 1);
+        assertFalse(r.idleTimeout().isCancelled());
+        assertTrue(closed.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void untrackUnregisteredResource() throws Exception {
+        AtmosphereResourceImpl r = resource();
+        interceptor.inspect(r);
+        framework.getAtmosphereConfig().resourcesFactory().unRegisterUuidForFindCandidate(r);
+
+        assertFalse(closed.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void closeIdleResourceOfWrappedRequest() throws Exception {
+        final Map<String, Object> attributes = new HashMap<String, Object>();
+        AtmosphereRequest request = mock(AtmosphereRequest.class);
+        when(request.getAttribute(anyString())).thenAnswer(i -> attributes.get(i.getArguments()[0]));
+        doAnswer(i -> attributes.put((String) i.getArguments()[0], i.getArguments()[1])).when(request).setAttribute(anyString(), any());
+
+        AtmosphereResourceImpl r = new AtmosphereResourceImpl();
+        r.initialize(framework.getAtmosphereConfig(), framework.getBroadcasterFactory().get(),
+                request, AtmosphereResponseImpl.newInstance(), framework.getAsyncSupport(), null);
+        r.transport(AtmosphereResource.TRANSPORT.STREAMING);
+        framework.getAtmosphereConfig().resourcesFactory().registerUuidForFindCandidate(r);
+
+        interceptor.inspect(r);
+        assertNotNull(attributes.get(MAX_INACTIVE));
+
+        assertTrue(closed.await(5, TimeUnit.SECONDS));
+    }
+}
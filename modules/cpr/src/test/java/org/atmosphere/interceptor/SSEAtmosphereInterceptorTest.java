@@ -20,10 +20,12 @@ import org.atmosphere.cpr.AtmosphereConfig;
 import org.atmosphere.cpr.AtmosphereFramework;
 import org.atmosphere.cpr.AtmosphereRequest;
 import org.atmosphere.cpr.AtmosphereRequestImpl;
+import org.atmosphere.cpr.AtmosphereResourceEventImpl;
 import org.atmosphere.cpr.AtmosphereResourceImpl;
 import org.atmosphere.cpr.AtmosphereResponse;
 import org.atmosphere.cpr.AtmosphereResponseImpl;
 import org.atmosphere.cpr.HeaderConfig;
+import org.atmosphere.handler.AbstractReflectorAtmosphereHandler;
 import org.atmosphere.interceptor.SSEAtmosphereInterceptor;
 import org.mockito.Mockito;
 import org.testng.annotations.BeforeMethod;
@@ -37,6 +39,8 @@ import javax.servlet.http.HttpServletResponse;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Enumeration;
 
 import static org.testng.Assert.assertEquals;
@@ -127,4 +131,100 @@ public class SSEAtmosphereInterceptorTest {
         response.write("Hello World!\r\nHave a nice day!".getBytes());
         assertEquals(baos.toString(), "data:Hello World!\r\ndata:Have a nice day!\r\n\r\n");
     }
+
+    @Test
+    public void testEventId() throws Exception {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ServletResponse resp = Mockito.mock(HttpServletResponse.class);
+        Mockito.when(resp.getOutputStream()).thenReturn(new ServletOutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                baos.write(b);
+            }
+            @Override
+            public void write(byte[] b) throws IOException {
+                baos.write(b);
+            }
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                baos.write(b, off, len);
+            }
+        });
+
+        AtmosphereRequest request = AtmosphereRequestImpl.newInstance();
+        request.header(HeaderConfig.X_ATMOSPHERE_TRANSPORT, "SSE");
+        AtmosphereResponse response = AtmosphereResponseImpl.newInstance(request);
+        response.request(request);
+        response.setResponse(resp);
+        AtmosphereResourceImpl resource = new AtmosphereResourceImpl();
+        resource.initialize(framework.getAtmosphereConfig(),
+                framework.getBroadcasterFactory().get(),
+                request, response, Mockito.mock(AsyncSupport.class), null);
+        resource.suspend();
+
+        SSEAtmosphereInterceptor interceptor = new SSEAtmosphereInterceptor();
+        interceptor.configure(config);
+        interceptor.inspect(resource);
+
+        resource.getAtmosphereResourceEvent().sequence(42);
+        response.write("Good Morning".getBytes());
+        assertEquals(baos.toString(), "id:42\r\ndata:Good Morning\r\n\r\n");
+        baos.reset();
+
+        resource.getAtmosphereResourceEvent().sequence(0);
+        response.write("Good Morning".getBytes());
+        assertEquals(baos.toString(), "data:Good Morning\r\n\r\n");
+    }
+
+    @Test
+    public void testEventIdOfEachReplayedMessage() throws Exception {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ServletResponse resp = Mockito.mock(HttpServletResponse.class);
+        Mockito.when(resp.getOutputStream()).thenReturn(new ServletOutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                baos.write(b);
+            }
+            @Override
+            public void write(byte[] b) throws IOException {
+                write(b, 0, b.length);
+            }
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                // The client disconnects while the third message is written.
+                if (new String(b, off, len).contains("m3")) {
+                    throw new IOException("Connection reset by peer");
+                }
+                baos.write(b, off, len);
+            }
+        });
+
+        AtmosphereRequest request = AtmosphereRequestImpl.newInstance();
+        request.header(HeaderConfig.X_ATMOSPHERE_TRANSPORT, "SSE");
+        AtmosphereResponse response = AtmosphereResponseImpl.newInstance(request);
+        response.request(request);
+        response.setResponse(resp);
+        AtmosphereResourceImpl resource = new AtmosphereResourceImpl();
+        resource.initialize(framework.getAtmosphereConfig(),
+                framework.getBroadcasterFactory().get(),
+                request, response, Mockito.mock(AsyncSupport.class), null);
+        resource.suspend();
+
+        SSEAtmosphereInterceptor interceptor = new SSEAtmosphereInterceptor();
+        interceptor.configure(config);
+        interceptor.inspect(resource);
+
+        // Three cached messages replayed in a single event, as after a reconnect.
+        AtmosphereResourceEventImpl event = resource.getAtmosphereResourceEvent();
+        event.setMessage(new ArrayList<Object>(Arrays.asList("m1", "m2", "m3")));
+        event.sequences(new long[]{7, 8, 9});
+        try {
+            new AbstractReflectorAtmosphereHandler.Default().onStateChange(event);
+        } catch (IOException ex) {
+            // The write of m3 failed
+        }
+
+        // Every message has its own id. The event of m3 is never dispatched, so the client resumes from id 8 and gets m3.
+        assertEquals(baos.toString(), "id:7\r\ndata:m1\r\n\r\nid:8\r\ndata:m2\r\n\r\nid:9\r\ndata:");
+    }
 }
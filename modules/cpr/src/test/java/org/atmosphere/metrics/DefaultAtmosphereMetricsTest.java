@@ -0,0 +1,161 @@
+/*
+ * Copyright 2008-2021 Async-IO.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atmosphere.metrics;
+
+import org.atmosphere.container.BlockingIOCometSupport;
+import org.atmosphere.cpr.Action;
+import org.atmosphere.cpr.ApplicationConfig;
+import org.atmosphere.cpr.AsynchronousProcessor;
+import org.atmosphere.cpr.AtmosphereFramework;
+import org.atmosphere.cpr.AtmosphereHandler;
+import org.atmosphere.cpr.AtmosphereRequest;
+import org.atmosphere.cpr.AtmosphereRequestImpl;
+import org.atmosphere.cpr.AtmosphereResource;
+import org.atmosphere.cpr.AtmosphereResourceImpl;
+import org.atmosphere.cpr.AtmosphereResponse;
+import org.atmosphere.cpr.AtmosphereResponseImpl;
+import org.atmosphere.cpr.Broadcaster;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+
+import static org.mockito.Mockito.mock;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class DefaultAtmosphereMetricsTest {
+
+    private AtmosphereFramework framework;
+    private DefaultAtmosphereMetrics metrics;
+    private Broadcaster broadcaster;
+    private AtmosphereResource ar;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        framework = new AtmosphereFramework()
+                .addInitParameter(ApplicationConfig.METRICS, DefaultAtmosphereMetrics.class.getName())
+                .addInitParameter(ApplicationConfig.WEBSOCKET_SUPPRESS_JSR356, "true");
+        framework.addAtmosphereHandler("/*", mock(AtmosphereHandler.class));
+        framework.init();
+        metrics = (DefaultAtmosphereMetrics) framework.metrics();
+
+        broadcaster = framework.getBroadcasterFactory().get("/metrics");
+        ar = new AtmosphereResourceImpl(framework.getAtmosphereConfig(),
+                broadcaster,
+                AtmosphereRequestImpl.newInstance(),
+                AtmosphereResponseImpl.newInstance(),
+                mock(BlockingIOCometSupport.class),
+                mock(AtmosphereHandler.class));
+        broadcaster.addAtmosphereResource(ar);
+    }
+
+    @AfterMethod
+    public void unSetUp() throws Exception {
+        framework.destroy();
+    }
+
+    @Test
+    public void testBroadcast() throws Exception {
+        broadcaster.broadcast("foo").get();
+        broadcaster.broadcast("bar").get();
+
+        BroadcasterMetricsMXBean b = metrics.broadcaster(broadcaster.getID());
+        assertEquals(b.getBroadcasts(), 2);
+        assertEquals(b.getDeliveries(), 2);
+        assertEquals(b.getResources(), 1);
+        assertTrue(b.getDeliveryLatencyMax() >= b.getDeliveryLatencyMedian());
+        assertEquals(metrics.framework().getDeliveries(), 2);
+        assertEquals(metrics.framework().getBroadcasters(), framework.getBroadcasterFactory().lookupAll().size());
+    }
+
+    @Test
+    public void testMBeans() throws Exception {
+        broadcaster.broadcast("foo").get();
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = broadcasterName(server);
+        assertEquals(server.getAttribute(name, "Deliveries"), 1L);
+        assertEquals(server.queryNames(new ObjectName(DefaultAtmosphereMetrics.DOMAIN + ":type=AtmosphereFramework,*"), null).size(), 1);
+
+        broadcaster.destroy();
+        assertNull(metrics.broadcaster(broadcaster.getID()));
+        assertNull(broadcasterName(server));
+
+        framework.destroy();
+        assertTrue(server.queryNames(new ObjectName(DefaultAtmosphereMetrics.DOMAIN + ":*"), null).isEmpty());
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        AsynchronousProcessor processor = new AsynchronousProcessor(framework.getAtmosphereConfig()) {
+            @Override
+            public Action service(AtmosphereRequest req, AtmosphereResponse res) throws IOException, ServletException {
+                return Action.CONTINUE;
+            }
+        };
+        processor.completeLifecycle(ar, false);
+
+        assertEquals(metrics.framework().getTimeouts(), 1);
+    }
+
+    @Test
+    public void testHistogram() {
+        Histogram h = new Histogram();
+        for (int i = 1; i <= 10000; i++) {
+            h.record(i);
+        }
+
+        assertEquals(h.count(), 10000);
+        assertEquals(h.max(), 10000);
+        assertEquals(h.mean(), 5000.5, 0.001);
+        assertWithin(h.percentile(50), 5000);
+        assertWithin(h.percentile(99), 9900);
+        assertEquals(h.percentile(100), 10000);
+        assertEquals(new Histogram().percentile(99), 0);
+    }
+
+    @Test
+    public void testHistogramBuckets() {
+        for (long v = 0; v < 1 << 20; v++) {
+            int index = Histogram.index(v);
+            assertTrue(Histogram.highestValue(index) >= v);
+            assertTrue(index == 0 || Histogram.highestValue(index - 1) < v);
+        }
+        assertEquals(Histogram.index(Long.MAX_VALUE), Histogram.index(1L << 40));
+    }
+
+    private static void assertWithin(long value, long expected) {
+        assertTrue(value >= expected && value <= expected + expected / Histogram.SUB_BUCKETS, value + " is not " + expected);
+    }
+
+    private ObjectName broadcasterName(MBeanServer server) throws Exception {
+        Set<ObjectName> names = server.queryNames(new ObjectName(DefaultAtmosphereMetrics.DOMAIN + ":type=Broadcaster,*"), null);
+        for (ObjectName n : names) {
+            if (ObjectName.unquote(n.getKeyProperty("name")).equals(broadcaster.getID())) {
+                return n;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2008-2021 Async-IO.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atmosphere.util;
+
+import org.atmosphere.cpr.AtmosphereResource;
+import org.testng.annotations.Test;
+
+import java.util.Iterator;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class AtmosphereResourceIndexTest {
+
+    private AtmosphereResource resource(String uuid) {
+        AtmosphereResource r = mock(AtmosphereResource.class);
+        when(r.uuid()).thenReturn(uuid);
+        return r;
+    }
+
+    @Test
+    public void testAddRemoveAndSize() {
+        AtmosphereResourceIndex index = new AtmosphereResourceIndex();
+        AtmosphereResource a = resource("a");
+        AtmosphereResource b = resource("b");
+
+        index.add(a);
+        index.add(b);
+        index.add(a);
+        assertEquals(index.size(), 2);
+        assertTrue(index.contains(a));
+        assertSame(index.find("b"), b);
+
+        assertTrue(index.remove(a));
+        assertFalse(index.remove(a));
+        assertFalse(index.contains(a));
+        assertEquals(index.size(), 1);
+
+        index.clear();
+        assertTrue(index.isEmpty());
+    }
+
+    @Test
+    public void testPollReturnsOldest() {
+        AtmosphereResourceIndex index = new AtmosphereResourceIndex();
+        AtmosphereResource a = resource("a");
+        AtmosphereResource b = resource("b");
+        AtmosphereResource c = resource("c");
+        index.add(b);
+        index.add(c);
+        index.add(a);
+
+        assertSame(index.poll(), b);
+        assertSame(index.poll(), c);
+        assertSame(index.poll(), a);
+        assertNull(index.poll());
+        assertEquals(index.size(), 0);
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        AtmosphereResourceIndex index = new AtmosphereResourceIndex();
+        for (int i = 0; i < 10; i++) {
+            index.add(resource(String.valueOf(i)));
+        }
+
+        Iterator<AtmosphereResource> i = index.iterator();
+        while (i.hasNext()) {
+            if (Integer.parseInt(i.next().uuid()) % 2 == 0) {
+                i.remove();
+            }
+        }
+        assertEquals(index.size(), 5);
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2008-2021 Async-IO.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atmosphere.util;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+public class CompiledEndpointMapperTest {
+
+    private final String[] mappings = {
+            "/", "/chat", "/chat/*", "/chat/{room}", "/chat/{room}/{user}", "/chat/{room}/messages",
+            "/a/b/c", "/a/{b}/c", "/a/all", "/files/{path: .*}", "/v{version}/api", "/{any}/static/*",
+            "/x+", "/y/[ab]"
+    };
+
+    private final String[] paths = {
+            "/", "/chat", "/chat/", "/chat/room1", "/chat/room1/", "/chat/room1/bob", "/chat/room1/messages",
+            "/chat/room1/bob/extra", "/a/b/c", "/a/x/c", "/a/x/y", "/a", "/files/x/y/z", "/v2/api", "/v2/api/z",
+            "/foo/static/", "/foo/static/x", "/unknown/path", "", "/chat//", "/x", "/xx/y", "/y/a", "/y/c"
+    };
+
+    private Map<String, String> handlers;
+
+    @BeforeMethod
+    public void setUp() {
+        handlers = new ConcurrentHashMap<String, String>();
+        for (String m : mappings) {
+            handlers.put(m, m);
+        }
+    }
+
+    @Test
+    public void testSameMappingAsDefault() {
+        DefaultEndpointMapper<String> reference = new DefaultEndpointMapper<String>();
+        CompiledEndpointMapper<String> compiled = new CompiledEndpointMapper<String>();
+
+        for (String p : paths) {
+            assertEquals(compiled.map(p, handlers), reference.map(p, handlers), "Mapping of " + p);
+        }
+    }
+
+    @Test
+    public void testTemplateMatch() {
+        CompiledEndpointMapper<String> compiled = new CompiledEndpointMapper<String>();
+
+        assertEquals(compiled.map("/a/x/c", handlers), "/a/{b}/c");
+        assertEquals(compiled.map("/files/x/y/z", handlers), "/files/{path: .*}");
+        assertEquals(compiled.map("/v2/api", handlers), "/v{version}/api");
+    }
+
+    @Test
+    public void testWildcardMatch() {
+        CompiledEndpointMapper<String> compiled = new CompiledEndpointMapper<String>();
+        handlers.clear();
+        handlers.put("/chat/*", "chat");
+
+        assertEquals(compiled.map("/chat", handlers), "chat");
+        assertEquals(compiled.map("/chat/", handlers), "chat");
+        assertEquals(compiled.map("/chat/room1", handlers), "chat");
+        assertNull(compiled.map("/other", handlers));
+    }
+
+    @Test
+    public void testMappingsChange() {
+        CompiledEndpointMapper<String> compiled = new CompiledEndpointMapper<String>();
+        handlers.clear();
+        handlers.put("/users/{id}", "users");
+
+        assertEquals(compiled.map("/users/1", handlers), "users");
+        assertNull(compiled.map("/groups/1", handlers));
+
+        handlers.put("/groups/{id}", "groups");
+        assertEquals(compiled.map("/groups/1", handlers), "groups");
+
+        handlers.remove("/users/{id}");
+        assertNull(compiled.map("/users/1", handlers));
+    }
+
+    @Test
+    public void testInvalidate() {
+        CompiledEndpointMapper<String> compiled = new CompiledEndpointMapper<String>();
+        handlers.clear();
+        handlers.put("/users/{id}", "users");
+        assertEquals(compiled.map("/users/1", handlers), "users");
+
+        // Same number of mappings
+        handlers.remove("/users/{id}");
+        handlers.put("/groups/{id}", "groups");
+        assertNull(compiled.map("/users/1", handlers));
+
+        compiled.invalidate();
+        assertEquals(compiled.map("/groups/1", handlers), "groups");
+    }
+}
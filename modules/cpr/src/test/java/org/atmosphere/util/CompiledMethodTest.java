@@ -0,0 +1,109 @@
+/*
+ * Copyright 2008-2021 Async-IO.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atmosphere.util;
+
+import org.testng.annotations.Test;
+
+import java.lang.reflect.InvocationTargetException;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class CompiledMethodTest {
+
+    @Test
+    public void testInvoke() throws Exception {
+        Service s = new Service();
+
+        assertEquals(compile("ready").invoke(s), "ready");
+        assertEquals(compile("message", String.class).invoke(s, "a"), "a!");
+        assertEquals(compile("both", Object.class, String.class).invoke(s, 1, "a"), "1a");
+        assertEquals(compile("count", int.class).invoke(s, 2), 3);
+        assertNull(compile("disconnect", String.class).invoke(s, "a"));
+        assertEquals(s.disconnected, "a");
+        assertEquals(compile("message", String.class).arity(), 1);
+    }
+
+    @Test
+    public void testNull() throws Exception {
+        assertNull(CompiledMethod.compile(null));
+        assertEquals(compile("message", String.class).invoke(new Service(), null), "null!");
+    }
+
+    @Test
+    public void testException() throws Exception {
+        try {
+            compile("fail").invoke(new Service());
+            fail();
+        } catch (InvocationTargetException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void testIllegalArgument() throws Exception {
+        CompiledMethod count = compile("count", int.class);
+        for (Object arg : new Object[]{null, "1"}) {
+            try {
+                count.invoke(new Service(), arg);
+                fail();
+            } catch (IllegalArgumentException e) {
+                // Same as reflection
+            }
+        }
+
+        try {
+            count.invoke(new Service(), 1, 2);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // Same as reflection
+        }
+    }
+
+    private static CompiledMethod compile(String name, Class<?>... parameterTypes) throws NoSuchMethodException {
+        return CompiledMethod.compile(Service.class.getMethod(name, parameterTypes));
+    }
+
+    public final static class Service {
+        String disconnected;
+
+        public String ready() {
+            return "ready";
+        }
+
+        public String message(String m) {
+            return m + "!";
+        }
+
+        public String both(Object o, String m) {
+            return o + m;
+        }
+
+        public int count(int i) {
+            return i + 1;
+        }
+
+        public void disconnect(String m) {
+            disconnected = m;
+        }
+
+        public void fail() {
+            throw new IllegalStateException();
+        }
+    }
+}
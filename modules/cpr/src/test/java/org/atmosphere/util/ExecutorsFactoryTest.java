@@ -0,0 +1,102 @@
+/*
+ * Copyright 2008-2021 Async-IO.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atmosphere.util;
+
+import org.atmosphere.cpr.AtmosphereConfig;
+import org.atmosphere.cpr.AtmosphereFramework;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.atmosphere.cpr.ApplicationConfig.USE_FORJOINPOOL;
+import static org.atmosphere.cpr.ApplicationConfig.USE_VIRTUAL_THREADS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class ExecutorsFactoryTest {
+
+    private final ExecutorsFactory.VirtualThreads original = ExecutorsFactory.virtualThreads;
+    private final List<ExecutorService> executors = new ArrayList<ExecutorService>();
+    private AtmosphereConfig config;
+
+    @BeforeMethod
+    public void setUp() {
+        AtmosphereFramework framework = mock(AtmosphereFramework.class);
+        when(framework.isShareExecutorServices()).thenReturn(false);
+
+        config = mock(AtmosphereConfig.class);
+        when(config.framework()).thenReturn(framework);
+        when(config.properties()).thenReturn(new HashMap<String, Object>());
+        when(config.getInitParameter(USE_VIRTUAL_THREADS, false)).thenReturn(true);
+        when(config.getInitParameter(USE_FORJOINPOOL, true)).thenReturn(false);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        ExecutorsFactory.virtualThreads = original;
+        for (ExecutorService e : executors) {
+            e.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testUnsupportedVirtualThreads() throws Exception {
+        ExecutorsFactory.virtualThreads = new ExecutorsFactory.VirtualThreads(null, null, null, null);
+
+        assertFalse(ExecutorsFactory.virtualThreadsSupported());
+        assertPlatformThreads(ExecutorsFactory.getMessageDispatcher(config, "test"));
+        assertPlatformThreads(ExecutorsFactory.getAsyncOperationExecutor(config, "test"));
+    }
+
+    @Test
+    public void testBrokenVirtualThreads() throws Exception {
+        ExecutorsFactory.virtualThreads = new ExecutorsFactory.VirtualThreads(Thread.class.getMethod("currentThread"), null, null, null) {
+            @Override
+            ExecutorService newExecutor(String name) throws Exception {
+                throw new NoSuchMethodException("newThreadPerTaskExecutor");
+            }
+        };
+
+        assertTrue(ExecutorsFactory.virtualThreadsSupported());
+        assertPlatformThreads(ExecutorsFactory.getMessageDispatcher(config, "test"));
+        assertPlatformThreads(ExecutorsFactory.getAsyncOperationExecutor(config, "test"));
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void testNewVirtualThreadExecutorWhenUnsupported() {
+        ExecutorsFactory.virtualThreads = new ExecutorsFactory.VirtualThreads(null, null, null, null);
+
+        ExecutorsFactory.newVirtualThreadExecutor(false, "test");
+    }
+
+    private void assertPlatformThreads(ExecutorService e) throws Exception {
+        executors.add(e);
+        assertTrue(e instanceof ThreadPoolExecutor, e.getClass().getName());
+
+        Thread t = e.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+        assertEquals(t.getClass(), Thread.class);
+    }
+}
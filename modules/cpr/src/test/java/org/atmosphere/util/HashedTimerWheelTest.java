@@ -0,0 +1,126 @@
+/*
+ * Copyright 2008-2021 Async-IO.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atmosphere.util;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class HashedTimerWheelTest {
+
+    private HashedTimerWheel wheel;
+
+    @BeforeMethod
+    public void setUp() {
+        wheel = new HashedTimerWheel(10, TimeUnit.MILLISECONDS, 8, Executors.newCachedThreadPool(), true);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        wheel.stop();
+    }
+
+    @Test
+    public void testExpire() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        long start = System.nanoTime();
+
+        HashedTimerWheel.Timeout t = wheel.schedule(new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        }, 200, TimeUnit.MILLISECONDS);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 200);
+        assertTrue(t.isExpired());
+        assertEquals(wheel.pending(), 0);
+    }
+
+    @Test
+    public void testCancel() throws InterruptedException {
+        final AtomicInteger count = new AtomicInteger();
+
+        HashedTimerWheel.Timeout t = wheel.schedule(new Runnable() {
+            @Override
+            public void run() {
+                count.incrementAndGet();
+            }
+        }, 50, TimeUnit.MILLISECONDS);
+
+        assertEquals(wheel.pending(), 1);
+        assertTrue(t.cancel());
+        assertFalse(t.cancel());
+        assertFalse(t.touch());
+        assertEquals(wheel.pending(), 0);
+
+        Thread.sleep(200);
+        assertEquals(count.get(), 0);
+        assertTrue(t.isCancelled());
+    }
+
+    @Test
+    public void testTouch() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        long start = System.nanoTime();
+
+        HashedTimerWheel.Timeout t = wheel.schedule(new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        }, 100, TimeUnit.MILLISECONDS);
+
+        for (int i = 0; i < 5; i++) {
+            Thread.sleep(50);
+            assertTrue(t.touch());
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 350);
+    }
+
+    @Test
+    public void testManyTimeouts() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(10000);
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        };
+
+        for (int i = 0; i < 20000; i++) {
+            HashedTimerWheel.Timeout t = wheel.schedule(task, i % 300, TimeUnit.MILLISECONDS);
+            if (i % 2 == 0) {
+                t.cancel();
+            }
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(wheel.pending(), 0);
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2008-2021 Async-IO.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atmosphere.util.annotation;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class AnnotationDetectorTest {
+
+    private File testClasses;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        testClasses = new File(getClass().getProtectionDomain().getCodeSource().getLocation().toURI());
+    }
+
+    @Test
+    public void testParallelReportsInSameOrder() throws Exception {
+        Reporter sequential = new Reporter();
+        new AnnotationDetector(sequential).detect(testClasses);
+
+        Reporter parallel = new Reporter();
+        new AnnotationDetector(parallel).parallelism(4).detect(testClasses);
+
+        assertTrue(sequential.reports.contains("M org.atmosphere.util.annotation.AnnotationDetectorTest testParallelReportsInSameOrder"));
+        assertEquals(parallel.reports, sequential.reports);
+    }
+
+    @Test
+    public void testUnknownFile() throws Exception {
+        Reporter parallel = new Reporter();
+        new AnnotationDetector(parallel).parallelism(4).detect(new File(testClasses, "unknown"), testClasses);
+
+        Reporter sequential = new Reporter();
+        new AnnotationDetector(sequential).detect(new File(testClasses, "unknown"), testClasses);
+
+        assertEquals(parallel.reports, sequential.reports);
+    }
+
+    private final static class Reporter implements AnnotationDetector.TypeReporter, AnnotationDetector.MethodReporter {
+        private final List<String> reports = new ArrayList<String>();
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public Class<? extends Annotation>[] annotations() {
+            return new Class[]{Test.class, BeforeMethod.class};
+        }
+
+        @Override
+        public void reportTypeAnnotation(Class<? extends Annotation> annotation, String className) {
+            reports.add("T " + className);
+        }
+
+        @Override
+        public void reportMethodAnnotation(Class<? extends Annotation> annotation, String className, String methodName) {
+            reports.add("M " + className + " " + methodName);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2008-2021 Async-IO.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atmosphere.websocket;
+
+import org.testng.annotations.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+public class WebSocketBufferPoolTest {
+
+    @Test
+    public void reuseReleasedBuffer() {
+        WebSocketBufferPool pool = new WebSocketBufferPool(8192, 2097152, 1024 * 1024);
+        ByteBuffer bb = pool.byteBuffer(0);
+        assertEquals(bb.capacity(), 8192);
+        assertEquals(pool.getBorrowedBytes(), 8192);
+
+        bb.put((byte) 1);
+        pool.release(bb);
+        assertEquals(pool.getBorrowedBytes(), 0);
+        assertEquals(pool.getPooledBytes(), 8192);
+
+        ByteBuffer reused = pool.byteBuffer(100);
+        assertSame(reused, bb);
+        assertEquals(reused.position(), 0);
+        assertEquals(pool.getHits(), 1);
+        assertEquals(pool.getMisses(), 1);
+        assertEquals(pool.getHitRate(), 0.5);
+    }
+
+    @Test
+    public void sizeClasses() {
+        WebSocketBufferPool pool = new WebSocketBufferPool(8192, 20000, 1024 * 1024);
+        assertEquals(pool.byteBuffer(8193).capacity(), 16384);
+        assertEquals(pool.byteBuffer(16385).capacity(), 20000);
+        assertEquals(pool.charBuffer(0).capacity(), 8192);
+        assertEquals(pool.getBorrowedBytes(), 16384 + 20000 + 8192 * 2);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void tooLarge() {
+        new WebSocketBufferPool(8192, 20000, 1024 * 1024).byteBuffer(20001);
+    }
+
+    @Test
+    public void bounded() {
+        WebSocketBufferPool pool = new WebSocketBufferPool(8192, 2097152, 16384);
+        CharBuffer cb = pool.charBuffer(0);
+        ByteBuffer bb = pool.byteBuffer(0);
+        pool.release(cb);
+        pool.release(bb);
+
+        assertEquals(pool.getPooledBytes(), 16384);
+        assertEquals(pool.getDiscards(), 1);
+    }
+}